@@ -0,0 +1,105 @@
+package com.minecrafttas.tasmod.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+
+/**
+ * <p>Measures how many keyboards per millisecond are serialised to and deserialised from the lines of a TASfile.
+ *
+ * <p>Both directions translate between keycodes and keynames for every pressed key,<br>
+ * so the keyboards press keys from the start, the middle and the end of {@link VirtualKey}.
+ *
+ * @author Scribble
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyboardSerialiserBenchmark {
+
+	private static final int KEYBOARDS = 1000;
+
+	private static final VirtualKey[] KEYS = { VirtualKey.W, VirtualKey.LSHIFT, VirtualKey.SPACE, VirtualKey.NUMPAD5, VirtualKey.F11, VirtualKey.RCONTROL, VirtualKey.DELETE };
+
+	private VirtualKeyboard[] keyboards;
+
+	private List<List<String>> serialisedKeyboards;
+
+	private KeyboardFlavor flavor;
+
+	@Setup
+	public void setup() {
+		flavor = new KeyboardFlavor();
+		keyboards = new VirtualKeyboard[KEYBOARDS];
+		serialisedKeyboards = new ArrayList<>();
+		for (int i = 0; i < KEYBOARDS; i++) {
+			VirtualKeyboard keyboard = new VirtualKeyboard();
+			for (int j = 0; j <= i % KEYS.length; j++) {
+				keyboard.updateFromEvent(KEYS[(i + j) % KEYS.length], true, j == 0 ? 'w' : Character.MIN_VALUE);
+			}
+			if (i % 2 == 0) {
+				keyboard.updateFromEvent(KEYS[i % KEYS.length], false, Character.MIN_VALUE);
+			}
+			keyboards[i] = keyboard;
+			serialisedKeyboards.add(flavor.serialiseKeyboard(keyboard));
+		}
+	}
+
+	/**
+	 * Serialises the keyboards to lines with keynames
+	 */
+	@Benchmark
+	@OperationsPerInvocation(KEYBOARDS)
+	public void serialise(Blackhole blackhole) {
+		for (VirtualKeyboard keyboard : keyboards) {
+			blackhole.consume(flavor.serialiseKeyboard(keyboard));
+		}
+	}
+
+	/**
+	 * Deserialises the keyboards from lines with keynames
+	 */
+	@Benchmark
+	@OperationsPerInvocation(KEYBOARDS)
+	public void deserialise(Blackhole blackhole) {
+		for (List<String> lines : serialisedKeyboards) {
+			blackhole.consume(flavor.deserialiseKeyboard(lines));
+		}
+	}
+
+	/**
+	 * Makes the keyboard serialisation of the flavor accessible to the benchmark
+	 */
+	private static class KeyboardFlavor extends Beta1Flavor {
+
+		@Override
+		protected List<String> serialiseKeyboard(VirtualKeyboard keyboard) {
+			return super.serialiseKeyboard(keyboard);
+		}
+
+		@Override
+		protected VirtualKeyboard deserialiseKeyboard(List<String> keyboardStrings) {
+			return super.deserialiseKeyboard(keyboardStrings);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.minecrafttas.tasmod.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>Measures the text serialisation and deserialisation of the {@link SerialiserFlavorBase}.
+ *
+ * <p>Every invocation serialises or deserialises {@link #TICKS} ticks, so the results are per tick.<br>
+ * Run with <code>gradlew jmh</code>, which enables the gc profiler.<br>
+ * The bytes allocated per tick are reported as "gc.alloc.rate.norm".
+ *
+ * @author Scribble
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialiserBenchmark {
+
+	private static final int TICKS = 10000;
+
+	private BigArrayList<TickContainer> inputs;
+
+	private List<TickContainer> inputList;
+
+	private SerialiserFlavorBase flavor;
+
+	private List<String> lines = new ArrayList<>();
+
+	/**
+	 * The serialised {@link #inputs}, which are read by {@link #deserialise(Blackhole)}
+	 */
+	private BigArrayList<String> serialised;
+
+	private Writer writer = new NullWriter();
+
+	@Setup
+	public void setup() {
+		inputs = new BigArrayList<>();
+		inputList = new ArrayList<>();
+		for (int i = 0; i < TICKS; i++) {
+			VirtualKeyboard keyboard = new VirtualKeyboard();
+			keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+			if (i % 3 == 0) {
+				keyboard.updateFromEvent(VirtualKey.LCONTROL, true, Character.MIN_VALUE);
+			}
+
+			VirtualMouse mouse = new VirtualMouse();
+			mouse.updateFromEvent(VirtualKey.LC, i % 2 == 0, 0, i % 1000, 500);
+
+			VirtualCameraAngle camera = new VirtualCameraAngle(0f, 0f, true);
+			camera.updateFromEvent(i % 90, i % 360);
+			if (i % 4 == 0) {
+				camera.updateFromEvent(1, 1);
+			}
+
+			TickContainer container = new TickContainer(keyboard, mouse, camera);
+			inputs.add(container);
+			inputList.add(container);
+		}
+		flavor = new Beta1Flavor();
+		serialised = flavor.serialise(inputs, -1);
+	}
+
+	/**
+	 * Serialises the ticks to a writer, like when saving a TASfile
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TICKS)
+	public void serialiseToWriter() throws IOException {
+		flavor.serialise(inputs, -1, writer);
+	}
+
+	/**
+	 * Serialises the ticks one by one, like when appending them to the journal while recording
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TICKS)
+	public void serialiseNext(Blackhole blackhole) {
+		for (int i = 0; i < TICKS; i++) {
+			lines.clear();
+			flavor.serialiseNext(i, inputList.get(i), lines);
+			blackhole.consume(lines);
+		}
+	}
+
+	/**
+	 * Deserialises the lines of the ticks, like when loading a TASfile.<br>
+	 * Every line passes through the line classification, so this also measures detecting ticks, subticks and comments
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TICKS)
+	public void deserialise(Blackhole blackhole) throws IOException {
+		BigArrayList<TickContainer> ticks = flavor.deserialise(serialised, 0);
+		blackhole.consume(ticks);
+		ticks.clearMemory();
+	}
+
+	/**
+	 * A writer that discards everything, so only the serialisation is measured
+	 */
+	private static class NullWriter extends Writer {
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.minecrafttas.tasmod.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>Measures how fast a {@link BigArrayList} swaps a recording of {@link #TICKS} ticks to its temporary files and reads it back.
+ *
+ * <p>The list only keeps {@link #CACHE_BLOCKS} blocks of {@link #BLOCK_SIZE} ticks in memory,<br>
+ * so almost every block is serialised when it is written and deserialised when it is read.<br>
+ * The results are per tick.
+ *
+ * <p>The ticks are taken from {@link #BLOCK_SIZE} different objects, as a tick that appears twice in a block would only be written once.
+ *
+ * @author Scribble
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickSwapBenchmark {
+
+	private static final int TICKS = 1000000;
+
+	private static final int BLOCK_SIZE = 10000;
+
+	private static final int CACHE_BLOCKS = 2;
+
+	private TickContainer[] ticks;
+
+	private Path directory;
+
+	/**
+	 * The list that is read by {@link #pageIn(Blackhole)}
+	 */
+	private BigArrayList<TickContainer> recording;
+
+	/**
+	 * The list that is written by {@link #pageOut()}
+	 */
+	private BigArrayList<TickContainer> target;
+
+	@Setup
+	public void setup() throws IOException {
+		ticks = new TickContainer[BLOCK_SIZE];
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			VirtualKeyboard keyboard = new VirtualKeyboard();
+			keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+			if (i % 3 == 0) {
+				keyboard.updateFromEvent(VirtualKey.LCONTROL, true, Character.MIN_VALUE);
+			}
+
+			VirtualMouse mouse = new VirtualMouse();
+			mouse.updateFromEvent(VirtualKey.LC, i % 2 == 0, 0, i % 1000, 500);
+
+			VirtualCameraAngle camera = new VirtualCameraAngle(0f, 0f, true);
+			camera.updateFromEvent(i % 90, i % 360);
+
+			CommentContainer comments = new CommentContainer();
+			if (i % 100 == 0) {
+				comments.addInlineComment("Tick " + i);
+			}
+			ticks[i] = new TickContainer(keyboard, mouse, camera, comments);
+		}
+
+		directory = Files.createTempDirectory("tasmod-benchmark");
+		recording = newList();
+		for (int i = 0; i < TICKS; i++) {
+			recording.add(ticks[i % BLOCK_SIZE]);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		target = newList();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() throws IOException {
+		target.clearMemory();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		recording.clearMemory();
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+
+	/**
+	 * Adds the ticks to an empty list, like when recording
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TICKS)
+	public void pageOut() {
+		for (int i = 0; i < TICKS; i++) {
+			target.add(ticks[i % BLOCK_SIZE]);
+		}
+	}
+
+	/**
+	 * Reads the ticks of a list in order, like when playing back
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TICKS)
+	public void pageIn(Blackhole blackhole) {
+		for (long i = 0; i < TICKS; i++) {
+			blackhole.consume(recording.get(i));
+		}
+	}
+
+	private BigArrayList<TickContainer> newList() {
+		return new BigArrayList<>(BLOCK_SIZE, CACHE_BLOCKS, directory.toAbsolutePath().toString());
+	}
+}
@@ -12,10 +12,12 @@
 import com.minecrafttas.mctcommon.networking.PacketHandlerRegistry;
 import com.minecrafttas.mctcommon.networking.Server;
 import com.minecrafttas.tasmod.commands.CommandClearInputs;
+import com.minecrafttas.tasmod.commands.CommandConvert;
 import com.minecrafttas.tasmod.commands.CommandFileCommand;
 import com.minecrafttas.tasmod.commands.CommandFolder;
 import com.minecrafttas.tasmod.commands.CommandFullPlay;
 import com.minecrafttas.tasmod.commands.CommandFullRecord;
+import com.minecrafttas.tasmod.commands.CommandLint;
 import com.minecrafttas.tasmod.commands.CommandLoadTAS;
 import com.minecrafttas.tasmod.commands.CommandPlay;
 import com.minecrafttas.tasmod.commands.CommandPlayUntil;
@@ -138,6 +140,8 @@ public void onServerInit(MinecraftServer server) {
 		CommandRegistry.registerServerCommand(new CommandFullPlay(), server);
 		CommandRegistry.registerServerCommand(new CommandRestartAndPlay(), server);
 		CommandRegistry.registerServerCommand(new CommandPlayUntil(), server);
+		CommandRegistry.registerServerCommand(new CommandConvert(), server);
+		CommandRegistry.registerServerCommand(new CommandLint(), server);
 		CommandRegistry.registerServerCommand(commandFileCommand, server);
 
 		savestateHandlerServer = new SavestateHandlerServer(server, LOGGER);
@@ -30,7 +30,9 @@
 import com.minecrafttas.tasmod.playback.filecommands.integrated.OptionsFileCommandExtension;
 import com.minecrafttas.tasmod.playback.metadata.integrated.CreditsMetadataExtension;
 import com.minecrafttas.tasmod.playback.metadata.integrated.StartpositionMetadataExtension;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
 import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.BinaryFlavor;
 import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
 import com.minecrafttas.tasmod.registries.TASmodConfig;
 import com.minecrafttas.tasmod.registries.TASmodKeybinds;
@@ -313,8 +315,11 @@ private void registerPlaybackMetadata(Minecraft mc) {
 
 	public static Beta1Flavor betaFlavor = new Beta1Flavor();
 
+	public static BinaryFlavor binaryFlavor = new BinaryFlavor();
+
 	private void registerSerialiserFlavors(Minecraft mc) {
 		TASmodAPIRegistry.SERIALISER_FLAVOR.register(betaFlavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(binaryFlavor);
 	}
 
 	public static DesyncMonitorFileCommandExtension desyncMonitorFileCommandExtension;
@@ -347,5 +352,13 @@ private void loadConfig(Minecraft mc) {
 		config = new Configuration("TASmod configuration", configDir.resolve("tasmod.cfg"), CONFIG_REGISTRY);
 		config.loadFromXML();
 		config.saveToXML();
+
+		PlaybackSerialiser.setParallelLoading(config.getBoolean(TASmodConfig.ParallelLoading));
+		PlaybackSerialiser.setWriteIndex(config.getBoolean(TASmodConfig.WriteTASfileIndex));
+		PlaybackSerialiser.setLazyLoading(config.getBoolean(TASmodConfig.LazyLoading));
+		controller.setReadAhead(config.getInt(TASmodConfig.LazyReadAhead));
+		controller.setJournaling(config.getBoolean(TASmodConfig.JournalRecording));
+		controller.setColumnarInputs(config.getBoolean(TASmodConfig.ColumnarInputs));
+		controller.setMappedInputs(config.getBoolean(TASmodConfig.MappedInputs));
 	}
 }
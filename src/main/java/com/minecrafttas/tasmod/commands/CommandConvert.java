@@ -0,0 +1,162 @@
+package com.minecrafttas.tasmod.commands;
+
+import static com.minecrafttas.tasmod.TASmod.LOGGER;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import com.minecrafttas.tasmod.TASmod;
+import com.minecrafttas.tasmod.TASmodClient;
+import com.minecrafttas.tasmod.networking.TASmodBufferBuilder;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileConverter;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileConverter.Result;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileConverter.Status;
+import com.minecrafttas.tasmod.registries.TASmodPackets;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+
+/**
+ * <p>Converts or validates every TASfile in a folder of the tasfiles directory, using the {@link TASfileConverter}.
+ *
+ * <p>The folders are relative to the tasfiles directory of the client.<br>
+ * The conversion runs on a separate thread and doesn't change the loaded inputs.
+ *
+ * @author Scribble
+ */
+public class CommandConvert extends CommandBase {
+
+	/**
+	 * The amount of failed TASfiles that are printed to the chat. The others are only logged
+	 */
+	private static final int MAX_PRINTED_FAILURES = 10;
+
+	@Override
+	public String getName() {
+		return "convert";
+	}
+
+	@Override
+	public String getUsage(ICommandSender sender) {
+		return "/convert <folder> <targetfolder> [flavor] or /convert " + TASfileConverter.VALIDATE_FLAG + " <folder>";
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+		if (!(sender instanceof EntityPlayerMP)) {
+			return;
+		}
+		if (!sender.canUseCommand(2, "convert")) {
+			sender.sendMessage(new TextComponentString(TextFormatting.RED + "You have no permission to use this command"));
+			return;
+		}
+
+		String source;
+		String target = "";
+		String flavor = "";
+		if (args.length == 2 && args[0].equalsIgnoreCase(TASfileConverter.VALIDATE_FLAG)) {
+			source = args[1];
+		} else if (args.length == 2 || args.length == 3) {
+			source = args[0];
+			target = args[1];
+			if (args.length == 3) {
+				flavor = args[2];
+			}
+		} else {
+			sender.sendMessage(new TextComponentString(TextFormatting.RED + "Wrong usage, " + getUsage(sender)));
+			return;
+		}
+
+		try {
+			TASmod.server.sendTo((EntityPlayerMP) sender, new TASmodBufferBuilder(TASmodPackets.TASFILE_CONVERT).writeString(source).writeString(target).writeString(flavor));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		if (args.length == 1) {
+			return getListOfStringsMatchingLastWord(args, TASfileConverter.VALIDATE_FLAG);
+		} else if (args.length == 3 && !args[0].equalsIgnoreCase(TASfileConverter.VALIDATE_FLAG)) {
+			try {
+				return getListOfStringsMatchingLastWord(args, TASmod.tabCompletionUtils.getFlavorList(getCommandSenderAsPlayer(sender).getName()));
+			} catch (TimeoutException e) {
+				sender.sendMessage(new TextComponentString(TextFormatting.RED + "Failed to fetch the flavor list after 2 seconds, something went wrong"));
+				TASmod.LOGGER.catching(e);
+			} catch (Exception e) {
+				sender.sendMessage(new TextComponentString(TextFormatting.RED + "Something went wrong with Tab Completions"));
+				TASmod.LOGGER.catching(e);
+			}
+		}
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	/**
+	 * Converts the TASfiles on the client on a new thread and prints the results to the chat
+	 *
+	 * @param sourceFolder The folder to convert, relative to the tasfiles directory
+	 * @param targetFolder The folder to write the converted TASfiles to, relative to the tasfiles directory. If empty, the TASfiles are only validated
+	 * @param flavor       The flavor to convert to. If empty, "beta1" is used
+	 */
+	public static void convertTASfiles(String sourceFolder, String targetFolder, String flavor) {
+		boolean validateOnly = targetFolder.isEmpty();
+		Path source = TASmodClient.tasfiledirectory.resolve(sourceFolder).normalize();
+		Path target = validateOnly ? null : TASmodClient.tasfiledirectory.resolve(targetFolder).normalize();
+
+		if (!source.startsWith(TASmodClient.tasfiledirectory) || (target != null && !target.startsWith(TASmodClient.tasfiledirectory))) {
+			printChatMessage(TextFormatting.RED + "The folders have to be in the tasfiles directory");
+			return;
+		}
+
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		TASfileConverter converter = new TASfileConverter(flavor.isEmpty() ? "beta1" : flavor, threads, validateOnly);
+
+		Thread thread = new Thread(() -> {
+			List<Result> results;
+			try {
+				results = converter.convert(source, target);
+			} catch (Exception e) {
+				printChatMessage(TextFormatting.RED + e.getMessage());
+				LOGGER.catching(e);
+				return;
+			}
+
+			int printed = 0;
+			for (Result result : results) {
+				if (result.getStatus() != Status.FAILED) {
+					continue;
+				}
+				LOGGER.warn(result);
+				if (printed++ < MAX_PRINTED_FAILURES) {
+					printChatMessage(TextFormatting.RED + TASmodClient.tasfiledirectory.relativize(result.getFile()).toString() + ": " + result.getMessage());
+				}
+			}
+			if (printed > MAX_PRINTED_FAILURES) {
+				printChatMessage(TextFormatting.RED + String.format("And %s more, see the log", printed - MAX_PRINTED_FAILURES));
+			}
+
+			String summary = TASfileConverter.getSummary(results);
+			LOGGER.info(summary);
+			printChatMessage((printed == 0 ? TextFormatting.GREEN : TextFormatting.YELLOW) + summary);
+		}, "TASmod Converter");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private static void printChatMessage(String message) {
+		Minecraft mc = Minecraft.getMinecraft();
+		mc.addScheduledTask(() -> {
+			if (mc.world != null)
+				mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(message));
+		});
+	}
+}
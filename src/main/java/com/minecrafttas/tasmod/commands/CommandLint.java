@@ -0,0 +1,120 @@
+package com.minecrafttas.tasmod.commands;
+
+import static com.minecrafttas.tasmod.TASmod.LOGGER;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import com.minecrafttas.tasmod.TASmod;
+import com.minecrafttas.tasmod.TASmodClient;
+import com.minecrafttas.tasmod.networking.TASmodBufferBuilder;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLinter;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.registries.TASmodPackets;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+
+/**
+ * Checks a TASfile of the client for errors with the {@link TASfileLinter}, without loading it
+ *
+ * @author Scribble
+ */
+public class CommandLint extends CommandBase {
+
+	/**
+	 * The amount of errors that are printed to the chat. The others are only logged
+	 */
+	private static final int MAX_PRINTED_ERRORS = 10;
+
+	@Override
+	public String getName() {
+		return "lint";
+	}
+
+	@Override
+	public String getUsage(ICommandSender sender) {
+		return "/lint <filename>";
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+		if (!(sender instanceof EntityPlayerMP)) {
+			return;
+		}
+		if (args.length != 1) {
+			sender.sendMessage(new TextComponentString(TextFormatting.RED + "Please add a filename, " + getUsage(sender)));
+			return;
+		}
+		try {
+			TASmod.server.sendTo((EntityPlayerMP) sender, new TASmodBufferBuilder(TASmodPackets.TASFILE_LINT).writeString(args[0]));
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		if (args.length == 1) {
+			try {
+				return getListOfStringsMatchingLastWord(args, TASmod.tabCompletionUtils.getTASfileList(getCommandSenderAsPlayer(sender).getName()));
+			} catch (TimeoutException e) {
+				sender.sendMessage(new TextComponentString(TextFormatting.RED + "Failed to fetch the file list after 2 seconds, something went wrong"));
+				TASmod.LOGGER.catching(e);
+			} catch (Exception e) {
+				sender.sendMessage(new TextComponentString(TextFormatting.RED + "Something went wrong with Tab Completions"));
+				TASmod.LOGGER.catching(e);
+			}
+		}
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	/**
+	 * Checks the TASfile on the linter thread and prints the errors to the chat
+	 *
+	 * @param name The name of the TASfile in the tasfiles directory
+	 */
+	public static void lintTASfile(String name) {
+		Path file = TASmodClient.controller.getTASfile(name);
+		TASfileLinter.lintAsync(file).whenComplete((errors, throwable) -> {
+			Minecraft mc = Minecraft.getMinecraft();
+			mc.addScheduledTask(() -> {
+				if (throwable != null) {
+					LOGGER.catching(throwable);
+					printChatMessage(mc, TextFormatting.RED + "Can't read " + file.getFileName());
+					return;
+				}
+
+				if (errors.isEmpty()) {
+					printChatMessage(mc, TextFormatting.GREEN + "Found no errors in " + file.getFileName());
+					return;
+				}
+
+				for (int i = 0; i < errors.size(); i++) {
+					PlaybackLoadException error = errors.get(i);
+					LOGGER.warn("{}: {}", file.getFileName(), error.getMessage());
+					if (i < MAX_PRINTED_ERRORS) {
+						printChatMessage(mc, TextFormatting.RED + error.getMessage());
+					}
+				}
+				if (errors.size() > MAX_PRINTED_ERRORS) {
+					printChatMessage(mc, TextFormatting.RED + String.format("And %s more, see the log", errors.size() - MAX_PRINTED_ERRORS));
+				}
+				printChatMessage(mc, TextFormatting.YELLOW + String.format("Found %s errors in %s", errors.size(), file.getFileName()));
+			});
+		});
+	}
+
+	private static void printChatMessage(Minecraft mc, String message) {
+		if (mc.world != null)
+			mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(message));
+	}
+}
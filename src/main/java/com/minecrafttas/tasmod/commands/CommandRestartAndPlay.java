@@ -86,7 +86,7 @@ public List<String> getFilenames() {
 		File[] listOfFiles = folder.listFiles(new FileFilter() {
 			@Override
 			public boolean accept(File pathname) {
-				return pathname.getName().endsWith(".mctas");
+				return pathname.getName().endsWith(".mctas") || pathname.getName().endsWith(".mctas.gz");
 			}
 		});
 		for (int i = 0; i < listOfFiles.length; i++) {
@@ -28,7 +28,7 @@ public String getName() {
 
 	@Override
 	public String getUsage(ICommandSender sender) {
-		return "/save <filename> [flavor]";
+		return "/save <filename>[.gz] [flavor]";
 	}
 
 	@Override
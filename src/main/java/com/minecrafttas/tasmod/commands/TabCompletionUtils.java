@@ -104,11 +104,11 @@ private List<String> getFilenames() {
 		File[] listOfFiles = folder.listFiles(new FileFilter() {
 			@Override
 			public boolean accept(File pathname) {
-				return pathname.getName().endsWith(".mctas");
+				return pathname.getName().endsWith(".mctas") || pathname.getName().endsWith(".mctas.gz");
 			}
 		});
 		for (int i = 0; i < listOfFiles.length; i++) {
-			tab.add(listOfFiles[i].getName().replaceFirst("\\.mctas$", ""));
+			tab.add(listOfFiles[i].getName().replaceFirst("\\.mctas(\\.gz)?$", "$1")); // Compressed TASfiles are listed as name.gz
 		}
 		return tab;
 	}
@@ -4,6 +4,7 @@
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TASstate;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLoadProgress;
 
 public interface EventPlaybackClient {
 
@@ -84,4 +85,19 @@ public interface EventRecordClear extends EventBase {
 		 */
 		public void onClear();
 	}
+
+	/**
+	 * Fired while a TASfile is loaded with {@link PlaybackControllerClient#loadAsync(java.nio.file.Path, String) PlaybackControllerClient#loadAsync}
+	 */
+	@FunctionalInterface
+	public interface EventLoadProgress extends EventBase {
+
+		/**
+		 * Fired in every game loop while a TASfile is loading, and once more after loading has ended
+		 * 
+		 * @param progress The progress of the TASfile that is loading
+		 * @param done     True if the TASfile was loaded, failed to load or was cancelled
+		 */
+		public void onLoadProgress(TASfileLoadProgress progress, boolean done);
+	}
 }
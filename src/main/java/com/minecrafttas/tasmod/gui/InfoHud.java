@@ -18,8 +18,10 @@
 import com.minecrafttas.tasmod.TASmod;
 import com.minecrafttas.tasmod.TASmodClient;
 import com.minecrafttas.tasmod.events.EventClient.EventDrawHotbar;
+import com.minecrafttas.tasmod.events.EventPlaybackClient.EventLoadProgress;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TASstate;
 import com.minecrafttas.tasmod.playback.filecommands.integrated.DesyncMonitorFileCommandExtension;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLoadProgress;
 import com.mojang.realmsclient.gui.ChatFormatting;
 
 import net.minecraft.client.Minecraft;
@@ -32,7 +34,7 @@
  * any everything can be customized
  * @author Pancake
  */
-public class InfoHud extends GuiScreen implements EventClientTick, EventDrawHotbar {
+public class InfoHud extends GuiScreen implements EventClientTick, EventDrawHotbar, EventLoadProgress {
 
 	public static class InfoLabel {
 		public String displayName;
@@ -72,6 +74,11 @@ public void tick() {
 
 	public Properties configuration;
 	private boolean resetLayout;
+
+	/**
+	 * The progress of the TASfile that is loading, or an empty string if no TASfile is loading
+	 */
+	private String loadingText = "";
 	public static List<InfoLabel> lists = new ArrayList<>();
 
 	private void setDefaults(String string, int y) {
@@ -217,6 +224,16 @@ public void onClientTick(Minecraft mc) {
 		}
 	}
 
+	@Override
+	public void onLoadProgress(TASfileLoadProgress progress, boolean done) {
+		if (done) {
+			loadingText = "";
+			return;
+		}
+		int percent = (int) (progress.getFraction() * 100);
+		loadingText = String.format("%sLoading %s: %s%% (%s ticks)", ChatFormatting.YELLOW, progress.getFile().getFileName(), percent, progress.getTicks());
+	}
+
 	public boolean checkInit() {
 		if (configuration != null)
 			return false;
@@ -446,6 +463,17 @@ public boolean checkInit() {
 						return dMonitor.getPos();
 					}));
 
+			y = height - 42;
+			title = "loading";
+			if (configuration.getProperty(title + "_x", "err").equals("err"))
+				setDefaults(title, y, true);
+			lists.add(new InfoLabel(title, Integer.parseInt(configuration.getProperty(title + "_x")), Integer.parseInt(configuration.getProperty(title + "_y")), Boolean.parseBoolean(configuration.getProperty(title
+					+ "_visible")), Boolean.parseBoolean(configuration.getProperty(title + "_rect")), () -> {
+						if (Minecraft.getMinecraft().currentScreen == this)
+							return "Loading";
+						return loadingText;
+					}));
+
 			y = height - 28;
 			title = "playback_index";
 			if (configuration.getProperty(title + "_x", "err").equals("err"))
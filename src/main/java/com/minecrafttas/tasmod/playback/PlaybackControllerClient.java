@@ -10,19 +10,33 @@
 import static com.minecrafttas.tasmod.registries.TASmodPackets.PLAYBACK_SAVE;
 import static com.minecrafttas.tasmod.registries.TASmodPackets.PLAYBACK_STATE;
 
-import java.io.File;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.Logger;
 import org.lwjgl.opengl.Display;
 
 import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.mctcommon.events.EventClient.EventClientGameLoop;
 import com.minecrafttas.mctcommon.events.EventClient.EventClientInit;
 import com.minecrafttas.mctcommon.events.EventListenerRegistry;
 import com.minecrafttas.mctcommon.networking.ByteBufferBuilder;
@@ -36,6 +50,7 @@
 import com.minecrafttas.tasmod.events.EventClient.EventClientTickPost;
 import com.minecrafttas.tasmod.events.EventPlaybackClient;
 import com.minecrafttas.tasmod.events.EventPlaybackClient.EventControllerStateChange;
+import com.minecrafttas.tasmod.events.EventPlaybackClient.EventLoadProgress;
 import com.minecrafttas.tasmod.events.EventPlaybackClient.EventPlaybackJoinedWorld;
 import com.minecrafttas.tasmod.events.EventPlaybackClient.EventPlaybackTick;
 import com.minecrafttas.tasmod.events.EventPlaybackClient.EventRecordTick;
@@ -43,9 +58,26 @@
 import com.minecrafttas.tasmod.networking.TASmodBufferBuilder;
 import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata;
 import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.SavedTASfile;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileCommandHistory;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileCompression;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileExtensionBuffer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileFingerprint;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileJournal;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLoadProgress;
+import com.minecrafttas.tasmod.playback.tasfile.TASfilePatch;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileSnapshot;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileView;
+import com.minecrafttas.tasmod.playback.tasfile.TickHash;
+import com.minecrafttas.tasmod.playback.tasfile.TickMerkleTree;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackSaveException;
-import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.LazyTickContainer;
+import com.minecrafttas.tasmod.playback.tickstore.BigArrayTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.ColumnarTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.MappedTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.playback.tickstore.ViewTickStore;
 import com.minecrafttas.tasmod.registries.TASmodConfig;
 import com.minecrafttas.tasmod.registries.TASmodPackets;
 import com.minecrafttas.tasmod.util.LoggerMarkers;
@@ -82,7 +114,7 @@
  * @author Scribble
  *
  */
-public class PlaybackControllerClient implements ClientPacketHandler, EventClientInit, EventVirtualInput.EventVirtualKeyboardTick, EventVirtualInput.EventVirtualMouseTick, EventVirtualInput.EventVirtualCameraAngleTick, EventClientTickPost {
+public class PlaybackControllerClient implements ClientPacketHandler, EventClientInit, EventVirtualInput.EventVirtualKeyboardTick, EventVirtualInput.EventVirtualMouseTick, EventVirtualInput.EventVirtualCameraAngleTick, EventClientTickPost, EventClientGameLoop {
 
 	private Logger logger = TASmod.LOGGER;
 
@@ -119,7 +151,69 @@ public class PlaybackControllerClient implements ClientPacketHandler, EventClien
 	/**
 	 * The place where all inputs get stored
 	 */
-	private BigArrayList<TickContainer> inputs;
+	private TickStore inputs;
+
+	/**
+	 * If the {@link #inputs} are stored in a {@link ColumnarTickStore} instead of a {@link BigArrayTickStore}
+	 */
+	private boolean columnarInputs = false;
+
+	/**
+	 * If the {@link #inputs} are stored in a {@link MappedTickStore} instead of a {@link BigArrayTickStore}. Is ignored if {@link #columnarInputs} are enabled
+	 */
+	private boolean mappedInputs = false;
+
+	/**
+	 * The journal, that the recorded ticks are appended to. Is null, if journaling is disabled
+	 */
+	private TASfileJournal journal = null;
+
+	/**
+	 * <p>The {@link TickMerkleTree} of the inputs. Only covers the first ticks, if the ticks after it were not hashed yet.
+	 * 
+	 * <p>Recorded ticks are hashed right away. Loaded and saved ticks are hashed on the loader and the saver thread and taken over afterwards,<br>
+	 * so only the ticks of a {@link ViewTickStore TASfile view} are hashed in {@link #getMerkleTree(long)}, when they are compared
+	 */
+	private TickMerkleTree merkleTree = new TickMerkleTree();
+
+	/**
+	 * The snapshots of the TASfiles that are saved in the background with {@link #saveAsync(Path, String)}
+	 */
+	private final List<TASfileSnapshot> savingSnapshots = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The file commands of the ticks, that were captured for earlier snapshots, so the next snapshot only captures the ticks that were added or changed since then
+	 */
+	private final TASfileCommandHistory fileCommandHistory;
+
+	/**
+	 * Loads the TASfiles of {@link #loadAsync(Path, String)}, one after another
+	 */
+	private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "TASmod Loader");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * The progress of the TASfile that is loading on the {@link #LOADER}, or null if no TASfile is loading
+	 */
+	private volatile TASfileLoadProgress loadProgress = null;
+
+	/**
+	 * The amount of ticks after the current tick, that are decoded in the background during playback, if they were {@link LazyTickContainer loaded lazily}
+	 */
+	private int readAhead = 0;
+
+	/**
+	 * The TASfiles that were saved from this controller, with the ticks that changed since then
+	 */
+	private final Map<Path, SavedTASfile> savedFiles = new LinkedHashMap<Path, SavedTASfile>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, SavedTASfile> eldest) {
+			return size() > 16;
+		}
+	};
 
 //	private long startSeed = TASmod.ktrngHandler.getGlobalSeedClient(); // TODO Replace with Metadata extension
 
@@ -130,7 +224,8 @@ public class PlaybackControllerClient implements ClientPacketHandler, EventClien
 	public PlaybackControllerClient() {
 		tasFileDirectory = TASmodClient.tasfiledirectory;
 
-		inputs = new BigArrayList<TickContainer>(tasFileDirectory.resolve("temp").toAbsolutePath().toString());
+		inputs = createStore();
+		fileCommandHistory = new TASfileCommandHistory(tasFileDirectory.resolve("temp"));
 	}
 
 	/**
@@ -264,6 +359,9 @@ private void startRecording() {
 			this.camera.set(pitch, yaw);
 
 			inputs.add(new TickContainer());
+			if (merkleTree.size() == 0) {
+				merkleTree.add(TickHash.hash(inputs.get(0)));
+			}
 		}
 	}
 
@@ -423,11 +521,22 @@ private void recordNextTick() {
 				LOGGER.warn("Index is {} inputs bigger than the container!", index - inputs.size());
 			}
 			inputs.add(container);
+			if (merkleTree.size() == inputs.size() - 1) {
+				merkleTree.add(TickHash.hash(container));
+			}
 		} else {
 			inputs.set(index, container);
+			markChanged(index);
+			if (index < merkleTree.size()) {
+				merkleTree.set(index, TickHash.hash(container));
+			}
 		}
 
 		EventListenerRegistry.fireEvent(EventRecordTick.class, index, container);
+
+		if (journal != null) {
+			journal.append(index, container);
+		}
 	}
 
 	private void playbackNextTick() {
@@ -445,25 +554,38 @@ private void playbackNextTick() {
 			TASmodClient.tickratechanger.pauseGame(true);
 			playUntil = null;
 			setTASState(TASstate.NONE);
-			for (long i = inputs.size() - 1; i >= index; i--) {
-				inputs.remove(i);
-			}
+			inputs.truncate(index);
+			truncateJournal(index);
+			markChanged(index);
+			merkleTree.truncate(index);
 			index--;
 			setTASState(TASstate.RECORDING);
 			return;
 		}
 
 		/* Stop condition */
-		if (index == inputs.size() || inputs.isEmpty()) {
+		if (index == size() || isEmpty()) {
 			unpressContainer();
 			setTASState(TASstate.NONE);
 		}
 		/* Continue condition */
 		else {
-			TickContainer container = inputs.get(index); // Loads the new inputs from the container
-			this.keyboard = container.getKeyboard().clone();
-			this.mouse = container.getMouse().clone();
-			this.camera = container.getCameraAngle().clone();
+			TickContainer container = get(index); // Loads the new inputs from the container
+			try {
+				this.keyboard = container.getKeyboard().clone();
+				this.mouse = container.getMouse().clone();
+				this.camera = container.getCameraAngle().clone();
+			} catch (PlaybackLoadException e) { // Lazily loaded ticks are decoded here
+				LOGGER.catching(e);
+				Minecraft mc = Minecraft.getMinecraft();
+				if (mc.world != null) {
+					mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + e.getMessage()));
+				}
+				unpressContainer();
+				setTASState(TASstate.NONE);
+				return;
+			}
+			readAhead(index + 1);
 			EventListenerRegistry.fireEvent(EventPlaybackTick.class, index, container);
 		}
 
@@ -483,7 +605,10 @@ public long index() {
 		return index;
 	}
 
-	public BigArrayList<TickContainer> getInputs() {
+	/**
+	 * @return The ticks of this controller. If a {@link TASfileView} is played back, this is a {@link ViewTickStore}, that reads the ticks from the view
+	 */
+	public TickStore getInputs() {
 		return inputs;
 	}
 
@@ -492,21 +617,552 @@ public void setInputs(BigArrayList<TickContainer> inputs) {
 	}
 
 	public void setInputs(BigArrayList<TickContainer> inputs, long index) {
+		setInputs(inputs, index, 0);
+	}
+
+	/**
+	 * Replaces the ticks of this controller
+	 * 
+	 * @param inputs The new ticks
+	 * @param index The new index
+	 * @param unchanged The amount of ticks at the start, that are the same as before. These are kept in the {@link #journal}
+	 */
+	public void setInputs(BigArrayList<TickContainer> inputs, long index, long unchanged) {
+		TickStore store = createStore();
+		for (long i = 0; i < inputs.size(); i++) {
+			store.add(inputs.get(i));
+		}
+		setInputs(store, index, unchanged);
+	}
+
+	/**
+	 * Replaces the ticks of this controller with a store, that is used directly instead of being copied
+	 * 
+	 * @param inputs The new ticks. Is cleared by this controller
+	 * @param index The new index
+	 * @param unchanged The amount of ticks at the start, that are the same as before. These are kept in the {@link #journal}
+	 */
+	public void setInputs(TickStore inputs, long index, long unchanged) {
+		truncateJournal(unchanged);
+		markChanged(unchanged);
+		merkleTree.truncate(unchanged);
 		try {
 			this.inputs.clearMemory();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		this.inputs = new BigArrayList<TickContainer>(tasFileDirectory + File.separator + "temp");
-		SerialiserFlavorBase.addAll(this.inputs, inputs);
+		this.inputs = inputs;
 		setIndex(index);
 	}
 
+	/**
+	 * <p>Plays back the ticks directly from a {@link TASfileView}, without copying them into the inputs first.
+	 * 
+	 * <p>The inputs are a {@link ViewTickStore}, which keeps the ticks that are changed or recorded afterwards in a separate store,<br>
+	 * so the TASfile is never copied on the client thread.
+	 * 
+	 * @param view The view to play back. Is closed by this controller
+	 */
+	public void setInputs(TASfileView view) {
+		setInputs(new ViewTickStore(view, createStore()), 0, 0);
+	}
+
+	/**
+	 * Changes the ticks of this controller with a patch from {@link com.minecrafttas.tasmod.playback.tasfile.TASfileDiff TASfileDiff},
+	 * instead of replacing every tick
+	 *
+	 * @param patch The patch to apply
+	 * @throws PlaybackLoadException If the patch was not created from the current ticks. The ticks are not changed in that case
+	 */
+	public void applyPatch(TASfilePatch patch) throws PlaybackLoadException {
+		patch.apply(getInputs());
+		long unchanged = patch.getFirstTick();
+		truncateJournal(unchanged);
+		markChanged(unchanged);
+		merkleTree.truncate(unchanged);
+	}
+
+	/**
+	 * Hashes the ticks up to the given tick, that are not in the {@link #merkleTree} yet
+	 * 
+	 * @param ticks The amount of ticks from the start, that have to be hashed
+	 * @return The {@link TickMerkleTree} of at least the first ticks in this controller
+	 */
+	public TickMerkleTree getMerkleTree(long ticks) {
+		for (long i = merkleTree.size(); i < Math.min(ticks, size()); i++) {
+			merkleTree.add(TickHash.hash(get(i)));
+		}
+		return merkleTree;
+	}
+
+	/**
+	 * @return A copy of the {@link #merkleTree}, which only covers the ticks that were hashed already
+	 */
+	public TickMerkleTree copyMerkleTree() {
+		return merkleTree.copy();
+	}
+
+	/**
+	 * Takes over the hashes of the ticks, that were hashed while saving a snapshot, for the ticks that were not changed since the snapshot was taken
+	 * 
+	 * @param snapshot The snapshot that was saved
+	 */
+	public void updateMerkleTree(TASfileSnapshot snapshot) {
+		TickMerkleTree hashed = snapshot.getMerkleTree();
+		long end = Math.min(Math.min(hashed.size(), snapshot.getChangedTick()), size());
+		for (long i = merkleTree.size(); i < end; i++) {
+			merkleTree.add(hashed.getTickHash(i));
+		}
+	}
+
+	/**
+	 * <p>Loads the inputs of a TASfile on the {@link #LOADER}, while the game and the packets keep running.
+	 * 
+	 * <p>The progress is fired with {@link EventLoadProgress} in every game loop.<br>
+	 * Once the TASfile is loaded, the inputs are replaced on the client thread, in the next game loop.<br>
+	 * Loading another TASfile or calling {@link #cancelLoad()} discards this TASfile, even if it was loaded already.
+	 * 
+	 * @param file   The TASfile to load
+	 * @param flavor The name of the flavor, or an empty string to detect it from the header
+	 */
+	public void loadAsync(Path file, String flavor) {
+		cancelLoad();
+		long size = 0;
+		try {
+			size = Files.size(file);
+		} catch (IOException e) {
+			// A missing file is reported by the loader
+		}
+		TASfileLoadProgress progress = new TASfileLoadProgress(file, size);
+		loadProgress = progress;
+		// The config and the type of the store are only read on the client thread
+		boolean mappedPlayback = TASmodClient.config.getBoolean(TASmodConfig.MappedPlayback);
+		boolean lazyLoading = TASmodClient.config.getBoolean(TASmodConfig.LazyLoading);
+		Supplier<TickStore> copyStore = lazyLoading ? null : storeFactory();
+		LOADER.execute(() -> load(file, flavor, progress, mappedPlayback, lazyLoading, copyStore));
+	}
+
+	/**
+	 * Runs on the {@link #LOADER} and schedules replacing the inputs on the client thread
+	 * 
+	 * @param mappedPlayback If the TASfile is played back from a {@link TASfileView}, if possible
+	 * @param lazyLoading    If the ticks are {@link LazyTickContainer loaded lazily}
+	 * @param copyStore      Creates the store, that the loaded ticks are copied into. Null, if the loaded list is used directly
+	 */
+	private void load(Path file, String flavor, TASfileLoadProgress progress, boolean mappedPlayback, boolean lazyLoading, Supplier<TickStore> copyStore) {
+		TASfileView loadedView = null;
+		TickStore loadedInputs = null;
+		TickMerkleTree loadedTree = null;
+		TASfileExtensionBuffer extensions = new TASfileExtensionBuffer(); // The extensions are only changed on the client thread, once the inputs are replaced
+		boolean changed = false;
+		Throwable error = null;
+		try {
+			progress.checkCancelled();
+			if (mappedPlayback && !PlaybackSerialiser.readFlavor(file).isBinary() && !TASfileCompression.isCompressed(file)) {
+				loadedView = TASfileView.open(file, flavor, extensions); // Hashing would read the entire view
+			} else {
+				BigArrayList<TickContainer> ticks = PlaybackSerialiser.loadFromFile(file, flavor, progress, extensions);
+				if (!lazyLoading) { // Hashing would decode every tick
+					loadedTree = TickMerkleTree.of(ticks);
+					TASfileFingerprint fingerprint = TASfileFingerprint.load(file);
+					if (fingerprint != null && !fingerprint.matches(loadedTree)) {
+						LOGGER.warn(LoggerMarkers.Playback, "The inputs of {} don't match the fingerprint next to it ({})", file.getFileName(), fingerprint);
+						changed = true;
+					}
+				}
+				loadedInputs = toStore(ticks, copyStore);
+			}
+		} catch (Throwable e) {
+			error = e;
+		}
+
+		final TASfileView view = loadedView;
+		final TickStore inputs = loadedInputs;
+		final TickMerkleTree tree = loadedTree;
+		final boolean inputsChanged = changed;
+		final Throwable loadError = error;
+		TASmodClient.gameLoopSchedulerClient.add(() -> finishLoad(progress, view, inputs, tree, extensions, inputsChanged, loadError));
+	}
+
+	/**
+	 * Replaces the inputs with the loaded TASfile and passes the loaded data to the extensions on the client thread, unless loading was cancelled
+	 */
+	private void finishLoad(TASfileLoadProgress progress, TASfileView loadedView, TickStore loadedInputs, TickMerkleTree loadedTree, TASfileExtensionBuffer extensions, boolean changed, Throwable error) {
+		if (loadProgress == progress) {
+			loadProgress = null;
+		}
+		EventListenerRegistry.fireEvent(EventLoadProgress.class, progress, true);
+
+		Minecraft mc = Minecraft.getMinecraft();
+		String fileName = progress.getFile().getFileName().toString();
+
+		if (progress.isCancelled() || error instanceof CancellationException) {
+			try {
+				if (loadedView != null) {
+					loadedView.close();
+				}
+				if (loadedInputs != null) {
+					loadedInputs.clearMemory();
+				}
+			} catch (IOException e) {
+				LOGGER.catching(e);
+			}
+			LOGGER.debug(LoggerMarkers.Playback, "Cancelled loading " + fileName);
+			if (mc.world != null)
+				mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.YELLOW + "Cancelled loading " + fileName));
+			return;
+		}
+
+		if (error instanceof PlaybackLoadException) {
+			if (mc.world != null) {
+				TextComponentString textComponent = new TextComponentString(error.getMessage());
+				mc.ingameGUI.getChatGUI().printChatMessage(textComponent);
+			}
+			LOGGER.catching(error);
+			return;
+		} else if (error != null) {
+			if (mc.world != null)
+				mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + "Loading failed, something went very wrong"));
+			LOGGER.catching(error);
+			return;
+		}
+
+		if (loadedView != null) {
+			setInputs(loadedView);
+		} else {
+			setInputs(loadedInputs, 0, 0);
+			if (loadedTree != null) {
+				merkleTree = loadedTree;
+			}
+		}
+		extensions.apply(inputs);
+
+		if (mc.world != null) {
+			if (changed)
+				mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.YELLOW + "The inputs were changed outside of TASmod, since " + fileName + " was saved"));
+			mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.GREEN + "Loaded inputs from " + fileName));
+		} else
+			LOGGER.debug(LoggerMarkers.Playback, "Loaded inputs from " + fileName);
+	}
+
+	/**
+	 * Stops loading the TASfile of {@link #loadAsync(Path, String)}. The inputs are not replaced, even if the TASfile was loaded already
+	 * 
+	 * @return True if a TASfile was loading
+	 */
+	public boolean cancelLoad() {
+		TASfileLoadProgress progress = loadProgress;
+		if (progress == null) {
+			return false;
+		}
+		progress.cancel();
+		loadProgress = null;
+		return true;
+	}
+
+	/**
+	 * @return The progress of the TASfile that is loading, or null if no TASfile is loading
+	 */
+	public TASfileLoadProgress getLoadProgress() {
+		return loadProgress;
+	}
+
+	@Override
+	public void onRunClientGameLoop(Minecraft mc) {
+		TASfileLoadProgress progress = loadProgress;
+		if (progress != null) {
+			EventListenerRegistry.fireEvent(EventLoadProgress.class, progress, false);
+		}
+	}
+
+	/**
+	 * Enables or disables the {@link TASfileJournal}, which stores the serialised ticks while recording, so saving only serialises the new ticks
+	 * 
+	 * @param enabled If the recorded ticks should be journaled
+	 */
+	public void setJournaling(boolean enabled) {
+		if (enabled && journal == null) {
+			try {
+				journal = new TASfileJournal(tasFileDirectory.resolve("temp").resolve("recording.journal"));
+			} catch (IOException e) {
+				LOGGER.catching(e);
+			}
+		} else if (!enabled && journal != null) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				LOGGER.catching(e);
+			}
+			journal = null;
+		}
+	}
+
+	/**
+	 * @param ticks The amount of ticks after the current tick, that are decoded in the background during playback. 0 disables the read-ahead
+	 */
+	public void setReadAhead(int ticks) {
+		readAhead = Math.max(ticks, 0);
+	}
+
+	/**
+	 * Switches between storing the inputs in a {@link ColumnarTickStore} or a {@link BigArrayTickStore}.<br>
+	 * The current inputs are copied into the new store
+	 * 
+	 * @param enabled If the inputs should be stored in primitive columns instead of one object per tick
+	 */
+	public void setColumnarInputs(boolean enabled) {
+		if (columnarInputs == enabled) {
+			return;
+		}
+		columnarInputs = enabled;
+		replaceStore();
+	}
+
+	/**
+	 * Switches between storing the inputs in a {@link MappedTickStore} or a {@link BigArrayTickStore}.<br>
+	 * The current inputs are copied into the new store
+	 * 
+	 * @param enabled If the inputs should be stored as binary records in memory mapped files instead of serialised objects
+	 */
+	public void setMappedInputs(boolean enabled) {
+		if (mappedInputs == enabled) {
+			return;
+		}
+		mappedInputs = enabled;
+		replaceStore();
+	}
+
+	/**
+	 * Copies the {@link #inputs} into a {@link #createStore() new store}
+	 */
+	private void replaceStore() {
+		if (inputs instanceof ViewTickStore) {
+			return; // The ticks stay in the TASfile, the new store is used once the inputs are replaced
+		}
+		TickStore old = inputs;
+		inputs = createStore();
+		for (long i = 0; i < old.size(); i++) {
+			inputs.add(old.get(i));
+		}
+		try {
+			old.clearMemory();
+		} catch (IOException e) {
+			LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * @return An empty store for the {@link #inputs}, depending on {@link #columnarInputs} and {@link #mappedInputs}
+	 */
+	private TickStore createStore() {
+		return createStore(columnarInputs, mappedInputs, tasFileDirectory);
+	}
+
+	private static TickStore createStore(boolean columnar, boolean mapped, Path directory) {
+		if (columnar) {
+			return new ColumnarTickStore();
+		}
+		if (mapped) {
+			return new MappedTickStore(directory.resolve("temp"));
+		}
+		return new BigArrayTickStore(new BigArrayList<TickContainer>(directory.resolve("temp").toAbsolutePath().toString()));
+	}
+
+	/**
+	 * Creates the stores of the loaded ticks on the {@link #LOADER}, without reading the type of the store on that thread
+	 * 
+	 * @return Creates empty stores of the current type, or null if the type is a {@link BigArrayTickStore}, which wraps the loaded list instead
+	 */
+	private Supplier<TickStore> storeFactory() {
+		if (!columnarInputs && !mappedInputs) {
+			return null;
+		}
+		boolean columnar = columnarInputs;
+		boolean mapped = mappedInputs;
+		Path directory = tasFileDirectory;
+		return () -> createStore(columnar, mapped, directory);
+	}
+
+	/**
+	 * Turns the loaded ticks into a store for the {@link #inputs}.<br>
+	 * A {@link BigArrayTickStore} wraps the list, while the other stores copy and clear it, which decodes {@link LazyTickContainer lazily loaded ticks}.<br>
+	 * With {@link TASmodConfig#LazyLoading lazy loading}, the list is always wrapped, so the ticks are still decoded while playing back
+	 * 
+	 * @param ticks     The loaded ticks
+	 * @param copyStore Creates the store to copy the ticks into, or null if the list is wrapped
+	 * @return The store of the ticks
+	 */
+	private static TickStore toStore(BigArrayList<TickContainer> ticks, Supplier<TickStore> copyStore) throws IOException {
+		if (copyStore == null) {
+			return TickStore.of(ticks);
+		}
+		TickStore store = copyStore.get();
+		for (long i = 0; i < ticks.size(); i++) {
+			store.add(ticks.get(i));
+		}
+		ticks.clearMemory();
+		return store;
+	}
+
+	/**
+	 * Decodes the next {@link #readAhead} ticks in the background, if they were {@link LazyTickContainer loaded lazily}
+	 * 
+	 * @param from The first tick to decode
+	 */
+	private void readAhead(long from) {
+		if (inputs instanceof ViewTickStore) {
+			return;
+		}
+		long to = Math.min(from + readAhead, inputs.size());
+		for (long i = from; i < to; i++) {
+			TickContainer container = inputs.get(i);
+			if (container instanceof LazyTickContainer) {
+				((LazyTickContainer) container).readAhead();
+			}
+		}
+	}
+
+	/**
+	 * @return The {@link TASfileJournal} of the recording, or null if journaling is disabled
+	 */
+	public TASfileJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * @return The file commands of the ticks, that were captured for earlier snapshots
+	 */
+	public TASfileCommandHistory getFileCommandHistory() {
+		return fileCommandHistory;
+	}
+
+	/**
+	 * Removes the ticks from the {@link #journal}, that were changed in the inputs
+	 * 
+	 * @param tick The amount of unchanged ticks
+	 */
+	private void truncateJournal(long tick) {
+		if (journal != null) {
+			journal.truncate(tick);
+		}
+	}
+
+	/**
+	 * Resolves the name of a TASfile in the {@link #tasFileDirectory}.<br>
+	 * Names ending with {@link TASfileCompression#FILE_ENDING} resolve to a {@link TASfileCompression compressed} TASfile, e.g. "run.gz" to "run.mctas.gz"
+	 * 
+	 * @param name The name of the TASfile, without the {@link #fileEnding}
+	 * @return The path of the TASfile
+	 */
+	public Path getTASfile(String name) {
+		if (name.endsWith(TASfileCompression.FILE_ENDING)) {
+			return tasFileDirectory.resolve(name.substring(0, name.length() - TASfileCompression.FILE_ENDING.length()) + fileEnding + TASfileCompression.FILE_ENDING);
+		}
+		return tasFileDirectory.resolve(name + fileEnding);
+	}
+
+	/**
+	 * @param file The TASfile
+	 * @return The information about the last time the TASfile was saved from this controller, or null if it wasn't saved
+	 */
+	public SavedTASfile getSavedFile(Path file) {
+		return savedFiles.get(file.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * @param file  The TASfile that was saved
+	 * @param saved The information about the saved TASfile, or null to forget the TASfile
+	 */
+	public void setSavedFile(Path file, SavedTASfile saved) {
+		Path key = file.toAbsolutePath().normalize();
+		if (saved == null) {
+			savedFiles.remove(key);
+		} else {
+			savedFiles.put(key, saved);
+		}
+	}
+
+	/**
+	 * Marks a tick and every tick after it as changed in every {@link #savedFiles saved TASfile}, in every TASfile that is {@link #savingSnapshots being saved}<br>
+	 * and in the {@link #fileCommandHistory}, as the extensions may return different file commands for it
+	 * 
+	 * @param tick The tick that was changed, added or removed
+	 */
+	private void markChanged(long tick) {
+		fileCommandHistory.markChanged(tick);
+		for (SavedTASfile saved : savedFiles.values()) {
+			saved.markChanged(tick);
+		}
+		for (TASfileSnapshot snapshot : savingSnapshots) {
+			snapshot.markChanged(tick);
+		}
+	}
+
+	/**
+	 * <p>Saves the inputs to a TASfile in the background, while recording continues.
+	 * 
+	 * <p>Has to be called on the client thread, where a {@link TASfileSnapshot} of the inputs is taken.<br>
+	 * Once the snapshot was written, the confirmation is printed in the chat in the next game loop.
+	 * 
+	 * @param file   The TASfile to save to
+	 * @param flavor The name of the flavor, or an empty string to use the last used flavor
+	 */
+	public void saveAsync(Path file, String flavor) {
+		Minecraft mc = Minecraft.getMinecraft();
+		TASfileSnapshot snapshot;
+		try {
+			snapshot = PlaybackSerialiser.snapshot(file, this, flavor, -1L);
+		} catch (PlaybackSaveException e) {
+			if (mc.world != null)
+				mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + e.getMessage()));
+			LOGGER.catching(e);
+			return;
+		}
+		savingSnapshots.add(snapshot);
+
+		PlaybackSerialiser.saveToFileAsync(snapshot).whenComplete((saved, error) -> TASmodClient.gameLoopSchedulerClient.add(() -> {
+			savingSnapshots.remove(snapshot);
+			if (error instanceof PlaybackSaveException) {
+				if (mc.world != null)
+					mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + error.getMessage()));
+				LOGGER.catching(error);
+				return;
+			} else if (error != null) {
+				if (mc.world != null)
+					mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + "Saving failed, something went very wrong"));
+				LOGGER.catching(error);
+				return;
+			}
+
+			SavedTASfile finished;
+			try {
+				finished = snapshot.finish(saved);
+			} catch (PlaybackSaveException e) {
+				if (mc.world != null)
+					mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + e.getMessage()));
+				LOGGER.catching(e);
+				return;
+			}
+			if (finished != null) {
+				finished.markChanged(snapshot.getChangedTick());
+			}
+			setSavedFile(file, finished);
+			updateMerkleTree(snapshot);
+
+			if (mc.world != null) {
+				TextComponentString confirm = new TextComponentString(TextFormatting.GREEN + "Saved inputs to " + file.getFileName() + TextFormatting.RESET + " [" + TextFormatting.YELLOW + "Open folder" + TextFormatting.RESET + "]");
+				confirm.getStyle().setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/folder tasfiles"));
+				mc.ingameGUI.getChatGUI().printChatMessage(confirm);
+			} else
+				LOGGER.debug(LoggerMarkers.Playback, "Saved inputs to " + file.getFileName());
+		}));
+	}
+
 	public void setIndex(long index) throws IndexOutOfBoundsException {
 		if (index <= size()) {
 			this.index = index;
 			if (state == TASstate.PLAYBACK) {
-				TickContainer tickcontainer = inputs.get(index);
+				TickContainer tickcontainer = get(index);
 				this.keyboard = tickcontainer.getKeyboard();
 				this.mouse = tickcontainer.getMouse();
 				this.camera = tickcontainer.getCameraAngle();
@@ -536,12 +1192,16 @@ public TickContainer get() {
 	public void clear() {
 		LOGGER.info(LoggerMarkers.Playback, "Clearing playback controller");
 		EventListenerRegistry.fireEvent(EventPlaybackClient.EventRecordClear.class);
+		cancelLoad();
+		truncateJournal(0);
+		markChanged(0);
+		merkleTree.truncate(0);
 		try {
 			inputs.clearMemory();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		inputs = new BigArrayList<TickContainer>(tasFileDirectory + File.separator + "temp");
+		inputs = createStore();
 		index = 0;
 	}
 
@@ -550,12 +1210,12 @@ public void clear() {
 	 */
 	@Override
 	public String toString() {
-		if (inputs.isEmpty()) {
+		if (isEmpty()) {
 			return "null";
 		}
 		String out = "";
-		for (int i = 0; i < inputs.size(); i++) {
-			out = out.concat(inputs.get(i).toString() + "\n");
+		for (int i = 0; i < size(); i++) {
+			out = out.concat(get(i).toString() + "\n");
 		}
 		return out;
 	}
@@ -581,19 +1241,33 @@ public void setPlayUntil(int until) {
 
 	/**
 	 * Storage class which stores the keyboard, mouse and subticks of a given tick.
+	 * <p>
+	 * Is serialised in the binary form of {@link #write(DataOutput)}, after a version byte, instead of serialising every field as an object.
 	 * 
 	 * @author Scribble
 	 *
 	 */
 	public static class TickContainer implements Serializable {
 
-		private VirtualKeyboard keyboard;
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The version of the serialised form. Is increased when the layout of {@link #write(DataOutput)} changes
+		 */
+		private static final int SERIAL_VERSION = 2;
+
+		private static final int KEYBOARD = 1;
+		private static final int MOUSE = 2;
+		private static final int CAMERA_ANGLE = 4;
+		private static final int COMMENTS = 8;
+
+		private transient VirtualKeyboard keyboard;
 
-		private VirtualMouse mouse;
+		private transient VirtualMouse mouse;
 
-		private VirtualCameraAngle cameraAngle;
+		private transient VirtualCameraAngle cameraAngle;
 
-		private CommentContainer comments;
+		private transient CommentContainer comments;
 
 		public TickContainer(VirtualKeyboard keyboard, VirtualMouse mouse, VirtualCameraAngle subticks) {
 			this(keyboard, mouse, subticks, new CommentContainer());
@@ -613,7 +1287,7 @@ public TickContainer() {
 		@Override
 		public String toString() {
 			String.join("\n// ", comments.inlineComments);
-			return keyboard.toString() + "|" + mouse.toString() + "|" + cameraAngle.toString() + "\t\t// " + comments.endlineComments;
+			return getKeyboard().toString() + "|" + getMouse().toString() + "|" + getCameraAngle().toString() + "\t\t// " + comments.endlineComments;
 		}
 
 		public VirtualKeyboard getKeyboard() {
@@ -634,21 +1308,98 @@ public CommentContainer getComments() {
 
 		@Override
 		public TickContainer clone() {
-			return new TickContainer(keyboard, mouse, cameraAngle);
+			return new TickContainer(getKeyboard(), getMouse(), getCameraAngle());
 		}
 
 		@Override
 		public boolean equals(Object other) {
 			if (other instanceof TickContainer) {
 				TickContainer container = (TickContainer) other;
-				return keyboard.equals(container.keyboard) && mouse.equals(container.mouse) && cameraAngle.equals(container.cameraAngle) && comments.equals(container.comments);
+				return getKeyboard().equals(container.getKeyboard()) && getMouse().equals(container.getMouse()) && getCameraAngle().equals(container.getCameraAngle()) && comments.equals(container.comments);
 			}
 			return super.equals(other);
 		}
+
+		/**
+		 * <p>Writes the tick in a binary form, that is read again by {@link #read(DataInput)}.
+		 *
+		 * <pre>
+		 * flags [keyboard] [mouse] [cameraAngle] [comments]
+		 * </pre>
+		 *
+		 * The flags contain which parts are not null
+		 *
+		 * @param out The output to write to
+		 * @throws IOException If the output can't be written
+		 */
+		public void write(DataOutput out) throws IOException {
+			write(out, getKeyboard(), getMouse(), getCameraAngle(), comments);
+		}
+
+		/**
+		 * @param in The input to read from
+		 * @return The tick that was written by {@link #write(DataOutput)}
+		 * @throws IOException If the input can't be read
+		 */
+		public static TickContainer read(DataInput in) throws IOException {
+			TickContainer tick = new TickContainer(null, null, null, null);
+			tick.readFields(in);
+			return tick;
+		}
+
+		private static void write(DataOutput out, VirtualKeyboard keyboard, VirtualMouse mouse, VirtualCameraAngle cameraAngle, CommentContainer comments) throws IOException {
+			int flags = (keyboard != null ? KEYBOARD : 0) | (mouse != null ? MOUSE : 0) | (cameraAngle != null ? CAMERA_ANGLE : 0) | (comments != null ? COMMENTS : 0);
+			out.writeByte(flags);
+			if (keyboard != null) {
+				keyboard.write(out);
+			}
+			if (mouse != null) {
+				mouse.write(out);
+			}
+			if (cameraAngle != null) {
+				cameraAngle.write(out);
+			}
+			if (comments != null) {
+				comments.write(out);
+			}
+		}
+
+		private void readFields(DataInput in) throws IOException {
+			int flags = in.readUnsignedByte();
+			keyboard = (flags & KEYBOARD) != 0 ? VirtualKeyboard.read(in) : null;
+			mouse = (flags & MOUSE) != 0 ? VirtualMouse.read(in) : null;
+			cameraAngle = (flags & CAMERA_ANGLE) != 0 ? VirtualCameraAngle.read(in) : null;
+			comments = (flags & COMMENTS) != 0 ? CommentContainer.read(in) : null;
+		}
+
+		/**
+		 * Writes the fields instead of the getters, so subclasses like the {@link LazyTickContainer} are not decoded
+		 */
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			out.defaultWriteObject();
+			out.writeByte(SERIAL_VERSION);
+			write(out, keyboard, mouse, cameraAngle, comments);
+		}
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			in.defaultReadObject();
+			int version = in.readUnsignedByte();
+			if (version != SERIAL_VERSION) {
+				throw new InvalidObjectException(String.format("Unsupported version %s of a serialised tick, expected %s", version, SERIAL_VERSION));
+			}
+			readFields(in);
+		}
 	}
 
 	public static class CommentContainer implements Serializable {
 
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The version of the serialised form. Is increased when the layout of {@link #write(DataOutput)} changes
+		 */
+		private static final int SERIAL_VERSION = 1;
+
 		/**
 		 * List of all inline comments in a tick.<br>
 		 * These comments take the form:
@@ -670,7 +1421,7 @@ public static class CommentContainer implements Serializable {
 		 * 	1|||1.0;1.0
 		 * </pre>
 		 */
-		private List<String> inlineComments;
+		private transient List<String> inlineComments;
 
 		/**
 		 * List of all endline comments.<br>
@@ -683,7 +1434,7 @@ public static class CommentContainer implements Serializable {
 		 * 
 		 * Endline comments are supposed to describe individual subticks.<br>
 		 */
-		private List<String> endlineComments;
+		private transient List<String> endlineComments;
 
 		public CommentContainer() {
 			this(new ArrayList<>(), new ArrayList<>());
@@ -723,6 +1474,77 @@ public boolean equals(Object obj) {
 		public String toString() {
 			return inlineComments.toString() + "\n\n" + endlineComments.toString();
 		}
+
+		/**
+		 * <p>Writes the comments in a binary form, that is read again by {@link #read(DataInput)}.
+		 *
+		 * <pre>
+		 * inlineCount inline... endlineCount endline...
+		 * </pre>
+		 *
+		 * Every comment is written as the length of its UTF-8 bytes, followed by the bytes, or -1 if the comment is null
+		 *
+		 * @param out The output to write to
+		 * @throws IOException If the output can't be written
+		 */
+		public void write(DataOutput out) throws IOException {
+			writeComments(out, inlineComments);
+			writeComments(out, endlineComments);
+		}
+
+		/**
+		 * @param in The input to read from
+		 * @return The comments that were written by {@link #write(DataOutput)}
+		 * @throws IOException If the input can't be read
+		 */
+		public static CommentContainer read(DataInput in) throws IOException {
+			return new CommentContainer(readComments(in), readComments(in));
+		}
+
+		private static void writeComments(DataOutput out, List<String> comments) throws IOException {
+			out.writeInt(comments.size());
+			for (String comment : comments) {
+				if (comment == null) {
+					out.writeInt(-1);
+					continue;
+				}
+				byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+		}
+
+		private static List<String> readComments(DataInput in) throws IOException {
+			int count = in.readInt();
+			List<String> out = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				int length = in.readInt();
+				if (length < 0) {
+					out.add(null);
+					continue;
+				}
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				out.add(new String(bytes, StandardCharsets.UTF_8));
+			}
+			return out;
+		}
+
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			out.defaultWriteObject();
+			out.writeByte(SERIAL_VERSION);
+			write(out);
+		}
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			in.defaultReadObject();
+			int version = in.readUnsignedByte();
+			if (version != SERIAL_VERSION) {
+				throw new InvalidObjectException(String.format("Unsupported version %s of serialised comments, expected %s", version, SERIAL_VERSION));
+			}
+			inlineComments = readComments(in);
+			endlineComments = readComments(in);
+		}
 	}
 
 	/**
@@ -796,51 +1618,16 @@ public void onClientPacket(PacketID id, ByteBuffer buf, String username) throws
 				name = TASmodBufferBuilder.readString(buf);
 				flavor = TASmodBufferBuilder.readString(buf);
 
-				try {
-					PlaybackSerialiser.saveToFile(tasFileDirectory.resolve(name + fileEnding), this, flavor);
-				} catch (PlaybackSaveException e) {
-					if (mc.world != null)
-						mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + e.getMessage()));
-					LOGGER.catching(e);
-					return;
-				} catch (Exception e) {
-					if (mc.world != null)
-						mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + "Saving failed, something went very wrong"));
-					LOGGER.catching(e);
-					return;
-				}
-
-				if (mc.world != null) {
-					TextComponentString confirm = new TextComponentString(TextFormatting.GREEN + "Saved inputs to " + name + ".mctas" + TextFormatting.RESET + " [" + TextFormatting.YELLOW + "Open folder" + TextFormatting.RESET + "]");
-					confirm.getStyle().setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/folder tasfiles"));
-					mc.ingameGUI.getChatGUI().printChatMessage(confirm);
-				} else
-					LOGGER.debug(LoggerMarkers.Playback, "Saved inputs to " + name + ".mctas");
+				Path saveFile = getTASfile(name);
+				String saveFlavor = flavor;
+				TASmodClient.gameLoopSchedulerClient.add(() -> saveAsync(saveFile, saveFlavor)); // The snapshot is taken on the client thread
 				break;
 
 			case PLAYBACK_LOAD:
 				name = TASmodBufferBuilder.readString(buf);
 				flavor = TASmodBufferBuilder.readString(buf);
 
-				try {
-					TASmodClient.controller.setInputs(PlaybackSerialiser.loadFromFile(tasFileDirectory.resolve(name + fileEnding), flavor));
-				} catch (PlaybackLoadException e) {
-					if (mc.world != null) {
-						TextComponentString textComponent = new TextComponentString(e.getMessage());
-						mc.ingameGUI.getChatGUI().printChatMessage(textComponent);
-					}
-					LOGGER.catching(e);
-					return;
-				} catch (Exception e) {
-					if (mc.world != null)
-						mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.RED + "Loading failed, something went very wrong"));
-					LOGGER.catching(e);
-				}
-
-				if (mc.world != null)
-					mc.ingameGUI.getChatGUI().printChatMessage(new TextComponentString(TextFormatting.GREEN + "Loaded inputs from " + name + ".mctas"));
-				else
-					LOGGER.debug(LoggerMarkers.Playback, "Loaded inputs from " + name + ".mctas");
+				loadAsync(getTASfile(name), flavor);
 				break;
 
 			case PLAYBACK_FULLPLAY:
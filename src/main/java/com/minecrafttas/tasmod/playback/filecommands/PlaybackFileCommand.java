@@ -1,5 +1,7 @@
 package com.minecrafttas.tasmod.playback.filecommands;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -8,11 +10,12 @@
 import java.util.List;
 import java.util.Map;
 
-import com.dselent.bigarraylist.BigArrayList;
 import com.minecrafttas.mctcommon.file.AbstractDataFile;
 import com.minecrafttas.mctcommon.registry.Registerable;
 import com.minecrafttas.tasmod.TASmodClient;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.util.MappedList;
+import com.minecrafttas.tasmod.util.MappedList.RecordCodec;
 
 public class PlaybackFileCommand {
 
@@ -64,7 +67,7 @@ public PlaybackFileCommandExtension() {
 
 		/**
 		 * <p>Creates a FileCommandExtension and creates a temp folder with<br>
-		 * the specified name for the {@link BigArrayList} files in the correct location
+		 * the specified name for the {@link MappedList} files in the correct location
 		 * 
 		 * @param tempFolderName The name of the temp folder
 		 */
@@ -234,4 +237,75 @@ public boolean equals(Object o) {
 	public static class PlaybackFileCommandLine extends ArrayList<PlaybackFileCommand> {
 
 	}
+
+	/**
+	 * <p>Encodes a {@link PlaybackFileCommandContainer} for a {@link MappedList}, so extensions can store a container per tick.
+	 *
+	 * <pre>
+	 * entryCount, per entry: key lineSize, per command: present name argCount args...
+	 * </pre>
+	 *
+	 * <p>A line size of -1 stands for a missing line, to keep the result of {@link PlaybackFileCommandContainer#split(String...) split} with a key that is not in the container.
+	 */
+	public static class PlaybackFileCommandContainerCodec implements RecordCodec<PlaybackFileCommandContainer> {
+
+		@Override
+		public int getRecordSize() {
+			return 0;
+		}
+
+		@Override
+		public void write(DataOutput out, PlaybackFileCommandContainer container) throws IOException {
+			out.writeInt(container.size());
+			for (Map.Entry<String, PlaybackFileCommandLine> entry : container.entrySet()) {
+				out.writeUTF(entry.getKey());
+				PlaybackFileCommandLine line = entry.getValue();
+				if (line == null) {
+					out.writeInt(-1);
+					continue;
+				}
+				out.writeInt(line.size());
+				for (PlaybackFileCommand command : line) {
+					out.writeBoolean(command != null);
+					if (command == null) {
+						continue;
+					}
+					out.writeUTF(command.getName());
+					out.writeInt(command.getArgs().length);
+					for (String arg : command.getArgs()) {
+						out.writeUTF(arg);
+					}
+				}
+			}
+		}
+
+		@Override
+		public PlaybackFileCommandContainer read(DataInput in) throws IOException {
+			PlaybackFileCommandContainer container = new PlaybackFileCommandContainer();
+			int entryCount = in.readInt();
+			for (int i = 0; i < entryCount; i++) {
+				String key = in.readUTF();
+				int lineSize = in.readInt();
+				if (lineSize < 0) {
+					container.put(key, null);
+					continue;
+				}
+				PlaybackFileCommandLine line = new PlaybackFileCommandLine();
+				for (int j = 0; j < lineSize; j++) {
+					if (!in.readBoolean()) {
+						line.add(null);
+						continue;
+					}
+					String name = in.readUTF();
+					String[] args = new String[in.readInt()];
+					for (int k = 0; k < args.length; k++) {
+						args[k] = in.readUTF();
+					}
+					line.add(new PlaybackFileCommand(name, args));
+				}
+				container.put(key, line);
+			}
+			return container;
+		}
+	}
 }
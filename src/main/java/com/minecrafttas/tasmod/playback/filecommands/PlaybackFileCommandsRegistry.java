@@ -16,6 +16,11 @@
 public class PlaybackFileCommandsRegistry extends AbstractRegistry<PlaybackFileCommandExtension> implements EventPlaybackClient.EventRecordTick, EventPlaybackClient.EventPlaybackTick, EventPlaybackClient.EventRecordClear {
 
 	private List<PlaybackFileCommandExtension> enabledExtensions = new ArrayList<>();
+
+	/**
+	 * Counts how often extensions were registered, enabled, disabled or cleared, which changes the file commands of every tick
+	 */
+	private long modifications = 0;
 	
 	private Configuration config = null;
 	
@@ -27,12 +32,14 @@ public PlaybackFileCommandsRegistry() {
 	public void register(PlaybackFileCommandExtension extension) {
 		super.register(extension);
 		enabledExtensions = getEnabled();
+		modifications++;
 	}
 
 	@Override
 	public void unregister(PlaybackFileCommandExtension extension) {
 		super.unregister(extension);
 		enabledExtensions = getEnabled();
+		modifications++;
 	}
 
 	public boolean setEnabled(String extensionName, boolean enabled) {
@@ -46,6 +53,7 @@ public boolean setEnabled(String extensionName, boolean enabled, boolean saveToC
 		}
 		extension.setEnabled(enabled);
 		enabledExtensions = getEnabled();
+		modifications++;
 		
 		if(saveToConfig) {
 			saveConfig();
@@ -57,6 +65,7 @@ private void disableAll() {
 		REGISTRY.forEach((name, value) -> {
 			value.setEnabled(false);
 		});
+		modifications++;
 	}
 
 	public void setEnabled(List<String> extensionNames) {
@@ -149,6 +158,15 @@ public void onClear() {
 		REGISTRY.values().forEach(fc -> {
 			fc.onClear();
 		});
+		modifications++;
+	}
+
+	/**
+	 * @return How often extensions were registered, enabled, disabled or cleared.<br>
+	 * If this changed, the extensions may return different file commands for ticks, that they already returned file commands for
+	 */
+	public long getModifications() {
+		return modifications;
 	}
 
 	public void setConfig(Configuration config) {
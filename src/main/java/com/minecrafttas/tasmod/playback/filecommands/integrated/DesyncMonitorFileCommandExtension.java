@@ -1,5 +1,7 @@
 package com.minecrafttas.tasmod.playback.filecommands.integrated;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
 import java.text.NumberFormat;
@@ -7,7 +9,6 @@
 import java.util.List;
 import java.util.Locale;
 
-import com.dselent.bigarraylist.BigArrayList;
 import com.minecrafttas.tasmod.TASmodClient;
 import com.minecrafttas.tasmod.events.EventPlaybackClient;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TASstate;
@@ -16,6 +17,8 @@
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.util.MappedList;
+import com.minecrafttas.tasmod.util.MappedList.RecordCodec;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.entity.EntityPlayerSP;
@@ -32,7 +35,7 @@ public class DesyncMonitorFileCommandExtension extends PlaybackFileCommandExtens
 	/**
 	 * List containing {@link MonitorContainer MonitorContainers} in a TASfile 
 	 */
-	private BigArrayList<MonitorContainer> monitorContainer;
+	private MappedList<MonitorContainer> monitorContainer;
 
 	/**
 	 * The {@link MonitorContainer} for the current tick
@@ -41,7 +44,7 @@ public class DesyncMonitorFileCommandExtension extends PlaybackFileCommandExtens
 
 	public DesyncMonitorFileCommandExtension() {
 		super("monitoring");
-		this.monitorContainer = new BigArrayList<MonitorContainer>(tempDir.toString());
+		this.monitorContainer = new MappedList<>(tempDir, "monitoring", new MonitorContainerCodec());
 		// Is enabled by default
 		enabled = true;
 	}
@@ -57,14 +60,14 @@ public String[] getFileCommandNames() {
 	}
 
 	@Override
-	public void onControllerStateChange(TASstate newstate, TASstate oldstate) {
+	public synchronized void onControllerStateChange(TASstate newstate, TASstate oldstate) {
 		if (newstate == TASstate.RECORDING && monitorContainer.isEmpty()) {
 			recordNull(0);
 		}
 	}
 
 	@Override
-	public void onRecord(long tick, TickContainer tickContainer) {
+	public synchronized void onRecord(long tick, TickContainer tickContainer) {
 		EntityPlayerSP player = Minecraft.getMinecraft().player;
 		MonitorContainer values = null;
 		if (player != null) {
@@ -88,7 +91,10 @@ public void onDisable() {
 	@Override
 	public PlaybackFileCommandContainer onSerialiseEndlineComment(long currentTick, TickContainer tickContainer) {
 		PlaybackFileCommandContainer out = new PlaybackFileCommandContainer();
-		MonitorContainer monitoredValues = monitorContainer.get(currentTick);
+		MonitorContainer monitoredValues = get(currentTick); // Is called on the saver thread, while recording continues
+		if (monitoredValues == null) {
+			monitoredValues = new MonitorContainer(currentTick);
+		}
 		PlaybackFileCommand command = new PlaybackFileCommand("desyncMonitor", monitoredValues.toStringArray());
 
 		out.add("desyncMonitor", command);
@@ -97,7 +103,7 @@ public PlaybackFileCommandContainer onSerialiseEndlineComment(long currentTick,
 	}
 
 	@Override
-	public void onDeserialiseEndlineComment(long tick, TickContainer container, PlaybackFileCommandContainer fileCommandContainer) {
+	public synchronized void onDeserialiseEndlineComment(long tick, TickContainer container, PlaybackFileCommandContainer fileCommandContainer) {
 		List<PlaybackFileCommand> commandsEndline = fileCommandContainer.get("desyncMonitor");
 		if (commandsEndline == null || commandsEndline.isEmpty()) {
 			recordNull(tick);
@@ -108,7 +114,7 @@ public void onDeserialiseEndlineComment(long tick, TickContainer container, Play
 		this.monitorContainer.add(loadFromFile(tick, command.getArgs()));
 	}
 
-	public void recordNull(long tick) {
+	public synchronized void recordNull(long tick) {
 		if (monitorContainer.size() <= tick) {
 			monitorContainer.add(new MonitorContainer(tick));
 		} else {
@@ -146,7 +152,7 @@ private MonitorContainer loadFromFile(long tick, String[] args) throws PlaybackL
 		return new MonitorContainer(tick, x, y, z, mx, my, mz);
 	}
 
-	public MonitorContainer get(long l) {
+	public synchronized MonitorContainer get(long l) {
 		try {
 			return monitorContainer.get(l);
 		} catch (IndexOutOfBoundsException e) {
@@ -282,6 +288,30 @@ public DesyncStatus getSeverity(double[] playerValues) {
 		}
 	}
 
+	/**
+	 * Stores a {@link MonitorContainer} as a fixed record of the index and the 6 values
+	 */
+	private class MonitorContainerCodec implements RecordCodec<MonitorContainer> {
+
+		@Override
+		public int getRecordSize() {
+			return Long.BYTES + 6 * Double.BYTES;
+		}
+
+		@Override
+		public void write(DataOutput out, MonitorContainer container) throws IOException {
+			out.writeLong(container.index);
+			for (double value : container.values) {
+				out.writeDouble(value);
+			}
+		}
+
+		@Override
+		public MonitorContainer read(DataInput in) throws IOException {
+			return new MonitorContainer(in.readLong(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+		}
+	}
+
 	public enum DesyncStatus {
 		EQUAL(0, TextFormatting.GREEN, "In sync", 0D),
 		WARNING(1, TextFormatting.YELLOW, "Slight desync", 0.00001D),
@@ -342,14 +372,13 @@ private double parseDouble(String doublestring) throws ParseException {
 	}
 
 	@Override
-	public void onClear() {
+	public synchronized void onClear() {
 		currentValues = null;
 		try {
 			monitorContainer.clearMemory();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		monitorContainer = new BigArrayList<MonitorContainer>(tempDir.toString());
 		lastStatus = TextFormatting.GRAY + "Empty";
 		lastPos = "";
 		lastMotion = "";
@@ -2,22 +2,23 @@
 
 import java.io.IOException;
 
-import com.dselent.bigarraylist.BigArrayList;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainerCodec;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandLine;
+import com.minecrafttas.tasmod.util.MappedList;
 
 public class LabelFileCommandExtension extends PlaybackFileCommandExtension {
 
 	private String labelText = "";
 
-	BigArrayList<PlaybackFileCommandContainer> label = new BigArrayList<>();
+	MappedList<PlaybackFileCommandContainer> label;
 
 	public LabelFileCommandExtension() {
 		super("label");
-		this.label = new BigArrayList<>(tempDir.toString());
+		this.label = new MappedList<>(tempDir, "label", new PlaybackFileCommandContainerCodec());
 		enabled = true;
 	}
 
@@ -65,8 +66,6 @@ public void onClear() {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-
-		label = new BigArrayList<>();
 		labelText = "";
 	}
 
@@ -2,24 +2,25 @@
 
 import java.io.IOException;
 
-import com.dselent.bigarraylist.BigArrayList;
 import com.minecrafttas.tasmod.TASmod;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainerCodec;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandLine;
 import com.minecrafttas.tasmod.util.LoggerMarkers;
+import com.minecrafttas.tasmod.util.MappedList;
 
 public class OptionsFileCommandExtension extends PlaybackFileCommandExtension {
 
 	private boolean shouldRenderHud = true;
 
-	BigArrayList<PlaybackFileCommandContainer> hud;
+	MappedList<PlaybackFileCommandContainer> hud;
 
 	public OptionsFileCommandExtension() {
 		super("hud");
-		hud = new BigArrayList<>(tempDir.toString());
+		hud = new MappedList<>(tempDir, "hud", new PlaybackFileCommandContainerCodec());
 		enabled = true;
 	}
 
@@ -84,8 +85,6 @@ public void onClear() {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-
-		hud = new BigArrayList<>();
 		shouldRenderHud = true;
 	}
 
@@ -1,20 +1,40 @@
 package com.minecrafttas.tasmod.playback.tasfile;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import com.dselent.bigarraylist.BigArrayList;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader.LineSupplier;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackSaveException;
 import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.playback.tickstore.ViewTickStore;
 import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
 import com.minecrafttas.tasmod.util.FileThread;
 
@@ -27,6 +47,32 @@ public class PlaybackSerialiser {
 
 	private static String defaultFlavor = "beta1";
 
+	/**
+	 * If true, the ticks of a TASfile are deserialised on multiple threads.
+	 * @see SerialiserFlavorBase#deserialiseParallel(TASfileLineReader, ForkJoinPool)
+	 */
+	private static boolean parallelLoading = true;
+
+	/**
+	 * If true, the inputs of text based TASfiles are decoded on first access instead of while loading.
+	 * @see SerialiserFlavorBase#deserialiseLazy(TASfileLineReader)
+	 */
+	private static boolean lazyLoading = false;
+
+	/**
+	 * If true, a {@link TASfileIndex} is written next to text based TASfiles when saving
+	 */
+	private static boolean writeIndex = false;
+
+	/**
+	 * Saves the snapshots of {@link #saveToFileAsync(TASfileSnapshot)}, one after another
+	 */
+	private static final ExecutorService SAVER = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "TASmod Saver");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	/**
 	 * Saves the {@link PlaybackControllerClient} to a file
 	 * 
@@ -40,7 +86,14 @@ public static void saveToFile(Path file, PlaybackControllerClient controller, St
 	}
 
 	/**
-	 * Saves the {@link PlaybackControllerClient} <i>partially</i> to a file
+	 * <p>Saves the {@link PlaybackControllerClient} <i>partially</i> to a file
+	 * 
+	 * <p>If the file was saved from the controller before, only the ticks that {@link SavedTASfile changed since then} are rewritten.<br>
+	 * If the controller has a {@link TASfileJournal}, the ticks are copied from the journal and only the ticks that are not in the journal yet are serialised.
+	 * 
+	 * <p>The file is {@link TASfileCompression compressed}, if its name ends with {@link TASfileCompression#FILE_ENDING}
+	 * 
+	 * @see #saveToFile(Path, BigArrayList, String, long, boolean, SavedTASfile, TASfileJournal)
 	 * 
 	 * @param file The file to save the serialised inputs to
 	 * @param controller The {@link PlaybackControllerClient} to use. Uses the {@link PlaybackControllerClient#getInputs() getInputs()} method, to extract the ticks.
@@ -49,10 +102,252 @@ public static void saveToFile(Path file, PlaybackControllerClient controller, St
 	 * @throws PlaybackSaveException When a saving operation fails
 	 */
 	public static void saveToFile(Path file, PlaybackControllerClient controller, String flavorName, long stopIndex) throws PlaybackSaveException {
+		saveToFile(file, controller, flavorName, stopIndex, file != null && TASfileCompression.hasCompressedEnding(file));
+	}
+
+	/**
+	 * Saves the {@link PlaybackControllerClient} <i>partially</i> to a file, that is {@link TASfileCompression compressed} if specified
+	 * 
+	 * @param file The file to save the serialised inputs to
+	 * @param controller The {@link PlaybackControllerClient} to use. Uses the {@link PlaybackControllerClient#getInputs() getInputs()} method, to extract the ticks.
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use for the tasfile
+	 * @param stopIndex The index at which the serialiser stops. Use -1L to parse the entire file 
+	 * @param compress If the file should be compressed
+	 * @throws PlaybackSaveException When a saving operation fails
+	 */
+	public static void saveToFile(Path file, PlaybackControllerClient controller, String flavorName, long stopIndex, boolean compress) throws PlaybackSaveException {
 		if (controller == null) {
 			throw new PlaybackSaveException("Save to file failed. No controller specified");
 		}
-		saveToFile(file, controller.getInputs(), flavorName, stopIndex);
+
+		if (file == null) {
+			throw new PlaybackSaveException("Save to file failed. No file specified");
+		}
+
+		TASfileSnapshot snapshot = createSnapshot(file, controller, flavorName, stopIndex, compress, false);
+		try {
+			controller.setSavedFile(file, snapshot.finish(snapshot.save()));
+		} finally {
+			snapshot.close();
+		}
+		controller.updateMerkleTree(snapshot);
+	}
+
+	/**
+	 * <p>Takes a {@link TASfileSnapshot} of the {@link PlaybackControllerClient}, which can be saved with {@link #saveToFileAsync(TASfileSnapshot)}.
+	 * 
+	 * <p>Has to be called on the client thread, as the header and the {@link TASfileCommandCapture file commands} are taken from the extensions and the ticks are frozen.<br>
+	 * {@link TickStore#freeze(long) Freezing} the ticks does not copy them, and only the file commands of the ticks, that were added or changed since the last snapshot, are taken from the extensions.<br>
+	 * Ticks that are played back from a {@link ViewTickStore TASfile view} are read from the TASfile again on the saver thread.
+	 * 
+	 * <p>Once saved, {@link TASfileSnapshot#finish(SavedTASfile)} has to be called on the client thread.
+	 * 
+	 * @param file The file to save the serialised inputs to
+	 * @param controller The {@link PlaybackControllerClient} to take the snapshot of
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use for the tasfile
+	 * @param stopIndex The index at which the serialiser stops. Use -1L to parse the entire file
+	 * @return The snapshot of the controller
+	 * @throws PlaybackSaveException When the header can't be serialised or the viewed TASfile can't be closed
+	 */
+	public static TASfileSnapshot snapshot(Path file, PlaybackControllerClient controller, String flavorName, long stopIndex) throws PlaybackSaveException {
+		if (controller == null) {
+			throw new PlaybackSaveException("Save to file failed. No controller specified");
+		}
+
+		if (file == null) {
+			throw new PlaybackSaveException("Save to file failed. No file specified");
+		}
+
+		return createSnapshot(file, controller, flavorName, stopIndex, TASfileCompression.hasCompressedEnding(file), true);
+	}
+
+	/**
+	 * @param copyTicks If the ticks should be frozen, otherwise the snapshot uses the ticks of the controller and has to be saved immediately
+	 */
+	private static TASfileSnapshot createSnapshot(Path file, PlaybackControllerClient controller, String flavorName, long stopIndex, boolean compress, boolean copyTicks) throws PlaybackSaveException {
+		SerialiserFlavorBase flavor = getFlavorForSaving(flavorName);
+
+		List<String> header = flavor.serialiseHeader();
+
+		TickStore inputs = controller.getInputs();
+		long toTick = stopIndex < 0 ? inputs.size() : Math.min(stopIndex, inputs.size());
+
+		// Forget the file first, as it is in an unknown state if saving fails
+		SavedTASfile saved = controller.getSavedFile(file);
+		controller.setSavedFile(file, null);
+
+		// The file commands of viewed ticks, that were not played back yet, are only in the TASfile
+		TASfileCommandCapture fileCommands = new TASfileCommandCapture();
+		if (inputs instanceof ViewTickStore) {
+			ViewTickStore viewInputs = (ViewTickStore) inputs;
+			long viewEnd = Math.min(viewInputs.getViewSize(), toTick);
+			fileCommands = new TASfileCommandCapture(Math.min(viewInputs.getNextFileCommandTick(), viewEnd), viewEnd);
+		}
+
+		// The TASfile that is played back is still read while saving, so it is replaced once the snapshot was written next to it
+		ViewTickStore replacedView = null;
+		if (inputs instanceof ViewTickStore && ((ViewTickStore) inputs).readsFrom(file)) {
+			ViewTickStore viewInputs = (ViewTickStore) inputs;
+			if (flavor.isBinary() || compress || toTick < viewInputs.getViewSize()) {
+				// The saved TASfile can't be viewed or doesn't contain every viewed tick, so the ticks are copied out of it before it's overwritten
+				try {
+					fileCommands.readFromFile(viewInputs);
+					viewInputs.detach();
+				} catch (IOException e) {
+					throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be closed", file.getFileName().toString());
+				}
+			} else {
+				replacedView = viewInputs;
+			}
+		}
+
+		// The extensions are only changed on this thread, so their file commands are captured now and serialised on the saver thread
+		fileCommands.capture(controller.getFileCommandHistory(), inputs, toTick);
+
+		// The ticks that are missing in the journal are serialised on the saver thread, with the captured file commands
+		TASfileJournal journal = controller.getJournal();
+		long journalGeneration = 0;
+		if (journal != null && !flavor.isBinary() && !compress) {
+			journal.setFlavor(flavor.clone());
+			journalGeneration = journal.getGeneration();
+		} else {
+			journal = null;
+		}
+
+		// The ticks that were not hashed yet are hashed while saving
+		TickMerkleTree merkleTree = controller.copyMerkleTree();
+		merkleTree.truncate(toTick);
+
+		TickStore ticks = inputs;
+		if (copyTicks) {
+			ticks = inputs.freeze(toTick);
+			flavor = flavor.clone();
+		}
+		flavor.setFileCommandCapture(fileCommands);
+		return new TASfileSnapshot(file, flavor, header, ticks, merkleTree, copyTicks, toTick, compress, saved, journal, journalGeneration, replacedView);
+	}
+
+	/**
+	 * <p>Saves a {@link TASfileSnapshot} on the {@link #SAVER}, while the controller keeps recording.
+	 * 
+	 * <p>The snapshot is {@link TASfileSnapshot#close() closed} after saving.
+	 * 
+	 * @param snapshot The snapshot to save
+	 * @return A future that completes on the saver thread with the information about the saved file,<br>
+	 * or exceptionally with a {@link PlaybackSaveException} if saving failed
+	 */
+	public static CompletableFuture<SavedTASfile> saveToFileAsync(TASfileSnapshot snapshot) {
+		CompletableFuture<SavedTASfile> future = new CompletableFuture<>();
+		SAVER.execute(() -> {
+			try {
+				future.complete(snapshot.save());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			} finally {
+				snapshot.close();
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * <p>Saves a BigArrayList of {@link TickContainer TickContainers} <i>partially</i> to a file, that might have been saved before.
+	 * 
+	 * <p>If the file was saved before, only the ticks from the {@link SavedTASfile#getFirstChangedTick() first changed tick} onwards are rewritten.<br>
+	 * If a {@link TASfileJournal} is specified, the ticks are copied from the journal and only the ticks that are not in the journal yet are serialised.
+	 * 
+	 * @param path The file to save the serialised inputs to
+	 * @param container The list of {@link TickContainer TickContainers} to use
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use for the tasfile
+	 * @param stopIndex The index at which the serialiser stops. Use -1L to parse the entire file
+	 * @param saved The information about the last save of the file. Can be null
+	 * @param journal The journal of the container. Can be null
+	 * @return The information about this save, or null if a {@link SerialiserFlavorBase#isBinary() binary flavor} was used
+	 * @throws PlaybackSaveException When a saving operation fails
+	 */
+	public static SavedTASfile saveToFile(Path path, BigArrayList<TickContainer> container, String flavorName, long stopIndex, SavedTASfile saved, TASfileJournal journal) throws PlaybackSaveException {
+		return saveToFile(path, container, flavorName, stopIndex, path != null && TASfileCompression.hasCompressedEnding(path), saved, journal);
+	}
+
+	/**
+	 * <p>Saves a BigArrayList of {@link TickContainer TickContainers} <i>partially</i> to a file, that might have been saved before.
+	 * 
+	 * <p>{@link TASfileCompression Compressed} files are always written completely, as the position of the changed ticks is unknown in the compressed data.
+	 * 
+	 * @param path The file to save the serialised inputs to
+	 * @param container The list of {@link TickContainer TickContainers} to use
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use for the tasfile
+	 * @param stopIndex The index at which the serialiser stops. Use -1L to parse the entire file
+	 * @param compress If the file should be compressed
+	 * @param saved The information about the last save of the file. Can be null
+	 * @param journal The journal of the container. Can be null
+	 * @return The information about this save, or null if a {@link SerialiserFlavorBase#isBinary() binary flavor} was used or the file was compressed
+	 * @throws PlaybackSaveException When a saving operation fails
+	 */
+	public static SavedTASfile saveToFile(Path path, BigArrayList<TickContainer> container, String flavorName, long stopIndex, boolean compress, SavedTASfile saved, TASfileJournal journal) throws PlaybackSaveException {
+		if (path == null) {
+			throw new PlaybackSaveException("Save to file failed. No file specified");
+		}
+
+		if (container == null) {
+			throw new PlaybackSaveException("Save to file failed. No tickcontainer list specified");
+		}
+
+		SerialiserFlavorBase flavor = getFlavorForSaving(flavorName);
+		return save(path, TickStore.of(container), flavor, flavor.serialiseHeader(), stopIndex, compress, saved, journal);
+	}
+
+	/**
+	 * Saves the ticks with a header that was serialised beforehand, e.g. in a {@link TASfileSnapshot}
+	 * 
+	 * @see #saveToFile(Path, BigArrayList, String, long, boolean, SavedTASfile, TASfileJournal)
+	 */
+	static SavedTASfile save(Path path, TickStore container, SerialiserFlavorBase flavor, List<String> header, long stopIndex, boolean compress, SavedTASfile saved, TASfileJournal journal) throws PlaybackSaveException {
+		deleteFingerprint(path);
+
+		if (flavor.isBinary()) {
+			saveBinary(path, container, flavor, header, stopIndex, compress);
+			return null;
+		}
+
+		if (compress) {
+			try {
+				saveText(path, container, flavor, header, stopIndex, true, false);
+			} catch (IOException e) {
+				throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be written", path.getFileName().toString());
+			}
+			return null;
+		}
+
+		long toTick = stopIndex < 0 ? container.size() : Math.min(stopIndex, container.size());
+
+		try {
+			if (journal != null) {
+				journal.setFlavor(flavor.clone());
+				journal.append(container, toTick, flavor.getFileCommandCapture());
+			}
+
+			byte[] headerBytes = toBytes(header);
+
+			TASfileIndex index = null;
+			if (saved != null) {
+				index = saveChanges(path, container, flavor, headerBytes, toTick, saved, journal);
+			}
+			if (index == null) {
+				if (journal != null) {
+					index = journal.save(path, header, toTick);
+				} else {
+					index = saveText(path, container, flavor, header, toTick, false, true);
+				}
+			}
+
+			if (writeIndex) {
+				index.write(TASfileIndex.getIndexPath(path));
+			}
+			return new SavedTASfile(flavor, headerBytes.length, index);
+		} catch (IOException e) {
+			throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be written", path.getFileName().toString());
+		}
 	}
 
 	/**
@@ -76,6 +371,19 @@ public static void saveToFile(Path file, BigArrayList<TickContainer> container,
 	 * @throws PlaybackSaveException When a saving operation fails
 	 */
 	public static void saveToFile(Path path, BigArrayList<TickContainer> container, String flavorName, long stopIndex) throws PlaybackSaveException {
+		saveToFile(path, container, flavorName, stopIndex, path != null && TASfileCompression.hasCompressedEnding(path));
+	}
+
+	/**
+	 * Saves a BigArrayList of {@link TickContainer TickContainers} <i>partially</i> to a file, that is {@link TASfileCompression compressed} if specified
+	 * @param path The file to save the serialised inputs to
+	 * @param container The list of {@link TickContainer TickContainers} to use
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use for the tasfile
+	 * @param stopIndex The index at which the serialiser stops. Use -1L to parse the entire file 
+	 * @param compress If the file should be compressed
+	 * @throws PlaybackSaveException When a saving operation fails
+	 */
+	public static void saveToFile(Path path, BigArrayList<TickContainer> container, String flavorName, long stopIndex, boolean compress) throws PlaybackSaveException {
 		if (path == null) {
 			throw new PlaybackSaveException("Save to file failed. No file specified");
 		}
@@ -84,20 +392,212 @@ public static void saveToFile(Path path, BigArrayList<TickContainer> container,
 			throw new PlaybackSaveException("Save to file failed. No tickcontainer list specified");
 		}
 
-		if (flavorName == null || flavorName.isEmpty()) {
-			if (defaultFlavor == null || defaultFlavor.isEmpty())
-				throw new PlaybackSaveException("No default flavor specified... Please specify a flavor name first");
-			flavorName = defaultFlavor;
+		SerialiserFlavorBase flavor = getFlavorForSaving(flavorName);
+		deleteFingerprint(path);
+
+		if (flavor.isBinary()) {
+			saveBinary(path, TickStore.of(container), flavor, flavor.serialiseHeader(), stopIndex, compress);
+			return;
 		}
 
+		try {
+			TASfileIndex index = saveText(path, TickStore.of(container), flavor, flavor.serialiseHeader(), stopIndex, compress, writeIndex);
+			if (index != null) {
+				index.write(TASfileIndex.getIndexPath(path));
+			}
+		} catch (IOException e) {
+			throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be written", path.getFileName().toString());
+		}
+	}
+
+	/**
+	 * <p>Saves a BigArrayList of {@link TickContainer TickContainers} with a header that was serialised beforehand.
+	 * 
+	 * <p>Used by the {@link TASfileConverter}, where the header comes from the converted file instead of the extensions.<br>
+	 * The flavor is used as is, so it can be configured before, e.g. to not {@link SerialiserFlavorBase#setProcessExtensions(boolean) process extensions}.
+	 * 
+	 * @param path The file to save the serialised inputs to
+	 * @param container The list of {@link TickContainer TickContainers} to use
+	 * @param flavor The {@link SerialiserFlavorBase flavor} to use. Is not shared with other threads
+	 * @param header The serialised header, see {@link SerialiserFlavorBase#serialiseHeader(List, List)}
+	 * @param compress If the file should be {@link TASfileCompression compressed}
+	 * @throws PlaybackSaveException When a saving operation fails
+	 */
+	public static void saveToFile(Path path, BigArrayList<TickContainer> container, SerialiserFlavorBase flavor, List<String> header, boolean compress) throws PlaybackSaveException {
+		if (path == null) {
+			throw new PlaybackSaveException("Save to file failed. No file specified");
+		}
+
+		if (container == null) {
+			throw new PlaybackSaveException("Save to file failed. No tickcontainer list specified");
+		}
+
+		deleteFingerprint(path);
+
+		if (flavor.isBinary()) {
+			saveBinary(path, TickStore.of(container), flavor, header, -1, compress);
+			return;
+		}
+
+		try {
+			saveText(path, TickStore.of(container), flavor, header, -1, compress, false);
+		} catch (IOException e) {
+			throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be written", path.getFileName().toString());
+		}
+	}
+
+	/**
+	 * <p>Serialises the header and the ticks into a text based TASfile
+	 * 
+	 * <p>If the file is compressed, the text is compressed on the {@link FileThread} as well, so compressing doesn't slow down the serialisation
+	 * 
+	 * @param path The file to save the serialised inputs to
+	 * @param container The list of {@link TickContainer TickContainers} to use
+	 * @param flavor The {@link SerialiserFlavorBase flavor} to use
+	 * @param header The serialised header
+	 * @param stopIndex The index at which the serialiser stops. Use -1L to parse the entire file
+	 * @param compress If the file should be {@link TASfileCompression compressed}
+	 * @param indexed If the {@link TASfileIndex} is created while writing, which also hashes the written lines. Compressed files are never indexed
+	 * @return The {@link TASfileIndex} of the written TASfile, or null if the file was compressed or not indexed
+	 * @throws PlaybackSaveException If the file can't be created
+	 * @throws IOException If writing the file fails
+	 */
+	private static TASfileIndex saveText(Path path, TickStore container, SerialiserFlavorBase flavor, List<String> header, long stopIndex, boolean compress, boolean indexed) throws PlaybackSaveException, IOException {
 		FileThread writerThread;
 		try {
-			writerThread = new FileThread(path, false);
+			if (compress) {
+				writerThread = new FileThread(TASfileCompression.newOutputStream(path, true), FileThread.DEFAULT_BATCH_SIZE, FileThread.DEFAULT_QUEUE_CAPACITY);
+				writerThread.setName("FileThread-" + path.getFileName());
+			} else {
+				writerThread = new FileThread(path, false);
+			}
 		} catch (IOException e) {
 			throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be created", path.getFileName().toString());
 		}
 		writerThread.start();
 
+		TASfileIndex.Builder index = compress || !indexed ? null : new TASfileIndex.Builder(TASfileIndex.DEFAULT_INTERVAL);
+
+		// Serialise the ticks directly into the writer thread, without collecting every line in memory first
+		try {
+			Writer writer = writerThread.getWriter();
+
+			for (String line : header) {
+				writer.write(line);
+				writer.write('\n');
+				if (index != null) {
+					index.addLine(line);
+				}
+			}
+
+			flavor.serialise(container, stopIndex, writer, index);
+
+			writerThread.waitForCompletion();
+		} finally {
+			writerThread.close();
+		}
+		if (index == null) {
+			return null;
+		}
+		return index.build();
+	}
+
+	/**
+	 * <p>Rewrites the ticks of a previously saved TASfile, starting at the {@link SavedTASfile#getFirstChangedTick() first changed tick}.
+	 * 
+	 * <p>The bytes before the first changed tick are left untouched. The changed ticks are copied from the journal or serialised,<br>
+	 * and are indexed and hashed while they are written. Only the bytes after the sampled tick closest to the first changed tick are read again.
+	 * 
+	 * <p>If the header changed its content, or if the size of the TASfile or the bytes after that sampled tick were modified by something else,<br>
+	 * the TASfile can't be partially rewritten.
+	 * 
+	 * @param path The file to save the serialised inputs to
+	 * @param container The list of {@link TickContainer TickContainers} to use
+	 * @param flavor The {@link SerialiserFlavorBase flavor} to use
+	 * @param header The serialised header as UTF-8 encoded bytes
+	 * @param toTick The tick at which the serialiser stops, exclusive
+	 * @param saved The information about the last save of the file
+	 * @param journal The journal that contains the ticks up to <code>toTick</code>. Can be null
+	 * @return The {@link TASfileIndex} of the written TASfile, or null if the file has to be saved completely
+	 * @throws IOException If writing the file fails
+	 */
+	private static TASfileIndex saveChanges(Path path, TickStore container, SerialiserFlavorBase flavor, byte[] header, long toTick, SavedTASfile saved, TASfileJournal journal) throws IOException {
+		TASfileIndex index = saved.getIndex();
+		long from = Math.min(saved.getFirstChangedTick(), toTick);
+		if (!saved.getFlavorName().equals(flavor.getExtensionName()) || saved.getHeaderLength() != header.length || !index.matches(path, from)) {
+			return null;
+		}
+
+		long[] location;
+		try {
+			location = index.locate(path, flavor, from);
+		} catch (PlaybackLoadException e) {
+			return null;
+		}
+		if (location == null) {
+			return null;
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer existingHeader = ByteBuffer.allocate(header.length);
+			while (existingHeader.hasRemaining()) {
+				if (channel.read(existingHeader) == -1) {
+					return null;
+				}
+			}
+			if (!Arrays.equals(header, existingHeader.array())) {
+				return null;
+			}
+
+			TASfileIndex.Builder rewritten = index.rewrite(path, from, location[0], location[1]);
+			channel.truncate(location[0]);
+			channel.position(location[0]);
+			if (journal != null) {
+				journal.transferTo(from, toTick, channel, rewritten);
+			} else {
+				Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+				flavor.serialise(container, from, toTick, writer, rewritten);
+				writer.flush();
+			}
+			return rewritten.build();
+		}
+	}
+
+	/**
+	 * Deletes the {@link TASfileFingerprint} of a file that is overwritten, as it would no longer match the ticks in the file.<br>
+	 * Only a {@link TASfileSnapshot} writes a new fingerprint after saving
+	 * 
+	 * @param path The file that is overwritten
+	 * @throws PlaybackSaveException If the fingerprint can't be deleted
+	 */
+	private static void deleteFingerprint(Path path) throws PlaybackSaveException {
+		try {
+			TASfileFingerprint.delete(path);
+		} catch (IOException e) {
+			throw new PlaybackSaveException(e, "Trying to save the file %s, but the fingerprint can't be deleted", path.getFileName().toString());
+		}
+	}
+
+	private static byte[] toBytes(List<String> lines) {
+		StringBuilder builder = new StringBuilder();
+		for (String line : lines) {
+			builder.append(line).append('\n');
+		}
+		return builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor}. If null or empty, the last used flavor is used
+	 * @return A copy of the flavor
+	 * @throws PlaybackSaveException If the flavor doesn't exist
+	 */
+	private static SerialiserFlavorBase getFlavorForSaving(String flavorName) throws PlaybackSaveException {
+		if (flavorName == null || flavorName.isEmpty()) {
+			if (defaultFlavor == null || defaultFlavor.isEmpty())
+				throw new PlaybackSaveException("No default flavor specified... Please specify a flavor name first");
+			flavorName = defaultFlavor;
+		}
+
 		SerialiserFlavorBase flavor = TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavor(flavorName);
 
 		if (flavor == null) {
@@ -105,18 +605,32 @@ public static void saveToFile(Path path, BigArrayList<TickContainer> container,
 		}
 
 		defaultFlavor = flavorName;
+		return flavor;
+	}
 
-		List<String> header = flavor.serialiseHeader();
-		for (String line : header) {
-			writerThread.addLine(line);
-		}
+	/**
+	 * Saves the ticks with a {@link SerialiserFlavorBase#isBinary() binary flavor}.<br>
+	 * The header is written as text, followed by the binary data of the flavor
+	 * 
+	 * @param path The file to save the serialised inputs to
+	 * @param container The list of {@link TickContainer TickContainers} to use
+	 * @param flavor The binary {@link SerialiserFlavorBase flavor}
+	 * @param header The serialised header
+	 * @param stopIndex The index at which the serialiser stops. Use -1L to parse the entire file
+	 * @param compress If the file should be {@link TASfileCompression compressed}
+	 * @throws PlaybackSaveException When a saving operation fails
+	 */
+	private static void saveBinary(Path path, TickStore container, SerialiserFlavorBase flavor, List<String> header, long stopIndex, boolean compress) throws PlaybackSaveException {
+		try (OutputStream out = new BufferedOutputStream(TASfileCompression.newOutputStream(path, compress))) {
+			for (String line : header) {
+				out.write(line.getBytes(StandardCharsets.UTF_8));
+				out.write('\n');
+			}
 
-		BigArrayList<String> tickLines = flavor.serialise(container, stopIndex);
-		for (long i = 0; i < tickLines.size(); i++) {
-			writerThread.addLine(tickLines.get(i));
+			flavor.serialise(container, stopIndex, out);
+		} catch (IOException e) {
+			throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be written", path.getFileName().toString());
 		}
-
-		writerThread.close();
 	}
 
 	/**
@@ -133,18 +647,7 @@ public static BigArrayList<TickContainer> loadFromFile(Path file) throws Playbac
 	}
 
 	public static BigArrayList<TickContainer> loadFromFile(Path file, boolean processExtensions) throws PlaybackLoadException, IOException {
-		if (file == null) {
-			throw new PlaybackLoadException("Load from file failed. No file specified");
-		}
-		if (!Files.exists(file)) {
-			throw new PlaybackLoadException("Trying to load %s but the file doesn't exist", file.getFileName().toString());
-		}
-
-		SerialiserFlavorBase flavor = readFlavor(file);
-
-		flavor.setProcessExtensions(processExtensions);
-
-		return loadFromFile(file, flavor);
+		return load(file, null, processExtensions, null, null);
 	}
 
 	/**
@@ -161,35 +664,91 @@ public static BigArrayList<TickContainer> loadFromFile(Path file, String flavorN
 	}
 
 	public static BigArrayList<TickContainer> loadFromFile(Path file, String flavorName, boolean processExtensions) throws PlaybackLoadException, IOException {
+		return load(file, flavorName, processExtensions, null, null);
+	}
 
-		// If the flavor is null or empty, try to determine the flavor by reading the header
-		if (flavorName == null || flavorName.isEmpty()) {
-			return loadFromFile(file);
-		}
+	/**
+	 * Loads a BigArrayList of {@link TickContainer TickContainers} from a file, while updating the progress of loading.<br>
+	 * Is meant to be called on a different thread, which can be stopped with {@link TASfileLoadProgress#cancel()}
+	 * 
+	 * @param file The file to load from
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use. If null or empty, the flavor is determined by reading the header
+	 * @param progress Receives the read bytes and the parsed ticks
+	 * @return The loaded BigArrayList of {@link TickContainer TickContainers}
+	 * @throws PlaybackLoadException If the file contains errors
+	 * @throws IOException If the file could not be read
+	 * @throws CancellationException If loading was cancelled
+	 */
+	public static BigArrayList<TickContainer> loadFromFile(Path file, String flavorName, TASfileLoadProgress progress) throws PlaybackLoadException, IOException, CancellationException {
+		return load(file, flavorName, true, progress, null);
+	}
 
-		// Try to get the flavor from the registry via its name
-		SerialiserFlavorBase flavor = TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavor(flavorName);
+	/**
+	 * <p>Loads a BigArrayList of {@link TickContainer TickContainers} from a file, while updating the progress of loading.<br>
+	 * Is meant to be called on a different thread, which can be stopped with {@link TASfileLoadProgress#cancel()}
+	 * 
+	 * <p>The extensions are not changed while loading. Instead, the header and the file commands are added to a buffer,<br>
+	 * which is {@link TASfileExtensionBuffer#apply(TickStore) applied} on the client thread, once the loaded ticks are used.
+	 * 
+	 * @param file The file to load from
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use. If null or empty, the flavor is determined by reading the header
+	 * @param progress Receives the read bytes and the parsed ticks
+	 * @param extensions Receives the data of the extensions
+	 * @return The loaded BigArrayList of {@link TickContainer TickContainers}
+	 * @throws PlaybackLoadException If the file contains errors
+	 * @throws IOException If the file could not be read
+	 * @throws CancellationException If loading was cancelled
+	 */
+	public static BigArrayList<TickContainer> loadFromFile(Path file, String flavorName, TASfileLoadProgress progress, TASfileExtensionBuffer extensions) throws PlaybackLoadException, IOException, CancellationException {
+		return load(file, flavorName, true, progress, extensions);
+	}
 
-		if (flavor == null) {
-			throw new PlaybackLoadException("Flavor name %s doesn't exist.", flavorName);
+	private static BigArrayList<TickContainer> load(Path file, String flavorName, boolean processExtensions, TASfileLoadProgress progress, TASfileExtensionBuffer extensions) throws PlaybackLoadException, IOException {
+		SerialiserFlavorBase flavor = null;
+
+		// If the flavor is null or empty, try to determine the flavor by reading the header
+		if (flavorName != null && !flavorName.isEmpty()) {
+			// Try to get the flavor from the registry via its name
+			flavor = TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavor(flavorName);
+
+			if (flavor == null) {
+				throw new PlaybackLoadException("Flavor name %s doesn't exist.", flavorName);
+			}
 		}
 
-		// Read the head of the TASfile to check if the flavors match
-		SerialiserFlavorBase flavorInFile = readFlavor(file);
-		if (!flavor.equals(flavorInFile)) {
-			throw new PlaybackLoadException("Detected flavor %s in the TASfile, which does not match the specified flavor: %s");
+		if (file == null) {
+			throw new PlaybackLoadException("Load from file failed. No file specified");
 		}
 
-		flavor.setProcessExtensions(processExtensions);
+		// Detect the flavor while reading the header, so the file is only opened and read once
+		try (InputStream in = openTASfile(file, progress)) {
+			TASfileLineReader headerReader = new TASfileLineReader(in);
+			List<String> headerLines = new ArrayList<>();
+
+			// Read the head of the TASfile to check if the flavors match
+			SerialiserFlavorBase flavorInFile = detectFlavor(headerReader, headerLines);
+			if (flavor == null) {
+				flavor = flavorInFile;
+			} else if (!flavor.equals(flavorInFile)) {
+				throw new PlaybackLoadException("Detected flavor %s in the TASfile, which does not match the specified flavor: %s", flavorInFile.getExtensionName(), flavorName);
+			}
 
-		return loadFromFile(file, flavor);
+			flavor.setProcessExtensions(processExtensions);
+			flavor.setExtensionBuffer(extensions);
+
+			BigArrayList<TickContainer> out = loadFromStream(in, headerReader, flavor, flavor.extractHeader(headerReader, headerLines), progress);
+			if (progress != null) {
+				progress.setTicks(out.size());
+			}
+			return out;
+		}
 	}
 
 	/**
 	 * Loads a BigArrayList of {@link TickContainer TickContainers} from a file, with a specific flavor
 	 * 
 	 * @param file The file to load from
-	 * @param flavor The {@link SerialiserFlavorBase flavor} to use. If the detected flavor in the TASfile mismatches, a {@link PlaybackLoadException} is thrown
+	 * @param flavor The {@link SerialiserFlavorBase flavor} to use. The flavor name in the TASfile is not checked
 	 * @return The loaded BigArrayList of {@link TickContainer TickContainers}
 	 * @throws PlaybackLoadException If the file contains errors
 	 * @throws IOException If the file could not be read
@@ -199,40 +758,197 @@ public static BigArrayList<TickContainer> loadFromFile(Path file, SerialiserFlav
 			throw new PlaybackLoadException("Load from file failed. No file specified");
 		}
 
-		// Read file
-		BufferedReader reader = null;
+		try (InputStream in = openTASfile(file, null)) {
+			TASfileLineReader headerReader = new TASfileLineReader(in);
+			return loadFromStream(in, headerReader, flavor, flavor.extractHeader(headerReader), null);
+		}
+	}
 
+	/**
+	 * <p>Deserialises the header and the ticks of a TASfile, after the header was read.
+	 * 
+	 * <p>The header is read line by line from the stream, so no bytes after the header are consumed.<br>
+	 * The rest of the stream is passed to the flavor, either as binary data or as text.
+	 * 
+	 * @param in The stream of the TASfile, positioned after the header
+	 * @param headerReader The reader that read the header from the stream
+	 * @param flavor The {@link SerialiserFlavorBase flavor} to use
+	 * @param headerLines The lines of the header
+	 * @param progress Receives the parsed ticks. Can be null
+	 * @return The loaded BigArrayList of {@link TickContainer TickContainers}
+	 * @throws PlaybackLoadException If the file contains errors
+	 * @throws IOException If the file could not be read
+	 */
+	private static BigArrayList<TickContainer> loadFromStream(InputStream in, TASfileLineReader headerReader, SerialiserFlavorBase flavor, List<String> headerLines, TASfileLoadProgress progress) throws PlaybackLoadException, IOException {
+		// Deserialise Header
+		flavor.deserialiseHeader(headerLines);
+
+		if (flavor.isBinary()) {
+			return flavor.deserialise(in);
+		}
+
+		// Stream the lines into the flavor, without reading the entire file into memory
+		BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		LineSupplier supplier = bufferedReader::readLine;
+		if (progress != null) {
+			// The flavor counts the ticks on this thread, while the lines are read
+			supplier = () -> {
+				progress.setTicks(flavor.getCurrentTick());
+				return bufferedReader.readLine();
+			};
+		}
+		try (TASfileLineReader reader = new TASfileLineReader(supplier, bufferedReader, headerReader.getLineIndex())) {
+			// Deserialise main data
+			if (lazyLoading) {
+				return flavor.deserialiseLazy(reader);
+			}
+			if (parallelLoading) {
+				return flavor.deserialiseParallel(reader, ForkJoinPool.commonPool());
+			}
+			return flavor.deserialise(reader);
+		}
+	}
+
+	/**
+	 * Opens a TASfile for reading, which is decompressed while reading if it is {@link TASfileCompression compressed}
+	 * 
+	 * @param file The file to open
+	 * @param progress Counts the bytes that are read from the file. Can be null
+	 * @return The buffered stream of the TASfile
+	 * @throws PlaybackLoadException If the file doesn't exist
+	 * @throws IOException If the file could not be opened
+	 */
+	private static InputStream openTASfile(Path file, TASfileLoadProgress progress) throws PlaybackLoadException, IOException {
 		try {
-			reader = new BufferedReader(new FileReader(file.toFile()));
-		} catch (FileNotFoundException e) {
-			throw new PlaybackLoadException("Trying to load %s, but the file doesn't exist", file.getFileName().toString());
+			if (progress != null) {
+				return TASfileCompression.newInputStream(progress.track(Files.newInputStream(file)));
+			}
+			return TASfileCompression.newInputStream(file);
+		} catch (NoSuchFileException e) {
+			throw new PlaybackLoadException("Trying to load %s but the file doesn't exist", file.getFileName().toString());
 		}
+	}
 
-		BigArrayList<String> lines = new BigArrayList<>();
-		String line = null;
-		while ((line = reader.readLine()) != null) {
-			lines.add(line);
+	/**
+	 * <p>Loads a range of ticks from a file, without deserialising the ticks before it.
+	 * 
+	 * <p>Uses the {@link TASfileIndex} of the file to seek to the closest sampled tick before <code>from</code>.<br>
+	 * If the index doesn't exist or is stale, it is rebuilt first, see {@link #loadIndex(Path, SerialiserFlavorBase)}.
+	 * 
+	 * <p>As only a part of the file is read, the header and file commands are not passed to the extensions.<br>
+	 * {@link SerialiserFlavorBase#isBinary() Binary flavors} and {@link TASfileCompression compressed} files can't be seeked into and are loaded completely instead.
+	 * 
+	 * @param file The file to load from
+	 * @param from The first tick to load, inclusive
+	 * @param to The last tick to load, exclusive
+	 * @return The loaded BigArrayList of {@link TickContainer TickContainers}, which is shorter than the range if the file ends before <code>to</code>
+	 * @throws PlaybackLoadException If the file contains errors
+	 * @throws IOException If the file could not be read
+	 */
+	public static BigArrayList<TickContainer> loadRangeFromFile(Path file, long from, long to) throws PlaybackLoadException, IOException {
+		if (file == null) {
+			throw new PlaybackLoadException("Load from file failed. No file specified");
+		}
+		if (!Files.exists(file)) {
+			throw new PlaybackLoadException("Trying to load %s but the file doesn't exist", file.getFileName().toString());
+		}
+		if (from < 0 || to < from) {
+			throw new PlaybackLoadException("Invalid tick range from %s to %s", from, to);
 		}
-		reader.close();
 
-		// Deserialise Header
-		List<String> headerLines = flavor.extractHeader(lines);
-		flavor.deserialiseHeader(headerLines);
+		SerialiserFlavorBase flavor = readFlavor(file);
+		flavor.setProcessExtensions(false);
+
+		if (flavor.isBinary() || TASfileCompression.isCompressed(file)) {
+			BigArrayList<TickContainer> ticks = loadFromFile(file, flavor);
+			BigArrayList<TickContainer> out = new BigArrayList<>();
+			for (long i = from; i < to && i < ticks.size(); i++) {
+				out.add(ticks.get(i));
+			}
+			return out;
+		}
+
+		TASfileIndex index = loadIndex(file, flavor);
+		int sample = index.floor(from);
+		if (sample == -1) {
+			return new BigArrayList<>();
+		}
 
-		// Deserialise main data
-		BigArrayList<TickContainer> deserialisedContainers = flavor.deserialise(lines, headerLines.size());
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			channel.position(index.getOffset(sample));
+			BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
 
-		return deserialisedContainers;
+			try (TASfileLineReader reader = new TASfileLineReader(bufferedReader::readLine, bufferedReader, index.getLine(sample))) {
+				return flavor.deserialiseRange(reader, index.getTick(sample), from, to);
+			}
+		}
+	}
+
+	/**
+	 * <p>Loads the {@link TASfileIndex} of a text based TASfile, or rebuilds it if it doesn't exist or is stale.
+	 * 
+	 * <p>A rebuilt index is only written next to the TASfile if {@link #setWriteIndex(boolean) writing indexes} is enabled,<br>
+	 * like when saving.
+	 * 
+	 * @param file The TASfile
+	 * @param flavor The {@link SerialiserFlavorBase flavor} of the TASfile
+	 * @return The index of the TASfile
+	 * @throws PlaybackLoadException If the TASfile contains errors while rebuilding the index
+	 * @throws IOException If the TASfile could not be read
+	 */
+	static TASfileIndex loadIndex(Path file, SerialiserFlavorBase flavor) throws PlaybackLoadException, IOException {
+		TASfileIndex index = TASfileIndex.loadStored(file);
+		if (index == null) {
+			index = TASfileIndex.build(file, flavor, TASfileIndex.DEFAULT_INTERVAL);
+			if (writeIndex) {
+				index.write(TASfileIndex.getIndexPath(file));
+			}
+		}
+		return index;
 	}
 
 	/**
-	 * Searches in a list of lines if one of the {@link SerialiserFlavorBase flavors} matches
+	 * @param enabled If the ticks of a TASfile should be deserialised on multiple threads
+	 */
+	public static void setParallelLoading(boolean enabled) {
+		parallelLoading = enabled;
+	}
+
+	/**
+	 * @param enabled If the inputs of text based TASfiles should be decoded on first access instead of while loading
+	 */
+	public static void setLazyLoading(boolean enabled) {
+		lazyLoading = enabled;
+	}
+
+	/**
+	 * @param enabled If a {@link TASfileIndex} should be written next to text based TASfiles when saving
+	 */
+	public static void setWriteIndex(boolean enabled) {
+		writeIndex = enabled;
+	}
+
+	/**
+	 * Searches in a list of lines if one of the {@link SerialiserFlavorBase flavors} matches.<br>
+	 * The name after "Flavor: " is compared with the names of the flavors first, before each flavor checks the lines by itself
 	 * @param lines The lines to search through
 	 * @param flavorList The list of {@link SerialiserFlavorBase flavor} to check for
 	 * @return A copy of the {@link SerialiserFlavorBase flavor} that was found
 	 * @throws PlaybackLoadException If no {@link SerialiserFlavorBase flavor} was found
 	 */
 	public static SerialiserFlavorBase searchForFlavor(List<String> lines, List<SerialiserFlavorBase> flavorList) {
+		for (String line : lines) {
+			String name = getFlavorName(line);
+			if (name == null) {
+				continue;
+			}
+			for (SerialiserFlavorBase flavor : flavorList) {
+				if (flavor.getExtensionName().equals(name)) {
+					return flavor.clone();
+				}
+			}
+		}
+
 		for (SerialiserFlavorBase flavor : flavorList) {
 			if (flavor.deserialiseFlavorName(lines)) {
 				return flavor.clone();
@@ -242,39 +958,55 @@ public static SerialiserFlavorBase searchForFlavor(List<String> lines, List<Seri
 	}
 
 	/**
-	 * Reads the first 100 lines of the TASfile and checks for a flavorname in the file
+	 * Reads the first 100 lines of the TASfile and checks for a flavorname in the file.<br>
+	 * {@link TASfileCompression Compressed} TASfiles are detected by their magic bytes and decompressed while reading
 	 * @param file The file to search through
 	 * @return A copy of the {@link SerialiserFlavorBase flavor} that was found
 	 * @throws PlaybackLoadException If an error was found during reading
 	 * @throws IOException If the reading fails
 	 */
 	public static SerialiserFlavorBase readFlavor(Path file) throws PlaybackLoadException, IOException {
-		// Read file
-		BufferedReader reader = null;
-
-		try {
-			reader = new BufferedReader(new FileReader(file.toFile()));
-		} catch (FileNotFoundException e) {
-			throw new PlaybackLoadException("Trying to load %s but the file doesn't exist", file.getFileName().toString());
+		try (InputStream in = openTASfile(file, null)) {
+			return detectFlavor(new TASfileLineReader(in), new ArrayList<>());
 		}
+	}
 
-		List<String> lines = new ArrayList<>();
-		String line = null;
-
-		// Reads the first 100 lines
-		for (int i = 0; i < 100; i++) {
-
-			line = reader.readLine();
+	/**
+	 * <p>Reads lines until the flavor name is found, at most the first 100 lines of the TASfile.
+	 * 
+	 * <p>The flavor is looked up by the name in the line, so reading stops right at the flavor name<br>
+	 * and the lines that were read can be used as the start of the header.<br>
+	 * If no line contains a registered name, every flavor checks the lines by itself.
+	 * 
+	 * @param reader The reader at the start of the TASfile
+	 * @param lines The list to add the lines to, that were read
+	 * @return A copy of the {@link SerialiserFlavorBase flavor} that was found
+	 * @throws PlaybackLoadException If no {@link SerialiserFlavorBase flavor} was found
+	 */
+	static SerialiserFlavorBase detectFlavor(TASfileLineReader reader, List<String> lines) throws PlaybackLoadException {
+		for (int i = 0; i < 100 && reader.hasNext(); i++) {
+			String line = reader.next();
+			lines.add(line);
 
-			if (line != null) {
-				lines.add(line);
+			String name = getFlavorName(line);
+			if (name != null) {
+				SerialiserFlavorBase flavor = TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavor(name);
+				if (flavor != null) {
+					return flavor;
+				}
 			}
 		}
-		reader.close();
-
-		SerialiserFlavorBase flavor = null;
+		return searchForFlavor(lines, TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavors());
+	}
 
-		flavor = searchForFlavor(lines, TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavors());
-		return flavor;
+	/**
+	 * @param line The line to check
+	 * @return The name in a line like "Flavor: beta1", or null if the line doesn't contain a flavor name
+	 */
+	private static String getFlavorName(String line) {
+		if (!line.startsWith("Flavor: ")) {
+			return null;
+		}
+		return line.substring("Flavor: ".length()).trim();
 	}
 }
@@ -7,17 +7,24 @@
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import org.apache.commons.io.FileUtils;
 
 import com.dselent.bigarraylist.BigArrayList;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
 import com.minecrafttas.tasmod.playback.filecommands.integrated.DesyncMonitorFileCommandExtension;
+import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
 import com.minecrafttas.tasmod.util.FileThread;
 import com.minecrafttas.tasmod.util.LoggerMarkers;
 import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
 import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
 import com.minecrafttas.tasmod.virtual.VirtualMouse;
 
@@ -128,7 +135,7 @@ public void saveToFileV1Until(File file, PlaybackControllerClient container, lon
 //				 + "#############################################################################################################\n"
 //				 + "#Comments start with \"//\" at the start of the line, comments with # will not be saved\n");
 
-		BigArrayList<TickContainer> ticks = container.getInputs();
+		TickStore ticks = container.getInputs();
 //		Map<Integer, List<Pair<String, String[]>>> cbytes= container.getControlBytes();
 //		Map<Integer, List<String>> comments = container.getComments();
 
@@ -158,25 +165,16 @@ public void saveToFileV1Until(File file, PlaybackControllerClient container, lon
 //			TickContainer tickInput = ticks.get(i);
 //			fileThread.addLine(tickInput.toString() + "~&\t\t\t\t//Monitoring:"+container.desyncMonitor.get(i)+"\n");
 //		}
-//		fileThread.close();
+		fileThread.waitForCompletion();
 	}
 
 	public int getFileVersion(File file) throws IOException {
 		LOGGER.trace(LoggerMarkers.Playback, "Retrieving file version from {}", file);
-		List<String> lines = FileUtils.readLines(file, Charset.defaultCharset());
-		for (String line : lines) {
-			if (line.contains("Version")) {
-				String trimmed = line.replaceAll("#|\t", "");
-				int tick = 0;
-				try {
-					tick = Integer.parseInt(trimmed.split(":")[1]);
-				} catch (NumberFormatException e) {
-					throw new IOException("Can't read the file version: " + trimmed);
-				}
-				return tick;
-			}
+		try {
+			return getFileVersion(FileUtils.readLines(file, Charset.defaultCharset()));
+		} catch (PlaybackLoadException e) {
+			throw new IOException(e.getMessage());
 		}
-		return 0;
 	}
 
 	public PlaybackControllerClient fromEntireFileV1(File file) throws IOException {
@@ -299,140 +297,230 @@ public PlaybackControllerClient fromEntireFileV1(File file) throws IOException {
 		return controller;
 	}
 
-	private int readTicks(String section, int linenumber) throws IOException {
-		int ticks = 0;
+	/**
+	 * <p>Reads the ticks of a TASfile in the version 1 format, without changing the {@link PlaybackControllerClient} or the extensions.
+	 * 
+	 * <p>The author, title, playing time, rerecords and start position in the header are converted to metadata.<br>
+	 * Comments are added as inline comments to the next tick and control bytes are kept as file commands in the inline comments.<br>
+	 * The comment after "~&amp;" in a tick line, e.g. the monitoring, is added as an endline comment.
+	 * 
+	 * @param reader   The reader at the start of the TASfile
+	 * @param metadata The list to add the metadata from the header to
+	 * @return The ticks of the TASfile
+	 * @throws PlaybackLoadException If a line can't be read, with the number of the line in the message
+	 */
+	public BigArrayList<TickContainer> deserialiseV1(TASfileLineReader reader, List<PlaybackMetadata> metadata) throws PlaybackLoadException {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+
+		LinkedHashMap<String, String> credits = new LinkedHashMap<>();
+		String startLocation = "";
+
+		List<String> inlineComments = new ArrayList<>();
+		TickContainer previous = null;
+
+		while (reader.hasNext()) {
+			String line = reader.next();
+			long linenumber = reader.getLineIndex() - 1; // The same line index as in the flavors
+
+			// Read out header
+			if (line.startsWith("#")) {
+				if (line.startsWith("#Author:")) {
+					credits.put("Author", line.substring("#Author:".length()));
+				} else if (line.startsWith("#Title:")) {
+					credits.put("Title", line.substring("#Title:".length()));
+				} else if (line.startsWith("#Playing Time:")) {
+					credits.put("Playing Time", line.substring("#Playing Time:".length()));
+				} else if (line.startsWith("#Rerecords:")) {
+					credits.put("Rerecords", Integer.toString(readInt("rerecords", line.substring("#Rerecords:".length()), linenumber, out.size())));
+				} else if (line.startsWith("#StartPosition:")) {
+					startLocation = line.substring("#StartPosition:".length());
+				}
+				// Read control bytes
+			} else if (line.startsWith("$")) {
+				String[] sections = line.substring(1).trim().split(" ", 2);
+				String params = sections.length == 2 ? String.join(", ", sections[1].trim().split(" ")) : "";
+				inlineComments.add(String.format("$%s(%s);", sections[0], params));
+				// Read comments
+			} else if (line.startsWith("//")) {
+				inlineComments.add(line.substring(2).trim());
+				// Read data
+			} else if (!line.trim().isEmpty()) {
+				// Splitting the line into a data- and commentPart, the comment part will most likely contain the Monitoring
+				String dataPart = line;
+				List<String> endlineComments = new ArrayList<>();
+				int commentStart = line.indexOf("~&");
+				if (commentStart != -1) {
+					dataPart = line.substring(0, commentStart);
+					String commentPart = line.substring(commentStart + 2).trim();
+					if (commentPart.startsWith("//")) {
+						commentPart = commentPart.substring(2).trim();
+					}
+					if (!commentPart.isEmpty()) {
+						endlineComments.add(commentPart);
+					}
+				}
+
+				String[] sections = dataPart.split(SectionsV1.getRegexString());
+				if (sections.length != SectionsV1.values().length) {
+					throw new PlaybackLoadException(linenumber, out.size(), 0, "Cannot read the line correctly: %s", line);
+				}
+
+				readTicks(sections[0].trim(), linenumber, out.size());
+				VirtualKeyboard keyboard = readKeyboard(sections[1], linenumber, out.size());
+				VirtualMouse mouse = readMouse(sections[2], linenumber, out.size(), previous);
+				VirtualCameraAngle cameraAngle = readSubtick(sections[3].trim(), linenumber, out.size());
+
+				TickContainer container = new TickContainer(keyboard, mouse, cameraAngle, new CommentContainer(inlineComments, endlineComments));
+				out.add(container);
+				previous = container;
+				inlineComments = new ArrayList<>();
+			}
+		}
+
+		if (!credits.isEmpty()) {
+			metadata.add(PlaybackMetadata.fromHashMap("Credits", credits));
+		}
+		if (!startLocation.isEmpty()) {
+			metadata.add(readStartLocation(startLocation));
+		}
+		return out;
+	}
+
+	/**
+	 * @param lines The lines at the start of a TASfile
+	 * @return The version of a TASfile in the legacy format, or 0 if the lines contain no version
+	 * @throws PlaybackLoadException If the version is not a number
+	 */
+	public int getFileVersion(List<String> lines) throws PlaybackLoadException {
+		for (String line : lines) {
+			if (line.startsWith("#") && line.contains("Version")) {
+				String trimmed = line.replaceAll("#|\t| ", "");
+				String[] split = trimmed.split(":");
+				if (split.length < 2) {
+					throw new PlaybackLoadException("Can't read the file version: %s", trimmed);
+				}
+				try {
+					return Integer.parseInt(split[1]);
+				} catch (NumberFormatException e) {
+					throw new PlaybackLoadException("Can't read the file version: %s", trimmed);
+				}
+			}
+		}
+		return 0;
+	}
+
+	private int readTicks(String section, long linenumber, long tick) throws PlaybackLoadException {
+		return readInt("tick", section, linenumber, tick);
+	}
+
+	private int readInt(String name, String section, long linenumber, long tick) throws PlaybackLoadException {
 		try {
-			ticks = Integer.parseInt(section);
+			return Integer.parseInt(section.trim());
 		} catch (NumberFormatException e) {
-			throw new IOException(section + " is not a recognised number in line " + linenumber);
+			throw new PlaybackLoadException(linenumber, tick, 0, "The %s %s is not a recognised number", name, section);
 		}
-		return ticks;
 	}
 
-	private VirtualKeyboard readKeyboard(String section, int linenumber) throws IOException {
+	private VirtualKeyboard readKeyboard(String section, long linenumber, long tick) throws PlaybackLoadException {
 		VirtualKeyboard keyboard = new VirtualKeyboard();
 
 		// Remove the prefix
 		section = section.replace("Keyboard:", "");
 
 		// Split in keys and characters
-		String[] keys = section.split(";");
-
-		// If there is nothing, return the empty keyboard
-		if (keys.length == 0) {
-			return keyboard;
-		}
+		String[] keys = section.split(";", 2);
 
+		int[] keycodes = new int[0];
 		// Check if the keylist is empty
 		if (!keys[0].isEmpty()) {
-
 			// Split multiple keys
-			String[] splitKeys = keys[0].split(",");
-
-			for (String key : splitKeys) {
-
-//				VirtualKey vkey = null;
-//				// Check if the key is a keycode
-//				if (isNumeric(key)) {
-//					vkey = keyboard.get(Integer.parseInt(key));
-//				} else {
-//					vkey = keyboard.get(key);
-//				}
-//
-//				if (vkey == null) {
-//					throw new IOException(key + " is not a recognised keyboard key in line " + linenumber);
-//				}
-//
-//				vkey.setPressed(true);
-			}
+			keycodes = readKeys(keys[0].split(","), linenumber, tick, false);
 		}
 
 		char[] chars = {};
-		//Check if the characterlist is empty
+		// Check if the characterlist is empty
 		if (keys.length == 2) {
-			chars = keys[1].replace("\\n", "\n").toCharArray(); //Replacing the "\n" in lines to the character \n
+			chars = keys[1].replace("\\n", "\n").toCharArray(); // Replacing the "\n" in lines to the character \n
 		}
 
-		for (char onechar : chars) {
-//			keyboard.addChar(onechar);
-		}
+		keyboard.updateFromState(keycodes, chars);
 		return keyboard;
 	}
 
-	private VirtualMouse readMouse(String section, int linenumber) throws IOException {
+	private VirtualMouse readMouse(String section, long linenumber, long tick, TickContainer previous) throws PlaybackLoadException {
 		VirtualMouse mouse = new VirtualMouse();
 
 		// Remove the prefix
 		section = section.replace("Mouse:", "");
 
-		//Split into buttons and paths...
-		String buttons = section.split(";")[0];
-		String path = section.split(";")[1];
+		// Split into buttons and paths...
+		String[] split = section.split(";", 2);
+		String buttons = split[0];
+		String path = split.length == 2 ? split[1].trim() : "";
 
-		//Check whether the button is empty
+		int[] keycodes = new int[0];
+		// Check whether the button is empty
 		if (!buttons.isEmpty()) {
+			keycodes = readKeys(buttons.split(","), linenumber, tick, true);
+		}
 
-			//Splitting multiple buttons
-			String[] splitButtons = buttons.split(",");
-			for (String button : splitButtons) {
+		// Every node in the path is the state of the mouse at a subtick
+		if (path.isEmpty()) {
+			int cursorX = previous == null ? 0 : previous.getMouse().getCursorX();
+			int cursorY = previous == null ? 0 : previous.getMouse().getCursorY();
+			mouse.updateFromState(keycodes, 0, cursorX, cursorY);
+			return mouse;
+		}
 
-//				VirtualKey vkey = null;
-//				// Check if the key is a keycode
-//				if (isNumeric(button)) {
-//					vkey = mouse.get(Integer.parseInt(button));
-//				} else {
-//					vkey = mouse.get(button);
-//				}
-//				if (vkey == null) {
-//					throw new IOException(button + " is not a recognised mouse key in line " + linenumber);
-//				}
-//				mouse.get(button).setPressed(true);
+		for (String pathNode : path.replace("[", "").replace("]", "").split("->")) {
+			String[] values = pathNode.split(",");
+
+			int length = values.length;
+			if (length < 3) {
+				throw new PlaybackLoadException(linenumber, tick, 0, "'%s' couldn't be read: Something is missing", pathNode);
 			}
-		}
-//		mouse.setPath(readPath(path, linenumber, mouse));
+			int scrollWheel = readInt("scroll wheel", values[length - 3], linenumber, tick);
+			int cursorX = readInt("cursor x", values[length - 2], linenumber, tick);
+			int cursorY = readInt("cursor y", values[length - 1], linenumber, tick);
 
+			int[] nodeKeycodes = readKeys(Arrays.copyOf(values, length - 3), linenumber, tick, true);
+			mouse.updateFromState(nodeKeycodes, scrollWheel, cursorX, cursorY);
+		}
 		return mouse;
 	}
 
-//	private List<PathNode> readPath(String section, int linenumber, VirtualMouse mouse) throws IOException {
-//		List<PathNode> path = new ArrayList<VirtualMouse.PathNode>();
-//
-//		section = section.replace("[", "").replace("]", "");
-//		String[] pathNodes = section.split("->");
-//
-//		for (String pathNode : pathNodes) {
-//			String[] split = pathNode.split(",");
-//
-//			int length=split.length;
-//			int scrollWheel = 0;
-//			int cursorX = 0;
-//			int cursorY = 0;
-//			try {
-//				scrollWheel = Integer.parseInt(split[length-3]);
-//				cursorX = Integer.parseInt(split[length-2]);
-//				cursorY = Integer.parseInt(split[length-1]);
-//			} catch (NumberFormatException e) {
-//				throw new IOException("'" + pathNode + "' couldn't be read in line " + linenumber+": Something is not a number");
-//			} catch (ArrayIndexOutOfBoundsException e) {
-//				throw new IOException("'" + pathNode + "' couldn't be read in line " + linenumber+": Something is missing or is too much");
-//			}
-//			PathNode node = mouse.new PathNode();
-//			for (int i=0; i<length-3; i++) {
-//				String key= split[i];
-//				node.get(key).setPressed(true);
-//			}
-//			node.scrollwheel = scrollWheel;
-//			node.cursorX = cursorX;
-//			node.cursorY = cursorY;
-//			path.add(node);
-//		}
-//		return path;
-//	}
+	private int[] readKeys(String[] keys, long linenumber, long tick, boolean isMouse) throws PlaybackLoadException {
+		int[] keycodes = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			String key = keys[i].trim();
+
+			VirtualKey vkey = null;
+			// Check if the key is a keycode
+			if (isNumeric(key)) {
+				vkey = VirtualKey.get(Integer.parseInt(key));
+			} else {
+				vkey = VirtualKey.get(key);
+			}
+
+			if (vkey == null) {
+				throw new PlaybackLoadException(linenumber, tick, 0, "%s is not a recognised %s key", key, isMouse ? "mouse" : "keyboard");
+			}
+			if (isMouse != vkey.getKeycode() < 0) {
+				throw new PlaybackLoadException(linenumber, tick, 0, "%s is not a %s key", key, isMouse ? "mouse" : "keyboard");
+			}
+			keycodes[i] = vkey.getKeycode();
+		}
+		return keycodes;
+	}
 
-	private VirtualCameraAngle readSubtick(String section, int linenumber) throws IOException {
+	private VirtualCameraAngle readSubtick(String section, long linenumber, long tick) throws PlaybackLoadException {
 		section = section.replace("Camera:", "");
 		String[] split = section.split(";");
 
+		if (split.length != 2) {
+			throw new PlaybackLoadException(linenumber, tick, 0, "Camera is missing a semicolon: %s", section);
+		}
+
 		float x = 0F;
 		float y = 0F;
 
@@ -440,10 +528,30 @@ private VirtualCameraAngle readSubtick(String section, int linenumber) throws IO
 			x = Float.parseFloat(split[0]);
 			y = Float.parseFloat(split[1]);
 		} catch (NumberFormatException e) {
-			throw new IOException(split[0] + " or/and " + split[1] + " are not float numbers in line " + linenumber);
+			throw new PlaybackLoadException(linenumber, tick, 0, "%s or/and %s are not float numbers", split[0], split[1]);
 		}
 
-		return new VirtualCameraAngle(x, y);
+		VirtualCameraAngle cameraAngle = new VirtualCameraAngle();
+		cameraAngle.updateFromState(x, y);
+		return cameraAngle;
+	}
+
+	/**
+	 * @param startLocation The start location in the header, as "x,y,z,yaw,pitch"
+	 * @return The "Start Position" metadata
+	 */
+	private PlaybackMetadata readStartLocation(String startLocation) throws PlaybackLoadException {
+		String[] split = startLocation.split(",");
+		if (split.length != 5) {
+			throw new PlaybackLoadException("Can't read the start position: %s", startLocation);
+		}
+		LinkedHashMap<String, String> values = new LinkedHashMap<>();
+		values.put("x", split[0].trim());
+		values.put("y", split[1].trim());
+		values.put("z", split[2].trim());
+		values.put("pitch", split[4].trim());
+		values.put("yaw", split[3].trim());
+		return PlaybackMetadata.fromHashMap("Start Position", values);
 	}
 
 //	private String getStartLocation() {
@@ -0,0 +1,75 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+
+/**
+ * <p>Remembers a TASfile that was saved from the {@link PlaybackControllerClient} and which ticks were changed since then.
+ *
+ * <p>When the TASfile is saved again, only the ticks from the {@link #getFirstChangedTick() first changed tick} onwards are rewritten.<br>
+ * The ticks before it are left untouched in the TASfile and the {@link TASfileIndex} of the TASfile is used to find where the rewritten part starts.
+ *
+ * <pre>
+ * Saved:    0                    20
+ *          <====================>
+ *
+ * Changed:  0            13          25
+ *          <============xxxxxxxxxxxx>
+ *
+ * Saving again only rewrites the bytes from tick 13 onwards
+ * </pre>
+ *
+ * @author Scribble
+ */
+public class SavedTASfile {
+
+	private final String flavorName;
+
+	private final long headerLength;
+
+	private final TASfileIndex index;
+
+	/**
+	 * The first tick that was changed after saving, or {@link Long#MAX_VALUE} if no tick was changed
+	 */
+	private long changedTick = Long.MAX_VALUE;
+
+	/**
+	 * @param flavor       The {@link SerialiserFlavorBase flavor} of the TASfile
+	 * @param headerLength The length of the header in bytes
+	 * @param index        The {@link TASfileIndex} of the saved TASfile
+	 */
+	public SavedTASfile(SerialiserFlavorBase flavor, long headerLength, TASfileIndex index) {
+		this.flavorName = flavor.getExtensionName();
+		this.headerLength = headerLength;
+		this.index = index;
+	}
+
+	/**
+	 * Marks a tick and every tick after it as changed
+	 *
+	 * @param tick The tick that was changed, added or removed
+	 */
+	public void markChanged(long tick) {
+		changedTick = Math.min(changedTick, Math.max(tick, 0));
+	}
+
+	/**
+	 * @return The first tick that is different from the saved TASfile. Ticks that were added after the end of the TASfile count as changed as well
+	 */
+	public long getFirstChangedTick() {
+		return Math.min(changedTick, index.getTickCount());
+	}
+
+	public String getFlavorName() {
+		return flavorName;
+	}
+
+	public long getHeaderLength() {
+		return headerLength;
+	}
+
+	public TASfileIndex getIndex() {
+		return index;
+	}
+}
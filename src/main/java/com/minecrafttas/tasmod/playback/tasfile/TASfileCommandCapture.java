@@ -0,0 +1,172 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.playback.tickstore.ViewTickStore;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+/**
+ * <p>The {@link PlaybackFileCommand file commands}, that are serialised for the ticks of a {@link TASfileSnapshot}.
+ *
+ * <p>The file commands are taken from the extensions on the client thread, when the snapshot is taken.<br>
+ * If a {@link SerialiserFlavorBase#setFileCommandCapture(TASfileCommandCapture) flavor has a capture}, it serialises the file commands of the capture instead of asking the extensions,<br>
+ * so the saver thread neither reads the extensions while the game changes them, nor after they were cleared.
+ *
+ * <p>The file commands are {@link TASfileCommandHistory captured into the history} of the controller, which only asks the extensions for the ticks that were not captured for an earlier snapshot.<br>
+ * The capture reads a {@link TASfileCommandHistory#freeze(long) frozen copy} of the history, that has to be {@link #close() closed} once the snapshot was saved.
+ *
+ * <p>The extensions don't know the file commands of ticks, that a {@link ViewTickStore} did not play back yet.<br>
+ * The file commands of these ticks are {@link #readFromFile(TickStore) read from the TASfile} instead.
+ *
+ * <pre>
+ * Ticks:    [0 ........ 499] [500 ..... 999] [1000 ... ]
+ *           history          read from file  captured
+ * </pre>
+ *
+ * <p>Only the file commands of ticks that have file commands are kept.
+ *
+ * @author Scribble
+ */
+public class TASfileCommandCapture {
+
+	private final Map<Long, List<List<PlaybackFileCommand>>> inlineFileCommands = new HashMap<>();
+
+	private final Map<Long, List<List<PlaybackFileCommand>>> endlineFileCommands = new HashMap<>();
+
+	/**
+	 * The file commands of the first ticks, that were captured into the history. Is null if nothing was captured
+	 */
+	private TASfileCommandHistory.Frozen history = null;
+
+	/**
+	 * The first tick, whose file commands are read from the TASfile
+	 */
+	private long fileFromTick;
+
+	/**
+	 * The tick at which reading from the TASfile stops, exclusive
+	 */
+	private final long fileToTick;
+
+	/**
+	 * Creates a capture, where every file command is taken from the extensions
+	 */
+	public TASfileCommandCapture() {
+		this(0, 0);
+	}
+
+	/**
+	 * @param fileFromTick The first tick, whose file commands are read from the TASfile
+	 * @param fileToTick   The tick at which reading from the TASfile stops, exclusive
+	 */
+	public TASfileCommandCapture(long fileFromTick, long fileToTick) {
+		this.fileFromTick = fileFromTick;
+		this.fileToTick = Math.max(fileFromTick, fileToTick);
+	}
+
+	/**
+	 * <p>Takes the file commands of the ticks from the extensions, except for the ticks that are read from the TASfile.
+	 *
+	 * <p>The ticks before the TASfile are captured into the history, which only asks the extensions for the ticks that it did not capture yet.<br>
+	 * Ticks after the TASfile are only added, if the TASfile was not played back completely, so they are taken from the extensions directly.
+	 *
+	 * <p>Has to be called on the client thread.
+	 *
+	 * @param history The history of the controller
+	 * @param inputs  The ticks to capture the file commands of
+	 * @param toTick  The tick at which capturing stops, exclusive
+	 */
+	public void capture(TASfileCommandHistory history, TickStore inputs, long toTick) {
+		toTick = Math.min(toTick, inputs.size());
+		long historyToTick = fileFromTick < fileToTick ? Math.min(fileFromTick, toTick) : toTick;
+		history.capture(inputs, historyToTick);
+		this.history = history.freeze(historyToTick);
+
+		if (TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.getEnabled().isEmpty()) {
+			return;
+		}
+		capture(inputs, Math.max(fileToTick, this.history.size()), toTick);
+	}
+
+	private void capture(TickStore inputs, long fromTick, long toTick) {
+		for (long tick = fromTick; tick < toTick; tick++) {
+			TickContainer container = inputs.get(tick);
+			addFileCommands(tick, TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnSerialiseInline(tick, container), TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnSerialiseEndline(tick, container));
+		}
+	}
+
+	/**
+	 * <p>Reads the file commands of the ticks, that were not played back yet, from the TASfile of a {@link ViewTickStore}.
+	 *
+	 * <p>The file commands are only read once. Does nothing, if the ticks are not read from a TASfile.
+	 *
+	 * @param inputs The ticks of the snapshot
+	 */
+	public void readFromFile(TickStore inputs) {
+		if (fileFromTick >= fileToTick || !(inputs instanceof ViewTickStore)) {
+			return;
+		}
+		TASfileExtensionBuffer buffer = new TASfileExtensionBuffer();
+		((ViewTickStore) inputs).readFileCommands(fileFromTick, fileToTick, buffer);
+		for (long tick = fileFromTick; tick < fileToTick; tick++) {
+			// Passed through a container, like the file commands would have been when played back
+			addFileCommands(tick, new PlaybackFileCommandContainer(buffer.getInlineFileCommands(tick)), new PlaybackFileCommandContainer(buffer.getEndlineFileCommands(tick)));
+		}
+		fileFromTick = fileToTick;
+	}
+
+	private void addFileCommands(long tick, PlaybackFileCommandContainer inline, PlaybackFileCommandContainer endline) {
+		if (!inline.isEmpty()) {
+			inlineFileCommands.put(tick, inline.valuesBySubtick());
+		}
+		if (!endline.isEmpty()) {
+			endlineFileCommands.put(tick, endline.valuesBySubtick());
+		}
+	}
+
+	/**
+	 * @param tick The tick of the file commands
+	 * @return The file commands of the inline comments, one list per comment
+	 */
+	public List<List<PlaybackFileCommand>> getInlineFileCommands(long tick) {
+		if (fromHistory(tick)) {
+			return history.getInlineFileCommands(tick);
+		}
+		return inlineFileCommands.getOrDefault(tick, new ArrayList<>());
+	}
+
+	/**
+	 * @param tick The tick of the file commands
+	 * @return The file commands of the endline comments, one list per subtick
+	 */
+	public List<List<PlaybackFileCommand>> getEndlineFileCommands(long tick) {
+		if (fromHistory(tick)) {
+			return history.getEndlineFileCommands(tick);
+		}
+		return endlineFileCommands.getOrDefault(tick, new ArrayList<>());
+	}
+
+	private boolean fromHistory(long tick) {
+		return history != null && tick >= 0 && tick < history.size();
+	}
+
+	/**
+	 * Closes the frozen copy of the history
+	 *
+	 * @throws IOException If the temporary files of the history can't be deleted
+	 */
+	public void close() throws IOException {
+		if (history != null) {
+			history.close();
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainerCodec;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommandsRegistry;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.util.MappedList;
+
+/**
+ * <p>The {@link PlaybackFileCommand file commands} of the first ticks of the {@link PlaybackControllerClient}, that were {@link #capture(TickStore, long) captured} for earlier {@link TASfileSnapshot snapshots}.
+ *
+ * <p>Taking a snapshot only asks the extensions for the file commands of the ticks, that were added or changed since the last snapshot.<br>
+ * The file commands are kept in {@link MappedList MappedLists}, so a snapshot reads a {@link #freeze(long) frozen copy} of them on the saver thread.
+ *
+ * <pre>
+ * History:  [0 ............ 999]              &lt;- captured for the last snapshot
+ * Capture:                      [1000 ... ]   &lt;- recorded since then
+ * </pre>
+ *
+ * <p>Changing a tick in the controller {@link #markChanged(long) removes} the file commands from that tick on, as the extensions may have recorded other file commands for it.<br>
+ * If the {@link PlaybackFileCommandsRegistry#getModifications() extensions were enabled, disabled or cleared}, every file command is removed.
+ *
+ * <p>Removing file commands, that a frozen copy still reads, copies the remaining file commands into new lists instead.<br>
+ * The old lists are deleted once the last frozen copy was closed.
+ *
+ * @author Scribble
+ */
+public class TASfileCommandHistory implements Closeable {
+
+	private static final PlaybackFileCommandContainerCodec CODEC = new PlaybackFileCommandContainerCodec();
+
+	/**
+	 * The lists of the captured file commands, which frozen copies may share
+	 */
+	private Lists lists;
+
+	/**
+	 * The {@link PlaybackFileCommandsRegistry#getModifications() modifications} of the extensions, when the file commands were captured
+	 */
+	private long modifications = -1;
+
+	/**
+	 * @param directory The directory of the temporary files
+	 */
+	public TASfileCommandHistory(Path directory) {
+		lists = new Lists(new MappedList<>(directory, "inlinecommands", CODEC), new MappedList<>(directory, "endlinecommands", CODEC));
+	}
+
+	/**
+	 * @return The amount of ticks, whose file commands were captured
+	 */
+	public synchronized long size() {
+		return lists.size();
+	}
+
+	/**
+	 * <p>Takes the file commands of the ticks from the extensions, that were not captured yet.
+	 *
+	 * <p>Has to be called on the client thread.
+	 *
+	 * @param inputs The ticks of the controller
+	 * @param toTick The tick at which capturing stops, exclusive
+	 */
+	public synchronized void capture(TickStore inputs, long toTick) {
+		PlaybackFileCommandsRegistry registry = TASmodAPIRegistry.PLAYBACK_FILE_COMMAND;
+		if (modifications != registry.getModifications()) {
+			markChanged(0);
+			modifications = registry.getModifications();
+		}
+		// Without extensions, every tick has empty file commands
+		if (registry.getEnabled().isEmpty()) {
+			return;
+		}
+		toTick = Math.min(toTick, inputs.size());
+		for (long tick = lists.size(); tick < toTick; tick++) {
+			TickContainer container = inputs.get(tick);
+			lists.inline.add(registry.handleOnSerialiseInline(tick, container));
+			lists.endline.add(registry.handleOnSerialiseEndline(tick, container));
+		}
+	}
+
+	/**
+	 * Removes the file commands of a tick and every tick after it
+	 *
+	 * @param tick The tick that was changed, added or removed in the controller
+	 */
+	public synchronized void markChanged(long tick) {
+		tick = Math.max(tick, 0);
+		if (tick >= lists.size()) {
+			return;
+		}
+		if (lists.users == 0) {
+			lists.inline.truncate(tick);
+			lists.endline.truncate(tick);
+			return;
+		}
+		Lists old = lists;
+		lists = old.copy(tick);
+		old.discarded = true;
+	}
+
+	/**
+	 * Creates a read-only copy of the first captured file commands, which can be read on another thread
+	 *
+	 * @param toTick The amount of ticks in the copy
+	 * @return The copy, that has to be {@link Frozen#close() closed} once it is no longer used
+	 */
+	public synchronized Frozen freeze(long toTick) {
+		lists.users++;
+		return new Frozen(lists, Math.min(Math.max(toTick, 0), lists.size()));
+	}
+
+	/**
+	 * Deletes the temporary files, once every frozen copy was closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (lists.users == 0) {
+			lists.close();
+		} else {
+			lists.discarded = true;
+		}
+	}
+
+	private synchronized void release(Lists released) throws IOException {
+		released.users--;
+		if (released.users == 0 && released.discarded) {
+			released.close();
+		}
+	}
+
+	/**
+	 * The inline and endline file commands, one {@link PlaybackFileCommandContainer} per tick
+	 */
+	private static class Lists {
+
+		private final MappedList<PlaybackFileCommandContainer> inline;
+
+		private final MappedList<PlaybackFileCommandContainer> endline;
+
+		/**
+		 * The amount of frozen copies, that read these lists
+		 */
+		private int users = 0;
+
+		/**
+		 * If the history no longer uses these lists, which are deleted once the last frozen copy was closed
+		 */
+		private boolean discarded = false;
+
+		private Lists(MappedList<PlaybackFileCommandContainer> inline, MappedList<PlaybackFileCommandContainer> endline) {
+			this.inline = inline;
+			this.endline = endline;
+		}
+
+		private long size() {
+			return inline.size();
+		}
+
+		/**
+		 * Copies the records of the first ticks into new lists, without decoding them
+		 */
+		private Lists copy(long toTick) {
+			return new Lists(inline.copy(toTick), endline.copy(toTick));
+		}
+
+		private void close() throws IOException {
+			inline.close();
+			endline.close();
+		}
+	}
+
+	/**
+	 * A read-only copy of the first captured file commands, that is not affected by later changes to the history
+	 */
+	public class Frozen implements Closeable {
+
+		private final Lists lists;
+
+		private final long size;
+
+		private boolean closed = false;
+
+		private Frozen(Lists lists, long size) {
+			this.lists = lists;
+			this.size = size;
+		}
+
+		/**
+		 * @return The amount of ticks in this copy
+		 */
+		public long size() {
+			return size;
+		}
+
+		/**
+		 * @param tick The tick of the file commands
+		 * @return The file commands of the inline comments, one list per comment
+		 */
+		public List<List<PlaybackFileCommand>> getInlineFileCommands(long tick) {
+			return lists.inline.get(checkIndex(tick)).valuesBySubtick();
+		}
+
+		/**
+		 * @param tick The tick of the file commands
+		 * @return The file commands of the endline comments, one list per subtick
+		 */
+		public List<List<PlaybackFileCommand>> getEndlineFileCommands(long tick) {
+			return lists.endline.get(checkIndex(tick)).valuesBySubtick();
+		}
+
+		private long checkIndex(long tick) throws IndexOutOfBoundsException {
+			if (tick < 0 || tick >= size) {
+				throw new IndexOutOfBoundsException(String.format("Tick %s is out of bounds for %s ticks", tick, size));
+			}
+			return tick;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			release(lists);
+		}
+	}
+}
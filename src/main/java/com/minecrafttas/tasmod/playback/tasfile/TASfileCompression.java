@@ -0,0 +1,120 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Reads and writes gzip compressed TASfiles.
+ *
+ * <p>TASfiles are very repetitive, as held keys and camera angles barely change between ticks, so they compress very well.<br>
+ * A compressed TASfile contains the same text or binary data as an uncompressed TASfile, wrapped in a gzip stream.<br>
+ * Compressed TASfiles are detected by the gzip magic bytes at the start of the file, the file ending is only used when saving.
+ *
+ * <p>As the byte offsets of the ticks are unknown in a compressed TASfile, it can't be {@link TASfileIndex indexed},<br>
+ * {@link TASfileView viewed} or partially rewritten. These TASfiles are always loaded and saved completely.
+ *
+ * @author Scribble
+ */
+public class TASfileCompression {
+
+	/**
+	 * The file ending that is appended to the file ending of compressed TASfiles
+	 */
+	public static final String FILE_ENDING = ".gz";
+
+	/**
+	 * The size of the buffers before and after the compression
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private TASfileCompression() {
+	}
+
+	/**
+	 * @param file The file to check
+	 * @return True, if the file name ends with {@link #FILE_ENDING}
+	 */
+	public static boolean hasCompressedEnding(Path file) {
+		Path name = file.getFileName();
+		return name != null && name.toString().endsWith(FILE_ENDING);
+	}
+
+	/**
+	 * @param file The file to check
+	 * @return True, if the file starts with the gzip magic bytes
+	 * @throws IOException If the file can't be read
+	 */
+	public static boolean isCompressed(Path file) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return isMagic(in.read(), in.read());
+		}
+	}
+
+	/**
+	 * Opens a buffered input stream, which decompresses the file if it is compressed
+	 *
+	 * @param file The file to read
+	 * @return The input stream of the uncompressed data
+	 * @throws IOException If the file can't be opened
+	 */
+	public static InputStream newInputStream(Path file) throws IOException {
+		return newInputStream(Files.newInputStream(file));
+	}
+
+	/**
+	 * Buffers a stream, which is decompressed if it starts with the gzip magic bytes
+	 *
+	 * @param raw The stream of the file
+	 * @return The input stream of the uncompressed data
+	 * @throws IOException If the stream can't be read
+	 */
+	public static InputStream newInputStream(InputStream raw) throws IOException {
+		InputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+		try {
+			in.mark(2);
+			boolean compressed = isMagic(in.read(), in.read());
+			in.reset();
+
+			if (!compressed) {
+				return in;
+			}
+			return new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE);
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens an output stream, that overwrites the file
+	 *
+	 * @param file     The file to write
+	 * @param compress If the written data should be compressed
+	 * @return The output stream, which compresses the data while it is written
+	 * @throws IOException If the file can't be opened
+	 */
+	public static OutputStream newOutputStream(Path file, boolean compress) throws IOException {
+		OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		if (!compress) {
+			return out;
+		}
+		try {
+			return new GZIPOutputStream(new BufferedOutputStream(out, BUFFER_SIZE), BUFFER_SIZE);
+		} catch (IOException e) {
+			out.close();
+			throw e;
+		}
+	}
+
+	private static boolean isMagic(int first, int second) {
+		return first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+	}
+}
@@ -0,0 +1,520 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackSaveException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.BinaryFlavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+/**
+ * <p>Converts every TASfile in a directory to another {@link SerialiserFlavorBase flavor}, on multiple threads.
+ *
+ * <p>Reads TASfiles in the legacy format of the {@link PlaybackSerialiserOld} and in every text based flavor.<br>
+ * Each file is parsed and written by its own copy of the flavors, with the extensions {@link SerialiserFlavorBase#setProcessExtensions(boolean) disabled}.<br>
+ * This way, the files don't interfere with each other or with the TASfile that is currently loaded.<br>
+ * The metadata and file command names of the header are copied from the converted file instead, and the file commands are kept in the comments.
+ *
+ * <p>After writing, the converted file is read again and compared tick by tick with the original, to validate the conversion.<br>
+ * The file commands are compared separately from the rest of the comments, as binary flavors store them separately.<br>
+ * Errors don't stop the conversion, but are reported in the {@link Result} of the file, including the line number of the {@link PlaybackLoadException}.
+ *
+ * <p>Can be run without Minecraft via {@link #main(String[])} or the <code>convertTASfiles</code> gradle task, or in the client via <code>/convert</code>.<br>
+ * For this, it uses its own logger instead of the logger of TASmod, which would load Minecraft.
+ *
+ * @author Scribble
+ */
+public class TASfileConverter {
+
+	private static final String USAGE = "Usage: <source directory> <target directory> [flavor] [threads]\n       --validate <source directory> [threads]";
+
+	/**
+	 * The flag to only validate the TASfiles, in {@link #main(String[])} and <code>/convert</code>
+	 */
+	public static final String VALIDATE_FLAG = "--validate";
+
+	private static final Logger LOGGER = LogManager.getLogger("TASmod Converter");
+
+	@SuppressWarnings("deprecation")
+	private static final PlaybackSerialiserOld LEGACY = new PlaybackSerialiserOld();
+
+	/**
+	 * The name of the flavor to convert to
+	 */
+	private final String targetFlavorName;
+
+	private final int threads;
+
+	/**
+	 * If true, the TASfiles are only read and no files are written
+	 */
+	private final boolean validateOnly;
+
+	/**
+	 * @param targetFlavorName The name of the {@link SerialiserFlavorBase flavor} to convert to. Can be null if validateOnly is true
+	 * @param threads          The amount of files that are converted at the same time
+	 * @param validateOnly     If the TASfiles should only be read, without writing any files
+	 */
+	public TASfileConverter(String targetFlavorName, int threads, boolean validateOnly) {
+		this.targetFlavorName = targetFlavorName;
+		this.threads = Math.max(1, threads);
+		this.validateOnly = validateOnly;
+	}
+
+	/**
+	 * <p>Converts every TASfile in the source directory and its subdirectories.
+	 *
+	 * <p>The converted files are written to the same relative path in the target directory.<br>
+	 * If the target directory is inside of the source directory, the files in the target directory are not converted.
+	 *
+	 * @param sourceDirectory The directory to search for TASfiles
+	 * @param targetDirectory The directory to write the converted TASfiles to. Can be null if only validating
+	 * @return The results of every TASfile, in the order of the file paths
+	 * @throws PlaybackSaveException If the target flavor doesn't exist or the target directory is the source directory
+	 * @throws IOException If the source directory can't be read
+	 * @throws InterruptedException If the thread was interrupted while waiting for the conversion
+	 */
+	public List<Result> convert(Path sourceDirectory, Path targetDirectory) throws PlaybackSaveException, IOException, InterruptedException {
+		if (!Files.isDirectory(sourceDirectory)) {
+			throw new IOException(String.format("The directory %s doesn't exist", sourceDirectory));
+		}
+
+		Path source = sourceDirectory.toAbsolutePath().normalize();
+		Path target = null;
+		if (!validateOnly) {
+			if (targetDirectory == null) {
+				throw new PlaybackSaveException("No target directory specified");
+			}
+			target = targetDirectory.toAbsolutePath().normalize();
+			if (source.equals(target)) {
+				throw new PlaybackSaveException("The target directory can't be the source directory, as the original TASfiles would be overwritten");
+			}
+			getTargetFlavor();
+		}
+
+		List<Path> files = listTASfiles(source, target);
+		LOGGER.info("Converting {} TASfiles in {} on {} threads", files.size(), source, threads);
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "TASmod Converter-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			List<Future<Result>> futures = new ArrayList<>();
+			for (Path file : files) {
+				Path targetFile = target == null ? null : target.resolve(source.relativize(file));
+				futures.add(pool.submit(() -> convertFile(file, targetFile)));
+			}
+
+			List<Result> results = new ArrayList<>();
+			for (Future<Result> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					// convertFile catches every exception, so this is only thrown by errors
+					throw new RuntimeException(e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Converts a single TASfile. Exceptions are not thrown, but returned in the {@link Result}
+	 *
+	 * @param file   The TASfile to convert
+	 * @param target The file to write the converted TASfile to. Can be null if only validating
+	 * @return The result of the conversion
+	 */
+	public Result convertFile(Path file, Path target) {
+		String format = null;
+		try {
+			Source source = read(file);
+			format = source.format;
+
+			if (validateOnly) {
+				return new Result(file, Status.VALIDATED, format, source.ticks.size(), null);
+			}
+
+			SerialiserFlavorBase flavor = getTargetFlavor();
+			flavor.setProcessExtensions(false);
+			flavor.setKeepFileCommands(true);
+
+			if (target.getParent() != null) {
+				Files.createDirectories(target.getParent());
+			}
+			List<String> header = flavor.serialiseHeader(source.fileCommandNames, source.metadata);
+			PlaybackSerialiser.saveToFile(target, source.ticks, flavor, header, TASfileCompression.hasCompressedEnding(target));
+
+			validate(flavor, source.ticks, read(target).ticks);
+
+			return new Result(file, Status.CONVERTED, format, source.ticks.size(), null);
+		} catch (PlaybackLoadException e) {
+			return new Result(file, Status.FAILED, format, 0, e.getMessage());
+		} catch (IOException e) {
+			return new Result(file, Status.FAILED, format, 0, "The file can't be read or written: " + e.getMessage());
+		} catch (RuntimeException e) {
+			LOGGER.catching(e);
+			return new Result(file, Status.FAILED, format, 0, "Something went very wrong: " + e);
+		}
+	}
+
+	/**
+	 * Reads the ticks and the header of a TASfile, without passing anything to the extensions.<br>
+	 * The file commands are kept in the comments as text
+	 *
+	 * @param file The TASfile to read
+	 * @return The contents of the TASfile
+	 * @throws PlaybackLoadException If the TASfile contains errors
+	 * @throws IOException If the TASfile can't be read
+	 */
+	private Source read(Path file) throws PlaybackLoadException, IOException {
+		try (InputStream in = TASfileCompression.newInputStream(file)) {
+			TASfileLineReader headerReader = new TASfileLineReader(in);
+			List<String> headerLines = new ArrayList<>();
+
+			SerialiserFlavorBase flavor;
+			try {
+				flavor = PlaybackSerialiser.detectFlavor(headerReader, headerLines);
+			} catch (PlaybackLoadException e) {
+				int version = LEGACY.getFileVersion(headerLines);
+				if (version == 0) {
+					throw e;
+				}
+				return readLegacy(file, version);
+			}
+
+			flavor.setProcessExtensions(false);
+			flavor.setKeepFileCommands(true);
+
+			headerLines = flavor.extractHeader(headerReader, headerLines);
+			List<String> fileCommandNames = flavor.readFileCommandNames(headerLines);
+			List<PlaybackMetadata> metadata = flavor.readMetadata(headerLines);
+
+			if (flavor.isBinary()) {
+				return new Source(flavor.getExtensionName(), flavor.deserialise(in), fileCommandNames, metadata);
+			}
+
+			BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			try (TASfileLineReader reader = new TASfileLineReader(bufferedReader::readLine, bufferedReader, headerReader.getLineIndex())) {
+				return new Source(flavor.getExtensionName(), flavor.deserialise(reader), fileCommandNames, metadata);
+			}
+		}
+	}
+
+	private Source readLegacy(Path file, int version) throws PlaybackLoadException, IOException {
+		if (version != 1) {
+			throw new PlaybackLoadException("Version %s of the legacy format is not supported", version);
+		}
+
+		try (InputStream in = TASfileCompression.newInputStream(file)) {
+			BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			try (TASfileLineReader reader = new TASfileLineReader(bufferedReader)) {
+				List<PlaybackMetadata> metadata = new ArrayList<>();
+				BigArrayList<TickContainer> ticks = LEGACY.deserialiseV1(reader, metadata);
+				return new Source("legacy v" + version, ticks, new ArrayList<>(), metadata);
+			}
+		}
+	}
+
+	/**
+	 * Compares the ticks of the converted TASfile with the original ticks
+	 *
+	 * @param flavor   The flavor to read the file commands from the comments with
+	 * @param expected The ticks of the original TASfile
+	 * @param actual   The ticks of the converted TASfile
+	 * @throws PlaybackSaveException If the ticks are not equal
+	 */
+	private void validate(SerialiserFlavorBase flavor, BigArrayList<TickContainer> expected, BigArrayList<TickContainer> actual) throws PlaybackSaveException {
+		if (expected.size() != actual.size()) {
+			throw new PlaybackSaveException("The converted TASfile has %s ticks instead of %s", actual.size(), expected.size());
+		}
+		for (long tick = 0; tick < expected.size(); tick++) {
+			TickContainer expectedTick = expected.get(tick);
+			TickContainer actualTick = actual.get(tick);
+			if (!expectedTick.getKeyboard().equals(actualTick.getKeyboard()) || !expectedTick.getMouse().equals(actualTick.getMouse()) || !expectedTick.getCameraAngle().equals(actualTick.getCameraAngle())) {
+				throw new PlaybackSaveException("Tick %s is different after converting", tick);
+			}
+			if (!equalComments(flavor, expectedTick.getComments().getInlineComments(), actualTick.getComments().getInlineComments())
+					|| !equalComments(flavor, expectedTick.getComments().getEndlineComments(), actualTick.getComments().getEndlineComments())) {
+				throw new PlaybackSaveException("The comments or file commands of tick %s are different after converting", tick);
+			}
+		}
+	}
+
+	/**
+	 * @param flavor   The flavor to read the file commands with
+	 * @param expected The original comments, with the file commands as text
+	 * @param actual   The converted comments, with the file commands as text
+	 * @return True if the comments and the file commands in them are equal, regardless of where the file commands are in the comment
+	 */
+	private boolean equalComments(SerialiserFlavorBase flavor, List<String> expected, List<String> actual) {
+		List<List<PlaybackFileCommand>> expectedFileCommands = new ArrayList<>();
+		List<List<PlaybackFileCommand>> actualFileCommands = new ArrayList<>();
+		return splitFileCommands(flavor, expected, expectedFileCommands).equals(splitFileCommands(flavor, actual, actualFileCommands)) && expectedFileCommands.equals(actualFileCommands);
+	}
+
+	/**
+	 * @param flavor       The flavor to read the file commands with
+	 * @param comments     The comments with the file commands as text. Can be null
+	 * @param fileCommands The list to add the file commands of each comment to
+	 * @return The comments without the file commands and surrounding whitespace
+	 */
+	private List<String> splitFileCommands(SerialiserFlavorBase flavor, List<String> comments, List<List<PlaybackFileCommand>> fileCommands) {
+		List<String> out = new ArrayList<>();
+		if (comments == null) {
+			return out;
+		}
+		for (String comment : comments) {
+			List<PlaybackFileCommand> line = new ArrayList<>();
+			if (comment != null) {
+				comment = flavor.readFileCommands(comment, line).trim();
+			}
+			out.add(comment == null || comment.isEmpty() ? null : comment);
+			fileCommands.add(line);
+		}
+		return out;
+	}
+
+	/**
+	 * @return A new copy of the target flavor
+	 * @throws PlaybackSaveException If the flavor doesn't exist
+	 */
+	private SerialiserFlavorBase getTargetFlavor() throws PlaybackSaveException {
+		SerialiserFlavorBase flavor = TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavor(targetFlavorName);
+		if (flavor == null) {
+			throw new PlaybackSaveException("Flavor %s doesn't exist", targetFlavorName);
+		}
+		return flavor;
+	}
+
+	/**
+	 * @param directory The directory to search in
+	 * @param exclude   A directory to skip, e.g. the target directory. Can be null
+	 * @return The TASfiles in the directory and its subdirectories, sorted by path
+	 * @throws IOException If the directory can't be read
+	 */
+	private static List<Path> listTASfiles(Path directory, Path exclude) throws IOException {
+		try (Stream<Path> stream = Files.walk(directory)) {
+			return stream.filter(Files::isRegularFile)
+					.filter(file -> exclude == null || !file.startsWith(exclude))
+					.filter(TASfileConverter::isTASfile)
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private static boolean isTASfile(Path file) {
+		String name = file.getFileName().toString();
+		return name.endsWith(".mctas") || name.endsWith(".mctas" + TASfileCompression.FILE_ENDING);
+	}
+
+	/**
+	 * @param results The results of a conversion
+	 * @return A summary with the amount of files per {@link Status}
+	 */
+	public static String getSummary(List<Result> results) {
+		int[] count = new int[Status.values().length];
+		for (Result result : results) {
+			count[result.getStatus().ordinal()]++;
+		}
+		return String.format("Converted %s, validated %s, failed %s of %s TASfiles", count[Status.CONVERTED.ordinal()], count[Status.VALIDATED.ordinal()], count[Status.FAILED.ordinal()], results.size());
+	}
+
+	/**
+	 * <p>Converts TASfiles without starting Minecraft.
+	 *
+	 * <p>Arguments: <code>&lt;source directory&gt; &lt;target directory&gt; [flavor] [threads]</code><br>
+	 * or <code>--validate &lt;source directory&gt; [threads]</code> to only read the TASfiles.<br>
+	 * Exits with 1 if a TASfile failed to convert.
+	 *
+	 * @param args The command line arguments
+	 */
+	public static void main(String[] args) {
+		List<String> arguments = new ArrayList<>();
+		boolean validateOnly = false;
+		for (String arg : args) {
+			if (arg.equals(VALIDATE_FLAG)) {
+				validateOnly = true;
+			} else {
+				arguments.add(arg);
+			}
+		}
+		int size = arguments.size();
+		if (validateOnly ? size < 1 || size > 2 : size < 2 || size > 4) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(new Beta1Flavor());
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(new BinaryFlavor());
+
+		Path source = Paths.get(arguments.get(0));
+		Path target = null;
+		String flavor = null;
+		String threads = null;
+		if (validateOnly) {
+			threads = size == 2 ? arguments.get(1) : null;
+		} else {
+			target = Paths.get(arguments.get(1));
+			flavor = size >= 3 ? arguments.get(2) : "beta1";
+			threads = size == 4 ? arguments.get(3) : null;
+		}
+
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		if (threads != null) {
+			try {
+				threadCount = Integer.parseInt(threads);
+			} catch (NumberFormatException e) {
+				System.err.println(USAGE);
+				System.exit(2);
+			}
+		}
+
+		List<Result> results;
+		try {
+			results = new TASfileConverter(flavor, threadCount, validateOnly).convert(source, target);
+		} catch (PlaybackSaveException | IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.exit(2);
+			return;
+		}
+
+		boolean failed = false;
+		for (Result result : results) {
+			System.out.println(result);
+			failed |= result.getStatus() == Status.FAILED;
+		}
+		System.out.println(getSummary(results));
+		System.exit(failed ? 1 : 0);
+	}
+
+	public enum Status {
+		/**
+		 * The TASfile was converted and validated
+		 */
+		CONVERTED,
+		/**
+		 * The TASfile was read without errors, but not converted
+		 */
+		VALIDATED,
+		/**
+		 * An error occurred while reading, writing or validating the TASfile
+		 */
+		FAILED;
+	}
+
+	/**
+	 * The result of converting one TASfile
+	 */
+	public static class Result {
+
+		private final Path file;
+
+		private final Status status;
+
+		/**
+		 * The flavor name or the legacy version of the TASfile. Is null if it couldn't be detected
+		 */
+		private final String format;
+
+		private final long ticks;
+
+		/**
+		 * The error message, including the line number if the error was in a line of the TASfile. Is null if no error occurred
+		 */
+		private final String message;
+
+		public Result(Path file, Status status, String format, long ticks, String message) {
+			this.file = file;
+			this.status = status;
+			this.format = format;
+			this.ticks = ticks;
+			this.message = message;
+		}
+
+		public Path getFile() {
+			return file;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public String getFormat() {
+			return format;
+		}
+
+		public long getTicks() {
+			return ticks;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append(status).append(' ').append(file);
+			if (format != null) {
+				builder.append(" (").append(format).append(", ").append(ticks).append(" ticks)");
+			}
+			if (message != null) {
+				builder.append(": ").append(message);
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * The contents of a TASfile that was read by the converter
+	 */
+	private static class Source {
+		private final String format;
+		private final BigArrayList<TickContainer> ticks;
+		private final List<String> fileCommandNames;
+		private final List<PlaybackMetadata> metadata;
+
+		private Source(String format, BigArrayList<TickContainer> ticks, List<String> fileCommandNames, List<PlaybackMetadata> metadata) {
+			this.format = format;
+			this.ticks = ticks;
+			this.fileCommandNames = fileCommandNames;
+			this.metadata = metadata;
+		}
+	}
+}
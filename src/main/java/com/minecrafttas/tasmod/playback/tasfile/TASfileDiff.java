@@ -0,0 +1,385 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+
+/**
+ * <p>Compares two TASfiles tick by tick, instead of line by line like a text diff.
+ *
+ * <p>The ticks are aligned by their index, as a tick in a TAS always happens at the same time.<br>
+ * Both TASfiles are read at the same time and every tick is reduced to its {@link TickHash}, so the comparison takes linear time.<br>
+ * When comparing files, only the current ticks are in memory, unless a {@link TASfilePatch} is created,
+ * which keeps the changed ticks of the target.
+ *
+ * <p>The ticks are read with the extensions {@link SerialiserFlavorBase#setProcessExtensions(boolean) disabled}.<br>
+ * File commands are compared as part of the comments.
+ *
+ * @author Scribble
+ */
+public class TASfileDiff {
+
+	private final long sourceSize;
+
+	private final long targetSize;
+
+	/**
+	 * The {@link TickHash#roll(long, long) rolling hash} of every tick in the source
+	 */
+	private final long sourceHash;
+
+	/**
+	 * The {@link TickHash#roll(long, long) rolling hash} of every tick in the target
+	 */
+	private final long targetHash;
+
+	private final List<Range> ranges;
+
+	private final TASfilePatch patch;
+
+	private TASfileDiff(long sourceSize, long targetSize, long sourceHash, long targetHash, List<Range> ranges, TASfilePatch patch) {
+		this.sourceSize = sourceSize;
+		this.targetSize = targetSize;
+		this.sourceHash = sourceHash;
+		this.targetHash = targetHash;
+		this.ranges = ranges;
+		this.patch = patch;
+	}
+
+	/**
+	 * Compares two TASfiles, while streaming the ticks from the files
+	 *
+	 * @param source      The original TASfile
+	 * @param target      The changed TASfile
+	 * @param createPatch If a {@link TASfilePatch} from the source to the target should be created
+	 * @return The differences between the TASfiles
+	 * @throws PlaybackLoadException If one of the TASfiles contains errors
+	 * @throws IOException           If one of the TASfiles can't be read
+	 */
+	public static TASfileDiff compare(Path source, Path target, boolean createPatch) throws PlaybackLoadException, IOException {
+		try (TickReader sourceReader = new TickReader(source); TickReader targetReader = new TickReader(target)) {
+			return compare(sourceReader, targetReader, createPatch);
+		}
+	}
+
+	/**
+	 * Compares two lists of ticks, e.g. the inputs of the {@link com.minecrafttas.tasmod.playback.PlaybackControllerClient PlaybackControllerClient} with a TASfile
+	 *
+	 * @param source      The original ticks
+	 * @param target      The changed ticks
+	 * @param createPatch If a {@link TASfilePatch} from the source to the target should be created
+	 * @return The differences between the ticks
+	 */
+	public static TASfileDiff compare(BigArrayList<TickContainer> source, BigArrayList<TickContainer> target, boolean createPatch) {
+		return compare(iterate(source), iterate(target), createPatch);
+	}
+
+	/**
+	 * Compares two streams of ticks
+	 *
+	 * @param source      The original ticks
+	 * @param target      The changed ticks
+	 * @param createPatch If a {@link TASfilePatch} from the source to the target should be created
+	 * @return The differences between the ticks
+	 */
+	public static TASfileDiff compare(Iterator<TickContainer> source, Iterator<TickContainer> target, boolean createPatch) {
+		List<Range> ranges = new ArrayList<>();
+		List<PendingHunk> hunks = new ArrayList<>();
+
+		long sourceHash = TickHash.EMPTY;
+		long targetHash = TickHash.EMPTY;
+		long sourceSize = 0;
+		long targetSize = 0;
+
+		PendingHunk current = null;
+		long tick = 0;
+		while (source.hasNext() || target.hasNext()) {
+			TickContainer sourceTick = source.hasNext() ? source.next() : null;
+			TickContainer targetTick = target.hasNext() ? target.next() : null;
+
+			boolean changed = sourceTick == null || targetTick == null;
+			long sourceTickHash = 0;
+			if (sourceTick != null) {
+				sourceTickHash = TickHash.hash(sourceTick);
+				sourceHash = TickHash.roll(sourceHash, sourceTickHash);
+				sourceSize++;
+			}
+			if (targetTick != null) {
+				long targetTickHash = TickHash.hash(targetTick);
+				targetHash = TickHash.roll(targetHash, targetTickHash);
+				targetSize++;
+				changed |= sourceTickHash != targetTickHash;
+			}
+
+			if (changed) {
+				if (current == null) {
+					current = new PendingHunk(tick);
+				}
+				current.end = tick + 1;
+				if (createPatch) {
+					if (sourceTick != null) {
+						current.addSourceHash(sourceTickHash);
+					}
+					if (targetTick != null) {
+						current.ticks.add(targetTick);
+					}
+				}
+			} else if (current != null) {
+				ranges.add(new Range(current.start, current.end));
+				hunks.add(current);
+				current = null;
+			}
+			tick++;
+		}
+		if (current != null) {
+			ranges.add(new Range(current.start, current.end));
+			hunks.add(current);
+		}
+
+		TASfilePatch patch = null;
+		if (createPatch) {
+			patch = new TASfilePatch(sourceSize, targetSize);
+			for (PendingHunk hunk : hunks) {
+				patch.addHunk(new TASfilePatch.Hunk(hunk.start, Arrays.copyOf(hunk.sourceHashes, hunk.sourceHashCount), hunk.ticks));
+			}
+		}
+		return new TASfileDiff(sourceSize, targetSize, sourceHash, targetHash, ranges, patch);
+	}
+
+	/**
+	 * @return True if every tick is the same in both TASfiles
+	 */
+	public boolean isEqual() {
+		return ranges.isEmpty();
+	}
+
+	/**
+	 * @return The first tick that is different, or -1 if the TASfiles are {@link #isEqual() equal}
+	 */
+	public long getFirstDifference() {
+		return ranges.isEmpty() ? -1 : ranges.get(0).getStart();
+	}
+
+	/**
+	 * @return The ranges of ticks that are different, in order
+	 */
+	public List<Range> getRanges() {
+		return Collections.unmodifiableList(ranges);
+	}
+
+	/**
+	 * @return The patch from the source to the target, or null if no patch was created
+	 */
+	public TASfilePatch getPatch() {
+		return patch;
+	}
+
+	public long getSourceSize() {
+		return sourceSize;
+	}
+
+	public long getTargetSize() {
+		return targetSize;
+	}
+
+	public long getSourceHash() {
+		return sourceHash;
+	}
+
+	public long getTargetHash() {
+		return targetHash;
+	}
+
+	@Override
+	public String toString() {
+		if (isEqual()) {
+			return String.format("The %s ticks are equal", sourceSize);
+		}
+		return String.format("%s of %s ticks are different, starting at tick %s: %s", getChangedTicks(), Math.max(sourceSize, targetSize), getFirstDifference(), ranges);
+	}
+
+	/**
+	 * @return The amount of ticks in the {@link #ranges}
+	 */
+	public long getChangedTicks() {
+		long changed = 0;
+		for (Range range : ranges) {
+			changed += range.getEnd() - range.getStart();
+		}
+		return changed;
+	}
+
+	private static Iterator<TickContainer> iterate(BigArrayList<TickContainer> list) {
+		return new Iterator<TickContainer>() {
+			private long index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < list.size();
+			}
+
+			@Override
+			public TickContainer next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return list.get(index++);
+			}
+		};
+	}
+
+	/**
+	 * A range of ticks that are different
+	 */
+	public static class Range {
+
+		private final long start;
+
+		private final long end;
+
+		/**
+		 * @param start The first different tick
+		 * @param end   The tick after the last different tick
+		 */
+		public Range(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getEnd() {
+			return end;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Range) {
+				Range range = (Range) obj;
+				return start == range.start && end == range.end;
+			}
+			return super.equals(obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(start) * 31 + Long.hashCode(end);
+		}
+
+		@Override
+		public String toString() {
+			return end - start == 1 ? Long.toString(start) : String.format("%s-%s", start, end - 1);
+		}
+	}
+
+	/**
+	 * A range that is still being collected
+	 */
+	private static class PendingHunk {
+
+		private final long start;
+
+		private long end;
+
+		private long[] sourceHashes = new long[8];
+
+		private int sourceHashCount = 0;
+
+		private final List<TickContainer> ticks = new ArrayList<>();
+
+		private PendingHunk(long start) {
+			this.start = start;
+		}
+
+		private void addSourceHash(long hash) {
+			if (sourceHashCount == sourceHashes.length) {
+				sourceHashes = Arrays.copyOf(sourceHashes, sourceHashCount * 2);
+			}
+			sourceHashes[sourceHashCount++] = hash;
+		}
+	}
+
+	/**
+	 * Reads the ticks of a TASfile one after another, without keeping the previous ticks
+	 */
+	private static class TickReader implements Iterator<TickContainer>, Closeable {
+
+		private final InputStream in;
+
+		private final SerialiserFlavorBase flavor;
+
+		private TASfileLineReader reader;
+
+		/**
+		 * The ticks of a binary TASfile, which can't be streamed
+		 */
+		private Iterator<TickContainer> binaryTicks;
+
+		private TickContainer next;
+
+		private TickReader(Path file) throws PlaybackLoadException, IOException {
+			in = TASfileCompression.newInputStream(file);
+			try {
+				TASfileLineReader headerReader = new TASfileLineReader(in);
+				List<String> headerLines = new ArrayList<>();
+				flavor = PlaybackSerialiser.detectFlavor(headerReader, headerLines);
+				flavor.setProcessExtensions(false);
+				flavor.setKeepFileCommands(true);
+				flavor.extractHeader(headerReader, headerLines);
+
+				if (flavor.isBinary()) {
+					binaryTicks = iterate(flavor.deserialise(in));
+				} else {
+					BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+					reader = new TASfileLineReader(bufferedReader::readLine, bufferedReader, headerReader.getLineIndex());
+				}
+			} catch (PlaybackLoadException | IOException e) {
+				in.close();
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				next = binaryTicks != null ? (binaryTicks.hasNext() ? binaryTicks.next() : null) : flavor.deserialiseNext(reader, false);
+			}
+			return next != null;
+		}
+
+		@Override
+		public TickContainer next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			TickContainer out = next;
+			next = null;
+			return out;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (reader != null) {
+				reader.close();
+			}
+			in.close();
+		}
+	}
+}
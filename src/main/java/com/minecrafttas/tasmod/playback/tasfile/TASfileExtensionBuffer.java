@@ -0,0 +1,118 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
+import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+/**
+ * <p>Collects everything a TASfile passes to the extensions while it is loaded on another thread, so it can be passed to them on the client thread afterwards.
+ *
+ * <p>Loading enables the {@link PlaybackFileCommandExtension file command extensions} of the header, passes the {@link PlaybackMetadata} to the metadata extensions<br>
+ * and passes the file commands of every tick to the file command extensions.<br>
+ * If a {@link SerialiserFlavorBase#setExtensionBuffer(TASfileExtensionBuffer) flavor has a buffer}, it adds them to the buffer instead,<br>
+ * so the extensions are neither changed while the game is running, nor by a TASfile whose loading was cancelled.
+ *
+ * <p>Only the file commands of ticks that have file commands are kept, every other tick passes empty file commands when {@link #apply(TickStore) applied}.
+ *
+ * @author Scribble
+ */
+public class TASfileExtensionBuffer {
+
+	/**
+	 * The names of the enabled file command extensions in the header, or null if the header was not read
+	 */
+	private List<String> fileCommandNames = null;
+
+	/**
+	 * The metadata in the header, or null if the header was not read
+	 */
+	private List<PlaybackMetadata> metadata = null;
+
+	private final Map<Long, List<List<PlaybackFileCommand>>> inlineFileCommands = new HashMap<>();
+
+	private final Map<Long, List<List<PlaybackFileCommand>>> endlineFileCommands = new HashMap<>();
+
+	/**
+	 * The amount of ticks, whose file commands were added
+	 */
+	private long ticks = 0;
+
+	public void setFileCommandNames(List<String> fileCommandNames) {
+		this.fileCommandNames = fileCommandNames;
+	}
+
+	public void setMetadata(List<PlaybackMetadata> metadata) {
+		this.metadata = metadata;
+	}
+
+	/**
+	 * @param tick                The tick of the file commands
+	 * @param inlineFileCommands  The file commands of the inline comments, one list per comment
+	 * @param endlineFileCommands The file commands of the endline comments, one list per subtick
+	 */
+	public void addFileCommands(long tick, List<List<PlaybackFileCommand>> inlineFileCommands, List<List<PlaybackFileCommand>> endlineFileCommands) {
+		if (hasFileCommands(inlineFileCommands)) {
+			this.inlineFileCommands.put(tick, inlineFileCommands);
+		}
+		if (hasFileCommands(endlineFileCommands)) {
+			this.endlineFileCommands.put(tick, endlineFileCommands);
+		}
+		ticks = Math.max(ticks, tick + 1);
+	}
+
+	/**
+	 * @param tick The tick of the file commands
+	 * @return The file commands of the inline comments, one list per comment
+	 */
+	public List<List<PlaybackFileCommand>> getInlineFileCommands(long tick) {
+		return inlineFileCommands.getOrDefault(tick, new ArrayList<>());
+	}
+
+	/**
+	 * @param tick The tick of the file commands
+	 * @return The file commands of the endline comments, one list per subtick
+	 */
+	public List<List<PlaybackFileCommand>> getEndlineFileCommands(long tick) {
+		return endlineFileCommands.getOrDefault(tick, new ArrayList<>());
+	}
+
+	private boolean hasFileCommands(List<List<PlaybackFileCommand>> fileCommands) {
+		for (List<PlaybackFileCommand> commands : fileCommands) {
+			if (commands != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <p>Passes the header and the file commands to the extensions, like loading the TASfile would have.
+	 *
+	 * <p>Has to be called on the client thread.
+	 *
+	 * @param loadedTicks The ticks that were loaded together with the file commands
+	 */
+	public void apply(TickStore loadedTicks) {
+		if (fileCommandNames != null) {
+			TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommandNames);
+		}
+		if (metadata != null) {
+			TASmodAPIRegistry.PLAYBACK_METADATA.handleOnLoad(metadata);
+		}
+		long end = Math.min(ticks, loadedTicks.size());
+		for (long tick = 0; tick < end; tick++) {
+			TickContainer container = loadedTicks.get(tick);
+			TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnDeserialiseInline(tick, container, inlineFileCommands.getOrDefault(tick, new ArrayList<>()));
+			TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnDeserialiseEndline(tick, container, endlineFileCommands.getOrDefault(tick, new ArrayList<>()));
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <p>The amount of ticks and the {@link TickMerkleTree#getRoot(long) root} of the {@link TickMerkleTree} of a TASfile,<br>
+ * so the inputs of a TASfile can be compared with the controller, without comparing every tick.
+ *
+ * <p>The fingerprint is stored next to the TASfile as a sidecar file with the ending <code>.mctas.fingerprint</code>,<br>
+ * instead of in the header, as the header would change with every tick and could no longer be {@link SavedTASfile kept} when saving.
+ *
+ * <pre>
+ * Magic     Version   Ticks   Root
+ * MCTASFPR  1         1200    5c3a0e1d9b8f7a64
+ * </pre>
+ *
+ * @author Scribble
+ */
+public class TASfileFingerprint {
+
+	private static final String MAGIC = "MCTASFPR";
+
+	private static final int VERSION = 1;
+
+	private final long ticks;
+
+	private final long root;
+
+	public TASfileFingerprint(long ticks, long root) {
+		this.ticks = ticks;
+		this.root = root;
+	}
+
+	/**
+	 * @param tree The tree of the ticks
+	 * @return The fingerprint of every tick in the tree
+	 */
+	public static TASfileFingerprint of(TickMerkleTree tree) {
+		return new TASfileFingerprint(tree.size(), tree.getRoot());
+	}
+
+	/**
+	 * @param file The TASfile
+	 * @return The location of the fingerprint for this TASfile
+	 */
+	public static Path getFingerprintPath(Path file) {
+		return file.resolveSibling(file.getFileName().toString() + ".fingerprint");
+	}
+
+	/**
+	 * @param file The TASfile
+	 * @return The fingerprint that is stored next to the TASfile, or null if it doesn't exist or is broken
+	 */
+	public static TASfileFingerprint load(Path file) {
+		Path fingerprintFile = getFingerprintPath(file);
+		if (!Files.exists(fingerprintFile)) {
+			return null;
+		}
+		try {
+			return read(fingerprintFile);
+		} catch (IOException e) {
+			// A broken fingerprint is treated like a missing one, as the ticks can still be compared one by one
+			return null;
+		}
+	}
+
+	/**
+	 * Reads a fingerprint file
+	 *
+	 * @param fingerprintFile The fingerprint file to read
+	 * @return The fingerprint
+	 * @throws IOException If the file could not be read or is not a fingerprint file
+	 */
+	public static TASfileFingerprint read(Path fingerprintFile) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fingerprintFile)))) {
+			byte[] magic = new byte[MAGIC.length()];
+			in.readFully(magic);
+			if (!MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))) {
+				throw new IOException("Not a TASfile fingerprint: " + fingerprintFile.getFileName());
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported TASfile fingerprint version " + version);
+			}
+			return new TASfileFingerprint(in.readLong(), in.readLong());
+		}
+	}
+
+	/**
+	 * Writes this fingerprint to a file
+	 *
+	 * @param fingerprintFile The file to write to
+	 * @throws IOException If the file could not be written
+	 */
+	public void write(Path fingerprintFile) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(fingerprintFile)))) {
+			out.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+			out.writeInt(VERSION);
+			out.writeLong(ticks);
+			out.writeLong(root);
+		}
+	}
+
+	/**
+	 * Deletes the fingerprint of a TASfile, when the TASfile is written without one
+	 *
+	 * @param file The TASfile
+	 * @throws IOException If the fingerprint could not be deleted
+	 */
+	public static void delete(Path file) throws IOException {
+		Files.deleteIfExists(getFingerprintPath(file));
+	}
+
+	/**
+	 * @param tree The tree to compare with
+	 * @return True if the tree starts with the ticks of this fingerprint
+	 */
+	public boolean isPrefixOf(TickMerkleTree tree) {
+		return tree.hasPrefix(ticks, root);
+	}
+
+	/**
+	 * @param tree The tree to compare with
+	 * @return True if the tree has exactly the ticks of this fingerprint
+	 */
+	public boolean matches(TickMerkleTree tree) {
+		return tree.size() == ticks && isPrefixOf(tree);
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getRoot() {
+		return root;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s ticks, root %016x", ticks, root);
+	}
+}
@@ -0,0 +1,763 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader.LineSupplier;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+
+/**
+ * <p>Maps tick numbers to byte offsets in a TASfile.
+ *
+ * <p>The index is stored next to the TASfile as a sidecar file with the ending <code>.mctas.idx</code>.<br>
+ * Every {@link #getInterval() interval} ticks, the byte offset and the line number of a tick is sampled.<br>
+ * To read a tick, the reader seeks to the closest sampled tick before it and only parses the ticks in between.
+ *
+ * <p>Only ticks that don't depend on the previous tick (e.g. by relative camera angles) are sampled,<br>
+ * as these can be deserialised without knowing the ticks before them.
+ *
+ * <p>The index stores the size and a hash of the entire TASfile it was created for.<br>
+ * If the TASfile was changed afterwards, the index is {@link #matches(Path) stale} and is rebuilt.
+ *
+ * <p>For every sampled tick, the hash of the bytes before it is stored as well.<br>
+ * When the ticks after a sampled tick are {@link #rewrite(Path, long, long, long) rewritten}, only the rewritten bytes are hashed,<br>
+ * and {@link #matches(Path, long) checking} if the TASfile can be rewritten only hashes the bytes after the sampled tick.
+ *
+ * <pre>
+ * Tick    Byte offset    Line
+ * 0       264            7
+ * 1000    45213          1430
+ * 2000    90821          2806
+ * </pre>
+ *
+ * @author Scribble
+ */
+public class TASfileIndex {
+
+	/**
+	 * The default amount of ticks between two sampled ticks
+	 */
+	public static final int DEFAULT_INTERVAL = 1000;
+
+	/**
+	 * The amount of bytes that are read at once for the {@link #hash(Path) hash}
+	 */
+	private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+
+	private static final String MAGIC = "MCTASIDX";
+
+	private static final int VERSION = 3;
+
+	private final int interval;
+
+	private final long fileSize;
+
+	private final long fileHash;
+
+	/**
+	 * The total amount of ticks in the TASfile
+	 */
+	private final long tickCount;
+
+	private final long[] ticks;
+
+	private final long[] offsets;
+
+	private final long[] lines;
+
+	/**
+	 * The hash of the bytes before each sampled tick
+	 */
+	private final long[] hashes;
+
+	private TASfileIndex(int interval, long fileSize, long fileHash, long tickCount, long[] ticks, long[] offsets, long[] lines, long[] hashes) {
+		this.interval = interval;
+		this.fileSize = fileSize;
+		this.fileHash = fileHash;
+		this.tickCount = tickCount;
+		this.ticks = ticks;
+		this.offsets = offsets;
+		this.lines = lines;
+		this.hashes = hashes;
+	}
+
+	/**
+	 * @param file The TASfile
+	 * @return The location of the index for this TASfile
+	 */
+	public static Path getIndexPath(Path file) {
+		return file.resolveSibling(file.getFileName().toString() + ".idx");
+	}
+
+	/**
+	 * Loads the index of a TASfile. If the index doesn't exist or is stale, the index is rebuilt.<br>
+	 * The rebuilt index is not written, use {@link #write(Path)} to store it next to the TASfile
+	 *
+	 * @param file   The TASfile
+	 * @param flavor The {@link SerialiserFlavorBase flavor} of the TASfile, used for rebuilding the index
+	 * @return The index of the TASfile
+	 * @throws PlaybackLoadException If the TASfile contains errors while rebuilding the index
+	 * @throws IOException           If the TASfile could not be read
+	 */
+	public static TASfileIndex load(Path file, SerialiserFlavorBase flavor) throws PlaybackLoadException, IOException {
+		TASfileIndex index = loadStored(file);
+		if (index == null) {
+			index = build(file, flavor, DEFAULT_INTERVAL);
+		}
+		return index;
+	}
+
+	/**
+	 * @param file The TASfile
+	 * @return The index that is stored next to the TASfile, or null if it doesn't exist, is broken or is stale
+	 * @throws IOException If the TASfile could not be read
+	 */
+	public static TASfileIndex loadStored(Path file) throws IOException {
+		Path indexFile = getIndexPath(file);
+		if (!Files.exists(indexFile)) {
+			return null;
+		}
+		TASfileIndex index;
+		try {
+			index = read(indexFile);
+		} catch (IOException e) {
+			// The index is broken and has to be rebuilt
+			return null;
+		}
+		return index.matches(file) ? index : null;
+	}
+
+	/**
+	 * Builds the index by extracting the ticks of a TASfile, without deserialising them
+	 *
+	 * @param file     The TASfile
+	 * @param flavor   The {@link SerialiserFlavorBase flavor} of the TASfile
+	 * @param interval The amount of ticks between two sampled ticks
+	 * @return The index of the TASfile
+	 * @throws PlaybackLoadException If the TASfile contains errors or is {@link TASfileCompression compressed}
+	 * @throws IOException           If the TASfile could not be read
+	 */
+	public static TASfileIndex build(Path file, SerialiserFlavorBase flavor, int interval) throws PlaybackLoadException, IOException {
+		SerialiserFlavorBase copy = flavor.clone();
+		copy.setProcessExtensions(false);
+
+		Builder builder = new Builder(interval);
+		CountingLineSupplier supplier;
+		try {
+			if (TASfileCompression.isCompressed(file)) {
+				throw new PlaybackLoadException("Trying to index %s, but the file is compressed", file.getFileName().toString());
+			}
+			supplier = new CountingLineSupplier(new BufferedInputStream(Files.newInputStream(file)), 0);
+		} catch (NoSuchFileException e) {
+			throw new PlaybackLoadException("Trying to index %s, but the file doesn't exist", file.getFileName().toString());
+		}
+
+		try (TASfileLineReader reader = new TASfileLineReader(supplier, supplier, 0)) {
+			copy.extractHeader(reader);
+			copy.index(reader, builder, supplier::getLineStart);
+		}
+		return builder.build(Files.size(file), builder.hashFile(file));
+	}
+
+	/**
+	 * Finds the byte offset of a tick, by extracting the ticks after the closest sampled tick
+	 *
+	 * @param file   The TASfile of this index
+	 * @param flavor The {@link SerialiserFlavorBase flavor} of the TASfile
+	 * @param tick   The tick to search for. Can be the {@link #getTickCount() tick count}, to get the end of the TASfile
+	 * @return The byte offset of the first line of the tick and the amount of lines before it, or null if the TASfile ends before the tick
+	 * @throws PlaybackLoadException If the TASfile contains errors
+	 * @throws IOException           If the TASfile could not be read
+	 */
+	public long[] locate(Path file, SerialiserFlavorBase flavor, long tick) throws PlaybackLoadException, IOException {
+		int sample = floor(tick);
+		if (sample == -1 || tick > tickCount) {
+			return null;
+		}
+		SerialiserFlavorBase copy = flavor.clone();
+		copy.setProcessExtensions(false);
+
+		CountingLineSupplier supplier = open(file, offsets[sample]);
+		try (TASfileLineReader reader = new TASfileLineReader(supplier, supplier, lines[sample])) {
+			if (copy.skip(reader, tick - ticks[sample]) != tick - ticks[sample]) {
+				return null;
+			}
+			// Peek into the next line, so the supplier points to the start of the tick
+			reader.hasNext();
+			return new long[] { supplier.getLineStart(), reader.getLineIndex() };
+		}
+	}
+
+	/**
+	 * <p>Creates the builder for the index of a TASfile, whose ticks from a specific tick onwards are rewritten.
+	 *
+	 * <p>The sampled ticks before the tick are kept. The rewritten ticks have to be added to the builder while they are written,<br>
+	 * afterwards the index of the changed TASfile is {@link Builder#build() built} without reading it again.
+	 *
+	 * <p>Only the bytes between the closest sampled tick and the rewritten tick are read, to continue the hash from there.
+	 *
+	 * @param file   The TASfile of this index, before it is changed
+	 * @param tick   The first tick that is rewritten
+	 * @param offset The byte offset of the first line of the tick
+	 * @param line   The amount of lines before the tick
+	 * @return The builder, that already received the lines before the tick
+	 * @throws IOException If the TASfile could not be read
+	 */
+	public Builder rewrite(Path file, long tick, long offset, long line) throws IOException {
+		Builder builder = new Builder(interval);
+		// Keep the sampled ticks before the rewritten part
+		for (int i = 0; i < ticks.length && ticks[i] < tick; i++) {
+			builder.addSample(ticks[i], offsets[i], lines[i], hashes[i]);
+		}
+		builder.tickCount = tick;
+
+		int sample = floor(tick);
+		long start = sample == -1 ? 0 : offsets[sample];
+		builder.hashBase = sample == -1 ? 0 : hashes[sample];
+		builder.hashStart = start;
+		builder.position = start;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(offset - start, 1), HASH_BUFFER_SIZE));
+			while (builder.position < offset) {
+				buffer.clear();
+				buffer.limit((int) Math.min(buffer.capacity(), offset - builder.position));
+				if (channel.read(buffer, builder.position) == -1) {
+					throw new IOException("The TASfile " + file.getFileName() + " ended before the rewritten tick");
+				}
+				builder.addBytes(buffer.array(), 0, buffer.position(), 0);
+			}
+		}
+		builder.lineCount = line;
+		return builder;
+	}
+
+	private static CountingLineSupplier open(Path file, long offset) throws PlaybackLoadException, IOException {
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			throw new PlaybackLoadException("Trying to index %s, but the file doesn't exist", file.getFileName().toString());
+		}
+		try {
+			channel.position(offset);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return new CountingLineSupplier(new BufferedInputStream(Channels.newInputStream(channel)), offset);
+	}
+
+	/**
+	 * Reads an index file
+	 *
+	 * @param indexFile The index file to read
+	 * @return The index
+	 * @throws IOException If the file could not be read or is not an index file
+	 */
+	public static TASfileIndex read(Path indexFile) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+			byte[] magic = new byte[MAGIC.length()];
+			in.readFully(magic);
+			if (!MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))) {
+				throw new IOException("Not a TASfile index: " + indexFile.getFileName());
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported TASfile index version " + version);
+			}
+
+			int interval = in.readInt();
+			long fileSize = in.readLong();
+			long fileHash = in.readLong();
+			long tickCount = in.readLong();
+
+			int size = in.readInt();
+			long[] ticks = new long[size];
+			long[] offsets = new long[size];
+			long[] lines = new long[size];
+			long[] hashes = new long[size];
+			for (int i = 0; i < size; i++) {
+				ticks[i] = in.readLong();
+				offsets[i] = in.readLong();
+				lines[i] = in.readLong();
+				hashes[i] = in.readLong();
+			}
+			return new TASfileIndex(interval, fileSize, fileHash, tickCount, ticks, offsets, lines, hashes);
+		}
+	}
+
+	/**
+	 * Writes this index to a file
+	 *
+	 * @param indexFile The file to write to
+	 * @throws IOException If the file could not be written
+	 */
+	public void write(Path indexFile) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+			out.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+			out.writeInt(VERSION);
+			out.writeInt(interval);
+			out.writeLong(fileSize);
+			out.writeLong(fileHash);
+			out.writeLong(tickCount);
+
+			out.writeInt(ticks.length);
+			for (int i = 0; i < ticks.length; i++) {
+				out.writeLong(ticks[i]);
+				out.writeLong(offsets[i]);
+				out.writeLong(lines[i]);
+				out.writeLong(hashes[i]);
+			}
+		}
+	}
+
+	/**
+	 * @param file The TASfile to check
+	 * @return True if this index was created for the current state of the TASfile
+	 * @throws IOException If the TASfile could not be read
+	 */
+	public boolean matches(Path file) throws IOException {
+		return Files.exists(file) && Files.size(file) == fileSize && hash(file) == fileHash;
+	}
+
+	/**
+	 * <p>Checks if the ticks from a specific tick onwards can be {@link #rewrite(Path, long, long, long) rewritten}.
+	 *
+	 * <p>Only the bytes after the closest sampled tick are hashed and combined with the stored hash of the bytes before it.<br>
+	 * Use {@link #matches(Path)} to verify the entire TASfile.
+	 *
+	 * @param file The TASfile to check
+	 * @param tick The first tick that is rewritten
+	 * @return True if the size of the TASfile and the bytes after the closest sampled tick are the same, as when this index was created
+	 * @throws IOException If the TASfile could not be read
+	 */
+	public boolean matches(Path file, long tick) throws IOException {
+		int sample = floor(tick);
+		if (sample == -1) {
+			return matches(file);
+		}
+		if (!Files.exists(file) || Files.size(file) != fileSize) {
+			return false;
+		}
+		CRC32 crc = new CRC32();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			channel.position(offsets[sample]);
+			ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(fileSize - offsets[sample], 1), HASH_BUFFER_SIZE));
+			while (channel.read(buffer) != -1) {
+				crc.update(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+		}
+		return combine(hashes[sample], crc.getValue(), fileSize - offsets[sample]) == fileHash;
+	}
+
+	/**
+	 * <p>Hashes the entire file with CRC32.
+	 *
+	 * <p>Every byte is hashed, as an edit that keeps the size of the file,<br>
+	 * e.g. replacing a keyname with one of the same length, can still move the lines the index points to.
+	 *
+	 * @param file The file to hash
+	 * @return The hash of the file
+	 * @throws IOException If the file could not be read
+	 */
+	public static long hash(Path file) throws IOException {
+		CRC32 crc = new CRC32();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(channel.size(), 1), HASH_BUFFER_SIZE));
+			while (channel.read(buffer) != -1) {
+				crc.update(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * <p>Combines the CRC32 of two parts of a file into the CRC32 of both parts, like zlib's <code>crc32_combine</code>.
+	 *
+	 * <p>Appending a byte to the first part is a linear operation on its CRC32,<br>
+	 * so appending the zeros of the second part is done by squaring the operator for every bit of the length.
+	 *
+	 * @param crc1    The CRC32 of the first part
+	 * @param crc2    The CRC32 of the second part
+	 * @param length2 The length of the second part in bytes
+	 * @return The CRC32 of the first part followed by the second part
+	 */
+	static long combine(long crc1, long crc2, long length2) {
+		if (length2 <= 0) {
+			return crc1;
+		}
+		long[] even = new long[32];
+		long[] odd = new long[32];
+
+		// The operator for one zero bit
+		odd[0] = 0xEDB88320L;
+		long row = 1;
+		for (int n = 1; n < 32; n++) {
+			odd[n] = row;
+			row <<= 1;
+		}
+		// The operators for two and four zero bits
+		square(even, odd);
+		square(odd, even);
+
+		// Applies the operators for one zero byte, two zero bytes, four zero bytes...
+		do {
+			square(even, odd);
+			if ((length2 & 1) != 0) {
+				crc1 = times(even, crc1);
+			}
+			length2 >>= 1;
+			if (length2 == 0) {
+				break;
+			}
+			square(odd, even);
+			if ((length2 & 1) != 0) {
+				crc1 = times(odd, crc1);
+			}
+			length2 >>= 1;
+		} while (length2 != 0);
+		return crc1 ^ crc2;
+	}
+
+	private static long times(long[] matrix, long vector) {
+		long sum = 0;
+		for (int i = 0; vector != 0; i++, vector >>>= 1) {
+			if ((vector & 1) != 0) {
+				sum ^= matrix[i];
+			}
+		}
+		return sum;
+	}
+
+	private static void square(long[] square, long[] matrix) {
+		for (int n = 0; n < 32; n++) {
+			square[n] = times(matrix, matrix[n]);
+		}
+	}
+
+	/**
+	 * @param tick The tick to search for
+	 * @return The index of the closest sampled tick at or before the tick, or -1 if there is none
+	 */
+	public int floor(long tick) {
+		int found = Arrays.binarySearch(ticks, tick);
+		if (found >= 0) {
+			return found;
+		}
+		return -(found + 1) - 1;
+	}
+
+	/**
+	 * @return The amount of sampled ticks
+	 */
+	public int size() {
+		return ticks.length;
+	}
+
+	/**
+	 * @param i The index of the sampled tick
+	 * @return The tick number of the sampled tick
+	 */
+	public long getTick(int i) {
+		return ticks[i];
+	}
+
+	/**
+	 * @param i The index of the sampled tick
+	 * @return The byte offset of the first line of the sampled tick, including its inline comments
+	 */
+	public long getOffset(int i) {
+		return offsets[i];
+	}
+
+	/**
+	 * @param i The index of the sampled tick
+	 * @return The amount of lines before the sampled tick
+	 */
+	public long getLine(int i) {
+		return lines[i];
+	}
+
+	/**
+	 * @param i The index of the sampled tick
+	 * @return The CRC32 of the bytes before the sampled tick
+	 */
+	public long getHash(int i) {
+		return hashes[i];
+	}
+
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * <p>Collects the sampled ticks while a TASfile is written or read.
+	 *
+	 * <p>While writing, each line is passed to {@link #addLine(String)}, which keeps track of the byte offset.<br>
+	 * Before the lines of a tick are added, {@link #addTick(long, long, boolean)} is called with the current {@link #getPosition() position}.
+	 *
+	 * <p>The added lines are hashed as well, so the {@link #build() index of the written TASfile} doesn't have to read the TASfile again.
+	 */
+	public static class Builder {
+
+		private final int interval;
+
+		private long position = 0;
+
+		private long lineCount = 0;
+
+		private long tickCount = 0;
+
+		private long nextSample = 0;
+
+		private int size = 0;
+
+		private long[] ticks = new long[16];
+
+		private long[] offsets = new long[16];
+
+		private long[] lines = new long[16];
+
+		private long[] hashes = new long[16];
+
+		/**
+		 * The hash of the {@link #addLine(String) added lines}, after the {@link #hashStart}
+		 */
+		private final CRC32 crc = new CRC32();
+
+		/**
+		 * The hash of the bytes before the {@link #hashStart}, e.g. the bytes that are kept when {@link TASfileIndex#rewrite(Path, long, long, long) rewriting} a TASfile
+		 */
+		private long hashBase = 0;
+
+		/**
+		 * The position at which the {@link #crc} starts
+		 */
+		private long hashStart = 0;
+
+		/**
+		 * @param interval The amount of ticks between two sampled ticks
+		 */
+		public Builder(int interval) {
+			if (interval <= 0) {
+				throw new IllegalArgumentException("The interval has to be positive");
+			}
+			this.interval = interval;
+		}
+
+		/**
+		 * Adds a line to the {@link #getPosition() position}. The line is expected to be terminated with a "\n" in the TASfile
+		 *
+		 * @param line The line that was written
+		 */
+		public void addLine(String line) {
+			byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+			crc.update(bytes);
+			crc.update('\n');
+			position += bytes.length + 1;
+			lineCount++;
+		}
+
+		/**
+		 * Adds lines, that were serialised beforehand and are written at once, e.g. by a {@link TASfileJournal}
+		 *
+		 * @param bytes  The UTF-8 encoded lines, each terminated with a "\n"
+		 * @param offset The index of the first byte in the array
+		 * @param length The amount of bytes
+		 * @param lines  The amount of lines in the bytes
+		 */
+		public void addBytes(byte[] bytes, int offset, int length, long lines) {
+			crc.update(bytes, offset, length);
+			position += length;
+			lineCount += lines;
+		}
+
+		/**
+		 * Adds the next tick. The tick is sampled, if the interval since the last sampled tick has passed and the tick is independent
+		 *
+		 * @param offset      The byte offset of the first line of the tick
+		 * @param line        The amount of lines before the tick
+		 * @param independent If the tick can be deserialised without the previous tick
+		 */
+		public void addTick(long offset, long line, boolean independent) {
+			long tick = tickCount++;
+			// The first tick is always sampled, as it is deserialised without a previous tick anyway
+			if (tick != 0 && (tick < nextSample || !independent)) {
+				return;
+			}
+			// While reading, the hashes are replaced by hashFile
+			addSample(tick, offset, line, hash());
+		}
+
+		private void addSample(long tick, long offset, long line, long hash) {
+			if (size == ticks.length) {
+				ticks = Arrays.copyOf(ticks, size * 2);
+				offsets = Arrays.copyOf(offsets, size * 2);
+				lines = Arrays.copyOf(lines, size * 2);
+				hashes = Arrays.copyOf(hashes, size * 2);
+			}
+			ticks[size] = tick;
+			offsets[size] = offset;
+			lines[size] = line;
+			hashes[size] = hash;
+			size++;
+
+			nextSample = (tick / interval + 1) * interval;
+		}
+
+		/**
+		 * @return The hash of every byte before the {@link #getPosition() position}
+		 */
+		private long hash() {
+			return combine(hashBase, crc.getValue(), position - hashStart);
+		}
+
+		/**
+		 * Hashes a TASfile, whose ticks were added while reading it, and the bytes before every sampled tick
+		 *
+		 * @param file The TASfile, that was read
+		 * @return The hash of the entire TASfile
+		 * @throws IOException If the TASfile could not be read
+		 */
+		private long hashFile(Path file) throws IOException {
+			CRC32 crc = new CRC32();
+			long position = 0;
+			int sample = 0;
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(channel.size(), 1), HASH_BUFFER_SIZE));
+				while (channel.read(buffer) != -1) {
+					buffer.flip();
+					while (buffer.hasRemaining()) {
+						for (; sample < size && offsets[sample] == position; sample++) {
+							hashes[sample] = crc.getValue();
+						}
+						int length = buffer.remaining();
+						if (sample < size) {
+							length = (int) Math.min(length, offsets[sample] - position);
+						}
+						crc.update(buffer.array(), buffer.position(), length);
+						buffer.position(buffer.position() + length);
+						position += length;
+					}
+					buffer.clear();
+				}
+			}
+			for (; sample < size; sample++) {
+				hashes[sample] = crc.getValue();
+			}
+			return crc.getValue();
+		}
+
+		/**
+		 * @return The byte offset after the last {@link #addLine(String) added line}
+		 */
+		public long getPosition() {
+			return position;
+		}
+
+		/**
+		 * @return The amount of {@link #addLine(String) added lines}
+		 */
+		public long getLineCount() {
+			return lineCount;
+		}
+
+		/**
+		 * @param fileSize The size of the finished TASfile
+		 * @param fileHash The {@link TASfileIndex#hash(Path) hash} of the finished TASfile
+		 * @return The index
+		 */
+		public TASfileIndex build(long fileSize, long fileHash) {
+			return new TASfileIndex(interval, fileSize, fileHash, tickCount, Arrays.copyOf(ticks, size), Arrays.copyOf(offsets, size), Arrays.copyOf(lines, size), Arrays.copyOf(hashes, size));
+		}
+
+		/**
+		 * Builds the index of a TASfile, that consists of the added lines and bytes only
+		 *
+		 * @return The index, with the size and the hash of the added lines and bytes
+		 */
+		public TASfileIndex build() {
+			return build(position, hash());
+		}
+	}
+
+	/**
+	 * Reads UTF-8 encoded lines from a stream and keeps track of the byte offset at which the last line started
+	 */
+	private static class CountingLineSupplier implements LineSupplier, Closeable {
+
+		private final InputStream in;
+
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		private long position = 0;
+
+		private long lineStart = 0;
+
+		private CountingLineSupplier(InputStream in, long position) {
+			this.in = in;
+			this.position = position;
+			this.lineStart = position;
+		}
+
+		@Override
+		public String readLine() throws IOException {
+			lineStart = position;
+			line.reset();
+
+			int b;
+			while ((b = in.read()) != -1) {
+				position++;
+				if (b == '\n') {
+					break;
+				}
+				line.write(b);
+			}
+			if (b == -1 && line.size() == 0) {
+				return null;
+			}
+
+			byte[] bytes = line.toByteArray();
+			int length = bytes.length;
+			if (length > 0 && bytes[length - 1] == '\r') {
+				length--;
+			}
+			return new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * @return The byte offset of the last line that was read
+		 */
+		private long getLineStart() {
+			return lineStart;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,492 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+
+/**
+ * <p>An append-only file, that contains the serialised ticks of a recording without the header.
+ *
+ * <p>While recording, every tick is serialised once and appended to the journal in the background.<br>
+ * When saving, only the ticks after the last journaled tick are serialised.<br>
+ * The TASfile is then written by copying the header and the journaled bytes, instead of serialising every tick again.
+ *
+ * <p>The byte offset where each tick ends is kept in memory, so removing ticks at the end, e.g. after loading a savestate,<br>
+ * only truncates the file.
+ *
+ * <p>The journal mirrors the first {@link #size()} ticks of the {@link PlaybackControllerClient}.<br>
+ * If a tick is changed, the journal has to be {@link #truncate(long) truncated} before that tick.
+ *
+ * @author Scribble
+ */
+public class TASfileJournal implements Closeable {
+
+	private final Path file;
+
+	private final FileChannel channel;
+
+	/**
+	 * Writes the ticks and truncates the file, in the order in which the operations were submitted
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The flavor that is used to serialise the ticks. Is null, until the journal is {@link #setFlavor(SerialiserFlavorBase) used for saving}
+	 */
+	private SerialiserFlavorBase flavor = null;
+
+	/**
+	 * The byte offset in the journal, where each tick ends
+	 */
+	private long[] tickEnds = new long[1024];
+
+	/**
+	 * The amount of lines in the journal, where each tick ends
+	 */
+	private long[] lineEnds = new long[1024];
+
+	/**
+	 * The ticks that {@link SerialiserFlavorBase#dependsOnPreviousTick(List) depend on the previous tick}
+	 */
+	private final BitSet dependent = new BitSet();
+
+	/**
+	 * The amount of ticks in the journal
+	 */
+	private long size = 0;
+
+	/**
+	 * Is increased every time ticks are removed from the journal, so a {@link TASfileSnapshot} can tell if its ticks are still journaled
+	 */
+	private long generation = 0;
+
+	/**
+	 * The amount of ticks that were saved in a savestate, by the name of the savestate
+	 */
+	private final Map<String, Long> marks = new HashMap<>();
+
+	/**
+	 * The first error that occurred while writing in the background
+	 */
+	private volatile Throwable error = null;
+
+	private final List<String> tickLines = new ArrayList<>();
+
+	/**
+	 * The amount of bytes that are read at once, when the journaled ticks are {@link #transferTo(long, long, FileChannel, TASfileIndex.Builder) copied and indexed}
+	 */
+	private static final int TRANSFER_BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * Creates an empty journal
+	 *
+	 * @param file The file of the journal. Is overwritten and deleted once the journal is closed
+	 * @throws IOException If the file can't be created
+	 */
+	public TASfileJournal(Path file) throws IOException {
+		this.file = file;
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "TASfileJournal-" + file.getFileName());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Sets the flavor that serialises the ticks.<br>
+	 * If the journal was written with a different flavor, the journal is cleared
+	 *
+	 * @param flavor The flavor to use. Is used exclusively by this journal
+	 */
+	public synchronized void setFlavor(SerialiserFlavorBase flavor) {
+		if (this.flavor != null && this.flavor.equals(flavor)) {
+			return;
+		}
+		truncate(0);
+		this.flavor = flavor;
+	}
+
+	/**
+	 * <p>Appends a recorded tick to the journal in the background.
+	 *
+	 * <p>If the tick is already in the journal, the journal is truncated first.<br>
+	 * If the journal is behind, e.g. because no flavor was set yet, the tick is skipped and added during the next {@link #append(BigArrayList, long)}
+	 *
+	 * @param tick      The index of the tick
+	 * @param container The recorded tick
+	 */
+	public synchronized void append(long tick, TickContainer container) {
+		if (tick < size) {
+			truncate(tick);
+		}
+		if (tick != size || flavor == null || error != null) {
+			return;
+		}
+		write(container);
+	}
+
+	/**
+	 * Appends the ticks that are missing in the journal
+	 *
+	 * @param inputs The ticks of the recording
+	 * @param toTick The tick at which the journal should end, exclusive
+	 * @throws IOException If writing in the background failed
+	 */
+	public synchronized void append(BigArrayList<TickContainer> inputs, long toTick) throws IOException {
+		append(TickStore.of(inputs), toTick);
+	}
+
+	/**
+	 * Appends the ticks of a {@link TickStore} that are missing in the journal
+	 *
+	 * @param inputs The ticks of the recording
+	 * @param toTick The tick at which the journal should end, exclusive
+	 * @throws IOException If writing in the background failed
+	 */
+	public synchronized void append(TickStore inputs, long toTick) throws IOException {
+		append(inputs, toTick, null);
+	}
+
+	/**
+	 * Appends the ticks of a {@link TickStore} that are missing in the journal, with file commands that were captured beforehand,<br>
+	 * e.g. by a {@link TASfileSnapshot} on the saver thread
+	 *
+	 * @param inputs       The ticks of the recording
+	 * @param toTick       The tick at which the journal should end, exclusive
+	 * @param fileCommands The file commands of the ticks, or null to take them from the extensions
+	 * @throws IOException If writing in the background failed
+	 */
+	public synchronized void append(TickStore inputs, long toTick, TASfileCommandCapture fileCommands) throws IOException {
+		checkError();
+		if (flavor == null) {
+			throw new IOException("No flavor was set for the journal");
+		}
+		toTick = Math.min(toTick, inputs.size());
+		flavor.setFileCommandCapture(fileCommands);
+		try {
+			for (long tick = size; tick < toTick; tick++) {
+				write(inputs.get(tick));
+			}
+		} finally {
+			flavor.setFileCommandCapture(null);
+		}
+	}
+
+	/**
+	 * Removes every tick at and after the specified tick from the journal
+	 *
+	 * @param tick The amount of ticks to keep
+	 */
+	public synchronized void truncate(long tick) {
+		if (tick >= size) {
+			return;
+		}
+		generation++;
+		size = Math.max(tick, 0);
+		long length = getLength(size);
+		executor.execute(() -> {
+			try {
+				channel.truncate(length);
+			} catch (IOException e) {
+				fail(e);
+			}
+		});
+
+		Iterator<Long> iterator = marks.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next() > size) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Remembers the amount of ticks that were saved in a savestate
+	 *
+	 * @param name  The name of the savestate
+	 * @param ticks The amount of ticks in the savestate
+	 */
+	public synchronized void mark(String name, long ticks) {
+		if (ticks <= size) {
+			marks.put(name, ticks);
+		} else {
+			marks.remove(name);
+		}
+	}
+
+	/**
+	 * @param name  The name of the savestate
+	 * @param ticks The amount of ticks that were loaded from the savestate
+	 * @return The amount of ticks of the savestate that are still in the journal, or 0 if the savestate doesn't match the journal
+	 */
+	public synchronized long getMarked(String name, long ticks) {
+		Long marked = marks.get(name);
+		if (marked == null || marked != ticks || ticks > size) {
+			return 0;
+		}
+		return ticks;
+	}
+
+	/**
+	 * Writes the header and the journaled ticks to a TASfile
+	 *
+	 * @param target The TASfile to write
+	 * @param header The serialised header of the TASfile
+	 * @param toTick The amount of ticks to write. Has to be in the journal
+	 * @return The {@link TASfileIndex} of the written TASfile, which is created from the journal without reading the TASfile
+	 * @throws IOException If writing the file or the journal failed
+	 */
+	public synchronized TASfileIndex save(Path target, List<String> header, long toTick) throws IOException {
+		TASfileIndex.Builder index = new TASfileIndex.Builder(TASfileIndex.DEFAULT_INTERVAL);
+		try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			StringBuilder builder = new StringBuilder();
+			for (String line : header) {
+				builder.append(line).append('\n');
+				index.addLine(line);
+			}
+			ByteBuffer headerBytes = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+			while (headerBytes.hasRemaining()) {
+				out.write(headerBytes);
+			}
+
+			transferTo(0, toTick, out, index);
+		}
+		return index.build();
+	}
+
+	/**
+	 * Copies journaled ticks to the current position of a file
+	 *
+	 * @param fromTick The first tick to copy
+	 * @param toTick   The tick at which the copying stops, exclusive. Has to be in the journal
+	 * @param target   The file to copy to. Its position is moved to the end of the copied ticks
+	 * @throws IOException If writing the file or the journal failed
+	 */
+	public synchronized void transferTo(long fromTick, long toTick, FileChannel target) throws IOException {
+		transferTo(fromTick, toTick, target, null);
+	}
+
+	/**
+	 * <p>Copies journaled ticks to the current position of a file and adds them to the index of the file.
+	 *
+	 * <p>The copied bytes are passed through memory, so the index can hash them without reading the file again.
+	 *
+	 * @param fromTick The first tick to copy
+	 * @param toTick   The tick at which the copying stops, exclusive. Has to be in the journal
+	 * @param target   The file to copy to. Its position is moved to the end of the copied ticks
+	 * @param index    The builder of the index, that already received the lines before the first tick. Can be null
+	 * @throws IOException If writing the file or the journal failed
+	 */
+	public synchronized void transferTo(long fromTick, long toTick, FileChannel target, TASfileIndex.Builder index) throws IOException {
+		if (toTick > size) {
+			throw new IOException(String.format("The journal only contains %s of %s ticks", size, toTick));
+		}
+		flush();
+
+		long position = getLength(fromTick);
+		long end = getLength(toTick);
+		if (index == null) {
+			while (position < end) {
+				position += channel.transferTo(position, end - position, target);
+			}
+			return;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Math.max(end - position, 1), TRANSFER_BUFFER_SIZE));
+		buffer.limit(0);
+		for (long tick = fromTick; tick < toTick; tick++) {
+			index.addTick(index.getPosition(), index.getLineCount(), !dependent.get((int) tick));
+			long remaining = getLength(tick + 1) - getLength(tick);
+			long lines = getLines(tick + 1) - getLines(tick);
+			while (remaining > 0) {
+				if (!buffer.hasRemaining()) {
+					position += copy(buffer, position, end, target);
+				}
+				int length = (int) Math.min(remaining, buffer.remaining());
+				index.addBytes(buffer.array(), buffer.position(), length, lines);
+				buffer.position(buffer.position() + length);
+				remaining -= length;
+				lines = 0;
+			}
+		}
+	}
+
+	/**
+	 * Fills the buffer with the next bytes of the journal and writes them to the target
+	 *
+	 * @param buffer   The buffer to fill. Is flipped, so the read bytes can be hashed afterwards
+	 * @param position The position in the journal to read from
+	 * @param end      The position in the journal at which reading stops
+	 * @param target   The file to write the bytes to
+	 * @return The amount of bytes that were read
+	 * @throws IOException If the journal ended early or the target could not be written
+	 */
+	private int copy(ByteBuffer buffer, long position, long end, FileChannel target) throws IOException {
+		buffer.clear();
+		buffer.limit((int) Math.min(buffer.capacity(), end - position));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) == -1) {
+				throw new IOException("The journal " + file.getFileName() + " ended unexpectedly");
+			}
+		}
+		buffer.flip();
+		ByteBuffer write = buffer.duplicate();
+		while (write.hasRemaining()) {
+			target.write(write);
+		}
+		return buffer.limit();
+	}
+
+	/**
+	 * Waits until every tick was written to the journal
+	 *
+	 * @throws IOException If writing in the background failed
+	 */
+	public void flush() throws IOException {
+		try {
+			executor.submit(() -> {
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the journal");
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		checkError();
+	}
+
+	/**
+	 * @return The amount of ticks in the journal
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * @return The {@link #generation}, which changes every time ticks are removed from the journal
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return The file of the journal
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Stops writing and deletes the journal
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		channel.close();
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * Serialises a tick and passes it to the {@link #executor}
+	 *
+	 * @param container The tick to write at the end of the journal
+	 */
+	private void write(TickContainer container) {
+		tickLines.clear();
+		flavor.serialiseNext(size, container, tickLines);
+
+		StringBuilder builder = new StringBuilder();
+		for (String line : tickLines) {
+			builder.append(line).append('\n');
+		}
+		ByteBuffer bytes = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+
+		long position = getLength(size);
+		if (size == tickEnds.length) {
+			tickEnds = Arrays.copyOf(tickEnds, tickEnds.length * 2);
+			lineEnds = Arrays.copyOf(lineEnds, lineEnds.length * 2);
+		}
+		tickEnds[(int) size] = position + bytes.remaining();
+		lineEnds[(int) size] = getLines(size) + tickLines.size();
+		dependent.set((int) size, flavor.dependsOnPreviousTick(tickLines));
+		size++;
+
+		executor.execute(() -> {
+			try {
+				long offset = position;
+				while (bytes.hasRemaining()) {
+					offset += channel.write(bytes, offset);
+				}
+			} catch (IOException e) {
+				fail(e);
+			}
+		});
+	}
+
+	/**
+	 * @param ticks The amount of ticks
+	 * @return The length of the journal in bytes, when it contains the amount of ticks
+	 */
+	private long getLength(long ticks) {
+		return ticks == 0 ? 0 : tickEnds[(int) (ticks - 1)];
+	}
+
+	/**
+	 * @param ticks The amount of ticks
+	 * @return The amount of lines in the journal, when it contains the amount of ticks
+	 */
+	private long getLines(long ticks) {
+		return ticks == 0 ? 0 : lineEnds[(int) (ticks - 1)];
+	}
+
+	private void fail(Throwable e) {
+		if (error == null) {
+			error = e;
+		}
+	}
+
+	/**
+	 * Throws the error that occurred in the background and clears the journal, so it can be written again
+	 */
+	private synchronized void checkError() throws IOException {
+		Throwable e = error;
+		if (e == null) {
+			return;
+		}
+		error = null;
+		truncate(0);
+		throw new IOException("Writing the journal " + file.getFileName() + " failed", e);
+	}
+}
@@ -0,0 +1,183 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+
+/**
+ * <p>A sliding window over the lines of a TASfile.
+ *
+ * <p>Instead of reading every line of a TASfile into memory and accessing them via an index,<br>
+ * the {@link SerialiserFlavorBase} pulls the lines one by one from this reader.<br>
+ * Only the line after the current line is kept in memory, which is needed to find the end of a tick.
+ *
+ * <pre>
+ * 55|W,LCONTROL;w|;0,887,626|17.85;-202.74799	&lt;- Consumed
+ * 	1||RC;0,1580,658|17.85;-202.74799	&lt;- Consumed
+ * 56|W,LCONTROL;w|;0,887,626|17.85;-202.74799	&lt;- Peeked, ends the tick above
+ * 	1||RC;0,1580,658|17.85;-202.74799	&lt;- Not read yet
+ * </pre>
+ */
+public class TASfileLineReader implements Closeable {
+
+	/**
+	 * Supplies the next line of the source, or null if the source has ended
+	 */
+	@FunctionalInterface
+	public interface LineSupplier {
+		public String readLine() throws IOException;
+	}
+
+	private final LineSupplier supplier;
+
+	private final Closeable closeable;
+
+	/**
+	 * The line after the last consumed line. Only valid if {@link #hasPeeked} is true
+	 */
+	private String peeked = null;
+
+	private boolean hasPeeked = false;
+
+	/**
+	 * The amount of lines that were consumed via {@link #next()}.<br>
+	 * Equals to the 0-based index of the line that is returned by {@link #peek()}
+	 */
+	private long lineIndex;
+
+	/**
+	 * Creates a line reader from a {@link BufferedReader}. Closing this line reader also closes the buffered reader.
+	 *
+	 * @param reader The reader to read the lines from
+	 */
+	public TASfileLineReader(BufferedReader reader) {
+		this(reader::readLine, reader, 0);
+	}
+
+	/**
+	 * <p>Creates a line reader that reads UTF-8 encoded lines directly from an input stream.
+	 * 
+	 * <p>Unlike a {@link BufferedReader}, no bytes after the consumed and peeked lines are read from the stream.<br>
+	 * This allows reading binary data from the stream, after the text header was read.<br>
+	 * Closing this line reader does not close the stream.
+	 *
+	 * @param in The stream to read the lines from
+	 */
+	public TASfileLineReader(InputStream in) {
+		this(() -> readLine(in), null, 0);
+	}
+
+	/**
+	 * Creates a line reader from lines that are already in memory
+	 *
+	 * @param lines    The lines to read from
+	 * @param startPos The index of the first line that is read
+	 */
+	public TASfileLineReader(BigArrayList<String> lines, long startPos) {
+		this(new LineSupplier() {
+			private long index = startPos;
+
+			@Override
+			public String readLine() {
+				if (index >= lines.size()) {
+					return null;
+				}
+				return lines.get(index++);
+			}
+		}, null, startPos);
+	}
+
+	/**
+	 * @param supplier  The {@link #supplier}
+	 * @param closeable The {@link Closeable} that is closed with {@link #close()}. Can be null
+	 * @param lineIndex The index of the first line that is returned by the supplier
+	 */
+	public TASfileLineReader(LineSupplier supplier, Closeable closeable, long lineIndex) {
+		this.supplier = supplier;
+		this.closeable = closeable;
+		this.lineIndex = lineIndex;
+	}
+
+	/**
+	 * Reads one UTF-8 encoded line from the stream, without reading past the line break
+	 *
+	 * @param in The stream to read from
+	 * @return The line without the line break, or null if the stream has ended
+	 * @throws IOException If reading from the stream failed
+	 */
+	public static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != -1 && b != '\n') {
+			line.write(b);
+		}
+		if (b == -1 && line.size() == 0) {
+			return null;
+		}
+		byte[] bytes = line.toByteArray();
+		int length = bytes.length;
+		if (length > 0 && bytes[length - 1] == '\r') {
+			length--;
+		}
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return The next line without consuming it, or null if the end was reached
+	 * @throws PlaybackLoadException If reading from the source failed
+	 */
+	public String peek() throws PlaybackLoadException {
+		if (!hasPeeked) {
+			try {
+				peeked = supplier.readLine();
+			} catch (IOException e) {
+				throw new PlaybackLoadException(e, "Failed to read line %s of the TASfile", lineIndex + 1);
+			}
+			hasPeeked = true;
+		}
+		return peeked;
+	}
+
+	/**
+	 * @return The next line, or null if the end was reached
+	 * @throws PlaybackLoadException If reading from the source failed
+	 */
+	public String next() throws PlaybackLoadException {
+		String line = peek();
+		if (line != null) {
+			hasPeeked = false;
+			peeked = null;
+			lineIndex++;
+		}
+		return line;
+	}
+
+	/**
+	 * @return True if there is another line to read
+	 * @throws PlaybackLoadException If reading from the source failed
+	 */
+	public boolean hasNext() throws PlaybackLoadException {
+		return peek() != null;
+	}
+
+	/**
+	 * @return The {@link #lineIndex}
+	 */
+	public long getLineIndex() {
+		return lineIndex;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closeable != null) {
+			closeable.close();
+		}
+	}
+}
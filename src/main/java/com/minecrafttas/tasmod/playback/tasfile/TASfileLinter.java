@@ -0,0 +1,167 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.BinaryFlavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+/**
+ * <p>Checks a TASfile for errors, without loading it into the {@link com.minecrafttas.tasmod.playback.PlaybackControllerClient PlaybackControllerClient}.
+ *
+ * <p>Unlike loading, the linter doesn't stop at the first {@link PlaybackLoadException}, but reports every error in the file.<br>
+ * The lines are streamed through {@link SerialiserFlavorBase#lint(TASfileLineReader, Consumer) the flavor},
+ * so the memory usage doesn't grow with the length of the TASfile.<br>
+ * The extensions are not called, so the currently loaded TASfile is not affected.
+ *
+ * <p>Can be run without Minecraft via {@link #main(String[])}, or in the client via <code>/lint</code>
+ *
+ * @author Scribble
+ */
+public class TASfileLinter {
+
+	/**
+	 * Lints the TASfiles of {@link #lintAsync(Path)}, one after another
+	 */
+	private static final ExecutorService LINTER = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "TASmod Linter");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Checks every line of a TASfile and passes the errors to the consumer as they are found
+	 *
+	 * @param file        The TASfile to check
+	 * @param diagnostics Receives the errors in the order of the lines
+	 * @return The amount of ticks in the TASfile
+	 * @throws IOException If the TASfile can't be read
+	 */
+	public static long lint(Path file, Consumer<PlaybackLoadException> diagnostics) throws IOException {
+		try (InputStream in = TASfileCompression.newInputStream(file)) {
+			TASfileLineReader headerReader = new TASfileLineReader(in);
+			List<String> headerLines = new ArrayList<>();
+
+			SerialiserFlavorBase flavor;
+			try {
+				flavor = PlaybackSerialiser.detectFlavor(headerReader, headerLines);
+			} catch (PlaybackLoadException e) {
+				diagnostics.accept(e);
+				return 0;
+			}
+			flavor.setProcessExtensions(false);
+
+			try {
+				headerLines = flavor.extractHeader(headerReader, headerLines);
+			} catch (PlaybackLoadException e) {
+				diagnostics.accept(e);
+				return 0;
+			}
+
+			try {
+				flavor.readFileCommandNames(headerLines);
+				flavor.readMetadata(headerLines);
+			} catch (PlaybackLoadException e) {
+				diagnostics.accept(e);
+			}
+
+			if (flavor.isBinary()) {
+				// Binary data has no lines, so only the first error can be found
+				try {
+					return flavor.deserialise(in).size();
+				} catch (PlaybackLoadException e) {
+					diagnostics.accept(e);
+					return 0;
+				}
+			}
+
+			BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			try (TASfileLineReader reader = new TASfileLineReader(bufferedReader::readLine, bufferedReader, headerReader.getLineIndex())) {
+				return flavor.lint(reader, diagnostics);
+			}
+		}
+	}
+
+	/**
+	 * @param file The TASfile to check
+	 * @return Every error in the TASfile, in the order of the lines
+	 * @throws IOException If the TASfile can't be read
+	 */
+	public static List<PlaybackLoadException> lint(Path file) throws IOException {
+		List<PlaybackLoadException> out = new ArrayList<>();
+		lint(file, out::add);
+		return out;
+	}
+
+	/**
+	 * Checks a TASfile on a separate thread, so the client is not blocked by large TASfiles
+	 *
+	 * @param file The TASfile to check
+	 * @return A future, which completes with every error in the TASfile,<br>
+	 *         or completes exceptionally if the TASfile can't be read
+	 */
+	public static CompletableFuture<List<PlaybackLoadException>> lintAsync(Path file) {
+		CompletableFuture<List<PlaybackLoadException>> future = new CompletableFuture<>();
+		LINTER.execute(() -> {
+			try {
+				future.complete(lint(file));
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * <p>Checks TASfiles without starting Minecraft.
+	 *
+	 * <p>Arguments: <code>&lt;file&gt; [file...]</code><br>
+	 * Prints every error and exits with 1 if a TASfile has errors, or with 2 if a TASfile can't be read.
+	 *
+	 * @param args The TASfiles to check
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println("Usage: <file> [file...]");
+			System.exit(2);
+		}
+
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(new Beta1Flavor());
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(new BinaryFlavor());
+
+		int exitCode = 0;
+		for (String arg : args) {
+			Path file = Paths.get(arg);
+			long[] errors = new long[1];
+			try {
+				long ticks = lint(file, diagnostic -> {
+					errors[0]++;
+					System.out.println(file + ": " + diagnostic.getMessage());
+				});
+				System.out.println(String.format("%s: %s errors in %s ticks", file, errors[0], ticks));
+			} catch (IOException e) {
+				System.err.println(file + ": The file can't be read: " + e.getMessage());
+				exitCode = 2;
+				continue;
+			}
+			if (errors[0] != 0 && exitCode == 0) {
+				exitCode = 1;
+			}
+		}
+		System.exit(exitCode);
+	}
+}
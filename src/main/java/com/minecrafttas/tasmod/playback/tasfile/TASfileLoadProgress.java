@@ -0,0 +1,136 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+
+/**
+ * <p>The progress of loading a TASfile, which is updated by the loading thread and read by other threads.
+ *
+ * <p>Counts the bytes that were read from the file, before they are decompressed, as well as the ticks that were parsed.<br>
+ * Loading stops with a {@link CancellationException} on the next read, after {@link #cancel()} was called.
+ *
+ * @author Scribble
+ */
+public class TASfileLoadProgress {
+
+	private final Path file;
+
+	/**
+	 * The size of the file in bytes, or 0 if it is unknown
+	 */
+	private final long totalBytes;
+
+	private volatile long bytes = 0;
+
+	private volatile long ticks = 0;
+
+	private volatile boolean cancelled = false;
+
+	/**
+	 * @param file       The TASfile that is loaded
+	 * @param totalBytes The size of the file in bytes, or 0 if it is unknown
+	 */
+	public TASfileLoadProgress(Path file, long totalBytes) {
+		this.file = file;
+		this.totalBytes = totalBytes;
+	}
+
+	/**
+	 * Wraps the stream of the file, to count the read bytes and to stop reading when cancelled
+	 *
+	 * @param in The stream of the file, before it is decompressed
+	 * @return The counting stream
+	 */
+	public InputStream track(InputStream in) {
+		return new FilterInputStream(in) {
+			@Override
+			public int read() throws IOException {
+				checkCancelled();
+				int b = super.read();
+				if (b != -1) {
+					bytes++;
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				checkCancelled();
+				int read = super.read(b, off, len);
+				if (read > 0) {
+					bytes += read;
+				}
+				return read;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				checkCancelled();
+				long skipped = super.skip(n);
+				bytes += skipped;
+				return skipped;
+			}
+		};
+	}
+
+	/**
+	 * Stops loading the next time bytes are read
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @throws CancellationException If loading was {@link #cancel() cancelled}
+	 */
+	public void checkCancelled() throws CancellationException {
+		if (cancelled) {
+			throw new CancellationException(String.format("Loading %s was cancelled", file.getFileName()));
+		}
+	}
+
+	/**
+	 * @param ticks The amount of ticks that were parsed so far
+	 */
+	public void setTicks(long ticks) {
+		this.ticks = ticks;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return The part of the file that was read, from 0 to 1, or 0 if the size of the file is unknown
+	 */
+	public float getFraction() {
+		if (totalBytes <= 0) {
+			return 0;
+		}
+		return Math.min(1f, (float) bytes / totalBytes);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d%% (%s/%s bytes, %s ticks)", file.getFileName(), (int) (getFraction() * 100), bytes, totalBytes, ticks);
+	}
+}
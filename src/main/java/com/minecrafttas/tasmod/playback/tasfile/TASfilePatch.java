@@ -0,0 +1,197 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+
+/**
+ * <p>The changes between two TASfiles on tick level, as found by {@link TASfileDiff}.
+ *
+ * <p>A patch only contains the ticks that changed, so it is small compared to the TASfiles.<br>
+ * It consists of {@link Hunk Hunks}, which replace ticks at the same index,
+ * and of the new size, to which the inputs are shortened or extended.
+ *
+ * <p>To not apply the patch to the wrong inputs, the {@link TickHash hashes} of the replaced ticks are stored as well<br>
+ * and checked before anything is changed.
+ *
+ * @author Scribble
+ * @see PlaybackControllerClient#applyPatch(TASfilePatch)
+ */
+public class TASfilePatch implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The amount of ticks of the inputs, this patch is applied to
+	 */
+	private final long sourceSize;
+
+	/**
+	 * The amount of ticks after applying this patch
+	 */
+	private final long targetSize;
+
+	private final List<Hunk> hunks = new ArrayList<>();
+
+	/**
+	 * @param sourceSize The amount of ticks of the inputs, this patch is applied to
+	 * @param targetSize The amount of ticks after applying this patch
+	 */
+	public TASfilePatch(long sourceSize, long targetSize) {
+		this.sourceSize = sourceSize;
+		this.targetSize = targetSize;
+	}
+
+	/**
+	 * Adds a hunk. Hunks have to be added in order and must not overlap.<br>
+	 * As the ticks are aligned by their index, only a hunk at the end of the inputs can add or remove ticks
+	 *
+	 * @param hunk The hunk to add
+	 */
+	public void addHunk(Hunk hunk) {
+		if (!hunks.isEmpty() && hunks.get(hunks.size() - 1).getEnd() > hunk.getStart()) {
+			throw new IllegalArgumentException(String.format("The hunk at tick %s overlaps with the previous hunk", hunk.getStart()));
+		}
+		boolean atEnd = hunk.start + hunk.sourceHashes.length == sourceSize && hunk.start + hunk.ticks.size() == targetSize;
+		if (hunk.sourceHashes.length != hunk.ticks.size() && !atEnd) {
+			throw new IllegalArgumentException(String.format("The hunk at tick %s changes the amount of ticks, but is not at the end", hunk.getStart()));
+		}
+		hunks.add(hunk);
+	}
+
+	/**
+	 * <p>Applies the changes to the inputs.
+	 *
+	 * <p>Before changing anything, the size of the inputs and the ticks that are replaced or removed are checked against the patch.
+	 *
+	 * @param inputs The inputs to change
+	 * @throws PlaybackLoadException If the inputs are not the inputs this patch was created from
+	 */
+	public void apply(BigArrayList<TickContainer> inputs) throws PlaybackLoadException {
+		apply(TickStore.of(inputs));
+	}
+
+	/**
+	 * Applies the changes to the inputs of a {@link TickStore}, like {@link #apply(BigArrayList)}
+	 *
+	 * @param inputs The inputs to change
+	 * @throws PlaybackLoadException If the inputs are not the inputs this patch was created from
+	 */
+	public void apply(TickStore inputs) throws PlaybackLoadException {
+		if (inputs.size() != sourceSize) {
+			throw new PlaybackLoadException("The patch was created for %s ticks, but the inputs have %s ticks", sourceSize, inputs.size());
+		}
+		for (Hunk hunk : hunks) {
+			long[] expected = hunk.sourceHashes;
+			for (int i = 0; i < expected.length; i++) {
+				long tick = hunk.start + i;
+				if (TickHash.hash(inputs.get(tick)) != expected[i]) {
+					throw new PlaybackLoadException("Tick %s of the inputs is not the tick this patch was created from", tick);
+				}
+			}
+		}
+
+		for (Hunk hunk : hunks) {
+			for (int i = 0; i < hunk.ticks.size(); i++) {
+				long tick = hunk.start + i;
+				if (tick < inputs.size()) {
+					inputs.set(tick, hunk.ticks.get(i));
+				} else {
+					inputs.add(hunk.ticks.get(i));
+				}
+			}
+		}
+		inputs.truncate(targetSize);
+	}
+
+	/**
+	 * @return The first tick that is changed by this patch, or the target size if nothing changes
+	 */
+	public long getFirstTick() {
+		long first = targetSize;
+		if (!hunks.isEmpty()) {
+			first = Math.min(first, hunks.get(0).getStart());
+		}
+		if (sourceSize > targetSize) {
+			first = Math.min(first, targetSize);
+		}
+		return first;
+	}
+
+	/**
+	 * @return True if applying this patch changes nothing
+	 */
+	public boolean isEmpty() {
+		return hunks.isEmpty() && sourceSize == targetSize;
+	}
+
+	public long getSourceSize() {
+		return sourceSize;
+	}
+
+	public long getTargetSize() {
+		return targetSize;
+	}
+
+	public List<Hunk> getHunks() {
+		return Collections.unmodifiableList(hunks);
+	}
+
+	/**
+	 * A range of consecutive ticks, that are replaced, added or removed
+	 */
+	public static class Hunk implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long start;
+
+		/**
+		 * The {@link TickHash hashes} of the ticks that are replaced or removed, starting at {@link #start}
+		 */
+		private final long[] sourceHashes;
+
+		/**
+		 * The new ticks, starting at {@link #start}. Ticks after the end of the inputs are added
+		 */
+		private final List<TickContainer> ticks;
+
+		/**
+		 * @param start        The first tick of this hunk
+		 * @param sourceHashes The {@link TickHash hashes} of the ticks that are replaced or removed
+		 * @param ticks        The new ticks
+		 */
+		public Hunk(long start, long[] sourceHashes, List<TickContainer> ticks) {
+			this.start = start;
+			this.sourceHashes = sourceHashes;
+			this.ticks = ticks;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		/**
+		 * @return The tick after the last tick of the source or the target, that is part of this hunk
+		 */
+		public long getEnd() {
+			return start + Math.max(sourceHashes.length, ticks.size());
+		}
+
+		public List<TickContainer> getTicks() {
+			return Collections.unmodifiableList(ticks);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("@@ %s,%s +%s @@", start, sourceHashes.length, ticks.size());
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import com.minecrafttas.tasmod.TASmod;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackSaveException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.playback.tickstore.ViewTickStore;
+
+/**
+ * <p>The state of the {@link PlaybackControllerClient} when it was saved, so it can be written to a file on another thread.
+ *
+ * <p>Consists of the serialised header, the amount of ticks at that moment and a {@link TickStore#freeze(long) frozen copy} of the ticks.<br>
+ * The frozen copy reads the ticks of the controller and only keeps the ticks, that the controller replaces or removes while saving.
+ *
+ * <pre>
+ * Controller: [0 ... 99] [100 ... 150]   &lt;- recording continues
+ * Snapshot:   [0 ... 99]                 &lt;- is saved in the background
+ * </pre>
+ *
+ * <p>Ticks that are changed in the controller while saving are {@link #markChanged(long) marked},<br>
+ * so the {@link SavedTASfile} of the snapshot knows which ticks differ from the controller.
+ *
+ * <p>If the controller plays back the TASfile that is saved through a {@link ViewTickStore}, the snapshot is written next to it first,<br>
+ * as the TASfile is still read while saving. {@link #finish(SavedTASfile)} then replaces the TASfile on the client thread.
+ *
+ * <p>The file commands of the ticks are {@link TASfileCommandCapture captured} from the extensions when the snapshot is taken,<br>
+ * as the extensions are changed on the client thread while saving. Only the ticks, that were not captured for an earlier snapshot, are taken from the extensions.
+ *
+ * <p>The {@link TASfileFingerprint} is written next to the TASfile after saving.<br>
+ * The snapshot only gets a copy of the {@link TickMerkleTree} of the controller, so the ticks that were not hashed yet are hashed on the saver thread.
+ *
+ * @author Scribble
+ */
+public class TASfileSnapshot {
+
+	private final Path file;
+
+	private final SerialiserFlavorBase flavor;
+
+	private final List<String> header;
+
+	private final TickStore ticks;
+
+	/**
+	 * A copy of the {@link TickMerkleTree} of the controller, which covers the first ticks of the snapshot.<br>
+	 * The remaining ticks are added while {@link #save() saving}
+	 */
+	private final TickMerkleTree merkleTree;
+
+	/**
+	 * If {@link #ticks} is a frozen copy, that is cleared once the snapshot is {@link #close() closed}
+	 */
+	private final boolean ownsTicks;
+
+	private final long toTick;
+
+	private final boolean compress;
+
+	/**
+	 * The information about the last save of the file. Can be null
+	 */
+	private final SavedTASfile saved;
+
+	/**
+	 * The journal of the controller, which contains the first {@link #toTick} ticks. Can be null
+	 */
+	private final TASfileJournal journal;
+
+	/**
+	 * The {@link TASfileJournal#getGeneration() generation} of the journal, when the snapshot was taken
+	 */
+	private final long journalGeneration;
+
+	/**
+	 * The store of the controller, that reads the ticks from the {@link #file}. Is null if the file is not viewed
+	 */
+	private final ViewTickStore replacedView;
+
+	/**
+	 * The first tick that was changed in the controller after the snapshot was taken, or {@link Long#MAX_VALUE} if no tick was changed
+	 */
+	private volatile long changedTick = Long.MAX_VALUE;
+
+	TASfileSnapshot(Path file, SerialiserFlavorBase flavor, List<String> header, TickStore ticks, TickMerkleTree merkleTree, boolean ownsTicks, long toTick, boolean compress, SavedTASfile saved, TASfileJournal journal, long journalGeneration, ViewTickStore replacedView) {
+		this.file = file;
+		this.flavor = flavor;
+		this.header = header;
+		this.ticks = ticks;
+		this.merkleTree = merkleTree;
+		this.ownsTicks = ownsTicks;
+		this.toTick = toTick;
+		this.compress = compress;
+		this.saved = saved;
+		this.journal = journal;
+		this.journalGeneration = journalGeneration;
+		this.replacedView = replacedView;
+	}
+
+	/**
+	 * <p>Writes the snapshot to its file.
+	 *
+	 * <p>The journaled ticks are only copied, if no ticks were removed from the journal after the snapshot was taken.<br>
+	 * Otherwise, the ticks of the snapshot are serialised instead.
+	 *
+	 * @return The information about the saved file, or null if a {@link SerialiserFlavorBase#isBinary() binary flavor} was used or the file was compressed
+	 * @throws PlaybackSaveException When a saving operation fails
+	 */
+	public SavedTASfile save() throws PlaybackSaveException {
+		TASfileCommandCapture fileCommands = flavor.getFileCommandCapture();
+		if (fileCommands != null) {
+			fileCommands.readFromFile(ticks);
+		}
+		if (replacedView == null) {
+			return save(file, saved);
+		}
+		// The viewed TASfile can't be rewritten in place, so it is always written completely
+		Path replacement = getReplacementPath();
+		try {
+			return save(replacement, null);
+		} catch (RuntimeException e) {
+			try {
+				Files.deleteIfExists(replacement);
+				TASfileFingerprint.delete(replacement);
+			} catch (IOException e2) {
+				e.addSuppressed(e2);
+			}
+			throw e;
+		}
+	}
+
+	private SavedTASfile save(Path path, SavedTASfile saved) throws PlaybackSaveException {
+		SavedTASfile out = null;
+		boolean journaled = false;
+		if (journal != null) {
+			synchronized (journal) {
+				if (journal.getGeneration() == journalGeneration) {
+					out = PlaybackSerialiser.save(path, ticks, flavor, header, toTick, compress, saved, journal);
+					journaled = true;
+				}
+			}
+		}
+		if (!journaled) {
+			out = PlaybackSerialiser.save(path, ticks, flavor, header, toTick, compress, saved, null);
+		}
+		writeFingerprint(path);
+		return out;
+	}
+
+	/**
+	 * Hashes the ticks that are missing in the {@link #merkleTree} and writes the {@link TASfileFingerprint} next to the file
+	 */
+	private void writeFingerprint(Path path) throws PlaybackSaveException {
+		for (long i = merkleTree.size(); i < toTick; i++) {
+			merkleTree.add(TickHash.hash(ticks.get(i)));
+		}
+		try {
+			TASfileFingerprint.of(merkleTree).write(TASfileFingerprint.getFingerprintPath(path));
+		} catch (IOException e) {
+			throw new PlaybackSaveException(e, "Trying to save the file %s, but the fingerprint can't be written", path.getFileName().toString());
+		}
+	}
+
+	/**
+	 * <p>Replaces the TASfile with the file that was written next to it, if the TASfile is viewed by the controller.<br>
+	 * The controller reads the ticks from the new TASfile afterwards.
+	 *
+	 * <p>Has to be called on the client thread, after {@link #save()} succeeded. Does nothing, if the TASfile is not viewed.
+	 *
+	 * @param saved The result of {@link #save()}
+	 * @return The information about the saved file
+	 * @throws PlaybackSaveException If the TASfile can't be replaced. The written file is deleted in that case
+	 */
+	public SavedTASfile finish(SavedTASfile saved) throws PlaybackSaveException {
+		if (replacedView == null) {
+			return saved;
+		}
+		Path replacement = getReplacementPath();
+		try {
+			replacedView.replaceFile(replacement, file, flavor.clone(), saved.getIndex());
+			Path replacementIndex = TASfileIndex.getIndexPath(replacement);
+			if (Files.exists(replacementIndex)) {
+				Files.move(replacementIndex, TASfileIndex.getIndexPath(file), StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.move(TASfileFingerprint.getFingerprintPath(replacement), TASfileFingerprint.getFingerprintPath(file), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(replacement);
+				Files.deleteIfExists(TASfileIndex.getIndexPath(replacement));
+				TASfileFingerprint.delete(replacement);
+			} catch (IOException e2) {
+				e.addSuppressed(e2);
+			}
+			throw new PlaybackSaveException(e, "Trying to save the file %s, but the file can't be replaced", file.getFileName().toString());
+		}
+		return saved;
+	}
+
+	/**
+	 * @return The file next to the {@link #file}, that the snapshot is written to, if the file is viewed
+	 */
+	private Path getReplacementPath() {
+		return file.resolveSibling(file.getFileName().toString() + ".saving");
+	}
+
+	/**
+	 * Marks a tick and every tick after it as changed in the controller
+	 *
+	 * @param tick The tick that was changed, added or removed
+	 */
+	public void markChanged(long tick) {
+		changedTick = Math.min(changedTick, Math.max(tick, 0));
+	}
+
+	/**
+	 * @return The first tick that was changed in the controller after the snapshot was taken, or {@link Long#MAX_VALUE} if no tick was changed
+	 */
+	public long getChangedTick() {
+		return changedTick;
+	}
+
+	/**
+	 * @return The {@link TickMerkleTree} of the ticks in the snapshot. Only covers every tick after {@link #save() saving}
+	 */
+	public TickMerkleTree getMerkleTree() {
+		return merkleTree;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return The amount of ticks in the snapshot
+	 */
+	public long size() {
+		return toTick;
+	}
+
+	/**
+	 * Clears the frozen ticks and the captured file commands
+	 */
+	public void close() {
+		TASfileCommandCapture fileCommands = flavor.getFileCommandCapture();
+		try {
+			if (fileCommands != null) {
+				fileCommands.close();
+			}
+		} catch (IOException e) {
+			TASmod.LOGGER.catching(e);
+		}
+		if (!ownsTicks) {
+			return;
+		}
+		try {
+			ticks.clearMemory();
+		} catch (IOException e) {
+			TASmod.LOGGER.catching(e);
+		}
+	}
+}
@@ -0,0 +1,477 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader.LineSupplier;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.util.MappedBuffers;
+
+/**
+ * <p>A read-only view of a TASfile, that deserialises the ticks on demand.
+ *
+ * <p>Instead of loading every tick into a list, the TASfile is mapped into memory via {@link FileChannel#map(MapMode, long, long)}.<br>
+ * A tick is only deserialised, when it is requested with {@link #get(long)}, starting at the closest tick in the {@link TASfileIndex}.<br>
+ * The last deserialised ticks are kept in a small LRU cache.
+ *
+ * <p>The view remembers where the last tick ended, so requesting the ticks one after another,<br>
+ * like during a playback, only deserialises each tick once.
+ *
+ * <p>The file commands of a tick are passed to the extensions in order from the start, on the thread that calls {@link #get(long)}.<br>
+ * If ticks are skipped, e.g. by seeking to a later tick, the file commands of the skipped ticks are passed first,<br>
+ * so the extensions receive every tick up to the requested tick, exactly once. Seeking forward therefore reads the skipped part of the file once.
+ * A {@link #duplicate() duplicate} of the view never passes file commands.
+ *
+ * <p>{@link SerialiserFlavorBase#isBinary() Binary flavors} store the ticks relative to each other and can't be viewed.<br>
+ * The same applies to {@link TASfileCompression compressed} files.
+ *
+ * @author Scribble
+ */
+public class TASfileView implements Closeable {
+
+	/**
+	 * The default amount of ticks that are kept in the cache
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 256;
+
+	/**
+	 * The maximum size of one mapped segment. Files larger than this are mapped in multiple segments
+	 */
+	private static final long SEGMENT_SIZE = 1L << 30;
+
+	private final Path file;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer[] segments;
+
+	private final long fileSize;
+
+	private final SerialiserFlavorBase flavor;
+
+	private final TASfileIndex index;
+
+	private final int cacheSize;
+
+	private final Map<Long, TickContainer> cache;
+
+	/**
+	 * Reads the ticks after the last deserialised tick. Is null if nothing was deserialised yet
+	 */
+	private TASfileLineReader cursor = null;
+
+	/**
+	 * The tick at which the {@link #cursor} is positioned
+	 */
+	private long cursorTick = -1;
+
+	/**
+	 * If the file commands of the ticks are passed to the extensions
+	 */
+	private final boolean passFileCommands;
+
+	/**
+	 * The next tick whose file commands are passed to the extensions
+	 */
+	private long nextExtensionTick;
+
+	/**
+	 * The flavor, that reads the ticks whose file commands are passed after seeking. Is null if no ticks were skipped yet
+	 */
+	private SerialiserFlavorBase replayFlavor = null;
+
+	/**
+	 * Reads the ticks after the last tick, whose file commands were passed after seeking
+	 */
+	private TASfileLineReader replayCursor = null;
+
+	/**
+	 * The tick at which the {@link #replayCursor} is positioned
+	 */
+	private long replayCursorTick = -1;
+
+	/**
+	 * Opens a view of a TASfile and determines the {@link SerialiserFlavorBase flavor} by reading the header
+	 *
+	 * @param file The TASfile to open
+	 * @return The view of the TASfile
+	 * @throws PlaybackLoadException If the file contains errors
+	 * @throws IOException           If the file could not be read
+	 */
+	public static TASfileView open(Path file) throws PlaybackLoadException, IOException {
+		return open(file, null);
+	}
+
+	/**
+	 * Opens a view of a TASfile with a specific flavor
+	 *
+	 * @param file       The TASfile to open
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use. If null or empty, the flavor is determined from the header
+	 * @return The view of the TASfile
+	 * @throws PlaybackLoadException If the file contains errors or if the detected flavor mismatches
+	 * @throws IOException           If the file could not be read
+	 */
+	public static TASfileView open(Path file, String flavorName) throws PlaybackLoadException, IOException {
+		return open(file, flavorName, null);
+	}
+
+	/**
+	 * Opens a view of a TASfile with a specific flavor, without changing the extensions while reading the header
+	 *
+	 * @param file       The TASfile to open
+	 * @param flavorName The name of the {@link SerialiserFlavorBase flavor} to use. If null or empty, the flavor is determined from the header
+	 * @param extensions Receives the data of the extensions in the header. If null, the data is passed to the extensions directly
+	 * @return The view of the TASfile
+	 * @throws PlaybackLoadException If the file contains errors or if the detected flavor mismatches
+	 * @throws IOException           If the file could not be read
+	 */
+	public static TASfileView open(Path file, String flavorName, TASfileExtensionBuffer extensions) throws PlaybackLoadException, IOException {
+		if (file == null) {
+			throw new PlaybackLoadException("Opening the file failed. No file specified");
+		}
+		if (!Files.exists(file)) {
+			throw new PlaybackLoadException("Trying to open %s but the file doesn't exist", file.getFileName().toString());
+		}
+
+		SerialiserFlavorBase flavorInFile = PlaybackSerialiser.readFlavor(file);
+		if (flavorName != null && !flavorName.isEmpty()) {
+			SerialiserFlavorBase flavor = TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavor(flavorName);
+			if (flavor == null) {
+				throw new PlaybackLoadException("Flavor name %s doesn't exist.", flavorName);
+			}
+			if (!flavor.equals(flavorInFile)) {
+				throw new PlaybackLoadException("Detected flavor %s in the TASfile, which does not match the specified flavor: %s", flavorInFile.getExtensionName(), flavorName);
+			}
+		}
+		// The file commands of the ticks are passed to the extensions on the client thread, while playing back
+		flavorInFile.setExtensionBuffer(extensions);
+		TASfileView view = new TASfileView(file, flavorInFile, DEFAULT_CACHE_SIZE);
+		flavorInFile.setExtensionBuffer(null);
+		return view;
+	}
+
+	/**
+	 * Maps the TASfile, reads the header and loads the {@link TASfileIndex}
+	 *
+	 * @param file      The TASfile to open
+	 * @param flavor    The {@link SerialiserFlavorBase flavor} of the TASfile. Is used exclusively by this view
+	 * @param cacheSize The amount of ticks that are kept in the cache
+	 * @throws PlaybackLoadException If the file contains errors, uses a binary flavor or is compressed
+	 * @throws IOException           If the file could not be read
+	 */
+	public TASfileView(Path file, SerialiserFlavorBase flavor, int cacheSize) throws PlaybackLoadException, IOException {
+		this(file, flavor, loadViewableIndex(file, flavor), cacheSize, true, 0);
+
+		try {
+			TASfileLineReader headerReader = new TASfileLineReader(new MappedLineSupplier(0), null, 0);
+			List<String> headerLines = flavor.extractHeader(headerReader);
+			flavor.deserialiseHeader(headerLines);
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Maps the TASfile with an index, that was loaded or built before, without reading the header
+	 *
+	 * @param file              The TASfile to open
+	 * @param flavor            The {@link SerialiserFlavorBase flavor} of the TASfile. Is used exclusively by this view
+	 * @param index             The index of the TASfile
+	 * @param cacheSize         The amount of ticks that are kept in the cache
+	 * @param passFileCommands  If the file commands of the ticks are passed to the extensions
+	 * @param nextExtensionTick The first tick whose file commands are passed to the extensions
+	 * @throws IOException If the file could not be read
+	 */
+	private TASfileView(Path file, SerialiserFlavorBase flavor, TASfileIndex index, int cacheSize, boolean passFileCommands, long nextExtensionTick) throws IOException {
+		this.file = file;
+		this.flavor = flavor;
+		this.index = index;
+		this.cacheSize = cacheSize;
+		this.passFileCommands = passFileCommands;
+		this.nextExtensionTick = nextExtensionTick;
+		this.cache = new LinkedHashMap<Long, TickContainer>(cacheSize, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, TickContainer> eldest) {
+				return size() > cacheSize;
+			}
+		};
+
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			this.fileSize = channel.size();
+			int segmentCount = (int) ((fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+			this.segments = new MappedByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; i++) {
+				long start = i * SEGMENT_SIZE;
+				segments[i] = channel.map(MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, fileSize - start));
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return The index of the TASfile
+	 * @throws PlaybackLoadException If the flavor is binary or the file is compressed
+	 */
+	private static TASfileIndex loadViewableIndex(Path file, SerialiserFlavorBase flavor) throws PlaybackLoadException, IOException {
+		if (flavor.isBinary()) {
+			throw new PlaybackLoadException("The flavor %s is binary and can't be viewed", flavor.getExtensionName());
+		}
+		if (TASfileCompression.isCompressed(file)) {
+			throw new PlaybackLoadException("The file %s is compressed and can't be viewed", file.getFileName().toString());
+		}
+		return PlaybackSerialiser.loadIndex(file, flavor);
+	}
+
+	/**
+	 * <p>Opens another view of the same TASfile, with its own position, cache and flavor, but the same index.
+	 *
+	 * <p>Used to read the ticks on another thread, e.g. when saving, without moving the position of this view.<br>
+	 * The duplicate doesn't pass file commands to the extensions.
+	 *
+	 * @return The duplicate, which has to be closed separately
+	 * @throws IOException If the file could not be opened again
+	 */
+	public synchronized TASfileView duplicate() throws IOException {
+		return new TASfileView(file, flavor.clone(), index, cacheSize, false, 0);
+	}
+
+	/**
+	 * Opens the TASfile of this view again, after this view was {@link #close() closed}, e.g. because replacing the TASfile failed
+	 *
+	 * @return The new view of the TASfile
+	 * @throws IOException If the file could not be opened
+	 */
+	public synchronized TASfileView reopen() throws IOException {
+		return new TASfileView(file, flavor.clone(), index, cacheSize, passFileCommands, nextExtensionTick);
+	}
+
+	/**
+	 * <p>Opens the TASfile of this view again, after it was replaced with a file that starts with the same ticks.
+	 *
+	 * <p>The new view continues passing file commands, where this view stopped, as the extensions already received the file commands before.<br>
+	 * This view has to be {@link #close() closed} before the file is replaced.
+	 *
+	 * @param flavor The {@link SerialiserFlavorBase flavor} of the new TASfile. Is used exclusively by the new view
+	 * @param index  The index of the new TASfile
+	 * @return The view of the new TASfile
+	 * @throws PlaybackLoadException If the flavor is binary
+	 * @throws IOException           If the file could not be opened
+	 */
+	public synchronized TASfileView reopen(SerialiserFlavorBase flavor, TASfileIndex index) throws PlaybackLoadException, IOException {
+		if (flavor.isBinary()) {
+			throw new PlaybackLoadException("The flavor %s is binary and can't be viewed", flavor.getExtensionName());
+		}
+		return new TASfileView(file, flavor, index, cacheSize, passFileCommands, nextExtensionTick);
+	}
+
+	/**
+	 * @return The amount of ticks in the TASfile
+	 */
+	public long size() {
+		return index.getTickCount();
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Returns a tick of the TASfile. The tick is deserialised, if it's not in the cache
+	 *
+	 * @param tick The tick to get
+	 * @return The {@link TickContainer} of the tick. Should not be modified, as it's shared with the cache
+	 * @throws IndexOutOfBoundsException If the tick is not in the TASfile
+	 * @throws PlaybackLoadException     If the tick contains errors
+	 */
+	public synchronized TickContainer get(long tick) {
+		if (tick < 0 || tick >= size()) {
+			throw new IndexOutOfBoundsException(String.format("Tick %s is out of bounds for %s ticks", tick, size()));
+		}
+
+		TickContainer container = cache.get(tick);
+		if (container != null) {
+			return container;
+		}
+
+		// Seek to the closest sampled tick, unless the cursor is already closer
+		int sample = index.floor(tick);
+		if (cursor == null || cursorTick > tick || cursorTick < index.getTick(sample)) {
+			cursor = new TASfileLineReader(new MappedLineSupplier(index.getOffset(sample)), null, index.getLine(sample));
+			cursorTick = index.getTick(sample);
+			flavor.seek(cursorTick);
+		}
+
+		if (passFileCommands && nextExtensionTick < cursorTick) {
+			replayFileCommands(cursorTick);
+		}
+
+		while (cursorTick <= tick) {
+			boolean passToExtensions = passFileCommands && cursorTick == nextExtensionTick;
+			container = flavor.deserialiseNext(cursor, passToExtensions);
+			if (container == null) {
+				throw new PlaybackLoadException("The TASfile %s ended before tick %s. Was it changed while it was opened?", file.getFileName().toString(), tick);
+			}
+			if (passToExtensions) {
+				nextExtensionTick++;
+			}
+			cache.put(cursorTick, container);
+			cursorTick++;
+		}
+		return container;
+	}
+
+	/**
+	 * Passes the file commands of the ticks that were skipped, from {@link #nextExtensionTick} until a tick, to the extensions
+	 *
+	 * @param toTick The tick at which the view continues, exclusive
+	 */
+	private void replayFileCommands(long toTick) {
+		if (replayCursor == null || replayCursorTick != nextExtensionTick) {
+			int sample = index.floor(nextExtensionTick);
+			replayCursor = new TASfileLineReader(new MappedLineSupplier(index.getOffset(sample)), null, index.getLine(sample));
+			replayCursorTick = index.getTick(sample);
+			if (replayFlavor == null) {
+				replayFlavor = flavor.clone();
+			}
+			replayFlavor.seek(replayCursorTick);
+		}
+
+		while (replayCursorTick < toTick) {
+			boolean passToExtensions = replayCursorTick >= nextExtensionTick;
+			if (replayFlavor.deserialiseNext(replayCursor, passToExtensions) == null) {
+				throw new PlaybackLoadException("The TASfile %s ended before tick %s. Was it changed while it was opened?", file.getFileName().toString(), toTick);
+			}
+			if (passToExtensions) {
+				nextExtensionTick++;
+			}
+			replayCursorTick++;
+		}
+	}
+
+	/**
+	 * <p>Reads the file commands of ticks from the TASfile, without passing them to the extensions.
+	 *
+	 * <p>Used to save ticks, whose file commands were not {@link #getNextFileCommandTick() passed to the extensions} yet.<br>
+	 * Reads with its own cursor, so the position of the view is not changed.
+	 *
+	 * @param fromTick The first tick to read the file commands of
+	 * @param toTick   The tick at which reading stops, exclusive
+	 * @param out      The buffer that the file commands are added to
+	 * @throws PlaybackLoadException If the ticks contain errors
+	 */
+	public synchronized void readFileCommands(long fromTick, long toTick, TASfileExtensionBuffer out) {
+		fromTick = Math.max(fromTick, 0);
+		toTick = Math.min(toTick, size());
+		if (fromTick >= toTick) {
+			return;
+		}
+		int sample = index.floor(fromTick);
+		TASfileLineReader reader = new TASfileLineReader(new MappedLineSupplier(index.getOffset(sample)), null, index.getLine(sample));
+		long readerTick = index.getTick(sample);
+		SerialiserFlavorBase readerFlavor = flavor.clone();
+		readerFlavor.setExtensionBuffer(out);
+		readerFlavor.seek(readerTick);
+
+		while (readerTick < toTick) {
+			if (readerFlavor.deserialiseNext(reader, readerTick >= fromTick) == null) {
+				throw new PlaybackLoadException("The TASfile %s ended before tick %s. Was it changed while it was opened?", file.getFileName().toString(), toTick);
+			}
+			readerTick++;
+		}
+	}
+
+	/**
+	 * @return The first tick, whose file commands were not passed to the extensions yet
+	 */
+	public synchronized long getNextFileCommandTick() {
+		return nextExtensionTick;
+	}
+
+	/**
+	 * @return The TASfile of this view
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return The index of the TASfile
+	 */
+	public TASfileIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Closes the file channel and {@link MappedBuffers#unmap(MappedByteBuffer) unmaps} the file, so it can be replaced afterwards
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		cache.clear();
+		cursor = null;
+		replayCursor = null;
+		for (int i = 0; i < segments.length; i++) {
+			MappedBuffers.unmap(segments[i]);
+			segments[i] = null;
+		}
+		channel.close();
+	}
+
+	private byte byteAt(long position) {
+		return segments[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE));
+	}
+
+	/**
+	 * Reads UTF-8 encoded lines from the mapped segments
+	 */
+	private class MappedLineSupplier implements LineSupplier {
+
+		private long position;
+
+		private byte[] buffer = new byte[128];
+
+		private MappedLineSupplier(long position) {
+			this.position = position;
+		}
+
+		@Override
+		public String readLine() {
+			if (position >= fileSize) {
+				return null;
+			}
+
+			int length = 0;
+			while (position < fileSize) {
+				byte b = byteAt(position++);
+				if (b == '\n') {
+					break;
+				}
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, length * 2);
+				}
+				buffer[length++] = b;
+			}
+			if (length > 0 && buffer[length - 1] == '\r') {
+				length--;
+			}
+			return new String(buffer, 0, length, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.util.List;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.virtual.Subtickable;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>Computes 64-bit hashes of {@link TickContainer TickContainers}, to compare ticks without keeping them in memory.
+ *
+ * <p>The hash of a tick covers every subtick of the keyboard, mouse and camera angle, as well as the comments.<br>
+ * Pressed keys are hashed independent of their order, as they are stored in a set.<br>
+ * The hashes only depend on the inputs, so they are the same in every flavor and on every machine.
+ *
+ * <p>The hashes of multiple ticks are combined with {@link #roll(long, long)},
+ * where the result depends on the order of the ticks.
+ *
+ * @author Scribble
+ */
+public final class TickHash {
+
+	/**
+	 * The {@link #roll(long, long) rolling hash} of zero ticks
+	 */
+	public static final long EMPTY = 0xcbf29ce484222325L;
+
+	private static final long PRIME = 0x100000001b3L;
+
+	/**
+	 * An odd multiplier for {@link #roll(long, long)}, so no information is lost by the multiplication
+	 */
+	private static final long ROLL_BASE = 0x9e3779b97f4a7c15L;
+
+	private TickHash() {
+	}
+
+	/**
+	 * @param container The tick to hash
+	 * @return The hash of the inputs and comments of the tick
+	 */
+	public static long hash(TickContainer container) {
+		long hash = EMPTY;
+		hash = hashKeyboard(hash, container.getKeyboard());
+		hash = hashMouse(hash, container.getMouse());
+		hash = hashCameraAngle(hash, container.getCameraAngle());
+		hash = hashComments(hash, container.getComments());
+		return finish(hash);
+	}
+
+	/**
+	 * Appends the hash of a tick to the hash of the ticks before it
+	 *
+	 * @param rolling  The rolling hash of the previous ticks, or {@link #EMPTY} for the first tick
+	 * @param tickHash The {@link #hash(TickContainer) hash} of the next tick
+	 * @return The rolling hash including the next tick
+	 */
+	public static long roll(long rolling, long tickHash) {
+		return rolling * ROLL_BASE + tickHash;
+	}
+
+	/**
+	 * Combines two hashes into one, where the result depends on the order of the hashes
+	 *
+	 * @param left  The first hash
+	 * @param right The second hash
+	 * @return The combined hash
+	 */
+	public static long combine(long left, long right) {
+		return finish(roll(left, right));
+	}
+
+	private static long hashKeyboard(long hash, VirtualKeyboard keyboard) {
+		int size = size(keyboard);
+		hash = mix(hash, size);
+		for (int i = 0; i < size; i++) {
+			VirtualKeyboard subtick = i == size - 1 ? keyboard : keyboard.getFromAll(i);
+			hash = mix(hash, hashKeys(subtick.getPressedKeys()));
+			List<Character> chars = subtick.getCharList();
+			hash = mix(hash, chars.size());
+			for (Character character : chars) {
+				hash = mix(hash, character);
+			}
+		}
+		return hash;
+	}
+
+	private static long hashMouse(long hash, VirtualMouse mouse) {
+		int size = size(mouse);
+		hash = mix(hash, size);
+		for (int i = 0; i < size; i++) {
+			VirtualMouse subtick = i == size - 1 ? mouse : mouse.getFromAll(i);
+			hash = mix(hash, hashKeys(subtick.getPressedKeys()));
+			hash = mix(hash, subtick.getScrollWheel());
+			hash = mix(hash, subtick.getCursorX());
+			hash = mix(hash, subtick.getCursorY());
+		}
+		return hash;
+	}
+
+	private static long hashCameraAngle(long hash, VirtualCameraAngle cameraAngle) {
+		int size = size(cameraAngle);
+		hash = mix(hash, size);
+		for (int i = 0; i < size; i++) {
+			VirtualCameraAngle subtick = i == size - 1 ? cameraAngle : cameraAngle.getFromAll(i);
+			hash = mix(hash, hashFloat(subtick.getPitch()));
+			hash = mix(hash, hashFloat(subtick.getYaw()));
+		}
+		return hash;
+	}
+
+	/**
+	 * @param peripheral The peripheral of the tick
+	 * @return The amount of subticks including the current state, which is 1 if the peripheral has no subtick list
+	 */
+	private static int size(Subtickable<?> peripheral) {
+		return peripheral.isParent() ? peripheral.getAllSize() : 1;
+	}
+
+	private static long hashComments(long hash, CommentContainer comments) {
+		if (comments == null) {
+			return mix(hash, -1);
+		}
+		hash = hashStrings(hash, comments.getInlineComments());
+		return hashStrings(hash, comments.getEndlineComments());
+	}
+
+	private static long hashStrings(long hash, List<String> strings) {
+		hash = mix(hash, strings.size());
+		for (String string : strings) {
+			if (string == null) {
+				hash = mix(hash, -1);
+				continue;
+			}
+			hash = mix(hash, string.length());
+			for (int i = 0; i < string.length(); i++) {
+				hash = mix(hash, string.charAt(i));
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * @param keys The pressed keys
+	 * @return A hash of the keys, that doesn't depend on the order of the keys
+	 */
+	private static long hashKeys(Iterable<Integer> keys) {
+		long sum = 0;
+		for (Integer keycode : keys) {
+			sum += finish(keycode);
+		}
+		return sum;
+	}
+
+	private static long hashFloat(Float value) {
+		return value == null ? Long.MIN_VALUE : Float.floatToIntBits(value);
+	}
+
+	/**
+	 * FNV-1a step over a 64-bit value
+	 */
+	private static long mix(long hash, long value) {
+		return (hash ^ value) * PRIME;
+	}
+
+	/**
+	 * The finaliser of MurmurHash3, which spreads every bit over the entire hash
+	 */
+	private static long finish(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,213 @@
+package com.minecrafttas.tasmod.playback.tasfile;
+
+import java.util.Arrays;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+
+/**
+ * <p>A merkle tree over the {@link TickHash hashes} of the ticks, to compare inputs without comparing every {@link TickContainer}.
+ *
+ * <p>Every node hashes 2<sup>level</sup> consecutive ticks and only exists once all of its ticks exist.<br>
+ * Adding or changing a tick only updates the nodes above it, so the tree can be kept up to date while recording.
+ *
+ * <pre>
+ * Level 2:  [0-3]
+ * Level 1:  [0-1] [2-3] [4-5]
+ * Level 0:  [0] [1] [2] [3] [4] [5] [6]
+ * </pre>
+ *
+ * <p>The hash of the first n ticks is combined from at most one node per level, e.g. [0-3], [4-5] and [6] for 7 ticks.<br>
+ * This makes comparing a prefix of the ticks, as well as finding the first different tick of two trees, take logarithmic time.
+ *
+ * @author Scribble
+ */
+public class TickMerkleTree {
+
+	/**
+	 * The hashes of the nodes. The first index is the level, the second index is the node in the level
+	 */
+	private long[][] levels = new long[][] { new long[16] };
+
+	/**
+	 * The amount of ticks in this tree
+	 */
+	private long size = 0;
+
+	/**
+	 * Creates a tree from every tick of the list
+	 *
+	 * @param ticks The ticks to hash
+	 * @return The tree of the ticks
+	 */
+	public static TickMerkleTree of(BigArrayList<TickContainer> ticks) {
+		return of(TickStore.of(ticks));
+	}
+
+	/**
+	 * Creates a tree from every tick of the store
+	 *
+	 * @param ticks The ticks to hash
+	 * @return The tree of the ticks
+	 */
+	public static TickMerkleTree of(TickStore ticks) {
+		TickMerkleTree tree = new TickMerkleTree();
+		for (long i = 0; i < ticks.size(); i++) {
+			tree.add(TickHash.hash(ticks.get(i)));
+		}
+		return tree;
+	}
+
+	/**
+	 * Appends the hash of a tick and updates the nodes that are complete now
+	 *
+	 * @param tickHash The {@link TickHash#hash(TickContainer) hash} of the tick
+	 */
+	public void add(long tickHash) {
+		if (size == Integer.MAX_VALUE) {
+			throw new IllegalStateException("The merkle tree can't hold more than " + Integer.MAX_VALUE + " ticks");
+		}
+		int index = (int) size;
+		setNode(0, index, tickHash);
+		size++;
+		for (int level = 1; (index & 1) == 1; level++) {
+			index >>= 1;
+			setNode(level, index, combineChildren(level, index));
+		}
+	}
+
+	/**
+	 * Replaces the hash of a tick and updates the nodes above it
+	 *
+	 * @param tick     The tick to replace
+	 * @param tickHash The new {@link TickHash#hash(TickContainer) hash} of the tick
+	 */
+	public void set(long tick, long tickHash) {
+		if (tick < 0 || tick >= size) {
+			throw new IndexOutOfBoundsException(String.format("Tick %s is not in the merkle tree of %s ticks", tick, size));
+		}
+		int index = (int) tick;
+		levels[0][index] = tickHash;
+		for (int level = 1; (index >> level) < (size >> level); level++) {
+			setNode(level, index >> level, combineChildren(level, index >> level));
+		}
+	}
+
+	/**
+	 * Removes every tick from the given tick onwards
+	 *
+	 * @param ticks The amount of ticks to keep
+	 */
+	public void truncate(long ticks) {
+		size = Math.max(0, Math.min(size, ticks));
+	}
+
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @param tick The tick to get the hash of
+	 * @return The {@link TickHash#hash(TickContainer) hash} of the tick
+	 */
+	public long getTickHash(long tick) {
+		if (tick < 0 || tick >= size) {
+			throw new IndexOutOfBoundsException(String.format("Tick %s is not in the merkle tree of %s ticks", tick, size));
+		}
+		return levels[0][(int) tick];
+	}
+
+	/**
+	 * Copies the nodes, so the copy can be extended on another thread
+	 *
+	 * @return A tree with the same ticks
+	 */
+	public TickMerkleTree copy() {
+		TickMerkleTree copy = new TickMerkleTree();
+		copy.levels = new long[levels.length][];
+		for (int level = 0; level < levels.length; level++) {
+			copy.levels[level] = levels[level].clone();
+		}
+		copy.size = size;
+		return copy;
+	}
+
+	/**
+	 * @return The hash of every tick in this tree
+	 */
+	public long getRoot() {
+		return getRoot(size);
+	}
+
+	/**
+	 * Combines the hash of the first ticks from the nodes that cover them
+	 *
+	 * @param ticks The amount of ticks from the start
+	 * @return The hash of the first ticks, which is the same in every tree that starts with the same ticks
+	 */
+	public long getRoot(long ticks) {
+		if (ticks < 0 || ticks > size) {
+			throw new IndexOutOfBoundsException(String.format("Can't get the hash of %s ticks from a merkle tree of %s ticks", ticks, size));
+		}
+		long hash = TickHash.EMPTY;
+		long start = 0;
+		for (int level = levels.length - 1; level >= 0; level--) {
+			long width = 1L << level;
+			if ((ticks & width) != 0) {
+				hash = TickHash.combine(hash, levels[level][(int) (start >> level)]);
+				start += width;
+			}
+		}
+		return TickHash.combine(hash, ticks);
+	}
+
+	/**
+	 * @param ticks The amount of ticks from the start
+	 * @param root  The {@link #getRoot(long) hash of the first ticks} of another tree
+	 * @return True if this tree starts with the same ticks
+	 */
+	public boolean hasPrefix(long ticks, long root) {
+		return ticks >= 0 && ticks <= size && getRoot(ticks) == root;
+	}
+
+	/**
+	 * Finds the amount of ticks at the start, that are the same in both trees, by descending from the largest nodes
+	 *
+	 * @param other The tree to compare with
+	 * @return The amount of equal ticks at the start
+	 */
+	public long getCommonPrefix(TickMerkleTree other) {
+		long limit = Math.min(size, other.size);
+		long prefix = 0;
+		for (int level = Math.min(levels.length, other.levels.length) - 1; level >= 0; level--) {
+			long width = 1L << level;
+			if (prefix + width > limit) {
+				continue;
+			}
+			int index = (int) (prefix >> level);
+			if (levels[level][index] == other.levels[level][index]) {
+				prefix += width;
+			}
+		}
+		return prefix;
+	}
+
+	private long combineChildren(int level, int index) {
+		long[] children = levels[level - 1];
+		return TickHash.combine(children[index * 2], children[index * 2 + 1]);
+	}
+
+	private void setNode(int level, int index, long hash) {
+		if (level == levels.length) {
+			levels = Arrays.copyOf(levels, level + 1);
+			levels[level] = new long[Math.max(16, levels[level - 1].length / 2)];
+		}
+		long[] nodes = levels[level];
+		if (index == nodes.length) {
+			nodes = Arrays.copyOf(nodes, nodes.length * 2);
+			levels[level] = nodes;
+		}
+		nodes[index] = hash;
+	}
+}
@@ -0,0 +1,154 @@
+package com.minecrafttas.tasmod.playback.tasfile.flavor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>A {@link TickContainer}, that keeps the inputs of a tick as the raw text of the TASfile, until they are used.
+ *
+ * <p>Most ticks of a TASfile are only played back once, but decoding the keyboard, mouse and camera angle<br>
+ * creates a lot of objects per tick. When loading {@link SerialiserFlavorBase#deserialiseLazy(TASfileLineReader) lazily},
+ * only the comments and file commands are read,<br>
+ * while the inputs are decoded by the {@link SerialiserFlavorBase flavor} on the first call of {@link #getKeyboard()}, {@link #getMouse()} or {@link #getCameraAngle()}.
+ *
+ * <p>The raw text only contains the input columns of the tick and subtick lines, encoded as UTF-8.<br>
+ * Errors in the inputs are thrown as a {@link PlaybackLoadException} when the tick is decoded.
+ *
+ * @author Scribble
+ */
+public class LazyTickContainer extends TickContainer {
+
+	/**
+	 * Decodes the ticks that are {@link #readAhead() read ahead}
+	 */
+	private static final ExecutorService READ_AHEAD = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "TASmod Read-Ahead");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * The flavor that decodes the inputs. Is shared between the ticks of a TASfile and looked up again from the {@link #flavorName}, after this container was serialised
+	 */
+	private transient SerialiserFlavorBase decoder;
+
+	private final String flavorName;
+
+	private final long tick;
+
+	/**
+	 * The line in the TASfile, that is used in error messages
+	 */
+	private final long line;
+
+	/**
+	 * The input columns of the tick and subtick lines, separated by "\n". Is null after the inputs were decoded
+	 */
+	private byte[] raw;
+
+	private VirtualKeyboard keyboard;
+
+	private VirtualMouse mouse;
+
+	private VirtualCameraAngle cameraAngle;
+
+	private transient volatile boolean queued = false;
+
+	/**
+	 * @param decoder  The flavor that decodes the inputs. Is not used by anything else, as decoding changes its state
+	 * @param tick     The index of the tick
+	 * @param line     The line in the TASfile, that is used in error messages
+	 * @param raw      The input columns of the tick and subtick lines, separated by "\n"
+	 * @param comments The comments of the tick
+	 */
+	public LazyTickContainer(SerialiserFlavorBase decoder, long tick, long line, String raw, CommentContainer comments) {
+		super(null, null, null, comments);
+		this.decoder = decoder;
+		this.flavorName = decoder.getExtensionName();
+		this.tick = tick;
+		this.line = line;
+		this.raw = raw.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public VirtualKeyboard getKeyboard() {
+		materialise();
+		return keyboard;
+	}
+
+	@Override
+	public VirtualMouse getMouse() {
+		materialise();
+		return mouse;
+	}
+
+	@Override
+	public VirtualCameraAngle getCameraAngle() {
+		materialise();
+		return cameraAngle;
+	}
+
+	/**
+	 * @return True if the inputs were already decoded
+	 */
+	public synchronized boolean isMaterialised() {
+		return raw == null;
+	}
+
+	/**
+	 * Decodes the inputs, if they weren't decoded yet
+	 *
+	 * @throws PlaybackLoadException If the inputs contain errors
+	 */
+	public synchronized void materialise() throws PlaybackLoadException {
+		if (raw == null) {
+			return;
+		}
+
+		if (decoder == null) {
+			decoder = TASmodAPIRegistry.SERIALISER_FLAVOR.getFlavor(flavorName);
+			if (decoder == null) {
+				throw new PlaybackLoadException("Can't decode tick %s, as the flavor %s is not registered", tick, flavorName);
+			}
+			decoder.setProcessExtensions(false);
+		}
+
+		TickContainer decoded;
+		synchronized (decoder) {
+			decoded = decoder.decode(tick, line, Arrays.asList(new String(raw, StandardCharsets.UTF_8).split("\n")));
+		}
+		keyboard = decoded.getKeyboard();
+		mouse = decoded.getMouse();
+		cameraAngle = decoded.getCameraAngle();
+		raw = null;
+	}
+
+	/**
+	 * Decodes the inputs on a background thread, so they are already decoded when they are played back.<br>
+	 * Errors are not thrown here, but when the inputs are accessed
+	 */
+	public void readAhead() {
+		if (queued || isMaterialised()) {
+			return;
+		}
+		queued = true;
+		READ_AHEAD.execute(() -> {
+			try {
+				materialise();
+			} catch (PlaybackLoadException e) {
+				// Thrown again when the inputs are accessed
+			}
+		});
+	}
+}
@@ -1,13 +1,28 @@
 package com.minecrafttas.tasmod.playback.tasfile.flavor;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -16,10 +31,15 @@
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
-import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
 import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileCommandCapture;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileExtensionBuffer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileJournal;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
 import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
 import com.minecrafttas.tasmod.virtual.Subtickable;
 import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
@@ -48,6 +68,60 @@ public abstract class SerialiserFlavorBase implements Registerable {
 	 */
 	protected boolean processExtensions = true;
 
+	/**
+	 * If true and {@link #processExtensions} is false, {@link PlaybackFileCommand PlaybackFileCommands} are kept in the comments as text,<br>
+	 * so they are written to the TASfile again, without passing through the extensions.<br>
+	 * For that, the comments of a tick are serialised as well, which is otherwise not the case
+	 */
+	protected boolean keepFileCommands = false;
+
+	/**
+	 * If not null, the extension data is added to this buffer while deserialising, instead of being passed to the extensions directly
+	 */
+	protected TASfileExtensionBuffer extensionBuffer = null;
+
+	/**
+	 * If not null, the file commands are serialised from this capture, instead of being taken from the extensions
+	 */
+	protected TASfileCommandCapture fileCommandCapture = null;
+
+	/**
+	 * The compiled patterns of {@link #extract(String, String)}, so regexes are only compiled once per flavor
+	 */
+	private final Map<String, Pattern> patternCache = new ConcurrentHashMap<>();
+
+	private static final Pattern NUMERIC = Pattern.compile("-?\\d+");
+
+	private static final Pattern FLOAT = Pattern.compile("-?\\d+(?:\\.\\d+)?");
+
+	/**
+	 * The regex of the default {@link #singleComment()}, which {@link #classifyLine(String)} checks without a regex
+	 */
+	private static final String DEFAULT_SINGLE_COMMENT = "^//";
+
+	/**
+	 * The compiled {@link #singleComment()} regex, or null if the flavor uses the {@link #DEFAULT_SINGLE_COMMENT}.<br>
+	 * Set on the first call of {@link #classifyLine(String)}, as the hook can't be called in the constructor
+	 */
+	private Pattern singleCommentPattern;
+
+	private boolean singleCommentResolved = false;
+
+	/**
+	 * The cached {@link #columnSeparator()}
+	 */
+	private char separator = 0;
+
+	/**
+	 * The builder for the lines of a tick. It is reused for every line, so serialising a tick only creates the strings of the lines
+	 */
+	private final StringBuilder lineBuilder = new StringBuilder(256);
+
+	/**
+	 * If a flavor class overrides the methods, that serialising a tick skips when building the lines directly
+	 */
+	private static final Map<Class<?>, Boolean> INPUT_HOOKS_OVERRIDDEN = new ConcurrentHashMap<>();
+
 	protected String headerStart() {
 		return createCenteredHeading("TASfile", '#', 50);
 	}
@@ -56,7 +130,14 @@ protected String headerStart() {
 	 * @return The regex used for detecting comment lines
 	 */
 	protected String singleComment() {
-		return "^//";
+		return DEFAULT_SINGLE_COMMENT;
+	}
+
+	/**
+	 * @return The character between the tick number, keyboard, mouse and camera angle columns
+	 */
+	protected char columnSeparator() {
+		return '|';
 	}
 
 	protected String endlineComment() {
@@ -87,6 +168,30 @@ public List<String> serialiseHeader() {
 		return out;
 	}
 
+	/**
+	 * <p>Serialises a header with the given file command names and metadata, instead of the ones from the extensions.
+	 * 
+	 * <p>Used when converting TASfiles, where the header of the converted file has to be written without changing the extensions.
+	 * 
+	 * @param fileCommandNames The names of the enabled {@link PlaybackFileCommandExtension PlaybackFileCommandExtensions}
+	 * @param metadataList     The metadata to write into the header
+	 * @return The lines of the header
+	 */
+	public List<String> serialiseHeader(List<String> fileCommandNames, List<PlaybackMetadata> metadataList) {
+		List<String> out = new ArrayList<>();
+		out.add(headerStart());
+		serialiseFlavorName(out);
+		out.add("FileCommand-Extensions: " + String.join(", ", fileCommandNames));
+		out.add("");
+		for (PlaybackMetadata metadata : metadataList) {
+			serialiseMetadataName(out, metadata.getExtensionName());
+			serialiseMetadataValue(out, metadata.getData());
+			out.add("");
+		}
+		out.add(headerEnd());
+		return out;
+	}
+
 	protected void serialiseFlavorName(List<String> out) {
 		out.add("Flavor: " + getExtensionName());
 	}
@@ -126,66 +231,353 @@ protected void serialiseMetadataValue(List<String> out, LinkedHashMap<String, St
 
 	public BigArrayList<String> serialise(BigArrayList<TickContainer> inputs, long toTick) {
 		BigArrayList<String> out = new BigArrayList<>();
+		List<String> tickLines = new ArrayList<>();
 
-		for (int i = 0; i < inputs.size(); i++) {
+		for (long i = 0; i < inputs.size(); i++) {
 			if (toTick == i) {
 				break;
 			}
-			currentTick = i;
-			TickContainer container = inputs.get(i).clone();
-			serialiseContainer(out, container);
-			previousTickContainer = container;
+			tickLines.clear();
+			currentLine = out.size() - 1;
+			serialiseNext(i, inputs.get(i), tickLines);
+			addAll(out, tickLines);
 		}
 		return out;
 	}
 
+	/**
+	 * <p>Serialises the ticks and writes them directly to the writer.
+	 * 
+	 * <p>Unlike {@link #serialise(BigArrayList, long)}, the serialised lines are not collected in a list first.<br>
+	 * Only the lines of the current tick are kept in memory, before they are written to the writer.
+	 * 
+	 * @param inputs The ticks to serialise
+	 * @param toTick The tick at which the serialiser stops. Use -1L to serialise every tick
+	 * @param writer The writer to write the lines to. Lines are terminated with a "\n"
+	 * @throws IOException If writing to the writer fails
+	 */
+	public void serialise(BigArrayList<TickContainer> inputs, long toTick, Writer writer) throws IOException {
+		serialise(inputs, toTick, writer, null);
+	}
+
+	/**
+	 * Serialises the ticks and writes them directly to the writer, while collecting the byte offsets of the ticks in a {@link TASfileIndex}
+	 * 
+	 * @param inputs The ticks to serialise
+	 * @param toTick The tick at which the serialiser stops. Use -1L to serialise every tick
+	 * @param writer The writer to write the lines to. Lines are terminated with a "\n"
+	 * @param index  The builder of the index, that already received the lines of the header. Can be null
+	 * @throws IOException If writing to the writer fails
+	 */
+	public void serialise(BigArrayList<TickContainer> inputs, long toTick, Writer writer, TASfileIndex.Builder index) throws IOException {
+		serialise(TickStore.of(inputs), 0, toTick, writer, index);
+	}
+
+	/**
+	 * Serialises the ticks of a {@link TickStore} and writes them directly to the writer, like {@link #serialise(BigArrayList, long, Writer, TASfileIndex.Builder)}
+	 * 
+	 * @param inputs The ticks to serialise
+	 * @param toTick The tick at which the serialiser stops. Use -1L to serialise every tick
+	 * @param writer The writer to write the lines to. Lines are terminated with a "\n"
+	 * @param index  The builder of the index, that already received the lines of the header. Can be null
+	 * @throws IOException If writing to the writer fails
+	 */
+	public void serialise(TickStore inputs, long toTick, Writer writer, TASfileIndex.Builder index) throws IOException {
+		serialise(inputs, 0, toTick, writer, index);
+	}
+
+	/**
+	 * Serialises the ticks starting at a specific tick and writes them directly to the writer, e.g. to rewrite the end of a TASfile
+	 * 
+	 * @param inputs   The ticks to serialise
+	 * @param fromTick The first tick to serialise
+	 * @param toTick   The tick at which the serialiser stops. Use -1L to serialise every tick
+	 * @param writer   The writer to write the lines to. Lines are terminated with a "\n"
+	 * @param index    The builder of the index, that already received the lines before the first tick. Can be null
+	 * @throws IOException If writing to the writer fails
+	 */
+	public void serialise(BigArrayList<TickContainer> inputs, long fromTick, long toTick, Writer writer, TASfileIndex.Builder index) throws IOException {
+		serialise(TickStore.of(inputs), fromTick, toTick, writer, index);
+	}
+
+	/**
+	 * Serialises the ticks of a {@link TickStore} starting at a specific tick and writes them directly to the writer
+	 * 
+	 * @param inputs   The ticks to serialise
+	 * @param fromTick The first tick to serialise
+	 * @param toTick   The tick at which the serialiser stops. Use -1L to serialise every tick
+	 * @param writer   The writer to write the lines to. Lines are terminated with a "\n"
+	 * @param index    The builder of the index, that already received the lines before the first tick. Can be null
+	 * @throws IOException If writing to the writer fails
+	 */
+	public void serialise(TickStore inputs, long fromTick, long toTick, Writer writer, TASfileIndex.Builder index) throws IOException {
+		List<String> tickLines = new ArrayList<>();
+		currentLine = -1;
+
+		for (long i = fromTick; i < inputs.size(); i++) {
+			if (toTick == i) {
+				break;
+			}
+			tickLines.clear();
+			serialiseNext(i, inputs.get(i), tickLines);
+			if (index != null) {
+				index.addTick(index.getPosition(), index.getLineCount(), !dependsOnPreviousTick(tickLines));
+			}
+			for (String line : tickLines) {
+				writer.write(line);
+				writer.write('\n');
+				if (index != null) {
+					index.addLine(line);
+				}
+			}
+			currentLine += tickLines.size();
+		}
+	}
+
+	/**
+	 * Serialises a single tick, e.g. to append it to a {@link TASfileJournal} while recording.<br>
+	 * The ticks have to be serialised in order, starting at tick 0
+	 * 
+	 * @param tick      The index of the tick
+	 * @param container The tick to serialise
+	 * @param out       The list to add the serialised lines to
+	 */
+	public void serialiseNext(long tick, TickContainer container, List<String> out) {
+		currentTick = tick;
+		// The container is only read, so it isn't cloned. Like in a clone, the comments are not serialised, unless the file commands are kept in them
+		serialiseContainer(out, container, !processExtensions && keepFileCommands ? container.getComments() : null);
+		previousTickContainer = container;
+	}
+
+	/**
+	 * @return True if this flavor stores the ticks as binary data after the header.<br>
+	 * Binary flavors are saved with {@link #serialise(TickStore, long, OutputStream)} and loaded with {@link #deserialise(InputStream)}
+	 */
+	public boolean isBinary() {
+		return false;
+	}
+
+	/**
+	 * <p>Serialises the ticks and writes them directly to the output stream.
+	 * 
+	 * <p>By default, the lines are written as UTF-8 encoded text, like in {@link #serialise(BigArrayList, long, Writer)}.<br>
+	 * {@link #isBinary() Binary flavors} override {@link #serialise(TickStore, long, OutputStream)} to write their own data.
+	 * 
+	 * @param inputs The ticks to serialise
+	 * @param toTick The tick at which the serialiser stops. Use -1L to serialise every tick
+	 * @param out    The stream to write to. Is flushed, but not closed
+	 * @throws IOException If writing to the stream fails
+	 */
+	public void serialise(BigArrayList<TickContainer> inputs, long toTick, OutputStream out) throws IOException {
+		serialise(TickStore.of(inputs), toTick, out);
+	}
+
+	/**
+	 * Serialises the ticks of a {@link TickStore} and writes them directly to the output stream, like {@link #serialise(BigArrayList, long, OutputStream)}
+	 * 
+	 * @param inputs The ticks to serialise
+	 * @param toTick The tick at which the serialiser stops. Use -1L to serialise every tick
+	 * @param out    The stream to write to. Is flushed, but not closed
+	 * @throws IOException If writing to the stream fails
+	 */
+	public void serialise(TickStore inputs, long toTick, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		serialise(inputs, 0, toTick, writer, null);
+		writer.flush();
+	}
+
 	protected void serialiseContainer(BigArrayList<String> out, TickContainer container) {
 		currentLine = out.size() - 1;
+		List<String> tickLines = new ArrayList<>();
+		serialiseContainer(tickLines, container);
+		addAll(out, tickLines);
+	}
+
+	protected void serialiseContainer(List<String> out, TickContainer container) {
+		serialiseContainer(out, container, container.getComments());
+	}
+
+	/**
+	 * <p>Serialises the inputs, comments and {@link PlaybackFileCommand PlaybackFileCommands} of a tick.
+	 *
+	 * <p>The subticks are read by index and every line is built in the same {@link StringBuilder},<br>
+	 * so no intermediate lists or strings are created for the inputs.<br>
+	 * If the flavor overrides {@link #serialiseKeyboard(VirtualKeyboard)}, {@link #serialiseMouse(VirtualMouse)}, {@link #serialiseCameraAngle(VirtualCameraAngle)}<br>
+	 * or one of the mergeInputs methods, the lines are created through these methods instead.
+	 *
+	 * @param out       The list to add the serialised lines to
+	 * @param container The tick to serialise. Is only read
+	 * @param comments  The comments to serialise, or null to serialise no comments
+	 */
+	protected void serialiseContainer(List<String> out, TickContainer container, CommentContainer comments) {
+		VirtualKeyboard keyboard = container.getKeyboard();
+		VirtualMouse mouse = container.getMouse();
+		VirtualCameraAngle cameraAngle = container.getCameraAngle();
+
+		// Without extensions, no file commands are added, so the file commands of other TASfiles aren't mixed in
+		List<List<PlaybackFileCommand>> fileCommandsInline = processExtensions ? getFileCommandsInline(container) : new ArrayList<>();
+		List<List<PlaybackFileCommand>> fileCommandsEndline = processExtensions ? getFileCommandsEndline(container) : new ArrayList<>();
+
+		List<String> inlineComments = comments == null ? null : comments.getInlineComments();
+		List<String> endlineComments = comments == null ? null : comments.getEndlineComments();
+
+		if (!isNullOrEmpty(inlineComments) || !fileCommandsInline.isEmpty()) {
+			out.addAll(serialiseInlineComments(inlineComments, fileCommandsInline));
+		}
+
+		List<String> serialisedEndlineComments = null;
+		String endlineComment = "";
+		if (!isNullOrEmpty(endlineComments) || !fileCommandsEndline.isEmpty()) {
+			serialisedEndlineComments = serialiseEndlineComments(endlineComments, fileCommandsEndline);
+			if (!serialisedEndlineComments.isEmpty()) {
+				endlineComment = getOrEmpty(serialisedEndlineComments.get(0));
+			}
+		}
+
+		if (overridesInputHooks()) {
+			serialiseInputs(out, container, serialisedEndlineComments == null ? new ArrayList<>() : serialisedEndlineComments);
+			return;
+		}
+
+		int keyboardSize = getSizeWithoutEmptyEnd(keyboard);
+		int mouseSize = getSizeWithoutEmptyEnd(mouse);
+		int cameraAngleSize = getCameraAngleSize(cameraAngle);
+		int size = Math.max(1, Math.max(keyboardSize, Math.max(mouseSize, cameraAngleSize)));
+
+		int cameraAngleIndex = 0;
+		VirtualCameraAngle previousCameraAngle = null;
+
+		char separator = getSeparator();
+		StringBuilder builder = lineBuilder;
+		for (currentSubtick = 0; currentSubtick < size; currentSubtick++) {
+			builder.setLength(0);
+			if (currentSubtick == 0) {
+				builder.append(currentTick);
+			} else {
+				builder.append('\t').append(currentSubtick);
+			}
+
+			builder.append(separator);
+			if (currentSubtick < keyboardSize) {
+				keyboard.getFromAll(currentSubtick).appendTo(builder);
+			}
+
+			builder.append(separator);
+			if (currentSubtick < mouseSize) {
+				mouse.getFromAll(currentSubtick).appendTo(builder);
+			}
+
+			builder.append(separator);
+			if (currentSubtick < cameraAngleSize) {
+				// Skip the subticks that are equal to the previous subtick, like in serialiseCameraAngle
+				VirtualCameraAngle subtick = cameraAngle.getFromAll(cameraAngleIndex++);
+				while (subtick.equals(previousCameraAngle)) {
+					previousCameraAngle = subtick;
+					subtick = cameraAngle.getFromAll(cameraAngleIndex++);
+				}
+				previousCameraAngle = subtick;
+				appendCameraAngle(builder, subtick);
+			}
+
+			if (currentSubtick == 0 && !endlineComment.isEmpty()) {
+				builder.append("\t\t").append(endlineComment);
+			}
+			out.add(builder.toString());
+		}
+		currentSubtick = 0;
+	}
+
+	/**
+	 * <p>Serialises the inputs of a tick through {@link #serialiseKeyboard(VirtualKeyboard)}, {@link #serialiseMouse(VirtualMouse)},<br>
+	 * {@link #serialiseCameraAngle(VirtualCameraAngle)} and {@link #mergeInputs(List, List, List, List, List)}, like before the lines were built directly.
+	 *
+	 * <p>Used instead of building the lines directly, if the flavor overrides one of these methods.
+	 *
+	 * @param out                       The list to add the serialised lines to
+	 * @param container                 The tick to serialise
+	 * @param serialisedEndlineComments The serialised endline comments of the tick
+	 */
+	private void serialiseInputs(List<String> out, TickContainer container, List<String> serialisedEndlineComments) {
 		List<String> serialisedKeyboard = serialiseKeyboard(container.getKeyboard());
 		List<String> serialisedMouse = serialiseMouse(container.getMouse());
 		List<String> serialisedCameraAngle = serialiseCameraAngle(container.getCameraAngle());
 		pruneListEndEmpty(serialisedCameraAngle);
 
-		PlaybackFileCommandContainer fileCommandsInline = TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnSerialiseInline(currentTick, container);
-		PlaybackFileCommandContainer fileCommandsEndline = TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnSerialiseEndline(currentTick, container);
-
-		CommentContainer comments = container.getComments();
-		if (comments == null) {
-			comments = new CommentContainer(new ArrayList<>(), new ArrayList<>());
+		if (overrides(getClass(), "mergeInputs", BigArrayList.class, List.class, List.class, List.class, List.class)) {
+			BigArrayList<String> lines = new BigArrayList<>();
+			mergeInputs(lines, serialisedKeyboard, serialisedMouse, serialisedCameraAngle, serialisedEndlineComments);
+			for (long i = 0; i < lines.size(); i++) {
+				out.add(lines.get(i));
+			}
+			return;
 		}
-		List<String> serialisedInlineCommments = serialiseInlineComments(comments.getInlineComments(), fileCommandsInline.valuesBySubtick());
-		List<String> serialisedEndlineComments = serialiseEndlineComments(comments.getEndlineComments(), fileCommandsEndline.valuesBySubtick());
+		mergeInputs(out, serialisedKeyboard, serialisedMouse, serialisedCameraAngle, serialisedEndlineComments);
+	}
 
-		addAll(out, serialisedInlineCommments);
+	/**
+	 * @return True if the flavor overrides one of the methods, that {@link #serialiseContainer(List, TickContainer, CommentContainer)} skips when building the lines directly
+	 */
+	private boolean overridesInputHooks() {
+		return INPUT_HOOKS_OVERRIDDEN.computeIfAbsent(getClass(), flavorClass -> overrides(flavorClass, "serialiseKeyboard", VirtualKeyboard.class)
+				|| overrides(flavorClass, "serialiseMouse", VirtualMouse.class)
+				|| overrides(flavorClass, "serialiseCameraAngle", VirtualCameraAngle.class)
+				|| overrides(flavorClass, "mergeInputs", List.class, List.class, List.class, List.class, List.class)
+				|| overrides(flavorClass, "mergeInputs", BigArrayList.class, List.class, List.class, List.class, List.class));
+	}
 
-		mergeInputs(out, serialisedKeyboard, serialisedMouse, serialisedCameraAngle, serialisedEndlineComments);
+	/**
+	 * @param flavorClass    The class of the flavor
+	 * @param name           The name of the method
+	 * @param parameterTypes The parameter types of the method
+	 * @return True if the method is declared in the class of the flavor or a superclass below {@link SerialiserFlavorBase}
+	 */
+	private static boolean overrides(Class<?> flavorClass, String name, Class<?>... parameterTypes) {
+		for (Class<?> clazz = flavorClass; clazz != null && clazz != SerialiserFlavorBase.class; clazz = clazz.getSuperclass()) {
+			try {
+				clazz.getDeclaredMethod(name, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// Check the superclass
+			}
+		}
+		return false;
 	}
 
 	protected String serialiseFileCommand(PlaybackFileCommand fileCommand) {
 		if (!processExtensions)
 			return "";
-		return String.format("$%s(%s);", fileCommand.getName(), String.join(", ", fileCommand.getArgs()));
+		StringBuilder builder = new StringBuilder();
+		builder.append('$').append(fileCommand.getName()).append('(');
+		String[] args = fileCommand.getArgs();
+		for (int i = 0; i < args.length; i++) {
+			if (i != 0) {
+				builder.append(", ");
+			}
+			builder.append(args[i]);
+		}
+		return builder.append(");").toString();
 	}
 
 	protected String serialiseFileCommandsInLine(List<PlaybackFileCommand> fileCommands) {
 		if (fileCommands == null) {
 			return null;
 		}
-		List<String> serialisedCommands = new ArrayList<>();
-		for (PlaybackFileCommand command : fileCommands) {
-			serialisedCommands.add(serialiseFileCommand(command));
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < fileCommands.size(); i++) {
+			if (i != 0) {
+				builder.append(' ');
+			}
+			builder.append(serialiseFileCommand(fileCommands.get(i)));
 		}
-		return String.join(" ", serialisedCommands);
+		return builder.toString();
 	}
 
 	protected List<String> serialiseKeyboard(VirtualKeyboard keyboard) {
 		List<String> out = new ArrayList<>();
 
-		List<VirtualKeyboard> subticks = new ArrayList<>(keyboard.getAll());
-		pruneListEndEmptySubtickable(subticks);
-
-		for (VirtualKeyboard subtick : subticks) {
-			out.add(subtick.toString2());
+		int size = getSizeWithoutEmptyEnd(keyboard);
+		for (int i = 0; i < size; i++) {
+			out.add(keyboard.getFromAll(i).toString2());
 		}
 		return out;
 	}
@@ -193,11 +585,9 @@ protected List<String> serialiseKeyboard(VirtualKeyboard keyboard) {
 	protected List<String> serialiseMouse(VirtualMouse mouse) {
 		List<String> out = new ArrayList<>();
 
-		List<VirtualMouse> subticks = new ArrayList<>(mouse.getAll());
-		pruneListEndEmptySubtickable(subticks);
-
-		for (VirtualMouse subtick : subticks) {
-			out.add(subtick.toString2());
+		int size = getSizeWithoutEmptyEnd(mouse);
+		for (int i = 0; i < size; i++) {
+			out.add(mouse.getFromAll(i).toString2());
 		}
 		return out;
 	}
@@ -207,36 +597,83 @@ protected List<String> serialiseCameraAngle(VirtualCameraAngle cameraAngle) {
 		VirtualCameraAngle previousCamera = null;
 
 		List<String> out = new ArrayList<>();
-		for (VirtualCameraAngle subtick : cameraAngle.getAll()) {
+		for (int i = 0; i < cameraAngle.getAllSize(); i++) {
+			VirtualCameraAngle subtick = cameraAngle.getFromAll(i);
 
-			if (!subtick.equals(previousCamera))
-				out.add(String.format("%s;%s", subtick.getYaw(), subtick.getPitch()));
+			if (!subtick.equals(previousCamera)) {
+				StringBuilder builder = new StringBuilder();
+				appendCameraAngle(builder, subtick);
+				out.add(builder.toString());
+			}
 
 			previousCamera = subtick;
 		}
 		return out;
 	}
 
+	/**
+	 * Appends the camera angle of a subtick as "yaw;pitch"
+	 *
+	 * @param builder The builder to append to
+	 * @param subtick The camera angle to append
+	 */
+	protected void appendCameraAngle(StringBuilder builder, VirtualCameraAngle subtick) {
+		appendFloat(builder, subtick.getYaw());
+		builder.append(';');
+		appendFloat(builder, subtick.getPitch());
+	}
+
+	private void appendFloat(StringBuilder builder, Float value) {
+		if (value == null) {
+			builder.append("null");
+		} else {
+			builder.append(value.floatValue());
+		}
+	}
+
+	/**
+	 * @param subtickable The parent peripheral
+	 * @return The amount of subticks in {@link Subtickable#getAll()}, without the empty subticks at the end
+	 */
+	private <T extends Subtickable<T>> int getSizeWithoutEmptyEnd(Subtickable<T> subtickable) {
+		int size = subtickable.getAllSize();
+		while (size > 0 && subtickable.getFromAll(size - 1).isEmpty()) {
+			size--;
+		}
+		return size;
+	}
+
+	/**
+	 * @param cameraAngle The parent camera angle
+	 * @return The amount of subticks in {@link #serialiseCameraAngle(VirtualCameraAngle)}, without equal subticks following each other
+	 */
+	private int getCameraAngleSize(VirtualCameraAngle cameraAngle) {
+		int size = 0;
+		VirtualCameraAngle previousCamera = null;
+		for (int i = 0; i < cameraAngle.getAllSize(); i++) {
+			VirtualCameraAngle subtick = cameraAngle.getFromAll(i);
+			if (!subtick.equals(previousCamera)) {
+				size++;
+			}
+			previousCamera = subtick;
+		}
+		return size;
+	}
+
 	protected List<String> serialiseInlineComments(List<String> inlineComments, List<List<PlaybackFileCommand>> fileCommandsInline) {
 		List<String> out = new ArrayList<>();
 
-		Queue<List<PlaybackFileCommand>> fileCommandQueue = null;
-		if (fileCommandsInline != null) {
-			fileCommandQueue = new LinkedList<>(fileCommandsInline);
-		}
+		int fileCommandIndex = 0;
 
 		// Serialise comments and merge them with file commands
 		if (inlineComments != null) {
 
-			Queue<String> commentQueue = new LinkedList<>(inlineComments);
-
 			// Iterate through comments
-			while (!commentQueue.isEmpty()) {
-				String comment = commentQueue.poll(); // Due to commentQueue being a LinkedList, comment can be null at this point! 
+			for (String comment : inlineComments) { // Comment can be null at this point!
 
 				String command = null;
-				if (fileCommandQueue != null) {
-					command = serialiseFileCommandsInLine(fileCommandQueue.poll()); // Trying to poll a fileCommand. Command can be null at this point
+				if (fileCommandsInline != null && fileCommandIndex < fileCommandsInline.size()) {
+					command = serialiseFileCommandsInLine(fileCommandsInline.get(fileCommandIndex++)); // Command can be null at this point
 				}
 
 				// Add an empty line if comment and command is null
@@ -245,19 +682,19 @@ protected List<String> serialiseInlineComments(List<String> inlineComments, List
 					continue;
 				}
 
-				out.add(String.format("// %s", joinNotEmpty(" ", command, comment)));
+				out.add("// " + joinNotEmpty(" ", command, comment));
 			}
 		}
 
-		if (fileCommandQueue != null) {
+		if (fileCommandsInline != null) {
 
-			// If the fileCommandQueue is not empty or longer than the commentQueue,
+			// If the fileCommands are longer than the comments,
 			// add the rest of the fileCommands to the end
-			while (!fileCommandQueue.isEmpty()) {
+			while (fileCommandIndex < fileCommandsInline.size()) {
 
-				String command = serialiseFileCommandsInLine(fileCommandQueue.poll());
+				String command = serialiseFileCommandsInLine(fileCommandsInline.get(fileCommandIndex++));
 				if (command != null) {
-					out.add(String.format("// %s", command));
+					out.add("// " + command);
 				} else {
 					out.add(""); // Add an empty line if command is null
 				}
@@ -272,30 +709,33 @@ protected List<String> serialiseEndlineComments(List<String> endlineComments, Li
 	}
 
 	protected void mergeInputs(BigArrayList<String> out, List<String> serialisedKeyboard, List<String> serialisedMouse, List<String> serialisedCameraAngle, List<String> serialisedEndlineComments) {
-		Queue<String> keyboardQueue = new LinkedBlockingQueue<>(serialisedKeyboard);
-		Queue<String> mouseQueue = new LinkedBlockingQueue<>(serialisedMouse);
-		Queue<String> cameraAngleQueue = new LinkedBlockingQueue<>(serialisedCameraAngle);
-		Queue<String> endlineQueue = new LinkedBlockingQueue<>(serialisedEndlineComments);
-
-		String kb = getOrEmpty(keyboardQueue.poll());
-		String ms = getOrEmpty(mouseQueue.poll());
-		String ca = getOrEmpty(cameraAngleQueue.poll());
+		List<String> tickLines = new ArrayList<>();
+		mergeInputs(tickLines, serialisedKeyboard, serialisedMouse, serialisedCameraAngle, serialisedEndlineComments);
+		addAll(out, tickLines);
+	}
 
-		String elc = getOrEmpty(endlineQueue.poll());
-		if (!elc.isEmpty()) {
-			elc = "\t\t" + elc;
-		}
+	protected void mergeInputs(List<String> out, List<String> serialisedKeyboard, List<String> serialisedMouse, List<String> serialisedCameraAngle, List<String> serialisedEndlineComments) {
+		int size = Math.max(1, Math.max(serialisedKeyboard.size(), Math.max(serialisedMouse.size(), serialisedCameraAngle.size())));
 
-		out.add(String.format("%s|%s|%s|%s%s", currentTick, kb, ms, ca, elc));
+		String elc = serialisedEndlineComments.isEmpty() ? "" : getOrEmpty(serialisedEndlineComments.get(0));
 
-		currentSubtick = 0;
-		while (!keyboardQueue.isEmpty() || !mouseQueue.isEmpty() || !cameraAngleQueue.isEmpty()) {
-			currentSubtick++;
-			kb = getOrEmpty(keyboardQueue.poll());
-			ms = getOrEmpty(mouseQueue.poll());
-			ca = getOrEmpty(cameraAngleQueue.poll());
+		char separator = getSeparator();
+		StringBuilder builder = lineBuilder;
+		for (currentSubtick = 0; currentSubtick < size; currentSubtick++) {
+			builder.setLength(0);
+			if (currentSubtick == 0) {
+				builder.append(currentTick);
+			} else {
+				builder.append('\t').append(currentSubtick);
+			}
+			builder.append(separator).append(getOrEmpty(serialisedKeyboard, currentSubtick));
+			builder.append(separator).append(getOrEmpty(serialisedMouse, currentSubtick));
+			builder.append(separator).append(getOrEmpty(serialisedCameraAngle, currentSubtick));
 
-			out.add(String.format("\t%s|%s|%s|%s", currentSubtick, kb, ms, ca));
+			if (currentSubtick == 0 && !elc.isEmpty()) {
+				builder.append("\t\t").append(elc);
+			}
+			out.add(builder.toString());
 		}
 		currentSubtick = 0;
 	}
@@ -304,27 +744,34 @@ protected String getOrEmpty(String string) {
 		return string == null ? "" : string;
 	}
 
+	private String getOrEmpty(List<String> list, int index) {
+		return index < list.size() ? getOrEmpty(list.get(index)) : "";
+	}
+
+	private boolean isNullOrEmpty(List<String> list) {
+		return list == null || list.isEmpty();
+	}
+
 	/**
 	 * Joins strings together but ignores empty strings
-	 * 
+	 *
 	 * @param delimiter The delimiter of the joined string
 	 * @param args The strings to join
 	 * @return Joined string
 	 */
 	protected String joinNotEmpty(String delimiter, Iterable<String> args) {
-		String out = "";
-
-		List<String> copy = new ArrayList<>();
+		StringBuilder builder = new StringBuilder();
 
-		args.forEach((arg) -> {
+		for (String arg : args) {
 			if (arg != null && !arg.isEmpty()) {
-				copy.add(arg);
+				if (builder.length() != 0) {
+					builder.append(delimiter);
+				}
+				builder.append(arg);
 			}
-		});
-
-		out = String.join(delimiter, copy);
+		}
 
-		return out;
+		return builder.toString();
 	}
 
 	protected String joinNotEmpty(String delimiter, String... args) {
@@ -343,117 +790,804 @@ protected String joinNotEmpty(String delimiter, String... args) {
 	 * 
 	 */
 
-	public boolean deserialiseFlavorName(List<String> headerLines) {
-		for (String line : headerLines) {
-			Matcher matcher = extract("^Flavor: " + getExtensionName(), line);
+	public boolean deserialiseFlavorName(List<String> headerLines) {
+		for (String line : headerLines) {
+			Matcher matcher = extract("^Flavor: " + getExtensionName(), line);
+
+			if (matcher.find()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void deserialiseHeader(List<String> headerLines) {
+		deserialiseMetadata(headerLines);
+		deserialiseFileCommandNames(headerLines);
+	}
+
+	public List<String> extractHeader(BigArrayList<String> lines) {
+		return extractHeader(new TASfileLineReader(lines, 0));
+	}
+
+	/**
+	 * Extracts the header from the start of the TASfile.<br>
+	 * Afterwards, the reader is positioned at the first line after the header.
+	 * 
+	 * @param reader The reader to extract the header lines from
+	 * @return The lines of the header, including the {@link #headerEnd()}
+	 */
+	public List<String> extractHeader(TASfileLineReader reader) {
+		return extractHeader(reader, new ArrayList<>());
+	}
+
+	/**
+	 * Continues extracting the header, after the first lines of the header were already read, e.g. while searching for the flavor name.<br>
+	 * Afterwards, the reader is positioned at the first line after the header.
+	 * 
+	 * @param reader    The reader to extract the remaining header lines from
+	 * @param extracted The lines that were already read from the reader. The remaining lines of the header are added to it
+	 * @return The lines of the header, including the {@link #headerEnd()}
+	 */
+	public List<String> extractHeader(TASfileLineReader reader, List<String> extracted) {
+		int end = extracted.indexOf(headerEnd());
+		if (end != -1) {
+			if (end != extracted.size() - 1) {
+				throw new PlaybackLoadException("Lines after the end of the header were already read");
+			}
+			return extracted;
+		}
+
+		long maxExtract = 1000;
+
+		for (long i = extracted.size(); i < maxExtract && reader.hasNext(); i++) {
+			String line = reader.next();
+			extracted.add(line);
+
+			if (line.equals(headerEnd()))
+				return extracted;
+		}
+		throw new PlaybackLoadException("Cannot find the end of the header");
+	}
+
+	protected void deserialiseFileCommandNames(List<String> headerLines) {
+		if (!processExtensions) // Stops FileCommandProcessing
+			return;
+
+		if (extensionBuffer != null) {
+			extensionBuffer.setFileCommandNames(readFileCommandNames(headerLines));
+		} else {
+			TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(readFileCommandNames(headerLines));
+		}
+	}
+
+	/**
+	 * Reads the names of the enabled {@link PlaybackFileCommandExtension PlaybackFileCommandExtensions} from the header, without enabling them
+	 * 
+	 * @param headerLines The lines of the header
+	 * @return The names of the extensions in the header
+	 * @throws PlaybackLoadException If the header doesn't contain the extension names
+	 */
+	public List<String> readFileCommandNames(List<String> headerLines) {
+		for (String line : headerLines) {
+			Matcher matcher = extract("FileCommand-Extensions: ?(.*)", line);
+
+			if (matcher.find()) {
+				String extensionStrings = matcher.group(1);
+				if (extensionStrings.trim().isEmpty()) {
+					return new ArrayList<>();
+				}
+				return Arrays.asList(extensionStrings.split(", ?"));
+			}
+		}
+		throw new PlaybackLoadException("FileCommand-Extensions value was not found in the header");
+	}
+
+	protected void deserialiseMetadata(List<String> headerLines) {
+		if (!processExtensions)
+			return;
+
+		if (extensionBuffer != null) {
+			extensionBuffer.setMetadata(readMetadata(headerLines));
+		} else {
+			TASmodAPIRegistry.PLAYBACK_METADATA.handleOnLoad(readMetadata(headerLines));
+		}
+	}
+
+	/**
+	 * @param container The tick that is serialised
+	 * @return The file commands of the inline comments of the {@link #currentTick}, from the {@link #fileCommandCapture} if set, otherwise from the extensions
+	 */
+	protected List<List<PlaybackFileCommand>> getFileCommandsInline(TickContainer container) {
+		if (fileCommandCapture != null) {
+			return fileCommandCapture.getInlineFileCommands(currentTick);
+		}
+		return TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnSerialiseInline(currentTick, container).valuesBySubtick();
+	}
+
+	/**
+	 * @param container The tick that is serialised
+	 * @return The file commands of the endline comments of the {@link #currentTick}, from the {@link #fileCommandCapture} if set, otherwise from the extensions
+	 */
+	protected List<List<PlaybackFileCommand>> getFileCommandsEndline(TickContainer container) {
+		if (fileCommandCapture != null) {
+			return fileCommandCapture.getEndlineFileCommands(currentTick);
+		}
+		return TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnSerialiseEndline(currentTick, container).valuesBySubtick();
+	}
+
+	/**
+	 * Passes the file commands of a deserialised tick to the extensions, or adds them to the {@link #extensionBuffer}
+	 * 
+	 * @param tick                  The tick of the file commands
+	 * @param deserialisedContainer The deserialised tick
+	 * @param inlineFileCommands    The file commands of the inline comments
+	 * @param endlineFileCommands   The file commands of the endline comments
+	 */
+	protected void passFileCommands(long tick, TickContainer deserialisedContainer, List<List<PlaybackFileCommand>> inlineFileCommands, List<List<PlaybackFileCommand>> endlineFileCommands) {
+		if (extensionBuffer != null) {
+			extensionBuffer.addFileCommands(tick, inlineFileCommands, endlineFileCommands);
+			return;
+		}
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnDeserialiseInline(tick, deserialisedContainer, inlineFileCommands);
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnDeserialiseEndline(tick, deserialisedContainer, endlineFileCommands);
+	}
+
+	/**
+	 * Reads the {@link PlaybackMetadata} from the header, without passing it to the extensions
+	 * 
+	 * @param headerLines The lines of the header
+	 * @return The metadata in the header
+	 */
+	public List<PlaybackMetadata> readMetadata(List<String> headerLines) {
+		List<PlaybackMetadata> out = new ArrayList<>();
+
+		String metadataName = null;
+		LinkedHashMap<String, String> values = new LinkedHashMap<>();
+
+		for (String headerLine : headerLines) {
+
+			Matcher nameMatcher = extract("^-+ ([^-]+)", headerLine); // If the line starts with ###, an optional space char after and then capture the name 
+			Matcher valueMatcher = extract("^([^#].*?):\\s*(.+)", headerLine); // If the line doesn't start with a #, then the key of the metadata, then a : then any or no number of whitespace chars, then the value of the metadata
+
+			if (nameMatcher.find()) {
+
+				if (metadataName != null && !metadataName.equals(nameMatcher.group(1))) { // If metadataName is null, then the first section begins
+																							// If metadataName is different than the newMetadataName,
+																							// then a new section begins and we first need to store the old.
+					out.add(PlaybackMetadata.fromHashMap(metadataName, values));
+					values.clear();
+				}
+				metadataName = nameMatcher.group(1).trim();
+				continue;
+
+			} else if (metadataName != null && valueMatcher.find()) {
+				values.put(valueMatcher.group(1).trim(), valueMatcher.group(2).trim());
+			}
+		}
+
+		if (metadataName != null)
+			out.add(PlaybackMetadata.fromHashMap(metadataName, values));
+
+		return out;
+	}
+
+	/**
+	 * Deserialises the input part of the TASfile
+	 * 
+	 * @param lines    The serialised lines of the TASfile
+	 * @param startPos The position when the header ends and the inputs start
+	 * @return A list of {@link TickContainer}
+	 */
+	public BigArrayList<TickContainer> deserialise(BigArrayList<String> lines, long startPos) {
+		return deserialise(new TASfileLineReader(lines, startPos));
+	}
+
+	/**
+	 * <p>Deserialises the input part of the TASfile, while streaming the lines from the reader.
+	 * <p>Each tick is extracted and deserialised one after another,<br>
+	 * so only the lines of the current tick are kept in memory
+	 * 
+	 * @param reader The reader, positioned after the header of the TASfile
+	 * @return A list of {@link TickContainer}
+	 */
+	public BigArrayList<TickContainer> deserialise(TASfileLineReader reader) {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+		while (reader.hasNext()) {
+			List<String> container = new ArrayList<>();
+			// Extract the tick
+			extractContainer(container, reader);
+			currentLine = reader.getLineIndex() - 1;
+			// Extract container
+			deserialiseContainer(out, container);
+			currentTick++;
+		}
+		previousTickContainer = null;
+		return out;
+	}
+
+	/**
+	 * <p>Deserialises the input part of the TASfile like {@link #deserialise(TASfileLineReader)},<br>
+	 * but keeps the inputs of the ticks as raw text in {@link LazyTickContainer LazyTickContainers}, which decode them on first access.
+	 * 
+	 * <p>The comments and file commands are still read while loading, so the extensions receive them like before.<br>
+	 * Ticks that {@link #dependsOnPreviousTick(List) depend on the previous tick} are deserialised completely,<br>
+	 * as the previous tick is not known anymore when decoding later.
+	 * 
+	 * <p>Errors in the inputs of a lazy tick are only thrown when the tick is decoded.
+	 * 
+	 * @param reader The reader, positioned after the header of the TASfile
+	 * @return A list of {@link TickContainer TickContainers}, mostly {@link LazyTickContainer LazyTickContainers}
+	 */
+	public BigArrayList<TickContainer> deserialiseLazy(TASfileLineReader reader) {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+
+		SerialiserFlavorBase decoder = clone();
+		decoder.processExtensions = false;
+
+		TickContainer previous = null;
+		while (reader.hasNext()) {
+			List<String> containerLines = new ArrayList<>();
+			extractContainer(containerLines, reader);
+			currentLine = reader.getLineIndex() - 1;
+
+			List<List<PlaybackFileCommand>> inlineFileCommands = new ArrayList<>();
+			List<List<PlaybackFileCommand>> endlineFileCommands = new ArrayList<>();
+
+			TickContainer deserialisedContainer;
+			if (dependsOnPreviousTick(containerLines)) {
+				previousTickContainer = previous;
+				deserialisedContainer = deserialiseContainer(containerLines, inlineFileCommands, endlineFileCommands);
+			} else {
+				previousTickContainer = null; // Would decode the previous tick
+				deserialisedContainer = deserialiseLazyContainer(decoder, containerLines, inlineFileCommands, endlineFileCommands);
+			}
+
+			if (processExtensions) {
+				passFileCommands(currentTick, deserialisedContainer, inlineFileCommands, endlineFileCommands);
+			}
+
+			previous = deserialisedContainer;
+			out.add(deserialisedContainer);
+			currentTick++;
+		}
+		previousTickContainer = null;
+		return out;
+	}
+
+	/**
+	 * Reads the comments and file commands of a container and keeps the input columns as raw text
+	 * 
+	 * @param decoder             The flavor, that decodes the inputs later
+	 * @param containerLines      The lines of the container
+	 * @param inlineFileCommands  The file commands in the inline comments, passed in by reference
+	 * @param endlineFileCommands The file commands in the endline comments, passed in by reference
+	 * @return The container, which decodes the inputs on first access
+	 */
+	protected TickContainer deserialiseLazyContainer(SerialiserFlavorBase decoder, List<String> containerLines, List<List<PlaybackFileCommand>> inlineFileCommands, List<List<PlaybackFileCommand>> endlineFileCommands) {
+		List<String> inlineComments = new ArrayList<>();
+		List<String> tickLines = new ArrayList<>();
+		splitContainer(containerLines, inlineComments, tickLines, inlineFileCommands);
+
+		List<String> endlineComments = new ArrayList<>();
+		splitInputs(tickLines, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), endlineComments, endlineFileCommands);
+		pruneListEndNull(endlineComments);
+
+		StringBuilder raw = new StringBuilder();
+		for (String line : tickLines) {
+			int[] columns = splitColumns(line);
+			if (columns == null) {
+				continue;
+			}
+			if (raw.length() != 0) {
+				raw.append('\n');
+			}
+			raw.append(line, 0, columns[3]); // Without the endline comment
+		}
+
+		return new LazyTickContainer(decoder, currentTick, currentLine, raw.toString(), new CommentContainer(inlineComments, endlineComments));
+	}
+
+	/**
+	 * Decodes the inputs of a {@link LazyTickContainer}.<br>
+	 * As the container doesn't depend on the previous tick, it is decoded without it
+	 * 
+	 * @param tick       The index of the tick
+	 * @param line       The line of the tick in the TASfile, for error messages
+	 * @param inputLines The input columns of the tick and subtick lines
+	 * @return The decoded container, without comments
+	 */
+	protected TickContainer decode(long tick, long line, List<String> inputLines) {
+		currentTick = tick;
+		currentLine = line;
+		previousTickContainer = null;
+		return deserialiseContainer(inputLines, new ArrayList<>(), new ArrayList<>());
+	}
+
+	/**
+	 * <p>Deserialises a range of ticks from the reader.
+	 * 
+	 * <p>The reader has to be positioned at the start of a tick, that doesn't {@link #dependsOnPreviousTick(List) depend on the previous tick},<br>
+	 * usually a tick sampled in a {@link TASfileIndex}. The ticks before <code>from</code> are deserialised,<br>
+	 * as following ticks may depend on them, but are not returned and are not passed to the extensions.
+	 * 
+	 * @param reader    The reader, positioned at the start of the tick <code>startTick</code>
+	 * @param startTick The tick at which the reader is positioned
+	 * @param from      The first tick to return, inclusive
+	 * @param to        The last tick to return, exclusive
+	 * @return A list of {@link TickContainer}, from <code>from</code> until <code>to</code> or until the end of the file
+	 */
+	public BigArrayList<TickContainer> deserialiseRange(TASfileLineReader reader, long startTick, long from, long to) {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+		seek(startTick);
+		while (currentTick < to) {
+			boolean inRange = currentTick >= from;
+			TickContainer container = deserialiseNext(reader, inRange);
+			if (container == null) {
+				break;
+			}
+			if (inRange) {
+				out.add(container);
+			}
+		}
+		previousTickContainer = null;
+		return out;
+	}
+
+	/**
+	 * Sets the tick at which the next {@link #deserialiseNext(TASfileLineReader, boolean)} starts and forgets the previous tick.<br>
+	 * Used after positioning a reader at a tick that doesn't {@link #dependsOnPreviousTick(List) depend on the previous tick}
+	 * 
+	 * @param tick The tick at which the reader is positioned
+	 */
+	public void seek(long tick) {
+		currentTick = tick;
+		currentSubtick = 0;
+		previousTickContainer = null;
+	}
+
+	/**
+	 * Extracts and deserialises the next tick from the reader, so a TASfile can be read one tick at a time.<br>
+	 * Afterwards, the tick is remembered as the previous tick for the following call.
+	 * 
+	 * @param reader           The reader, positioned at the start of the next tick
+	 * @param passToExtensions If the file commands of the tick should be passed to the extensions. Is ignored if extensions are not processed
+	 * @return The deserialised tick, or null if the reader has ended
+	 */
+	public TickContainer deserialiseNext(TASfileLineReader reader, boolean passToExtensions) {
+		if (!reader.hasNext()) {
+			return null;
+		}
+		List<String> containerLines = new ArrayList<>();
+		extractContainer(containerLines, reader);
+		currentLine = reader.getLineIndex() - 1;
+
+		List<List<PlaybackFileCommand>> inlineFileCommands = new ArrayList<>();
+		List<List<PlaybackFileCommand>> endlineFileCommands = new ArrayList<>();
+
+		TickContainer deserialisedContainer = deserialiseContainer(containerLines, inlineFileCommands, endlineFileCommands);
+
+		if (processExtensions && passToExtensions) {
+			passFileCommands(currentTick, deserialisedContainer, inlineFileCommands, endlineFileCommands);
+		}
+
+		previousTickContainer = deserialisedContainer;
+		currentTick++;
+		return deserialisedContainer;
+	}
+
+	/**
+	 * Extracts the ticks from the reader without deserialising them and passes the start of each tick to the index
+	 * 
+	 * @param reader    The reader, positioned after the header of the TASfile
+	 * @param index     The builder of the index
+	 * @param lineStart Supplies the byte offset of the line that was last read from the reader
+	 */
+	public void index(TASfileLineReader reader, TASfileIndex.Builder index, LongSupplier lineStart) {
+		List<String> container = new ArrayList<>();
+		while (reader.hasNext()) {
+			long offset = lineStart.getAsLong();
+			long line = reader.getLineIndex();
+			container.clear();
+			extractContainer(container, reader);
+			index.addTick(offset, line, !dependsOnPreviousTick(container));
+			currentTick++;
+		}
+	}
+
+	/**
+	 * Extracts ticks from the reader without deserialising them
+	 * 
+	 * @param reader The reader, positioned at the start of a tick
+	 * @param ticks  The amount of ticks to skip
+	 * @return The amount of ticks that were skipped, which is less than requested if the reader has ended
+	 */
+	public long skip(TASfileLineReader reader, long ticks) {
+		List<String> container = new ArrayList<>();
+		long skipped = 0;
+		while (skipped < ticks && reader.hasNext()) {
+			container.clear();
+			extractContainer(container, reader);
+			skipped++;
+		}
+		currentTick += skipped;
+		return skipped;
+	}
+
+	/**
+	 * <p>Checks the ticks of a TASfile and reports every error, instead of stopping at the first one like {@link #deserialise(TASfileLineReader)}.
+	 * 
+	 * <p>Every tick is deserialised, which checks the keys, the relative values and the camera angles.<br>
+	 * Additionally, lines that are ignored while loading, tick and subtick numbers that are out of order and malformed file commands are reported.<br>
+	 * Only the lines of the current tick and the previous tick are kept in memory. No extensions are called.
+	 * 
+	 * @param reader      The reader, positioned after the header of the TASfile
+	 * @param diagnostics Receives the errors in the order of the lines
+	 * @return The amount of ticks in the TASfile
+	 */
+	public long lint(TASfileLineReader reader, Consumer<PlaybackLoadException> diagnostics) {
+		List<String> containerLines = new ArrayList<>();
+		boolean hasTick = false;
+		long nextSubtick = 1;
+
+		currentTick = 0;
+		currentSubtick = 0;
+		previousTickContainer = null;
+
+		String line;
+		while ((line = reader.peek()) != null) {
+			long lineIndex = reader.getLineIndex();
+			LineType type = classifyLine(line);
+
+			if (hasTick && type != LineType.SUBTICK && type != LineType.OTHER) {
+				lintContainer(containerLines, lineIndex - 1, diagnostics);
+				containerLines.clear();
+				hasTick = false;
+			}
+			reader.next();
+
+			switch (type) {
+				case COMMENT:
+					lintFileCommands(line, lineIndex, diagnostics);
+					containerLines.add(line);
+					break;
+				case EMPTY:
+					containerLines.add(line);
+					break;
+				case TICK:
+					long tickNumber = readLineNumber(line, 0);
+					if (tickNumber != currentTick) {
+						diagnostics.accept(new PlaybackLoadException(lineIndex, currentTick, 0, "The tick is numbered %s instead of %s", tickNumber, currentTick));
+					}
+					lintEndlineFileCommands(line, lineIndex, diagnostics);
+					containerLines.add(line);
+					hasTick = true;
+					nextSubtick = 1;
+					break;
+				case SUBTICK:
+					if (!hasTick) {
+						diagnostics.accept(new PlaybackLoadException(lineIndex, currentTick, 0, "This should not be a subtick at this position"));
+						break;
+					}
+					long subtickNumber = readLineNumber(line, 1);
+					if (subtickNumber != nextSubtick) {
+						diagnostics.accept(new PlaybackLoadException(lineIndex, currentTick, (int) nextSubtick, "The subtick is numbered %s instead of %s", subtickNumber, nextSubtick));
+					}
+					lintEndlineFileCommands(line, lineIndex, diagnostics);
+					containerLines.add(line);
+					nextSubtick++;
+					break;
+				default:
+					diagnostics.accept(new PlaybackLoadException(lineIndex, currentTick, 0, "The line is not a tick or a comment and is ignored: %s", line));
+					break;
+			}
+		}
+
+		if (hasTick) {
+			lintContainer(containerLines, reader.getLineIndex() - 1, diagnostics);
+		}
+		previousTickContainer = null;
+		currentSubtick = 0;
+		return currentTick;
+	}
+
+	/**
+	 * Deserialises a tick and reports the error, if it can't be deserialised.<br>
+	 * If the tick has errors, the following ticks use the last tick without errors for their relative values
+	 * 
+	 * @param containerLines The lines of the tick, including the comments before it
+	 * @param line           The last line of the tick
+	 * @param diagnostics    Receives the error
+	 */
+	private void lintContainer(List<String> containerLines, long line, Consumer<PlaybackLoadException> diagnostics) {
+		currentLine = line;
+		try {
+			previousTickContainer = deserialiseContainer(containerLines, new ArrayList<>(), new ArrayList<>());
+		} catch (PlaybackLoadException e) {
+			diagnostics.accept(e);
+		} catch (RuntimeException e) {
+			diagnostics.accept(new PlaybackLoadException(line, currentTick, currentSubtick, e, "Something went very wrong: %s", e));
+		}
+		currentTick++;
+		currentSubtick = 0;
+	}
+
+	private void lintEndlineFileCommands(String line, long lineIndex, Consumer<PlaybackLoadException> diagnostics) {
+		int[] columns = splitColumns(line);
+		if (columns != null && columns[3] < line.length()) {
+			lintFileCommands(line.substring(columns[3]), lineIndex, diagnostics);
+		}
+	}
+
+	/**
+	 * Reports file commands in a comment, that have an invalid name or are not closed with ");"
+	 * 
+	 * @param comment     The comment to check
+	 * @param lineIndex   The line of the comment
+	 * @param diagnostics Receives the errors
+	 */
+	private void lintFileCommands(String comment, long lineIndex, Consumer<PlaybackLoadException> diagnostics) {
+		if (comment.indexOf('$') == -1) {
+			return;
+		}
+		Matcher matcher = extract("\\$(.+?)\\((.*?)\\);", comment);
+		while (matcher.find()) {
+			String name = matcher.group(1);
+			if (!contains("^\\w+$", name)) {
+				diagnostics.accept(new PlaybackLoadException(lineIndex, currentTick, 0, "The file command name %s is invalid", name));
+			}
+		}
+		String remaining = matcher.replaceAll("");
+		Matcher malformed = extract("\\$[A-Za-z_]\\w*.*", remaining);
+		if (malformed.find()) {
+			diagnostics.accept(new PlaybackLoadException(lineIndex, currentTick, 0, "The file command is malformed and is read as a comment: %s", malformed.group().trim()));
+		}
+	}
+
+	/**
+	 * @param line  A tick or subtick line
+	 * @param start The index of the first digit
+	 * @return The number at the start of the line, or -1 if it is too large
+	 */
+	private long readLineNumber(String line, int start) {
+		try {
+			return Long.parseLong(line.substring(start, line.indexOf(getSeparator())));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * <p>Deserialises the input part of the TASfile from the input stream.
+	 * 
+	 * <p>By default, the stream is read as UTF-8 encoded lines, like in {@link #deserialise(TASfileLineReader)}.<br>
+	 * {@link #isBinary() Binary flavors} override this to read their own data.
+	 * 
+	 * @param in The stream, positioned after the header of the TASfile. Is not closed
+	 * @return A list of {@link TickContainer}
+	 * @throws IOException If reading from the stream fails
+	 */
+	public BigArrayList<TickContainer> deserialise(InputStream in) throws IOException {
+		return deserialise(new TASfileLineReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))));
+	}
+
+	/**
+	 * <p>Deserialises the input part of the TASfile on multiple threads.
+	 * 
+	 * <p>The ticks are extracted from the reader on the calling thread and are grouped into chunks of {@link #PARALLEL_CHUNK_SIZE} ticks.<br>
+	 * Each chunk is deserialised on the pool by a {@link #clone() copy} of this flavor.
+	 * 
+	 * <p>Ticks at the start of a chunk that {@link #dependsOnPreviousTick(List) depend on the previous tick} can't be deserialised in parallel,<br>
+	 * as the last tick of the previous chunk is not known yet. These are deserialised afterwards, when the chunks are committed in order.<br>
+	 * The file commands are also passed to the extensions while committing, so the extensions receive them in tick order.
+	 * 
+	 * <p>The result is the same as {@link #deserialise(TASfileLineReader)}
+	 * 
+	 * @param reader The reader, positioned after the header of the TASfile
+	 * @param pool   The pool to deserialise the chunks on
+	 * @return A list of {@link TickContainer}
+	 */
+	public BigArrayList<TickContainer> deserialiseParallel(TASfileLineReader reader, ForkJoinPool pool) {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+		Deque<ForkJoinTask<DeserialiseChunk>> inFlight = new ArrayDeque<>();
+		int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+
+		long nextTick = currentTick;
+		try {
+			while (reader.hasNext()) {
+				DeserialiseChunk chunk = new DeserialiseChunk(nextTick);
+				try {
+					while (chunk.size() < PARALLEL_CHUNK_SIZE && reader.hasNext()) {
+						List<String> container = new ArrayList<>();
+						currentTick = nextTick;
+						extractContainer(container, reader);
+						chunk.add(container, reader.getLineIndex() - 1);
+						nextTick++;
+					}
+				} catch (PlaybackLoadException e) {
+					// Report errors in the ticks before this one first, like the sequential deserialisation does
+					if (chunk.size() != 0) {
+						inFlight.add(pool.submit(() -> deserialiseChunk(chunk)));
+					}
+					while (!inFlight.isEmpty()) {
+						commitChunk(out, joinChunk(inFlight.poll()));
+					}
+					throw e;
+				}
+
+				inFlight.add(pool.submit(() -> deserialiseChunk(chunk)));
 
-			if (matcher.find()) {
-				return true;
+				if (inFlight.size() >= maxInFlight) {
+					commitChunk(out, joinChunk(inFlight.poll()));
+				}
+			}
+
+			while (!inFlight.isEmpty()) {
+				commitChunk(out, joinChunk(inFlight.poll()));
 			}
+		} finally {
+			for (ForkJoinTask<DeserialiseChunk> task : inFlight) {
+				task.cancel(true);
+			}
+			currentTick = nextTick;
+			previousTickContainer = null;
 		}
-		return false;
+		return out;
 	}
 
-	public void deserialiseHeader(List<String> headerLines) {
-		deserialiseMetadata(headerLines);
-		deserialiseFileCommandNames(headerLines);
-	}
+	/**
+	 * The amount of ticks in one chunk of {@link #deserialiseParallel(TASfileLineReader, ForkJoinPool)}
+	 */
+	public static final int PARALLEL_CHUNK_SIZE = 2048;
 
-	public List<String> extractHeader(BigArrayList<String> lines) {
-		List<String> extracted = new ArrayList<>();
+	/**
+	 * Deserialises the ticks of a chunk on a copy of this flavor,<br>
+	 * except the ticks at the start that depend on the previous chunk
+	 * 
+	 * @param chunk The chunk to deserialise
+	 * @return The chunk
+	 */
+	private DeserialiseChunk deserialiseChunk(DeserialiseChunk chunk) {
+		SerialiserFlavorBase worker = clone();
+		worker.processExtensions = processExtensions;
+		worker.keepFileCommands = keepFileCommands;
+
+		int start = 0;
+		while (start < chunk.size() && worker.dependsOnPreviousTick(chunk.lines.get(start))) {
+			start++;
+		}
+		chunk.dependentTicks = start;
+
+		for (int i = start; i < chunk.size(); i++) {
+			try {
+				chunk.deserialise(worker, i);
+			} catch (RuntimeException e) {
+				// Thrown when the chunk is committed, after the ticks before this one
+				chunk.error = e;
+				chunk.errorIndex = i;
+				break;
+			}
+		}
+		return chunk;
+	}
 
-		long maxExtract = 1000;
+	/**
+	 * Deserialises the remaining ticks of a chunk,<br>
+	 * then passes the file commands to the extensions and adds the ticks to the list
+	 * 
+	 * @param out   The list to add the ticks to
+	 * @param chunk The chunk to commit
+	 */
+	private void commitChunk(BigArrayList<TickContainer> out, DeserialiseChunk chunk) {
+		for (int i = 0; i < chunk.size(); i++) {
+			if (i == chunk.errorIndex) {
+				throw chunk.error;
+			}
+			if (i < chunk.dependentTicks) {
+				chunk.deserialise(this, i);
+			}
 
-		maxExtract = lines.size() < maxExtract ? lines.size() : maxExtract;
+			currentTick = chunk.startTick + i;
+			currentLine = chunk.lineNumbers[i];
 
-		for (long i = 0; i < maxExtract; i++) {
-			String line = lines.get(i);
-			extracted.add(line);
+			TickContainer deserialisedContainer = chunk.containers[i];
+			if (processExtensions) {
+				passFileCommands(currentTick, deserialisedContainer, chunk.inlineFileCommands.get(i), chunk.endlineFileCommands.get(i));
+			}
 
-			if (line.equals(headerEnd()))
-				return extracted;
+			previousTickContainer = deserialisedContainer;
+			out.add(deserialisedContainer);
 		}
-		throw new PlaybackLoadException("Cannot find the end of the header");
 	}
 
-	protected void deserialiseFileCommandNames(List<String> headerLines) {
-		if (!processExtensions) // Stops FileCommandProcessing
-			return;
+	private DeserialiseChunk joinChunk(ForkJoinTask<DeserialiseChunk> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PlaybackLoadException(e, "Interrupted while deserialising the TASfile");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new PlaybackLoadException(cause, "Failed to deserialise the TASfile");
+		}
+	}
 
-		for (String line : headerLines) {
-			Matcher matcher = extract("FileCommand-Extensions: ?(.*)", line);
+	/**
+	 * A group of consecutive ticks that is deserialised in one task
+	 */
+	private static class DeserialiseChunk {
 
-			if (matcher.find()) {
+		/**
+		 * The tick number of the first tick in this chunk
+		 */
+		private final long startTick;
 
-				if (!processExtensions)
-					return;
+		/**
+		 * The extracted lines of each tick. Set to null after the tick was deserialised
+		 */
+		private final List<List<String>> lines = new ArrayList<>();
 
-				String extensionStrings = matcher.group(1);
-				String[] extensionNames = extensionStrings.split(", ?");
+		private final long[] lineNumbers = new long[PARALLEL_CHUNK_SIZE];
 
-				TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(Arrays.asList(extensionNames));
-				return;
-			}
-		}
-		throw new PlaybackLoadException("FileCommand-Extensions value was not found in the header");
-	}
+		private final TickContainer[] containers = new TickContainer[PARALLEL_CHUNK_SIZE];
 
-	protected void deserialiseMetadata(List<String> headerLines) {
-		if (!processExtensions)
-			return;
+		private final List<List<List<PlaybackFileCommand>>> inlineFileCommands = new ArrayList<>();
 
-		List<PlaybackMetadata> out = new ArrayList<>();
+		private final List<List<List<PlaybackFileCommand>>> endlineFileCommands = new ArrayList<>();
 
-		String metadataName = null;
-		LinkedHashMap<String, String> values = new LinkedHashMap<>();
+		/**
+		 * The amount of ticks at the start of the chunk that depend on the last tick of the previous chunk
+		 */
+		private int dependentTicks = 0;
 
-		for (String headerLine : headerLines) {
+		/**
+		 * The error that occurred while deserialising the tick at {@link #errorIndex}
+		 */
+		private RuntimeException error = null;
 
-			Matcher nameMatcher = extract("^-+ ([^-]+)", headerLine); // If the line starts with ###, an optional space char after and then capture the name 
-			Matcher valueMatcher = extract("^([^#].*?):\\s*(.+)", headerLine); // If the line doesn't start with a #, then the key of the metadata, then a : then any or no number of whitespace chars, then the value of the metadata
+		private int errorIndex = -1;
 
-			if (nameMatcher.find()) {
+		private DeserialiseChunk(long startTick) {
+			this.startTick = startTick;
+		}
 
-				if (metadataName != null && !metadataName.equals(nameMatcher.group(1))) { // If metadataName is null, then the first section begins
-																							// If metadataName is different than the newMetadataName,
-																							// then a new section begins and we first need to store the old.
-					out.add(PlaybackMetadata.fromHashMap(metadataName, values));
-					values.clear();
-				}
-				metadataName = nameMatcher.group(1).trim();
-				continue;
+		private void add(List<String> tickLines, long lineNumber) {
+			lineNumbers[lines.size()] = lineNumber;
+			lines.add(tickLines);
+			inlineFileCommands.add(null);
+			endlineFileCommands.add(null);
+		}
 
-			} else if (metadataName != null && valueMatcher.find()) {
-				values.put(valueMatcher.group(1).trim(), valueMatcher.group(2).trim());
-			}
+		private int size() {
+			return lines.size();
 		}
 
-		if (metadataName != null)
-			out.add(PlaybackMetadata.fromHashMap(metadataName, values));
+		/**
+		 * Deserialises one tick of this chunk with the flavor.<br>
+		 * Uses the {@link SerialiserFlavorBase#previousTickContainer} of the flavor and sets it to the deserialised tick afterwards
+		 * 
+		 * @param flavor The flavor to deserialise with
+		 * @param index  The index of the tick in this chunk
+		 */
+		private void deserialise(SerialiserFlavorBase flavor, int index) {
+			flavor.currentTick = startTick + index;
+			flavor.currentLine = lineNumbers[index];
 
-		TASmodAPIRegistry.PLAYBACK_METADATA.handleOnLoad(out);
-	}
+			List<List<PlaybackFileCommand>> inline = new ArrayList<>();
+			List<List<PlaybackFileCommand>> endline = new ArrayList<>();
 
-	/**
-	 * Deserialises the input part of the TASfile
-	 * 
-	 * @param lines    The serialised lines of the TASfile
-	 * @param startPos The position when the header ends and the inputs start
-	 * @return A list of {@link TickContainer}
-	 */
-	public BigArrayList<TickContainer> deserialise(BigArrayList<String> lines, long startPos) {
-		BigArrayList<TickContainer> out = new BigArrayList<>();
-		for (long i = startPos; i < lines.size(); i++) {
-			List<String> container = new ArrayList<>();
-			// Extract the tick and set the index
-			i = extractContainer(container, lines, i);
-			currentLine = i;
-			// Extract container
-			deserialiseContainer(out, container);
-			currentTick++;
+			TickContainer container = flavor.deserialiseContainer(lines.get(index), inline, endline);
+
+			containers[index] = container;
+			inlineFileCommands.set(index, inline);
+			endlineFileCommands.set(index, endline);
+			lines.set(index, null);
+
+			flavor.previousTickContainer = container;
 		}
-		previousTickContainer = null;
-		return out;
 	}
 
 	protected enum ExtractPhases {
@@ -557,75 +1691,200 @@ protected enum ExtractPhases {
 	 * @return The updated index for the next tick
 	 */
 	protected long extractContainer(List<String> extracted, BigArrayList<String> lines, long startPos) {
-		ExtractPhases phase = ExtractPhases.NONE;
+		TASfileLineReader reader = new TASfileLineReader(lines, startPos);
+		extractContainer(extracted, reader);
+		return reader.getLineIndex() - 1;
+	}
 
-		String commentRegex = "^//";
-		String tickRegex = "^\\d+\\|";
-		String subtickRegex = "^\t\\d+\\|";
+	/**
+	 * Extracts the lines of one container from the reader, as described in {@link #extractContainer(List, BigArrayList, long)}.<br>
+	 * <br>
+	 * The line that ends the container is only peeked and not consumed,<br>
+	 * so the reader is positioned at the start of the next container afterwards.
+	 * 
+	 * @param extracted The extracted lines, passed in by reference
+	 * @param reader    The reader to extract the lines from
+	 */
+	protected void extractContainer(List<String> extracted, TASfileLineReader reader) {
+		ExtractPhases phase = ExtractPhases.NONE;
 
-		long counter = 0L;
-		for (long i = startPos; i < lines.size(); i++) {
-			String line = lines.get(i);
+		String line;
+		while ((line = reader.peek()) != null) {
+			long lineNumber = reader.getLineIndex() + 1;
+			LineType type = classifyLine(line);
 
 			switch (phase) {
 				case NONE:
-					if (contains(subtickRegex, line)) { // Subtick
-						throw new PlaybackLoadException(startPos + counter + 1, currentTick, currentSubtick, "Error while trying to parse the file. This should not be a subtick at this position");
+					if (type == LineType.SUBTICK) {
+						throw new PlaybackLoadException(lineNumber, currentTick, currentSubtick, "Error while trying to parse the file. This should not be a subtick at this position");
 					}
 
-					if (contains(commentRegex, line) || line.isEmpty()) { // Comment
+					if (type == LineType.COMMENT || type == LineType.EMPTY) {
 						phase = ExtractPhases.COMMENTS;
-					} else if (contains(tickRegex, line)) { // Tick
+					} else if (type == LineType.TICK) {
 						phase = ExtractPhases.TICK;
 					}
 
 					break;
 				case COMMENTS:
-					if (contains(subtickRegex, line)) { // Subtick
-						throw new PlaybackLoadException(startPos + counter + 1, currentTick, currentSubtick, "Error while trying to parse the file. This should not be a subtick at this position");
+					if (type == LineType.SUBTICK) {
+						throw new PlaybackLoadException(lineNumber, currentTick, currentSubtick, "Error while trying to parse the file. This should not be a subtick at this position");
 					}
 
-					if (contains(tickRegex, line)) { // Tick
+					if (type == LineType.TICK) {
 						phase = ExtractPhases.TICK;
 					}
 
 					break;
 				case TICK:
-					if (contains(subtickRegex, line)) { // Subtick
+					if (type == LineType.SUBTICK) {
 						phase = ExtractPhases.SUBTICK;
 					}
 
-					if (contains(commentRegex, line) || contains(tickRegex, line) || line.isEmpty()) { // Comment
-						return startPos + counter - 1;
+					if (type == LineType.COMMENT || type == LineType.TICK || type == LineType.EMPTY) {
+						return;
 					}
 
 					break;
 				case SUBTICK:
-					if (contains(commentRegex, line) || contains(tickRegex, line) || line.isEmpty()) { // Comment
-						return startPos + counter - 1;
+					if (type == LineType.COMMENT || type == LineType.TICK || type == LineType.EMPTY) {
+						return;
 					}
 					break;
 			}
+			reader.next();
 			if (phase != ExtractPhases.NONE) {
 				extracted.add(line);
 			}
-			counter++;
 		}
-		return startPos + counter - 1;
+	}
+
+	/**
+	 * The type of a line in the TASfile, as determined by {@link SerialiserFlavorBase#classifyLine(String)}
+	 */
+	protected enum LineType {
+		/**
+		 * Matches the {@link SerialiserFlavorBase#singleComment() singleComment}, by default starts with //
+		 */
+		COMMENT,
+		/**
+		 * Starts with a number, then the {@link SerialiserFlavorBase#columnSeparator() columnSeparator}, by default |
+		 */
+		TICK,
+		/**
+		 * Starts with a tabulator, a number, then the {@link SerialiserFlavorBase#columnSeparator() columnSeparator}
+		 */
+		SUBTICK,
+		/**
+		 * Has no characters
+		 */
+		EMPTY,
+		/**
+		 * Everything else
+		 */
+		OTHER;
+	}
+
+	/**
+	 * <p>Determines the {@link LineType} of a line by looking at the first characters.
+	 * 
+	 * <p>This is called for every line of the TASfile, which is why it doesn't use regexes for the default syntax.<br>
+	 * Comments are detected with the {@link #singleComment()} and ticks with the {@link #columnSeparator()} of the flavor.<br>
+	 * Flavors that change the syntax of ticks further should override this method.
+	 * 
+	 * @param line The line to classify
+	 * @return The type of the line
+	 */
+	protected LineType classifyLine(String line) {
+		int length = line.length();
+		if (length == 0) {
+			return LineType.EMPTY;
+		}
+
+		if (isSingleComment(line)) {
+			return LineType.COMMENT;
+		}
+
+		char first = line.charAt(0);
+
+		LineType type = LineType.TICK;
+		int index = 0;
+		if (first == '\t') {
+			type = LineType.SUBTICK;
+			index = 1;
+		}
+
+		int digitStart = index;
+		while (index < length && isDigit(line.charAt(index))) {
+			index++;
+		}
+
+		if (index == digitStart || index == length || line.charAt(index) != getSeparator()) {
+			return LineType.OTHER;
+		}
+		return type;
+	}
+
+	/**
+	 * @param line The line to check
+	 * @return If the line matches the {@link #singleComment()} regex
+	 */
+	private boolean isSingleComment(String line) {
+		if (!singleCommentResolved) {
+			String regex = singleComment();
+			singleCommentPattern = DEFAULT_SINGLE_COMMENT.equals(regex) ? null : Pattern.compile(regex, Pattern.MULTILINE);
+			singleCommentResolved = true;
+		}
+		if (singleCommentPattern == null) {
+			return line.startsWith("//");
+		}
+		return singleCommentPattern.matcher(line).find();
+	}
+
+	private char getSeparator() {
+		if (separator == 0) {
+			separator = columnSeparator();
+		}
+		return separator;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
 	}
 
 	protected void deserialiseContainer(BigArrayList<TickContainer> out, List<String> containerLines) {
+		List<List<PlaybackFileCommand>> inlineFileCommands = new ArrayList<>();
+		List<List<PlaybackFileCommand>> endlineFileCommands = new ArrayList<>();
+
+		TickContainer deserialisedContainer = deserialiseContainer(containerLines, inlineFileCommands, endlineFileCommands);
+
+		if (processExtensions) {
+			passFileCommands(currentTick, deserialisedContainer, inlineFileCommands, endlineFileCommands);
+		}
+
+		previousTickContainer = deserialisedContainer;
+
+		out.add(deserialisedContainer);
+	}
+
+	/**
+	 * Deserialises the lines of one container, without passing the file commands to the extensions
+	 * 
+	 * @param containerLines      The lines of the container
+	 * @param inlineFileCommands  The file commands in the inline comments, passed in by reference
+	 * @param endlineFileCommands The file commands in the endline comments, passed in by reference
+	 * @return The deserialised container
+	 */
+	protected TickContainer deserialiseContainer(List<String> containerLines, List<List<PlaybackFileCommand>> inlineFileCommands, List<List<PlaybackFileCommand>> endlineFileCommands) {
 
 		List<String> inlineComments = new ArrayList<>();
 		List<String> tickLines = new ArrayList<>();
-		List<List<PlaybackFileCommand>> inlineFileCommands = new ArrayList<>();
 		splitContainer(containerLines, inlineComments, tickLines, inlineFileCommands);
 
 		List<String> keyboardStrings = new ArrayList<>();
 		List<String> mouseStrings = new ArrayList<>();
 		List<String> cameraAngleStrings = new ArrayList<>();
 		List<String> endlineComments = new ArrayList<>();
-		List<List<PlaybackFileCommand>> endlineFileCommands = new ArrayList<>();
 
 		splitInputs(containerLines, keyboardStrings, mouseStrings, cameraAngleStrings, endlineComments, endlineFileCommands);
 
@@ -636,16 +1895,55 @@ protected void deserialiseContainer(BigArrayList<TickContainer> out, List<String
 		VirtualCameraAngle cameraAngle = deserialiseCameraAngle(cameraAngleStrings);
 		CommentContainer comments = new CommentContainer(inlineComments, endlineComments);
 
-		TickContainer deserialisedContainer = new TickContainer(keyboard, mouse, cameraAngle, comments);
+		return new TickContainer(keyboard, mouse, cameraAngle, comments);
+	}
 
-		if (processExtensions) {
-			TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnDeserialiseInline(currentTick, deserialisedContainer, inlineFileCommands);
-			TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.handleOnDeserialiseEndline(currentTick, deserialisedContainer, endlineFileCommands);
-		}
+	/**
+	 * <p>Checks if deserialising the container needs the {@link #previousTickContainer}.
+	 * 
+	 * <p>This is the case if
+	 * <ul>
+	 * <li>the first mouse of the tick has relative cursor values (~)</li>
+	 * <li>a camera angle has relative values, as these always refer to the previous tick</li>
+	 * <li>a camera angle is empty before the first camera angle of the tick, which is then filled in with the previous camera angle</li>
+	 * </ul>
+	 * 
+	 * @param containerLines The lines of the container
+	 * @return True if the container can't be deserialised without the previous tick
+	 */
+	public boolean dependsOnPreviousTick(List<String> containerLines) {
+		boolean hasMouse = false;
+		boolean hasCamera = false;
 
-		previousTickContainer = deserialisedContainer;
+		for (String line : containerLines) {
+			int[] columns = splitColumns(line);
+			if (columns == null) {
+				continue;
+			}
+			int mouseStart = columns[1];
+			int cameraStart = columns[2];
+			int cameraEnd = columns[3];
+
+			if (!hasMouse && cameraStart - 1 > mouseStart) {
+				hasMouse = true;
+				if (line.lastIndexOf('~', cameraStart - 1) >= mouseStart) {
+					return true;
+				}
+			}
 
-		out.add(deserialisedContainer);
+			if (cameraEnd == cameraStart) {
+				if (!hasCamera) {
+					return true;
+				}
+			} else {
+				hasCamera = true;
+				int relative = line.indexOf('~', cameraStart);
+				if (relative != -1 && relative < cameraEnd) {
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -655,7 +1953,7 @@ protected void deserialiseContainer(BigArrayList<TickContainer> out, List<String
 	 */
 	protected void splitContainer(List<String> lines, List<String> comments, List<String> tick, List<List<PlaybackFileCommand>> inlineFileCommands) {
 		for (String line : lines) {
-			if (contains(singleComment(), line)) {
+			if (classifyLine(line) == LineType.COMMENT) {
 				List<PlaybackFileCommand> deserialisedFileCommand = new ArrayList<>();
 				comments.add(deserialiseInlineComment(line, deserialisedFileCommand));
 				if (deserialisedFileCommand.isEmpty()) {
@@ -685,14 +1983,26 @@ protected String deserialiseEndlineComment(String comment, List<PlaybackFileComm
 	}
 
 	protected String deserialiseFileCommands(String comment, List<PlaybackFileCommand> deserialisedFileCommands) {
+		if (!processExtensions && keepFileCommands) {
+			return comment;
+		}
+		return readFileCommands(comment, processExtensions ? deserialisedFileCommands : new ArrayList<>());
+	}
 
+	/**
+	 * Reads the {@link PlaybackFileCommand PlaybackFileCommands} from a comment, without passing them to the extensions
+	 * 
+	 * @param comment      The comment to read
+	 * @param fileCommands The list to add the file commands of the comment to
+	 * @return The comment without the file commands
+	 */
+	public String readFileCommands(String comment, List<PlaybackFileCommand> fileCommands) {
 		Matcher matcher = extract("\\$(.+?)\\((.*?)\\);", comment);
 		while (matcher.find()) {
 			String name = matcher.group(1);
 			String[] args = matcher.group(2).split(", ?");
 
-			if (processExtensions)
-				deserialisedFileCommands.add(new PlaybackFileCommand(name, args));
+			fileCommands.add(new PlaybackFileCommand(name, args));
 
 			comment = matcher.replaceFirst("");
 			matcher.reset(comment);
@@ -821,24 +2131,27 @@ protected int[] deserialiseVirtualMouseKey(String[] keyString) {
 
 	protected int deserialiseVirtualKey(String key, VirtualKey defaultKey, WrongKeyCheck keyValidator) {
 
-		Integer vkey = null;
+		int vkey;
 		/* If no key is pressed, then a zero key will be used for the state.
 		 * This zero key is either VirtualKey.ZERO on a keyboard or VirtualKey.MOUSEMOVED on a mouse,
 		 * hence the parameter */
 		if (key.isEmpty()) {
 			vkey = defaultKey.getKeycode();
-		}
-		/* Instead of keynames such as W, A, S, KEY_1, NUMPAD3 you can also write the numerical keycodes
-		 * into the tasfile, e.g. 17, 30, 31, 2, 81. This enables TASmod to support every current and future
-		 * keycodes, even if no name was given to the key in VirtualKey.*/
-		else if (isNumeric(key)) {
-			vkey = Integer.parseInt(key);
 		} else {
-			vkey = VirtualKey.getKeycode(key);
-		}
-
-		if (vkey == null) {
-			throw new PlaybackLoadException(currentLine, currentTick, currentSubtick, "The keycode %s does not exist", key);
+			/* Keynames are looked up first, as no keyname is numeric
+			 * and the lookup is cheaper than matching the number pattern */
+			VirtualKey virtualKey = VirtualKey.get(key);
+			if (virtualKey != null) {
+				vkey = virtualKey.getKeycode();
+			}
+			/* Instead of keynames such as W, A, S, KEY_1, NUMPAD3 you can also write the numerical keycodes
+			 * into the tasfile, e.g. 17, 30, 31, 2, 81. This enables TASmod to support every current and future
+			 * keycodes, even if no name was given to the key in VirtualKey.*/
+			else if (isNumeric(key)) {
+				vkey = Integer.parseInt(key);
+			} else {
+				throw new PlaybackLoadException(currentLine, currentTick, currentSubtick, "The keycode %s does not exist", key);
+			}
 		}
 
 		keyValidator.checkKey(vkey);
@@ -912,39 +2225,90 @@ protected void splitInputs(List<String> lines, List<String> serialisedKeyboard,
 		}
 
 		for (String line : lines) {
-			Matcher tickMatcher = extract("^\\t?\\d+\\|(.*?)\\|(.*?)\\|(\\S*)\\s?", line);
+			int[] columns = splitColumns(line);
+			if (columns == null) {
+				continue;
+			}
+			int keyboardStart = columns[0];
+			int mouseStart = columns[1];
+			int cameraStart = columns[2];
+			int cameraEnd = columns[3];
+			int commentStart = cameraEnd < line.length() ? cameraEnd + 1 : cameraEnd;
+
+			if (mouseStart - 1 > keyboardStart) {
+				serialisedKeyboard.add(line.substring(keyboardStart, mouseStart - 1));
+			}
+			if (cameraStart - 1 > mouseStart) {
+				serialisedMouse.add(line.substring(mouseStart, cameraStart - 1));
+			}
 
-			if (tickMatcher.find()) {
-				if (!tickMatcher.group(1).isEmpty()) {
-					serialisedKeyboard.add(tickMatcher.group(1));
-				}
-				if (!tickMatcher.group(2).isEmpty()) {
-					serialisedMouse.add(tickMatcher.group(2));
-				}
+			if (cameraEnd > cameraStart) {
+				previousCamera = line.substring(cameraStart, cameraEnd);
+				serialisedCameraAngle.add(previousCamera);
+			} else {
+				if (previousCamera != null)
+					serialisedCameraAngle.add(previousCamera);
+			}
 
-				if (!tickMatcher.group(3).isEmpty()) {
-					serialisedCameraAngle.add(tickMatcher.group(3));
-					previousCamera = tickMatcher.group(3);
-				} else {
-					if (previousCamera != null)
-						serialisedCameraAngle.add(previousCamera);
-				}
+			List<PlaybackFileCommand> deserialisedFileCommands = new ArrayList<>();
 
-				List<PlaybackFileCommand> deserialisedFileCommands = new ArrayList<>();
+			// The tabs in front of the endline comment are not part of the comment
+			String endlineComment = line.substring(commentStart).trim();
+			commentsAtEnd.add(deserialiseEndlineComment(endlineComment, deserialisedFileCommands));
 
-				String endlineComment = line.substring(tickMatcher.group(0).length());
-				commentsAtEnd.add(deserialiseEndlineComment(endlineComment, deserialisedFileCommands));
+			if (deserialisedFileCommands.isEmpty())
+				deserialisedFileCommands = null;
 
-				if (deserialisedFileCommands.isEmpty())
-					deserialisedFileCommands = null;
+			endlineFileCommands.add(deserialisedFileCommands);
+		}
+	}
 
-				endlineFileCommands.add(deserialisedFileCommands);
-			}
+	/**
+	 * Finds the columns of a tick or subtick line
+	 * 
+	 * <pre>
+	 * 57|W,LCONTROL;w|;0,887,626|17.85;-202.74799		// Comment
+	 *    ^            ^           ^                ^
+	 *    keyboard     mouse       camera           camera end
+	 * </pre>
+	 * 
+	 * @param line The line to split
+	 * @return The start of the keyboard, mouse and camera columns and the end of the camera column,<br>
+	 *         or null if the line is not a tick or subtick line
+	 */
+	private int[] splitColumns(String line) {
+		LineType type = classifyLine(line);
+		if (type != LineType.TICK && type != LineType.SUBTICK) {
+			return null;
+		}
+
+		char separator = getSeparator();
+		int keyboardStart = line.indexOf(separator) + 1;
+		int mouseStart = line.indexOf(separator, keyboardStart) + 1;
+		if (mouseStart == 0) {
+			return null;
+		}
+		int cameraStart = line.indexOf(separator, mouseStart) + 1;
+		if (cameraStart == 0) {
+			return null;
+		}
+		int cameraEnd = cameraStart;
+		while (cameraEnd < line.length() && !isWhitespace(line.charAt(cameraEnd))) {
+			cameraEnd++;
 		}
+		return new int[] { keyboardStart, mouseStart, cameraStart, cameraEnd };
+	}
+
+	/**
+	 * @param c The char to check
+	 * @return True if the char is matched by the regex \s
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
 	}
 
 	protected Matcher extract(String regex, String haystack) {
-		Pattern pattern = Pattern.compile(regex, Pattern.MULTILINE);
+		Pattern pattern = patternCache.computeIfAbsent(regex, key -> Pattern.compile(key, Pattern.MULTILINE));
 		Matcher matcher = pattern.matcher(haystack);
 
 		return matcher;
@@ -963,11 +2327,11 @@ protected boolean contains(String regex, String haystack) {
 	}
 
 	protected boolean isNumeric(String string) {
-		return Pattern.matches("-?\\d+", string);
+		return NUMERIC.matcher(string).matches();
 	}
 
 	protected boolean isFloat(String string) {
-		return Pattern.matches("-?\\d+(?:\\.\\d+)?", string);
+		return FLOAT.matcher(string).matches();
 	}
 
 	/**
@@ -1085,4 +2449,32 @@ public boolean equals(Object obj) {
 	public void setProcessExtensions(boolean processExtensions) {
 		this.processExtensions = processExtensions;
 	}
+
+	/**
+	 * @param keepFileCommands If {@link PlaybackFileCommand PlaybackFileCommands} should be kept in the comments as text, while {@link #processExtensions} is false
+	 */
+	public void setKeepFileCommands(boolean keepFileCommands) {
+		this.keepFileCommands = keepFileCommands;
+	}
+
+	/**
+	 * @param extensionBuffer The buffer that the extension data is added to while deserialising, or null to pass it to the extensions directly
+	 */
+	public void setExtensionBuffer(TASfileExtensionBuffer extensionBuffer) {
+		this.extensionBuffer = extensionBuffer;
+	}
+
+	/**
+	 * @param fileCommandCapture The file commands to serialise, or null to take them from the extensions
+	 */
+	public void setFileCommandCapture(TASfileCommandCapture fileCommandCapture) {
+		this.fileCommandCapture = fileCommandCapture;
+	}
+
+	/**
+	 * @return The file commands that are serialised, or null if they are taken from the extensions
+	 */
+	public TASfileCommandCapture getFileCommandCapture() {
+		return fileCommandCapture;
+	}
 }
@@ -0,0 +1,673 @@
+package com.minecrafttas.tasmod.playback.tasfile.flavor.integrated;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>A flavor that stores the ticks as binary data after the regular text header.
+ *
+ * <p>Compared to {@link Beta1Flavor}:
+ * <ul>
+ * <li>Keycodes are stored as varints instead of key names</li>
+ * <li>The pressed keys of a subtick are stored as the difference to the previous subtick</li>
+ * <li>Cursor positions are stored as the difference to the previous cursor position</li>
+ * <li>Camera angles are stored as raw floats</li>
+ * <li>Comments and file command names are stored once and referenced afterwards</li>
+ * </ul>
+ *
+ * <p>Unlike the text flavors, every subtick is stored, including empty subticks at the end and repeated camera angles,<br>
+ * so the ticks are loaded exactly like they were saved. A file converted from {@link Beta1Flavor} loads into the same ticks.
+ *
+ * <p>File commands are stored separately from the comments. If they are {@link #setKeepFileCommands(boolean) kept in the comments} as text,<br>
+ * they are taken out of the comments when saving and added to the start of the comments again when loading.
+ *
+ * <h2>Layout</h2>
+ *
+ * <pre>
+ * Header (text)
+ * Version
+ * Tick marker, Tick
+ * Tick marker, Tick
+ * ...
+ * End marker
+ * </pre>
+ *
+ * @author Scribble
+ */
+public class BinaryFlavor extends SerialiserFlavorBase {
+
+	/**
+	 * The version of the binary layout after the header
+	 */
+	private static final int VERSION = 1;
+
+	private static final int TICK_MARKER = 1;
+
+	private static final int END_MARKER = 0;
+
+	private static final int CAMERA_YAW = 1;
+
+	private static final int CAMERA_PITCH = 2;
+
+	private static final int CAMERA_REPEAT = 4;
+
+	@Override
+	public String getExtensionName() {
+		return "binary1";
+	}
+
+	@Override
+	public boolean isBinary() {
+		return true;
+	}
+
+	/*==============================================
+		   _____           _       _ _
+		  / ____|         (_)     | (_)
+		 | (___   ___ _ __ _  __ _| |_ ___  ___
+		  \___ \ / _ \ '__| |/ _` | | / __|/ _ \
+		  ____) |  __/ |  | | (_| | | \__ \  __/
+		 |_____/ \___|_|  |_|\__,_|_|_|___/\___|
+
+	  ==============================================*/
+
+	@Override
+	public void serialise(TickStore inputs, long toTick, OutputStream outStream) throws IOException {
+		BinaryWriter out = new BinaryWriter(outStream);
+		out.writeVarInt(VERSION);
+
+		for (long i = 0; i < inputs.size(); i++) {
+			if (toTick == i) {
+				break;
+			}
+			currentTick = i;
+			TickContainer container = inputs.get(i);
+
+			out.writeVarInt(TICK_MARKER);
+			serialiseContainer(out, container);
+			previousTickContainer = container;
+		}
+		out.writeVarInt(END_MARKER);
+		out.flush();
+	}
+
+	protected void serialiseContainer(BinaryWriter out, TickContainer container) throws IOException {
+		// Keyboard
+		List<VirtualKeyboard> keyboardSubticks = container.getKeyboard().getAll();
+
+		out.writeVarInt(keyboardSubticks.size());
+		for (VirtualKeyboard subtick : keyboardSubticks) {
+			out.writeKeys(out.previousKeyboard, new ArrayList<>(subtick.getPressedKeys()));
+			List<Character> chars = subtick.getCharList();
+			out.writeVarInt(chars.size());
+			for (char c : chars) {
+				out.writeVarInt(c);
+			}
+		}
+
+		// Mouse
+		List<VirtualMouse> mouseSubticks = container.getMouse().getAll();
+
+		out.writeVarInt(mouseSubticks.size());
+		for (VirtualMouse subtick : mouseSubticks) {
+			out.writeKeys(out.previousMouse, new ArrayList<>(subtick.getPressedKeys()));
+			out.writeSignedVarInt(subtick.getScrollWheel());
+			out.writeSignedVarInt(subtick.getCursorX() - out.previousCursorX);
+			out.writeSignedVarInt(subtick.getCursorY() - out.previousCursorY);
+			out.previousCursorX = subtick.getCursorX();
+			out.previousCursorY = subtick.getCursorY();
+		}
+
+		// Camera angle
+		List<VirtualCameraAngle> cameraSubticks = container.getCameraAngle().getAll();
+
+		out.writeVarInt(cameraSubticks.size());
+		for (VirtualCameraAngle subtick : cameraSubticks) {
+			out.writeCamera(subtick.getYaw(), subtick.getPitch());
+		}
+
+		// Comments
+		CommentContainer comments = container.getComments();
+		if (comments == null) {
+			comments = new CommentContainer();
+		}
+		List<String> inlineComments = comments.getInlineComments();
+		List<String> endlineComments = comments.getEndlineComments();
+
+		// File commands
+		List<List<PlaybackFileCommand>> fileCommandsInline;
+		List<List<PlaybackFileCommand>> fileCommandsEndline;
+		if (processExtensions) {
+			fileCommandsInline = getFileCommandsInline(container);
+			fileCommandsEndline = getFileCommandsEndline(container);
+		} else if (keepFileCommands) {
+			// The file commands are kept in the comments as text, but are stored separately, so they are passed to the extensions when loading
+			fileCommandsInline = new ArrayList<>();
+			fileCommandsEndline = new ArrayList<>();
+			inlineComments = splitFileCommands(inlineComments, fileCommandsInline);
+			endlineComments = splitFileCommands(endlineComments, fileCommandsEndline);
+		} else {
+			fileCommandsInline = new ArrayList<>();
+			fileCommandsEndline = new ArrayList<>();
+		}
+
+		out.writeStrings(inlineComments);
+		out.writeStrings(endlineComments);
+
+		out.writeFileCommands(fileCommandsInline);
+		out.writeFileCommands(fileCommandsEndline);
+	}
+
+	/**
+	 * Removes the {@link PlaybackFileCommand PlaybackFileCommands} from the comments, that were kept in the comments as text
+	 *
+	 * @param comments     The comments with the file commands. Can be null
+	 * @param fileCommands The list to add the file commands of each comment to, or null if a comment has no file commands
+	 * @return The comments without the file commands. Comments that only contained file commands are null
+	 */
+	private List<String> splitFileCommands(List<String> comments, List<List<PlaybackFileCommand>> fileCommands) {
+		if (comments == null) {
+			return null;
+		}
+		List<String> out = new ArrayList<>(comments.size());
+		for (String comment : comments) {
+			if (comment == null) {
+				out.add(null);
+				fileCommands.add(null);
+				continue;
+			}
+			List<PlaybackFileCommand> line = new ArrayList<>();
+			comment = readFileCommands(comment, line).trim();
+			out.add(comment.isEmpty() ? null : comment);
+			fileCommands.add(line.isEmpty() ? null : line);
+		}
+		return out;
+	}
+
+	/**
+	 * Adds the {@link PlaybackFileCommand PlaybackFileCommands} to the start of the comments as text,<br>
+	 * like they are written in the text flavors
+	 *
+	 * @param comments     The comments without the file commands
+	 * @param fileCommands The file commands of each comment
+	 * @return The comments with the file commands
+	 */
+	private List<String> joinFileCommands(List<String> comments, List<List<PlaybackFileCommand>> fileCommands) {
+		List<String> out = new ArrayList<>();
+		for (int i = 0; i < Math.max(comments.size(), fileCommands.size()); i++) {
+			String comment = i < comments.size() ? comments.get(i) : null;
+			List<PlaybackFileCommand> line = i < fileCommands.size() ? fileCommands.get(i) : null;
+			if (line == null) {
+				out.add(comment);
+				continue;
+			}
+			List<String> parts = new ArrayList<>();
+			for (PlaybackFileCommand command : line) {
+				parts.add(command.toString());
+			}
+			parts.add(comment);
+			out.add(joinNotEmpty(" ", parts));
+		}
+		return out;
+	}
+
+	/*==========================================================
+		  _____                      _       _ _
+		 |  __ \                    (_)     | (_)
+		 | |  | | ___  ___  ___ _ __ _  __ _| |_ ___  ___
+		 | |  | |/ _ \/ __|/ _ \ '__| |/ _` | | / __|/ _ \
+		 | |__| |  __/\__ \  __/ |  | | (_| | | \__ \  __/
+		 |_____/ \___||___/\___|_|  |_|\__,_|_|_|___/\___|
+
+	  ==========================================================*/
+
+	@Override
+	public BigArrayList<TickContainer> deserialise(InputStream inStream) throws IOException {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+		BinaryReader in = new BinaryReader(inStream);
+
+		try {
+			int version = in.readVarInt();
+			if (version != VERSION) {
+				throw new PlaybackLoadException("Unsupported version %s of the binary TASfile", version);
+			}
+
+			int marker;
+			while ((marker = in.readVarInt()) == TICK_MARKER) {
+				List<List<PlaybackFileCommand>> inlineFileCommands = new ArrayList<>();
+				List<List<PlaybackFileCommand>> endlineFileCommands = new ArrayList<>();
+
+				TickContainer deserialisedContainer = deserialiseContainer(in, inlineFileCommands, endlineFileCommands);
+
+				if (processExtensions) {
+					passFileCommands(currentTick, deserialisedContainer, inlineFileCommands, endlineFileCommands);
+				}
+
+				previousTickContainer = deserialisedContainer;
+				out.add(deserialisedContainer);
+				currentTick++;
+			}
+
+			if (marker != END_MARKER) {
+				throw new PlaybackLoadException(currentLine, currentTick, currentSubtick, "Unknown marker %s in the binary TASfile", marker);
+			}
+		} catch (EOFException e) {
+			throw new PlaybackLoadException(currentLine, currentTick, currentSubtick, e, "The binary TASfile ended unexpectedly");
+		}
+		previousTickContainer = null;
+		return out;
+	}
+
+	protected TickContainer deserialiseContainer(BinaryReader in, List<List<PlaybackFileCommand>> inlineFileCommands, List<List<PlaybackFileCommand>> endlineFileCommands) throws IOException {
+		// Keyboard
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		int keyboardSubticks = in.readVarInt();
+		for (currentSubtick = 0; currentSubtick < keyboardSubticks; currentSubtick++) {
+			int[] keycodes = in.readKeys(in.previousKeyboard);
+			char[] chars = new char[in.readVarInt()];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = (char) in.readVarInt();
+			}
+			keyboard.updateFromState(keycodes, chars);
+		}
+
+		// Mouse
+		VirtualMouse mouse = new VirtualMouse();
+		int mouseSubticks = in.readVarInt();
+		for (currentSubtick = 0; currentSubtick < mouseSubticks; currentSubtick++) {
+			int[] keycodes = in.readKeys(in.previousMouse);
+			int scrollWheel = in.readSignedVarInt();
+			in.previousCursorX += in.readSignedVarInt();
+			in.previousCursorY += in.readSignedVarInt();
+			mouse.updateFromState(keycodes, scrollWheel, in.previousCursorX, in.previousCursorY);
+		}
+
+		// Camera angle
+		VirtualCameraAngle cameraAngle = new VirtualCameraAngle();
+		int cameraSubticks = in.readVarInt();
+		for (currentSubtick = 0; currentSubtick < cameraSubticks; currentSubtick++) {
+			in.readCamera();
+			cameraAngle.updateFromState(in.previousPitch, in.previousYaw);
+		}
+		currentSubtick = 0;
+
+		// Comments
+		List<String> inlineComments = in.readStrings();
+		List<String> endlineComments = in.readStrings();
+
+		// File commands
+		in.readFileCommands(inlineFileCommands);
+		in.readFileCommands(endlineFileCommands);
+
+		if (!processExtensions && keepFileCommands) {
+			inlineComments = joinFileCommands(inlineComments, inlineFileCommands);
+			endlineComments = joinFileCommands(endlineComments, endlineFileCommands);
+		}
+
+		return new TickContainer(keyboard, mouse, cameraAngle, new CommentContainer(inlineComments, endlineComments));
+	}
+
+	@Override
+	public SerialiserFlavorBase clone() {
+		return new BinaryFlavor();
+	}
+
+	/**
+	 * Writes the binary data and keeps track of the state that the next values are stored relative to
+	 */
+	protected static class BinaryWriter {
+
+		private final DataOutputStream out;
+
+		private final Map<String, Integer> strings = new HashMap<>();
+
+		private final List<Integer> previousKeyboard = new ArrayList<>();
+
+		private final List<Integer> previousMouse = new ArrayList<>();
+
+		private int previousCursorX = 0;
+
+		private int previousCursorY = 0;
+
+		private boolean hasPreviousCamera = false;
+
+		private Float previousYaw = null;
+
+		private Float previousPitch = null;
+
+		protected BinaryWriter(OutputStream out) {
+			this.out = new DataOutputStream(new BufferedOutputStream(out, 65536));
+		}
+
+		protected void writeVarInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		}
+
+		/**
+		 * Writes an int as a zigzag encoded varint, so small negative numbers stay small
+		 *
+		 * @param value The value to write
+		 */
+		protected void writeSignedVarInt(int value) throws IOException {
+			writeVarInt((value << 1) ^ (value >> 31));
+		}
+
+		/**
+		 * <p>Writes a camera angle as raw floats, prefixed by a flag byte.
+		 *
+		 * <p>If the angle did not change since the last angle, only the {@link BinaryFlavor#CAMERA_REPEAT} flag is written.<br>
+		 * Otherwise, {@link BinaryFlavor#CAMERA_YAW} and {@link BinaryFlavor#CAMERA_PITCH} are set if the respective value is not null
+		 *
+		 * @param yaw   The yaw to write, can be null
+		 * @param pitch The pitch to write, can be null
+		 */
+		protected void writeCamera(Float yaw, Float pitch) throws IOException {
+			if (hasPreviousCamera && Objects.equals(yaw, previousYaw) && Objects.equals(pitch, previousPitch)) {
+				out.writeByte(CAMERA_REPEAT);
+				return;
+			}
+			hasPreviousCamera = true;
+			previousYaw = yaw;
+			previousPitch = pitch;
+
+			out.writeByte((yaw != null ? CAMERA_YAW : 0) | (pitch != null ? CAMERA_PITCH : 0));
+			if (yaw != null) {
+				out.writeFloat(yaw);
+			}
+			if (pitch != null) {
+				out.writeFloat(pitch);
+			}
+		}
+
+		/**
+		 * <p>Writes the pressed keys as the difference to the previous keys.
+		 *
+		 * <p>If the keys are the previous keys without the released keys, followed by the newly pressed keys,<br>
+		 * only the released and pressed keys are written. Otherwise, all keys are written.
+		 *
+		 * @param previous The previously written keys. Is updated to the current keys
+		 * @param current  The keys to write, in the order in which they were pressed
+		 */
+		protected void writeKeys(List<Integer> previous, List<Integer> current) throws IOException {
+			List<Integer> released = new ArrayList<>();
+			List<Integer> expectedOrder = new ArrayList<>();
+			for (Integer keycode : previous) {
+				if (current.contains(keycode)) {
+					expectedOrder.add(keycode);
+				} else {
+					released.add(keycode);
+				}
+			}
+			List<Integer> pressed = new ArrayList<>();
+			for (Integer keycode : current) {
+				if (!previous.contains(keycode)) {
+					expectedOrder.add(keycode);
+					pressed.add(keycode);
+				}
+			}
+
+			if (expectedOrder.equals(current)) {
+				writeVarInt(released.size() << 1);
+				for (int keycode : released) {
+					writeSignedVarInt(keycode);
+				}
+				writeVarInt(pressed.size());
+				for (int keycode : pressed) {
+					writeSignedVarInt(keycode);
+				}
+			} else {
+				writeVarInt(current.size() << 1 | 1);
+				for (int keycode : current) {
+					writeSignedVarInt(keycode);
+				}
+			}
+
+			previous.clear();
+			previous.addAll(current);
+		}
+
+		/**
+		 * Writes a string. The first time a string is written, it's stored in full, afterwards only the index of the string is stored
+		 *
+		 * <pre>
+		 * 0          = null
+		 * 1          = new string, followed by the length and the UTF-8 bytes
+		 * 2 + index  = a string that was already written
+		 * </pre>
+		 *
+		 * @param string The string to write
+		 */
+		protected void writeString(String string) throws IOException {
+			if (string == null) {
+				writeVarInt(0);
+				return;
+			}
+			Integer index = strings.get(string);
+			if (index != null) {
+				writeVarInt(index + 2);
+				return;
+			}
+			strings.put(string, strings.size());
+
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(1);
+			writeVarInt(bytes.length);
+			out.write(bytes);
+		}
+
+		protected void writeStrings(List<String> strings) throws IOException {
+			if (strings == null) {
+				writeVarInt(0);
+				return;
+			}
+			writeVarInt(strings.size());
+			for (String string : strings) {
+				writeString(string);
+			}
+		}
+
+		/**
+		 * Writes the file commands of each line. Lines without file commands are written as null
+		 *
+		 * @param fileCommands The file commands by line
+		 */
+		protected void writeFileCommands(List<List<PlaybackFileCommand>> fileCommands) throws IOException {
+			writeVarInt(fileCommands.size());
+			for (List<PlaybackFileCommand> line : fileCommands) {
+				List<PlaybackFileCommand> commands = new ArrayList<>();
+				if (line != null) {
+					for (PlaybackFileCommand command : line) {
+						if (command != null) {
+							commands.add(command);
+						}
+					}
+				}
+
+				writeVarInt(commands.size());
+				for (PlaybackFileCommand command : commands) {
+					writeString(command.getName());
+					String[] args = command.getArgs();
+					writeVarInt(args.length);
+					for (String arg : args) {
+						writeString(arg);
+					}
+				}
+			}
+		}
+
+		protected void flush() throws IOException {
+			out.flush();
+		}
+	}
+
+	/**
+	 * Reads the binary data written by {@link BinaryWriter}
+	 */
+	protected static class BinaryReader {
+
+		private final DataInputStream in;
+
+		private final List<String> strings = new ArrayList<>();
+
+		private final List<Integer> previousKeyboard = new ArrayList<>();
+
+		private final List<Integer> previousMouse = new ArrayList<>();
+
+		private int previousCursorX = 0;
+
+		private int previousCursorY = 0;
+
+		private Float previousYaw = null;
+
+		private Float previousPitch = null;
+
+		protected BinaryReader(InputStream in) {
+			this.in = new DataInputStream(new BufferedInputStream(in, 65536));
+		}
+
+		protected int readVarInt() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new PlaybackLoadException("Varint in the binary TASfile is too long");
+		}
+
+		protected int readSignedVarInt() throws IOException {
+			int value = readVarInt();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		/**
+		 * Reads a camera angle written by {@link BinaryWriter#writeCamera(Float, Float)} into {@link #previousYaw} and {@link #previousPitch}
+		 */
+		protected void readCamera() throws IOException {
+			int flags = in.readUnsignedByte();
+			if ((flags & CAMERA_REPEAT) != 0) {
+				return;
+			}
+			previousYaw = (flags & CAMERA_YAW) != 0 ? in.readFloat() : null;
+			previousPitch = (flags & CAMERA_PITCH) != 0 ? in.readFloat() : null;
+		}
+
+		/**
+		 * Reads the pressed keys written by {@link BinaryWriter#writeKeys(List, List)}
+		 *
+		 * @param previous The previously read keys. Is updated to the current keys
+		 * @return The pressed keycodes
+		 */
+		protected int[] readKeys(List<Integer> previous) throws IOException {
+			int header = readVarInt();
+			if ((header & 1) == 1) {
+				previous.clear();
+				int size = header >>> 1;
+				for (int i = 0; i < size; i++) {
+					previous.add(readSignedVarInt());
+				}
+			} else {
+				int released = header >>> 1;
+				for (int i = 0; i < released; i++) {
+					previous.remove((Integer) readSignedVarInt());
+				}
+				int pressed = readVarInt();
+				for (int i = 0; i < pressed; i++) {
+					previous.add(readSignedVarInt());
+				}
+			}
+
+			int[] out = new int[previous.size()];
+			for (int i = 0; i < out.length; i++) {
+				out[i] = previous.get(i);
+			}
+			return out;
+		}
+
+		protected String readString() throws IOException {
+			int reference = readVarInt();
+			if (reference == 0) {
+				return null;
+			}
+			if (reference == 1) {
+				byte[] bytes = new byte[readVarInt()];
+				in.readFully(bytes);
+				String string = new String(bytes, StandardCharsets.UTF_8);
+				strings.add(string);
+				return string;
+			}
+
+			int index = reference - 2;
+			if (index >= strings.size()) {
+				throw new PlaybackLoadException("Unknown string reference %s in the binary TASfile", index);
+			}
+			return strings.get(index);
+		}
+
+		protected List<String> readStrings() throws IOException {
+			int size = readVarInt();
+			List<String> out = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				out.add(readString());
+			}
+			return out;
+		}
+
+		/**
+		 * Reads the file commands written by {@link BinaryWriter#writeFileCommands(List)}.<br>
+		 * Lines without file commands are read as null, like in the text flavors
+		 *
+		 * @param out The file commands by line, passed in by reference
+		 */
+		protected void readFileCommands(List<List<PlaybackFileCommand>> out) throws IOException {
+			int lines = readVarInt();
+			for (int i = 0; i < lines; i++) {
+				int size = readVarInt();
+				if (size == 0) {
+					out.add(null);
+					continue;
+				}
+
+				List<PlaybackFileCommand> commands = new ArrayList<>(size);
+				for (int j = 0; j < size; j++) {
+					String name = readString();
+					String[] args = new String[readVarInt()];
+					for (int k = 0; k < args.length; k++) {
+						args[k] = readString();
+					}
+					commands.add(new PlaybackFileCommand(name, args));
+				}
+				out.add(commands);
+			}
+		}
+	}
+}
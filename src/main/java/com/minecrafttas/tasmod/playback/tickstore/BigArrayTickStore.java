@@ -0,0 +1,101 @@
+package com.minecrafttas.tasmod.playback.tickstore;
+
+import java.io.IOException;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+
+/**
+ * <p>A {@link TickStore} that keeps the {@link TickContainer} objects in a {@link BigArrayList}, which swaps them to temporary files when it grows.
+ *
+ * <p>The ticks are stored by reference, so changing a tick from {@link #get(long)} changes the store.
+ *
+ * <p>The methods are synchronized, so a {@link #freeze(long) frozen copy} can be read on another thread.
+ *
+ * @author Scribble
+ */
+public class BigArrayTickStore implements TickStore {
+
+	private final BigArrayList<TickContainer> ticks;
+
+	private final FrozenTickStore.Copies copies = new FrozenTickStore.Copies();
+
+	/**
+	 * @param ticks The list to read and write
+	 */
+	public BigArrayTickStore(BigArrayList<TickContainer> ticks) {
+		this.ticks = ticks;
+	}
+
+	@Override
+	public synchronized long size() {
+		return ticks.size();
+	}
+
+	@Override
+	public synchronized boolean isEmpty() {
+		return ticks.isEmpty();
+	}
+
+	@Override
+	public synchronized TickContainer get(long index) throws IndexOutOfBoundsException {
+		return ticks.get(index);
+	}
+
+	@Override
+	public synchronized void add(TickContainer tick) {
+		ticks.add(tick);
+	}
+
+	@Override
+	public synchronized void set(long index, TickContainer tick) throws IndexOutOfBoundsException {
+		copies.preserve(index, ticks::get);
+		ticks.set(index, tick);
+	}
+
+	@Override
+	public synchronized void truncate(long size) {
+		copies.preserve(size, ticks.size(), ticks::get);
+		for (long i = ticks.size() - 1; i >= size; i--) {
+			ticks.remove(i);
+		}
+	}
+
+	/**
+	 * Copies the references of the ticks into a new list. Recorded ticks are only ever replaced, but never changed, so the ticks themselves are shared
+	 */
+	@Override
+	public synchronized TickStore copy(long toTick) {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+		toTick = Math.min(toTick, ticks.size());
+		for (long i = 0; i < toTick; i++) {
+			out.add(ticks.get(i));
+		}
+		return new BigArrayTickStore(out);
+	}
+
+	/**
+	 * Shares the list with the copy, as the ticks themselves are never changed
+	 */
+	@Override
+	public synchronized TickStore freeze(long toTick) {
+		return copies.freeze(this, toTick);
+	}
+
+	/**
+	 * Is delayed until every {@link #freeze(long) frozen copy} was cleared
+	 */
+	@Override
+	public synchronized void clearMemory() throws IOException {
+		if (!copies.delayClear(ticks::clearMemory)) {
+			ticks.clearMemory();
+		}
+	}
+
+	/**
+	 * @return The wrapped list
+	 */
+	public synchronized BigArrayList<TickContainer> getList() {
+		return ticks;
+	}
+}
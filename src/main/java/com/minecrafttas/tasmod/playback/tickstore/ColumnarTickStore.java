@@ -0,0 +1,552 @@
+package com.minecrafttas.tasmod.playback.tickstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.virtual.KeySet;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>A {@link TickStore} that keeps the ticks in primitive arrays, one array per value, instead of keeping a {@link TickContainer} object per tick.
+ *
+ * <p>A tick with one subtick per peripheral takes around 60 bytes and every pressed key or typed character 2 more bytes.<br>
+ * The {@link TickContainer} is created again in {@link #get(long)}, so changing it does not change the store.
+ *
+ * <h2>Layout</h2>
+ *
+ * <p>Every tick points to a range of subticks per peripheral, which are stored in the columns of that peripheral.<br>
+ * The keys and characters of a subtick are stored in a shared pool, where the subtick ends where the next subtick starts.
+ *
+ * <pre>
+ * Tick:     keyboardStart keyboardCount | mouseStart mouseCount | cameraStart cameraCount
+ *             |
+ * Keyboard: keyStart charStart         &lt;- one entry per subtick, plus the end
+ *             |        |
+ * Pools:    keys     chars
+ * </pre>
+ *
+ * <p>Ticks that are {@link #set(long, TickContainer) replaced} append their new subticks at the end.<br>
+ * The old subticks are counted as garbage and the columns are compacted, once there is more garbage than subticks in use.
+ *
+ * <p>Only the comments are kept as objects, as most ticks have none.<br>
+ * The methods are synchronized, so a {@link #freeze(long) frozen copy} can read the columns on another thread.<br>
+ * It only decodes the ticks, that are replaced or removed in this store afterwards.
+ *
+ * @author Scribble
+ */
+public class ColumnarTickStore implements TickStore {
+
+	/**
+	 * The raw bits of a camera angle that is null. {@link Float#floatToIntBits(float)} returns a different NaN, so no angle is mistaken for null
+	 */
+	private static final int NULL_ANGLE = 0x7fc00001;
+
+	/**
+	 * The amount of garbage subticks, at which the columns are compacted at the earliest
+	 */
+	private static final int MIN_GARBAGE = 4096;
+
+	// Ticks
+
+	private IntColumn keyboardStart = new IntColumn();
+	private IntColumn keyboardCount = new IntColumn();
+	private IntColumn mouseStart = new IntColumn();
+	private IntColumn mouseCount = new IntColumn();
+	private IntColumn cameraStart = new IntColumn();
+	private IntColumn cameraCount = new IntColumn();
+
+	/**
+	 * The comments of the ticks that have comments, by tick
+	 */
+	private TreeMap<Integer, CommentContainer> comments = new TreeMap<>();
+
+	// Keyboard subticks
+
+	private IntColumn keyboardKeyStart = new IntColumn(0);
+	private IntColumn keyboardCharStart = new IntColumn(0);
+	private ShortColumn keyboardKeys = new ShortColumn();
+	private ShortColumn keyboardChars = new ShortColumn();
+
+	// Mouse subticks
+
+	private IntColumn mouseKeyStart = new IntColumn(0);
+	private ShortColumn mouseKeys = new ShortColumn();
+	private IntColumn scrollWheel = new IntColumn();
+	private IntColumn cursorX = new IntColumn();
+	private IntColumn cursorY = new IntColumn();
+
+	// Camera subticks
+
+	private IntColumn pitch = new IntColumn();
+	private IntColumn yaw = new IntColumn();
+
+	/**
+	 * The amount of subticks, that no tick points to anymore
+	 */
+	private int garbage = 0;
+
+	private final FrozenTickStore.Copies copies = new FrozenTickStore.Copies();
+
+	@Override
+	public synchronized long size() {
+		return keyboardStart.size();
+	}
+
+	@Override
+	public synchronized TickContainer get(long index) throws IndexOutOfBoundsException {
+		int tick = checkIndex(index);
+
+		// Keyboard
+		int from = keyboardStart.get(tick);
+		int last = from + keyboardCount.get(tick) - 1;
+		List<VirtualKeyboard> keyboardSubticks = new ArrayList<>();
+		for (int subtick = from; subtick < last; subtick++) {
+			keyboardSubticks.add(new VirtualKeyboard(readKeys(keyboardKeys, keyboardKeyStart, subtick), readChars(subtick)));
+		}
+		VirtualKeyboard keyboard = new VirtualKeyboard(readKeys(keyboardKeys, keyboardKeyStart, last), readChars(last), keyboardSubticks, false);
+
+		// Mouse
+		from = mouseStart.get(tick);
+		last = from + mouseCount.get(tick) - 1;
+		List<VirtualMouse> mouseSubticks = new ArrayList<>();
+		for (int subtick = from; subtick < last; subtick++) {
+			mouseSubticks.add(new VirtualMouse(readKeys(mouseKeys, mouseKeyStart, subtick), scrollWheel.get(subtick), cursorX.get(subtick), cursorY.get(subtick)));
+		}
+		VirtualMouse mouse = new VirtualMouse(readKeys(mouseKeys, mouseKeyStart, last), scrollWheel.get(last), cursorX.get(last), cursorY.get(last), mouseSubticks, false);
+
+		// Camera angle
+		from = cameraStart.get(tick);
+		last = from + cameraCount.get(tick) - 1;
+		List<VirtualCameraAngle> cameraSubticks = new ArrayList<>();
+		for (int subtick = from; subtick < last; subtick++) {
+			cameraSubticks.add(new VirtualCameraAngle(readAngle(pitch.get(subtick)), readAngle(yaw.get(subtick))));
+		}
+		VirtualCameraAngle cameraAngle = new VirtualCameraAngle(readAngle(pitch.get(last)), readAngle(yaw.get(last)), cameraSubticks, false);
+
+		// Comments
+		CommentContainer stored = comments.get(tick);
+		CommentContainer commentContainer = stored == null ? new CommentContainer() : copyComments(stored);
+
+		return new TickContainer(keyboard, mouse, cameraAngle, commentContainer);
+	}
+
+	@Override
+	public synchronized void add(TickContainer tick) {
+		if (size() == Integer.MAX_VALUE) {
+			throw new IllegalStateException("The store can't hold more than " + Integer.MAX_VALUE + " ticks");
+		}
+		int index = (int) size();
+		keyboardStart.add(appendKeyboard(tick.getKeyboard()));
+		keyboardCount.add(subtickCount(tick.getKeyboard()));
+		mouseStart.add(appendMouse(tick.getMouse()));
+		mouseCount.add(subtickCount(tick.getMouse()));
+		cameraStart.add(appendCamera(tick.getCameraAngle()));
+		cameraCount.add(subtickCount(tick.getCameraAngle()));
+		putComments(index, tick.getComments());
+	}
+
+	@Override
+	public synchronized void set(long index, TickContainer tick) throws IndexOutOfBoundsException {
+		int i = checkIndex(index);
+		copies.preserve(i, this::get);
+		if (i == size() - 1 && garbage == 0) {
+			truncate(i);
+			add(tick);
+			return;
+		}
+		garbage += keyboardCount.get(i) + mouseCount.get(i) + cameraCount.get(i);
+
+		keyboardStart.set(i, appendKeyboard(tick.getKeyboard()));
+		keyboardCount.set(i, subtickCount(tick.getKeyboard()));
+		mouseStart.set(i, appendMouse(tick.getMouse()));
+		mouseCount.set(i, subtickCount(tick.getMouse()));
+		cameraStart.set(i, appendCamera(tick.getCameraAngle()));
+		cameraCount.set(i, subtickCount(tick.getCameraAngle()));
+		putComments(i, tick.getComments());
+
+		compactIfNeeded();
+	}
+
+	@Override
+	public synchronized void truncate(long size) {
+		if (size >= size()) {
+			return;
+		}
+		int tick = (int) Math.max(size, 0);
+		copies.preserve(tick, size(), this::get);
+		if (garbage == 0) {
+			// Without garbage, the subticks are in the same order as the ticks, so the columns end where the first removed tick starts
+			int keyboardEnd = keyboardStart.get(tick);
+			keyboardKeys.truncate(keyboardKeyStart.get(keyboardEnd));
+			keyboardChars.truncate(keyboardCharStart.get(keyboardEnd));
+			keyboardKeyStart.truncate(keyboardEnd + 1);
+			keyboardCharStart.truncate(keyboardEnd + 1);
+
+			int mouseEnd = mouseStart.get(tick);
+			mouseKeys.truncate(mouseKeyStart.get(mouseEnd));
+			mouseKeyStart.truncate(mouseEnd + 1);
+			scrollWheel.truncate(mouseEnd);
+			cursorX.truncate(mouseEnd);
+			cursorY.truncate(mouseEnd);
+
+			int cameraEnd = cameraStart.get(tick);
+			pitch.truncate(cameraEnd);
+			yaw.truncate(cameraEnd);
+		} else {
+			for (int i = tick; i < size(); i++) {
+				garbage += keyboardCount.get(i) + mouseCount.get(i) + cameraCount.get(i);
+			}
+		}
+		keyboardStart.truncate(tick);
+		keyboardCount.truncate(tick);
+		mouseStart.truncate(tick);
+		mouseCount.truncate(tick);
+		cameraStart.truncate(tick);
+		cameraCount.truncate(tick);
+		comments.tailMap(tick).clear();
+
+		compactIfNeeded();
+	}
+
+	/**
+	 * Copies the columns of the ticks, without creating a {@link TickContainer} per tick. Garbage subticks are not copied
+	 */
+	@Override
+	public synchronized ColumnarTickStore copy(long toTick) {
+		ColumnarTickStore out = new ColumnarTickStore();
+		int to = (int) Math.min(Math.max(toTick, 0), size());
+		for (int tick = 0; tick < to; tick++) {
+			out.copyTick(this, tick);
+		}
+		return out;
+	}
+
+	@Override
+	public synchronized TickStore freeze(long toTick) {
+		return copies.freeze(this, toTick);
+	}
+
+	/**
+	 * Is delayed until every {@link #freeze(long) frozen copy} was cleared
+	 */
+	@Override
+	public synchronized void clearMemory() {
+		if (!copies.delayClear(() -> moveFrom(new ColumnarTickStore()))) {
+			moveFrom(new ColumnarTickStore());
+		}
+	}
+
+	/**
+	 * @return The amount of bytes that the columns take up, without the comments
+	 */
+	public synchronized long getMemoryUsage() {
+		long ints = keyboardStart.capacity() + keyboardCount.capacity() + mouseStart.capacity() + mouseCount.capacity() + cameraStart.capacity() + cameraCount.capacity();
+		ints += keyboardKeyStart.capacity() + keyboardCharStart.capacity();
+		ints += mouseKeyStart.capacity() + scrollWheel.capacity() + cursorX.capacity() + cursorY.capacity();
+		ints += pitch.capacity() + yaw.capacity();
+		long shorts = keyboardKeys.capacity() + keyboardChars.capacity() + mouseKeys.capacity();
+		return ints * Integer.BYTES + shorts * Short.BYTES;
+	}
+
+	// =====================================================================================================
+
+	private int checkIndex(long index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException(String.format("Index %s is out of bounds for %s ticks", index, size()));
+		}
+		return (int) index;
+	}
+
+	/**
+	 * @return The amount of states in {@link VirtualKeyboard#getAll()} and the like. A peripheral without subticks only has its own state
+	 */
+	private static int subtickCount(VirtualKeyboard keyboard) {
+		return keyboard.isParent() ? keyboard.getAllSize() : 1;
+	}
+
+	private static int subtickCount(VirtualMouse mouse) {
+		return mouse.isParent() ? mouse.getAllSize() : 1;
+	}
+
+	private static int subtickCount(VirtualCameraAngle cameraAngle) {
+		return cameraAngle.isParent() ? cameraAngle.getAllSize() : 1;
+	}
+
+	/**
+	 * Appends the subticks of the keyboard to the keyboard columns
+	 *
+	 * @return The index of the first appended subtick
+	 */
+	private int appendKeyboard(VirtualKeyboard keyboard) {
+		int start = keyboardKeyStart.size() - 1;
+		int count = subtickCount(keyboard);
+		for (int i = 0; i < count; i++) {
+			VirtualKeyboard subtick = keyboard.isParent() ? keyboard.getFromAll(i) : keyboard;
+			for (int keycode : subtick.getPressedKeys()) {
+				keyboardKeys.add((short) keycode);
+			}
+			for (char character : subtick.getCharList()) {
+				keyboardChars.add((short) character);
+			}
+			keyboardKeyStart.add(keyboardKeys.size());
+			keyboardCharStart.add(keyboardChars.size());
+		}
+		return start;
+	}
+
+	private int appendMouse(VirtualMouse mouse) {
+		int start = mouseKeyStart.size() - 1;
+		int count = subtickCount(mouse);
+		for (int i = 0; i < count; i++) {
+			VirtualMouse subtick = mouse.isParent() ? mouse.getFromAll(i) : mouse;
+			for (int keycode : subtick.getPressedKeys()) {
+				mouseKeys.add((short) keycode);
+			}
+			mouseKeyStart.add(mouseKeys.size());
+			scrollWheel.add(subtick.getScrollWheel());
+			cursorX.add(subtick.getCursorX());
+			cursorY.add(subtick.getCursorY());
+		}
+		return start;
+	}
+
+	private int appendCamera(VirtualCameraAngle cameraAngle) {
+		int start = pitch.size();
+		int count = subtickCount(cameraAngle);
+		for (int i = 0; i < count; i++) {
+			VirtualCameraAngle subtick = cameraAngle.isParent() ? cameraAngle.getFromAll(i) : cameraAngle;
+			pitch.add(writeAngle(subtick.getPitch()));
+			yaw.add(writeAngle(subtick.getYaw()));
+		}
+		return start;
+	}
+
+	private void putComments(int tick, CommentContainer commentContainer) {
+		if (commentContainer == null || (commentContainer.getInlineComments().isEmpty() && commentContainer.getEndlineComments().isEmpty())) {
+			comments.remove(tick);
+		} else {
+			comments.put(tick, copyComments(commentContainer));
+		}
+	}
+
+	private static CommentContainer copyComments(CommentContainer commentContainer) {
+		return new CommentContainer(new ArrayList<>(commentContainer.getInlineComments()), new ArrayList<>(commentContainer.getEndlineComments()));
+	}
+
+	private static KeySet readKeys(ShortColumn keys, IntColumn keyStart, int subtick) {
+		KeySet out = new KeySet();
+		for (int i = keyStart.get(subtick); i < keyStart.get(subtick + 1); i++) {
+			out.add(keys.get(i));
+		}
+		return out;
+	}
+
+	private List<Character> readChars(int subtick) {
+		List<Character> out = new ArrayList<>();
+		for (int i = keyboardCharStart.get(subtick); i < keyboardCharStart.get(subtick + 1); i++) {
+			out.add((char) keyboardChars.get(i));
+		}
+		return out;
+	}
+
+	private static int writeAngle(Float angle) {
+		return angle == null ? NULL_ANGLE : Float.floatToIntBits(angle);
+	}
+
+	private static Float readAngle(int bits) {
+		return bits == NULL_ANGLE ? null : Float.intBitsToFloat(bits);
+	}
+
+	/**
+	 * Appends a tick of another store, by copying the ranges of its columns
+	 *
+	 * @param source The store to copy from
+	 * @param tick   The tick in the source store
+	 */
+	private void copyTick(ColumnarTickStore source, int tick) {
+		int index = (int) size();
+
+		int from = source.keyboardStart.get(tick);
+		int count = source.keyboardCount.get(tick);
+		keyboardStart.add(keyboardKeyStart.size() - 1);
+		keyboardCount.add(count);
+		for (int subtick = from; subtick < from + count; subtick++) {
+			keyboardKeys.addRange(source.keyboardKeys, source.keyboardKeyStart.get(subtick), source.keyboardKeyStart.get(subtick + 1));
+			keyboardChars.addRange(source.keyboardChars, source.keyboardCharStart.get(subtick), source.keyboardCharStart.get(subtick + 1));
+			keyboardKeyStart.add(keyboardKeys.size());
+			keyboardCharStart.add(keyboardChars.size());
+		}
+
+		from = source.mouseStart.get(tick);
+		count = source.mouseCount.get(tick);
+		mouseStart.add(mouseKeyStart.size() - 1);
+		mouseCount.add(count);
+		for (int subtick = from; subtick < from + count; subtick++) {
+			mouseKeys.addRange(source.mouseKeys, source.mouseKeyStart.get(subtick), source.mouseKeyStart.get(subtick + 1));
+			mouseKeyStart.add(mouseKeys.size());
+		}
+		scrollWheel.addRange(source.scrollWheel, from, from + count);
+		cursorX.addRange(source.cursorX, from, from + count);
+		cursorY.addRange(source.cursorY, from, from + count);
+
+		from = source.cameraStart.get(tick);
+		count = source.cameraCount.get(tick);
+		cameraStart.add(pitch.size());
+		cameraCount.add(count);
+		pitch.addRange(source.pitch, from, from + count);
+		yaw.addRange(source.yaw, from, from + count);
+
+		// The stored comments are never changed, only replaced
+		CommentContainer stored = source.comments.get(tick);
+		if (stored != null) {
+			comments.put(index, stored);
+		}
+	}
+
+	/**
+	 * Rewrites the columns without the garbage subticks, once there are more garbage subticks than subticks in use
+	 */
+	private void compactIfNeeded() {
+		int subticks = keyboardKeyStart.size() - 1 + mouseKeyStart.size() - 1 + pitch.size();
+		if (garbage < MIN_GARBAGE || garbage < subticks - garbage) {
+			return;
+		}
+		moveFrom(copy(size()));
+	}
+
+	private void moveFrom(ColumnarTickStore other) {
+		keyboardStart = other.keyboardStart;
+		keyboardCount = other.keyboardCount;
+		mouseStart = other.mouseStart;
+		mouseCount = other.mouseCount;
+		cameraStart = other.cameraStart;
+		cameraCount = other.cameraCount;
+		comments = other.comments;
+		keyboardKeyStart = other.keyboardKeyStart;
+		keyboardCharStart = other.keyboardCharStart;
+		keyboardKeys = other.keyboardKeys;
+		keyboardChars = other.keyboardChars;
+		mouseKeyStart = other.mouseKeyStart;
+		mouseKeys = other.mouseKeys;
+		scrollWheel = other.scrollWheel;
+		cursorX = other.cursorX;
+		cursorY = other.cursorY;
+		pitch = other.pitch;
+		yaw = other.yaw;
+		garbage = other.garbage;
+	}
+
+	/**
+	 * A growable int array
+	 */
+	private static class IntColumn {
+
+		private int[] data = new int[16];
+
+		private int size = 0;
+
+		private IntColumn(int... initial) {
+			for (int value : initial) {
+				add(value);
+			}
+		}
+
+		private void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, newCapacity(size, 1));
+			}
+			data[size++] = value;
+		}
+
+		private void addRange(IntColumn source, int from, int to) {
+			int length = to - from;
+			if (size + length > data.length) {
+				data = Arrays.copyOf(data, newCapacity(size, length));
+			}
+			System.arraycopy(source.data, from, data, size, length);
+			size += length;
+		}
+
+		private int get(int index) {
+			return data[index];
+		}
+
+		private void set(int index, int value) {
+			data[index] = value;
+		}
+
+		private void truncate(int newSize) {
+			size = Math.min(size, newSize);
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private int capacity() {
+			return data.length;
+		}
+	}
+
+	/**
+	 * A growable short array, for keycodes and characters
+	 */
+	private static class ShortColumn {
+
+		private short[] data = new short[16];
+
+		private int size = 0;
+
+		private void add(short value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, newCapacity(size, 1));
+			}
+			data[size++] = value;
+		}
+
+		private void addRange(ShortColumn source, int from, int to) {
+			int length = to - from;
+			if (size + length > data.length) {
+				data = Arrays.copyOf(data, newCapacity(size, length));
+			}
+			System.arraycopy(source.data, from, data, size, length);
+			size += length;
+		}
+
+		private short get(int index) {
+			return data[index];
+		}
+
+		private void truncate(int newSize) {
+			size = Math.min(size, newSize);
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private int capacity() {
+			return data.length;
+		}
+	}
+
+	/**
+	 * @return The capacity of a column, that grows by half of its size
+	 */
+	private static int newCapacity(int size, int minGrowth) {
+		long capacity = Math.max((long) size + minGrowth, size + (size >> 1) + 16L);
+		if (capacity > Integer.MAX_VALUE - 8) {
+			if ((long) size + minGrowth > Integer.MAX_VALUE - 8) {
+				throw new OutOfMemoryError("The column can't grow beyond " + (Integer.MAX_VALUE - 8) + " values");
+			}
+			capacity = Integer.MAX_VALUE - 8;
+		}
+		return (int) capacity;
+	}
+}
@@ -0,0 +1,216 @@
+package com.minecrafttas.tasmod.playback.tickstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+
+/**
+ * <p>A read-only {@link TickStore#freeze(long) frozen copy} of a store, which is taken without copying a single tick.
+ *
+ * <p>The copy reads the ticks from the store it was taken of. Before that store replaces or removes a tick the copy still covers,<br>
+ * it passes the old tick to the copy, which keeps it from then on. Ticks that are added to the store are never seen by the copy.
+ *
+ * <pre>
+ * Store:  [0 ... 49] {50} [51 ... 99] [100 ... ]   &lt;- tick 50 is replaced, recording continues
+ * Frozen: [0 ........................ 99]
+ *                    {50}                          &lt;- the old tick 50, kept by the copy
+ * </pre>
+ *
+ * <p>Reading locks the store, so the copy can be read on another thread, while the store is changed on the client thread.<br>
+ * If the store is {@link TickStore#clearMemory() cleared} while a copy is still used, clearing is delayed until the last copy is cleared.
+ *
+ * @author Scribble
+ */
+public class FrozenTickStore implements TickStore {
+
+	/**
+	 * The store that this is a copy of. Is locked while reading
+	 */
+	private final TickStore store;
+
+	private final Copies copies;
+
+	private final long size;
+
+	/**
+	 * The ticks that were replaced or removed in the {@link #store} after the copy was taken
+	 */
+	private final Map<Long, TickContainer> preserved;
+
+	private FrozenTickStore(TickStore store, Copies copies, long size, Map<Long, TickContainer> preserved) {
+		this.store = store;
+		this.copies = copies;
+		this.size = size;
+		this.preserved = preserved;
+	}
+
+	@Override
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public TickContainer get(long index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(String.format("Tick %s is out of bounds for %s ticks", index, size));
+		}
+		synchronized (store) {
+			TickContainer container = preserved.get(index);
+			if (container != null) {
+				return container;
+			}
+			return store.get(index);
+		}
+	}
+
+	@Override
+	public void add(TickContainer tick) {
+		throw new UnsupportedOperationException("A frozen store can't be changed");
+	}
+
+	@Override
+	public void set(long index, TickContainer tick) throws IndexOutOfBoundsException {
+		throw new UnsupportedOperationException("A frozen store can't be changed");
+	}
+
+	@Override
+	public void truncate(long size) {
+		throw new UnsupportedOperationException("A frozen store can't be changed");
+	}
+
+	/**
+	 * Copies the ticks into a new store of the same type as the store this is a copy of
+	 */
+	@Override
+	public TickStore copy(long toTick) {
+		toTick = Math.min(toTick, size);
+		synchronized (store) {
+			TickStore out = store.copy(0);
+			for (long i = 0; i < toTick; i++) {
+				out.add(get(i));
+			}
+			return out;
+		}
+	}
+
+	@Override
+	public TickStore freeze(long toTick) {
+		toTick = Math.min(toTick, size);
+		synchronized (store) {
+			Map<Long, TickContainer> kept = new HashMap<>();
+			for (Map.Entry<Long, TickContainer> entry : preserved.entrySet()) {
+				if (entry.getKey() < toTick) {
+					kept.put(entry.getKey(), entry.getValue());
+				}
+			}
+			return copies.add(new FrozenTickStore(store, copies, toTick, kept));
+		}
+	}
+
+	/**
+	 * Releases the kept ticks and clears the store this is a copy of, if that was delayed by this copy
+	 */
+	@Override
+	public void clearMemory() throws IOException {
+		synchronized (store) {
+			preserved.clear();
+			copies.release(this);
+		}
+	}
+
+	/**
+	 * <p>The frozen copies of a store, which the store notifies before it replaces or removes a tick.
+	 *
+	 * <p>Every method has to be called while the store is locked.
+	 */
+	static class Copies {
+
+		private final List<FrozenTickStore> copies = new ArrayList<>();
+
+		/**
+		 * Clears the store once the last copy was released, or null if the store was not cleared
+		 */
+		private Closeable delayedClear = null;
+
+		/**
+		 * @param store  The store to take the copy of
+		 * @param toTick The amount of ticks in the copy
+		 * @return The copy
+		 */
+		FrozenTickStore freeze(TickStore store, long toTick) {
+			return add(new FrozenTickStore(store, this, Math.min(Math.max(toTick, 0), store.size()), new HashMap<>()));
+		}
+
+		private FrozenTickStore add(FrozenTickStore copy) {
+			copies.add(copy);
+			return copy;
+		}
+
+		/**
+		 * Passes the tick to every copy that covers it, before it is replaced in the store
+		 *
+		 * @param index The index of the tick
+		 * @param get   Reads a tick of the store
+		 */
+		void preserve(long index, LongFunction<TickContainer> get) {
+			preserve(index, index + 1, get);
+		}
+
+		/**
+		 * Passes the ticks to every copy that covers them, before they are replaced or removed in the store.<br>
+		 * Every tick is only read once, if any copy covers it and did not keep it yet
+		 *
+		 * @param fromIndex The first tick
+		 * @param toIndex   The tick at which preserving stops, exclusive
+		 * @param get       Reads a tick of the store
+		 */
+		void preserve(long fromIndex, long toIndex, LongFunction<TickContainer> get) {
+			if (copies.isEmpty()) {
+				return;
+			}
+			long end = fromIndex;
+			for (FrozenTickStore copy : copies) {
+				end = Math.max(end, Math.min(toIndex, copy.size));
+			}
+			for (long i = Math.max(fromIndex, 0); i < end; i++) {
+				TickContainer container = null;
+				for (FrozenTickStore copy : copies) {
+					if (i >= copy.size || copy.preserved.containsKey(i)) {
+						continue;
+					}
+					if (container == null) {
+						container = get.apply(i);
+					}
+					copy.preserved.put(i, container);
+				}
+			}
+		}
+
+		/**
+		 * @param clear Clears the store
+		 * @return True if clearing is delayed until the last copy is released
+		 */
+		boolean delayClear(Closeable clear) {
+			if (copies.isEmpty()) {
+				return false;
+			}
+			delayedClear = clear;
+			return true;
+		}
+
+		private void release(FrozenTickStore copy) throws IOException {
+			copies.remove(copy);
+			if (copies.isEmpty() && delayedClear != null) {
+				Closeable clear = delayedClear;
+				delayedClear = null;
+				clear.close();
+			}
+		}
+	}
+}
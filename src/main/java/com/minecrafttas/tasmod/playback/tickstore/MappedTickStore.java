@@ -0,0 +1,128 @@
+package com.minecrafttas.tasmod.playback.tickstore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.util.MappedList;
+import com.minecrafttas.tasmod.util.MappedList.RecordCodec;
+
+/**
+ * <p>A {@link TickStore} that keeps the ticks as binary records in memory mapped temporary files.
+ *
+ * <p>Unlike a {@link BigArrayTickStore}, the ticks are not serialised as objects when they are swapped out,<br>
+ * but encoded into a compact record, that the operating system pages in and out of memory.
+ *
+ * <p>Every record is the binary form of {@link TickContainer#write(DataOutput)}.<br>
+ * The {@link TickContainer} is decoded again in {@link #get(long)}, so changing it does not change the store.
+ *
+ * <p>A {@link #freeze(long) frozen copy} reads the records of this store and only decodes the ticks, that are replaced or removed afterwards.
+ *
+ * @author Scribble
+ * @see MappedList
+ */
+public class MappedTickStore implements TickStore {
+
+	private static final TickCodec CODEC = new TickCodec();
+
+	private final MappedList<TickContainer> ticks;
+
+	private final FrozenTickStore.Copies copies = new FrozenTickStore.Copies();
+
+	/**
+	 * @param directory The directory of the temporary files
+	 */
+	public MappedTickStore(Path directory) {
+		this(new MappedList<>(directory, "inputs", CODEC));
+	}
+
+	private MappedTickStore(MappedList<TickContainer> ticks) {
+		this.ticks = ticks;
+	}
+
+	@Override
+	public synchronized long size() {
+		return ticks.size();
+	}
+
+	@Override
+	public synchronized boolean isEmpty() {
+		return ticks.isEmpty();
+	}
+
+	@Override
+	public synchronized TickContainer get(long index) throws IndexOutOfBoundsException {
+		return ticks.get(index);
+	}
+
+	@Override
+	public synchronized void add(TickContainer tick) {
+		ticks.add(tick);
+	}
+
+	@Override
+	public synchronized void set(long index, TickContainer tick) throws IndexOutOfBoundsException {
+		copies.preserve(index, ticks::get);
+		ticks.set(index, tick);
+	}
+
+	@Override
+	public synchronized void truncate(long size) {
+		copies.preserve(size, ticks.size(), ticks::get);
+		ticks.truncate(size);
+	}
+
+	/**
+	 * Copies the records of the ticks into new files, without decoding them
+	 */
+	@Override
+	public synchronized MappedTickStore copy(long toTick) {
+		return new MappedTickStore(ticks.copy(toTick));
+	}
+
+	@Override
+	public synchronized TickStore freeze(long toTick) {
+		return copies.freeze(this, toTick);
+	}
+
+	/**
+	 * Deletes the temporary files, as the store is usually discarded afterwards.<br>
+	 * Is delayed until every {@link #freeze(long) frozen copy} was cleared
+	 */
+	@Override
+	public synchronized void clearMemory() throws IOException {
+		if (!copies.delayClear(ticks)) {
+			ticks.close();
+		}
+	}
+
+	/**
+	 * @return The amount of bytes that the ticks take up in the temporary files
+	 */
+	public synchronized long getDiskUsage() {
+		return ticks.getDiskUsage();
+	}
+
+	/**
+	 * Stores a tick in the binary form of {@link TickContainer#write(DataOutput)}
+	 */
+	private static class TickCodec implements RecordCodec<TickContainer> {
+
+		@Override
+		public int getRecordSize() {
+			return 0;
+		}
+
+		@Override
+		public void write(DataOutput out, TickContainer tick) throws IOException {
+			tick.write(out);
+		}
+
+		@Override
+		public TickContainer read(DataInput in) throws IOException {
+			return TickContainer.read(in);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.minecrafttas.tasmod.playback.tickstore;
+
+import java.io.IOException;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+
+/**
+ * <p>The ticks of the {@link PlaybackControllerClient}, independent of how they are kept in memory.
+ *
+ * <p>Uses the same method names as a {@link BigArrayList}, so the serialiser and the file command extensions can read any store tick by tick.<br>
+ * Use {@link #of(BigArrayList)} to pass an existing list where a store is expected.
+ *
+ * @author Scribble
+ * @see ColumnarTickStore
+ * @see MappedTickStore
+ * @see BigArrayTickStore
+ */
+public interface TickStore {
+
+	/**
+	 * @return The amount of ticks in this store
+	 */
+	public long size();
+
+	public default boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @param index The index of the tick
+	 * @return The tick at the index. Depending on the store, changing the returned tick does not change the store
+	 * @throws IndexOutOfBoundsException If the index is not in the store
+	 */
+	public TickContainer get(long index) throws IndexOutOfBoundsException;
+
+	/**
+	 * @param tick The tick to add to the end of the store
+	 */
+	public void add(TickContainer tick);
+
+	/**
+	 * @param index The index of the tick to replace
+	 * @param tick  The new tick
+	 * @throws IndexOutOfBoundsException If the index is not in the store
+	 */
+	public void set(long index, TickContainer tick) throws IndexOutOfBoundsException;
+
+	/**
+	 * Removes every tick at and after the specified tick
+	 *
+	 * @param size The amount of ticks to keep
+	 */
+	public void truncate(long size);
+
+	/**
+	 * Creates a store with the first ticks of this store, which is not affected by later changes to this store
+	 *
+	 * @param toTick The amount of ticks to copy
+	 * @return The copy, that has to be {@link #clearMemory() cleared} once it is no longer used
+	 */
+	public TickStore copy(long toTick);
+
+	/**
+	 * <p>Creates a read-only store with the first ticks of this store, which is not affected by later changes to this store and can be read on another thread.
+	 *
+	 * <p>Unlike {@link #copy(long)}, a store may return a {@link FrozenTickStore}, which only keeps the ticks that are replaced or removed afterwards.<br>
+	 * By default, the ticks are copied.
+	 *
+	 * @param toTick The amount of ticks in the frozen store
+	 * @return The frozen store, that has to be {@link #clearMemory() cleared} once it is no longer used
+	 */
+	public default TickStore freeze(long toTick) {
+		return copy(toTick);
+	}
+
+	/**
+	 * Releases the memory and the temporary files of this store. The store can't be used afterwards
+	 *
+	 * @throws IOException If the temporary files can't be deleted
+	 */
+	public void clearMemory() throws IOException;
+
+	/**
+	 * @param ticks The list to wrap
+	 * @return A store that reads and writes the list directly
+	 */
+	public static TickStore of(BigArrayList<TickContainer> ticks) {
+		return new BigArrayTickStore(ticks);
+	}
+}
@@ -0,0 +1,276 @@
+package com.minecrafttas.tasmod.playback.tickstore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.TreeMap;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileExtensionBuffer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileView;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+
+/**
+ * <p>A {@link TickStore}, that reads the ticks of a TASfile from a {@link TASfileView} and keeps the changes to them in another store.
+ *
+ * <p>Neither playing back the TASfile, nor replacing a few ticks or recording after it, copies the TASfile into memory.
+ *
+ * <pre>
+ * View:    [0 ............ 999]             &lt;- read from the TASfile
+ * Changed:        {500}                     &lt;- replaced ticks
+ * Tail:                       [1000 ... ]   &lt;- recorded ticks
+ * </pre>
+ *
+ * <p>Truncating the store only lowers the amount of ticks that are read from the view.<br>
+ * A {@link #copy(long) copy} reads from a {@link TASfileView#duplicate() duplicate} of the view, so it can be read on another thread.<br>
+ * A {@link #freeze(long) frozen copy} does the same, but only freezes the added ticks.
+ *
+ * @author Scribble
+ */
+public class ViewTickStore implements TickStore {
+
+	/**
+	 * The view of the TASfile. Is null after the store was {@link #clearMemory() cleared} or {@link #detach() detached}
+	 */
+	private TASfileView view;
+
+	/**
+	 * The amount of ticks at the start, that are read from the {@link #view}
+	 */
+	private long viewSize;
+
+	/**
+	 * The ticks before {@link #viewSize}, that were replaced
+	 */
+	private final TreeMap<Long, TickContainer> changed;
+
+	/**
+	 * The ticks after {@link #viewSize}
+	 */
+	private TickStore tail;
+
+	/**
+	 * @param view The view to read the ticks from. Is closed by this store
+	 * @param tail An empty store for the ticks that are added after the ticks of the view
+	 */
+	public ViewTickStore(TASfileView view, TickStore tail) {
+		this(view, view.size(), new TreeMap<>(), tail);
+	}
+
+	private ViewTickStore(TASfileView view, long viewSize, TreeMap<Long, TickContainer> changed, TickStore tail) {
+		this.view = view;
+		this.viewSize = viewSize;
+		this.changed = changed;
+		this.tail = tail;
+	}
+
+	@Override
+	public long size() {
+		return viewSize + tail.size();
+	}
+
+	@Override
+	public TickContainer get(long index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException(String.format("Tick %s is out of bounds for %s ticks", index, size()));
+		}
+		if (index >= viewSize) {
+			return tail.get(index - viewSize);
+		}
+		TickContainer container = changed.get(index);
+		if (container != null) {
+			return container;
+		}
+		return view.get(index);
+	}
+
+	@Override
+	public void add(TickContainer tick) {
+		tail.add(tick);
+	}
+
+	@Override
+	public void set(long index, TickContainer tick) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException(String.format("Tick %s is out of bounds for %s ticks", index, size()));
+		}
+		if (index >= viewSize) {
+			tail.set(index - viewSize, tick);
+		} else {
+			changed.put(index, tick);
+		}
+	}
+
+	@Override
+	public void truncate(long size) {
+		size = Math.max(size, 0);
+		if (size >= viewSize) {
+			tail.truncate(size - viewSize);
+			return;
+		}
+		viewSize = size;
+		changed.tailMap(size).clear();
+		tail.truncate(0);
+	}
+
+	/**
+	 * Copies the changed ticks and opens a {@link TASfileView#duplicate() duplicate} of the view, instead of copying the ticks of the view
+	 */
+	@Override
+	public TickStore copy(long toTick) {
+		return copy(toTick, false);
+	}
+
+	/**
+	 * Like {@link #copy(long)}, but {@link TickStore#freeze(long) freezes} the added ticks instead of copying them
+	 */
+	@Override
+	public TickStore freeze(long toTick) {
+		return copy(toTick, true);
+	}
+
+	/**
+	 * @param freeze If the added ticks are frozen instead of copied
+	 */
+	private TickStore copy(long toTick, boolean freeze) {
+		toTick = Math.min(toTick, size());
+		long copiedViewSize = Math.min(toTick, viewSize);
+		TickStore copiedTail = freeze ? tail.freeze(toTick - copiedViewSize) : tail.copy(toTick - copiedViewSize);
+		if (view == null) {
+			return copiedTail;
+		}
+		try {
+			return new ViewTickStore(view.duplicate(), copiedViewSize, new TreeMap<>(changed.headMap(copiedViewSize)), copiedTail);
+		} catch (IOException e) {
+			try {
+				copiedTail.clearMemory();
+			} catch (IOException e2) {
+				e.addSuppressed(e2);
+			}
+			throw new UncheckedIOException(String.format("Can't open the TASfile %s again", view.getFile().getFileName()), e);
+		}
+	}
+
+	@Override
+	public void clearMemory() throws IOException {
+		changed.clear();
+		try {
+			closeView();
+		} finally {
+			tail.clearMemory();
+		}
+	}
+
+	/**
+	 * @param file The file to check
+	 * @return True if the ticks are read from that file
+	 */
+	public boolean readsFrom(Path file) {
+		return view != null && view.getFile().toAbsolutePath().normalize().equals(file.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * @return The amount of ticks at the start, that are read from the TASfile
+	 */
+	public long getViewSize() {
+		return viewSize;
+	}
+
+	/**
+	 * @return The first tick, whose file commands were not passed to the extensions yet.<br>
+	 * The file commands of the viewed ticks from there on are only in the TASfile
+	 */
+	public long getNextFileCommandTick() {
+		return view == null ? viewSize : Math.min(view.getNextFileCommandTick(), viewSize);
+	}
+
+	/**
+	 * Reads the file commands of viewed ticks from the TASfile, without passing them to the extensions
+	 *
+	 * @param fromTick The first tick to read the file commands of
+	 * @param toTick   The tick at which reading stops, exclusive
+	 * @param out      The buffer that the file commands are added to
+	 * @see TASfileView#readFileCommands(long, long, TASfileExtensionBuffer)
+	 */
+	public void readFileCommands(long fromTick, long toTick, TASfileExtensionBuffer out) {
+		if (view != null) {
+			view.readFileCommands(fromTick, Math.min(toTick, viewSize), out);
+		}
+	}
+
+	/**
+	 * <p>Copies the ticks of the view into the store of the added ticks and closes the view.
+	 *
+	 * <p>Reads the entire TASfile, so this is only used if the TASfile is overwritten with something that can't be {@link TASfileView viewed}.
+	 *
+	 * @throws IOException If the view can't be closed
+	 */
+	public void detach() throws IOException {
+		if (view == null) {
+			return;
+		}
+		TickStore detached = tail.copy(0);
+		for (long i = 0; i < size(); i++) {
+			detached.add(get(i));
+		}
+		TickStore oldTail = tail;
+		tail = detached;
+		viewSize = 0;
+		changed.clear();
+		try {
+			closeView();
+		} finally {
+			oldTail.clearMemory();
+		}
+	}
+
+	/**
+	 * <p>Replaces the TASfile of the view with a TASfile, that was saved from this store, and reads the ticks from the new TASfile afterwards.
+	 *
+	 * <p>The view is closed first, so the TASfile can be replaced on Windows as well.<br>
+	 * If the store was {@link #clearMemory() cleared} in the meantime, the TASfile is only replaced.
+	 *
+	 * @param replacement The TASfile that replaces the TASfile of the view. Starts with the ticks of the view
+	 * @param target      The TASfile of the view
+	 * @param flavor      The {@link SerialiserFlavorBase flavor} of the replacement
+	 * @param index       The index of the replacement
+	 * @throws PlaybackLoadException If the replacement can't be viewed or has less ticks than are read from the view. Nothing is replaced in that case
+	 * @throws IOException           If the TASfile can't be replaced. The view reads the old TASfile again in that case
+	 */
+	public void replaceFile(Path replacement, Path target, SerialiserFlavorBase flavor, TASfileIndex index) throws PlaybackLoadException, IOException {
+		if (view == null) {
+			Files.move(replacement, target, StandardCopyOption.REPLACE_EXISTING);
+			return;
+		}
+		if (flavor.isBinary()) {
+			throw new PlaybackLoadException("The flavor %s is binary and can't be viewed", flavor.getExtensionName());
+		}
+		if (index.getTickCount() < viewSize) {
+			throw new PlaybackLoadException("The TASfile %s has %s ticks, but %s ticks are read from it", replacement.getFileName().toString(), index.getTickCount(), viewSize);
+		}
+
+		TASfileView old = view;
+		view = null;
+		old.close();
+		try {
+			Files.move(replacement, target, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			view = old.reopen();
+			throw e;
+		}
+		view = old.reopen(flavor, index);
+	}
+
+	private void closeView() throws IOException {
+		if (view == null) {
+			return;
+		}
+		TASfileView toClose = view;
+		view = null;
+		toClose.close();
+	}
+}
@@ -10,7 +10,16 @@
 public enum TASmodConfig implements ConfigOptions {
 	FileToOpen("fileToOpen", ""),
 	ServerConnection("serverConnection", ""),
-	EnabledFileCommands("enabledFileCommands", "tasmod_desyncMonitor@v1, tasmod_label@v1, tasmod_options@v1");
+	EnabledFileCommands("enabledFileCommands", "tasmod_desyncMonitor@v1, tasmod_label@v1, tasmod_options@v1"),
+	ParallelLoading("parallelLoading", "true"),
+	WriteTASfileIndex("writeTASfileIndex", "false"),
+	MappedPlayback("mappedPlayback", "false"),
+	JournalRecording("journalRecording", "false"),
+	CompressSavestates("compressSavestates", "false"),
+	LazyLoading("lazyLoading", "false"),
+	LazyReadAhead("lazyReadAhead", "20"),
+	ColumnarInputs("columnarInputs", "false"),
+	MappedInputs("mappedInputs", "false");
 
 	private String configKey;
 	private String defaultValue;
@@ -3,7 +3,10 @@
 import com.minecrafttas.mctcommon.networking.Client.Side;
 import com.minecrafttas.mctcommon.networking.CompactPacketHandler;
 import com.minecrafttas.mctcommon.networking.interfaces.PacketID;
+import com.minecrafttas.tasmod.commands.CommandConvert;
 import com.minecrafttas.tasmod.commands.CommandFolder;
+import com.minecrafttas.tasmod.commands.CommandLint;
+import com.minecrafttas.tasmod.networking.TASmodBufferBuilder;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TASstate;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
@@ -207,6 +210,32 @@ public enum TASmodPackets implements PacketID {
 				break;
 		}
 	}),
+	/**
+	 * <p>Converts or validates the TASfiles in a folder on the client, using {@link CommandConvert#convertTASfiles(String, String, String)}
+	 * 
+	 * <p>Side: CLIENT<br>
+	 * ARGS: <br>
+	 * String source The folder to convert, relative to the tasfiles directory<br>
+	 * String target The folder to write the converted TASfiles to. If empty, the TASfiles are only validated<br>
+	 * String flavor The flavor to convert to. If empty, the default flavor is used
+	 */
+	TASFILE_CONVERT(Side.CLIENT, (buf, clientID) -> {
+		String source = TASmodBufferBuilder.readString(buf);
+		String target = TASmodBufferBuilder.readString(buf);
+		String flavor = TASmodBufferBuilder.readString(buf);
+		CommandConvert.convertTASfiles(source, target, flavor);
+	}),
+	/**
+	 * <p>Checks a TASfile on the client for errors, using {@link CommandLint#lintTASfile(String)}
+	 * 
+	 * <p>Side: CLIENT<br>
+	 * ARGS: <br>
+	 * String filename The TASfile to check
+	 */
+	TASFILE_LINT(Side.CLIENT, (buf, clientID) -> {
+		String filename = TASmodBufferBuilder.readString(buf);
+		CommandLint.lintTASfile(filename);
+	}),
 	/**
 	 * <p>Clears the current gui screen on the client
 	 * 
@@ -22,7 +22,11 @@
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TASstate;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
 import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileFingerprint;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileJournal;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
 import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.registries.TASmodConfig;
 import com.minecrafttas.tasmod.registries.TASmodPackets;
 import com.minecrafttas.tasmod.savestates.exceptions.SavestateException;
 import com.minecrafttas.tasmod.savestates.gui.GuiSavestateSavingScreen;
@@ -127,11 +131,46 @@ public static void savestate(String nameOfSavestate) throws SavestateException,
 		File targetfile = new File(SavestateHandlerClient.savestateDirectory, nameOfSavestate + ".mctas");
 
 		PlaybackControllerClient container = TASmodClient.controller;
+		boolean compress = TASmodClient.config.getBoolean(TASmodConfig.CompressSavestates); // Compressed files are detected when loading
+		long ticks;
 		if (container.isRecording()) {
-			PlaybackSerialiser.saveToFile(targetfile.toPath(), container, ""); // If the container is recording, store it entirely
+			PlaybackSerialiser.saveToFile(targetfile.toPath(), container, "", -1L, compress); // If the container is recording, store it entirely
+			ticks = container.size();
 		} else if (container.isPlayingback()) {
-			PlaybackSerialiser.saveToFile(targetfile.toPath(), container, "", container.index()); // If the container is playing, store it until the current index
+			PlaybackSerialiser.saveToFile(targetfile.toPath(), container, "", container.index(), compress); // If the container is playing, store it until the current index
+			ticks = container.index();
+		} else {
+			return;
+		}
+
+		// Remember the savestate, so loading it truncates the journal instead of clearing it
+		TASfileJournal journal = container.getJournal();
+		if (journal != null) {
+			journal.mark(nameOfSavestate, ticks);
+		}
+	}
+
+	/**
+	 * <p>Finds the amount of ticks at the start of a loaded savestate, that are the same as in the controller.
+	 * 
+	 * <p>These ticks are known to be unchanged, if the savestate was {@link TASfileJournal#mark(String, long) marked} in the journal,<br>
+	 * or if the {@link TASfileFingerprint} of the savestate matches the start of the controller.
+	 * 
+	 * @param controller The controller that the savestate is loaded into
+	 * @param journal The journal of the controller. Can be null
+	 * @param nameOfSavestate The name of the savestate
+	 * @param ticks The amount of ticks in the savestate
+	 * @param fingerprint The fingerprint next to the savestate. Can be null
+	 * @return The amount of unchanged ticks
+	 */
+	private static long getUnchanged(PlaybackControllerClient controller, TASfileJournal journal, String nameOfSavestate, long ticks, TASfileFingerprint fingerprint) {
+		if (journal != null && journal.getMarked(nameOfSavestate, ticks) == ticks) {
+			return ticks;
 		}
+		if (fingerprint != null && fingerprint.getTicks() == ticks && fingerprint.isPrefixOf(controller.getMerkleTree(ticks))) {
+			return ticks;
+		}
+		return 0;
 	}
 
 	/**
@@ -168,8 +207,13 @@ public static void loadstate(String nameOfSavestate) throws Exception {
 
 		BigArrayList<TickContainer> savestateContainerList;
 
+		TASfileJournal journal = controller.getJournal();
+
+		TASfileFingerprint fingerprint;
+
 		if (targetfile.exists()) {
 			savestateContainerList = PlaybackSerialiser.loadFromFile(targetfile.toPath(), state != TASstate.PLAYBACK);
+			fingerprint = TASfileFingerprint.load(targetfile.toPath());
 		} else {
 			controller.setTASStateClient(TASstate.NONE, false);
 			Minecraft.getMinecraft().player.sendMessage(new TextComponentString(ChatFormatting.YELLOW + "Inputs could not be loaded for this savestate,"));
@@ -198,8 +242,9 @@ public static void loadstate(String nameOfSavestate) throws Exception {
 		 * */
 		if (state == TASstate.RECORDING) {
 			long index = savestateContainerList.size() - 1;
+			long unchanged = getUnchanged(controller, journal, nameOfSavestate, savestateContainerList.size(), fingerprint);
 
-			controller.setInputs(savestateContainerList, index);
+			controller.setInputs(savestateContainerList, index, unchanged);
 
 			/*
 			 * When loading a savestate during a playback 2 different scenarios can happen.
@@ -243,9 +288,10 @@ public static void loadstate(String nameOfSavestate) throws Exception {
 			 * */
 			else {
 				long index = savestateContainerList.size() - 1;
+				long unchanged = getUnchanged(controller, journal, nameOfSavestate, savestateContainerList.size(), fingerprint);
 
-				preload(savestateContainerList, index);
-				controller.setInputs(savestateContainerList, index);
+				preload(TickStore.of(savestateContainerList), index);
+				controller.setInputs(savestateContainerList, index, unchanged);
 			}
 		}
 
@@ -254,7 +300,7 @@ public static void loadstate(String nameOfSavestate) throws Exception {
 		});
 	}
 
-	private static void preload(BigArrayList<TickContainer> containerList, long index) {
+	private static void preload(TickStore containerList, long index) {
 		TickContainer containerToPreload = containerList.get(index);
 		TASmodClient.virtual.preloadInput(containerToPreload.getKeyboard(), containerToPreload.getMouse(), containerToPreload.getCameraAngle());
 
@@ -1,59 +1,384 @@
 package com.minecrafttas.tasmod.util;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Thread for writing files to disc
+ * <p>Thread for writing files to disc
+ *
+ * <p>Producers write text to the {@link #getWriter() writer} of this thread, which collects the text in large batches.<br>
+ * Full batches are passed to this thread via a bounded queue and are written to the file in the background.<br>
+ * If the queue is full, the producer blocks until this thread caught up, so the memory usage stays bounded, even if the disc is slow.
+ *
+ * <p>After {@link #close()} is called, the remaining batches are written and the file is closed.<br>
+ * The {@link #getCompletion() completion future} is completed afterwards, or completed exceptionally if writing the file failed.<br>
+ * If the thread was never started, closing it closes the file without writing the batches and completes the future exceptionally.<br>
+ * Errors are also passed to the producer, by throwing an {@link IOException} on the next write.
+ *
+ * <pre>
+ * FileThread thread = new FileThread(path, false);
+ * thread.start();
+ *
+ * thread.addLine("Hello");
+ * thread.getWriter().write("World\n");
+ *
+ * thread.waitForCompletion();
+ * </pre>
  *
  * @author Pancake
  */
 public class FileThread extends Thread {
 
-	private final PrintWriter stream;
-	private boolean end = false;
+	/**
+	 * The default amount of chars in one batch
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+	/**
+	 * The default amount of batches that can be queued, before the producer has to wait
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	/**
+	 * Marks the end of the queue
+	 */
+	private static final CharBuffer END = CharBuffer.allocate(0);
+
+	private final Writer stream;
+
+	/**
+	 * Batches that are ready to be written to the {@link #stream}
+	 */
+	private final BlockingQueue<CharBuffer> queue;
 
-	private final List<String> output = new ArrayList<>();
+	/**
+	 * Buffers that were already written by this thread and can be reused by the producer
+	 */
+	private final BlockingQueue<char[]> freeBuffers;
 
+	private final int batchSize;
+
+	private final BatchWriter writer = new BatchWriter();
+
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+	/**
+	 * The first error that occurred while writing to the {@link #stream}
+	 */
+	private volatile Throwable error = null;
+
+	private boolean end = false;
+
+	/**
+	 * Creates a file thread with the {@link #DEFAULT_BATCH_SIZE} and {@link #DEFAULT_QUEUE_CAPACITY}
+	 *
+	 * @param fileLocation The file to write to
+	 * @param append       If the text should be appended to the file. Otherwise the file is overwritten
+	 * @throws IOException If the file can't be opened
+	 */
 	public FileThread(Path fileLocation, boolean append) throws IOException {
-		OutputStream outStream = Files.newOutputStream(fileLocation, StandardOpenOption.CREATE, append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
-		stream = new PrintWriter(new OutputStreamWriter(outStream, StandardCharsets.UTF_8));
+		this(fileLocation, append, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * @param fileLocation  The file to write to
+	 * @param append        If the text should be appended to the file. Otherwise the file is overwritten
+	 * @param batchSize     The amount of chars in one batch
+	 * @param queueCapacity The amount of batches that can be queued, before the producer has to wait
+	 * @throws IOException If the file can't be opened
+	 */
+	public FileThread(Path fileLocation, boolean append, int batchSize, int queueCapacity) throws IOException {
+		this(Files.newOutputStream(fileLocation, StandardOpenOption.CREATE, StandardOpenOption.WRITE, append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING), batchSize, queueCapacity);
+		setName("FileThread-" + fileLocation.getFileName());
+	}
+
+	/**
+	 * Creates a file thread that writes UTF-8 encoded text to an output stream.<br>
+	 * The output stream is closed after all batches were written
+	 *
+	 * @param outStream     The stream to write to
+	 * @param batchSize     The amount of chars in one batch
+	 * @param queueCapacity The amount of batches that can be queued, before the producer has to wait
+	 */
+	public FileThread(OutputStream outStream, int batchSize, int queueCapacity) {
+		super("FileThread");
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("The batch size has to be positive");
+		}
+		this.stream = new OutputStreamWriter(outStream, StandardCharsets.UTF_8);
+		this.batchSize = batchSize;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.freeBuffers = new ArrayBlockingQueue<>(queueCapacity + 2);
 	}
 
-	public void addLine(String line) {
-		synchronized (output) {
-			output.add(line + "\n");
+	/**
+	 * Adds a line to the file. The line is terminated with a "\n"
+	 *
+	 * @param line The line to add
+	 * @throws IOException If writing to the file failed, or if the thread was already closed
+	 */
+	public void addLine(String line) throws IOException {
+		synchronized (writer.getLock()) {
+			writer.write(line);
+			writer.write('\n');
 		}
 	}
 
+	/**
+	 * @return The writer to write the text of the file to. Closing this writer {@link #close() closes} the thread
+	 */
+	public Writer getWriter() {
+		return writer;
+	}
+
+	/**
+	 * @return The future which is completed after the file was written and closed
+	 */
+	public CompletableFuture<Void> getCompletion() {
+		return completion;
+	}
+
 	@Override
 	public void run() {
-		while (!end) {
-			synchronized (output) {
-				ArrayList<String> newList = new ArrayList<String>(output);
-				output.clear();
-				for (String line : newList) {
-					stream.print(line);
+		if (completion.isDone()) {
+			// Closed before it was started
+			return;
+		}
+		try {
+			while (true) {
+				CharBuffer batch = queue.take();
+				if (batch == END) {
+					break;
+				}
+				stream.write(batch.array(), 0, batch.limit());
+				freeBuffers.offer(batch.array());
+			}
+			stream.flush();
+		} catch (IOException | InterruptedException e) {
+			error = e;
+		} finally {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				if (error == null) {
+					error = e;
+				}
+			}
+		}
+
+		if (error == null) {
+			completion.complete(null);
+		} else {
+			completion.completeExceptionally(error);
+		}
+	}
+
+	/**
+	 * Passes the remaining text to this thread and signals that no more text will be written.<br>
+	 * Does not wait for the file to be written, use {@link #waitForCompletion()} for that.
+	 *
+	 * @return The {@link #getCompletion() completion future}
+	 */
+	public CompletableFuture<Void> close() {
+		synchronized (writer.getLock()) {
+			if (end) {
+				return completion;
+			}
+			end = true;
+			if (getState() == State.NEW) {
+				closeUnstarted();
+				return completion;
+			}
+			try {
+				writer.submit();
+				enqueue(END);
+			} catch (InterruptedIOException e) {
+				Thread.currentThread().interrupt();
+				interrupt();
+			} catch (IOException e) {
+				// The error is already stored and the thread is ending
+			}
+		}
+		return completion;
+	}
+
+	/**
+	 * Passes the text that was written so far to this thread, without waiting for it to be written
+	 *
+	 * @throws IOException If writing to the file failed
+	 */
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	/**
+	 * {@link #close() Closes} the thread and waits until the file was written
+	 *
+	 * @throws IOException If writing to the file failed
+	 */
+	public void waitForCompletion() throws IOException {
+		close();
+		try {
+			completion.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for " + getName());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Closes the {@link #stream} and fails the {@link #completion}, as no thread is running that would do it
+	 */
+	private void closeUnstarted() {
+		error = new IOException(getName() + " was closed without being started");
+		try {
+			stream.close();
+		} catch (IOException e) {
+			error.addSuppressed(e);
+		}
+		completion.completeExceptionally(error);
+	}
+
+	/**
+	 * Adds a batch to the {@link #queue}.<br>
+	 * Blocks while the queue is full, but stops waiting if this thread has failed in the meantime
+	 * or if it was never started, as nothing would empty the queue
+	 *
+	 * @param batch The batch to add
+	 * @throws IOException If writing to the file failed
+	 */
+	private void enqueue(CharBuffer batch) throws IOException {
+		try {
+			while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+				checkError();
+				if (getState() == State.NEW) {
+					throw new IOException(getName() + " was not started and its queue is full");
 				}
 			}
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while waiting for " + getName());
 		}
-		stream.flush();
-		stream.close();
 	}
 
-	public void close() {
-		end = true;
+	private void checkError() throws IOException {
+		Throwable e = error;
+		if (e != null) {
+			throw new IOException("Writing in " + getName() + " failed", e);
+		}
 	}
 
-	public void flush() {
-		stream.flush();
+	/**
+	 * Collects the written text in batches of {@link FileThread#batchSize} chars
+	 */
+	private class BatchWriter extends Writer {
+
+		private char[] buffer = null;
+
+		private int count = 0;
+
+		private Object getLock() {
+			return lock;
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			synchronized (lock) {
+				ensureBuffer();
+				buffer[count++] = (char) c;
+			}
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			synchronized (lock) {
+				while (len > 0) {
+					ensureBuffer();
+					int amount = Math.min(len, buffer.length - count);
+					System.arraycopy(cbuf, off, buffer, count, amount);
+					count += amount;
+					off += amount;
+					len -= amount;
+				}
+			}
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			synchronized (lock) {
+				while (len > 0) {
+					ensureBuffer();
+					int amount = Math.min(len, buffer.length - count);
+					str.getChars(off, off + amount, buffer, count);
+					count += amount;
+					off += amount;
+					len -= amount;
+				}
+			}
+		}
+
+		/**
+		 * Makes sure that the {@link #buffer} has space for at least one char.<br>
+		 * Submits the buffer if it is full
+		 */
+		private void ensureBuffer() throws IOException {
+			if (end) {
+				throw new IOException(getName() + " is already closed");
+			}
+			checkError();
+			if (buffer != null && count == buffer.length) {
+				submit();
+			}
+			if (buffer == null) {
+				buffer = freeBuffers.poll();
+				if (buffer == null) {
+					buffer = new char[batchSize];
+				}
+			}
+		}
+
+		/**
+		 * Passes the current buffer to the {@link FileThread#queue}
+		 */
+		private void submit() throws IOException {
+			if (buffer == null || count == 0) {
+				return;
+			}
+			CharBuffer batch = CharBuffer.wrap(buffer, 0, count);
+			buffer = null;
+			count = 0;
+			enqueue(batch);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			synchronized (lock) {
+				checkError();
+				submit();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			FileThread.this.close();
+		}
 	}
 }
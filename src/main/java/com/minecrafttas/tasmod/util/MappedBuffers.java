@@ -0,0 +1,88 @@
+package com.minecrafttas.tasmod.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * <p>Releases the memory mapping of a {@link MappedByteBuffer} immediately, instead of when the buffer is garbage collected.
+ *
+ * <p>Java has no public API for this, so the cleaner of the buffer is called via reflection.<br>
+ * On Java 8, this is <code>DirectBuffer.cleaner().clean()</code>, on later versions <code>Unsafe.invokeCleaner(ByteBuffer)</code>.<br>
+ * If neither is available, the mapping is left to the garbage collector.
+ *
+ * <p>Until a mapping is released, the mapped file can't be deleted, truncated or replaced on Windows.
+ *
+ * @author Scribble
+ */
+public class MappedBuffers {
+
+	/**
+	 * The Unsafe instance on Java 9 and later, or null on Java 8
+	 */
+	private static final Object UNSAFE;
+
+	/**
+	 * Either <code>Unsafe.invokeCleaner(ByteBuffer)</code> or <code>DirectBuffer.cleaner()</code>. Null if unmapping is not supported
+	 */
+	private static final Method CLEANER;
+
+	/**
+	 * <code>Cleaner.clean()</code> on Java 8, otherwise null
+	 */
+	private static final Method CLEAN;
+
+	static {
+		Object unsafe = null;
+		Method cleaner = null;
+		Method clean = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			cleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			try {
+				cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+				clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			} catch (ReflectiveOperationException | RuntimeException e2) {
+				cleaner = null;
+				clean = null;
+			}
+		}
+		UNSAFE = unsafe;
+		CLEANER = cleaner;
+		CLEAN = clean;
+	}
+
+	/**
+	 * <p>Releases the mapping of the buffer.
+	 *
+	 * <p>The buffer, and every duplicate or slice of it, must not be accessed afterwards, as that would crash the game.<br>
+	 * Only pass buffers that were returned by {@link java.nio.channels.FileChannel#map(java.nio.channels.FileChannel.MapMode, long, long) map()} directly.
+	 *
+	 * @param buffer The buffer to unmap. Does nothing if null
+	 * @return True if the mapping was released, false if it is left to the garbage collector
+	 */
+	public static boolean unmap(MappedByteBuffer buffer) {
+		if (buffer == null || CLEANER == null) {
+			return false;
+		}
+		try {
+			if (UNSAFE != null) {
+				CLEANER.invoke(UNSAFE, buffer);
+			} else {
+				Object cleaner = CLEANER.invoke(buffer);
+				if (cleaner == null) {
+					return false;
+				}
+				CLEAN.invoke(cleaner);
+			}
+			return true;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,380 @@
+package com.minecrafttas.tasmod.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * <p>A list that keeps its elements as binary records in {@link SegmentFile segment files}, instead of keeping them as objects on the heap.
+ *
+ * <p>The elements are encoded and decoded by a {@link RecordCodec}:
+ * <ul>
+ * <li>If the codec has a fixed record size, the records are stored one after another and replaced in place</li>
+ * <li>Otherwise, every element has a fixed index record with the position and the length of its data.<br>
+ * The data is appended to a separate file and replaced data is counted as garbage, which is compacted once there is more garbage than data in use</li>
+ * </ul>
+ *
+ * <pre>
+ * Index: [offset length] [offset length] ...   &lt;- 12 bytes per element
+ *            |               |
+ * Data:  [element 0     ] [element 1     ] ...
+ * </pre>
+ *
+ * <p>{@link #get(long)} decodes a new object every time, so changing it does not change the list.<br>
+ * The methods are synchronized, so the list can be written on the client thread and read by the saver thread.
+ *
+ * @param <T> The type of the elements
+ * @author Scribble
+ */
+public class MappedList<T> implements Closeable {
+
+	/**
+	 * The size of an index record, consisting of the offset and the length of the data
+	 */
+	private static final int INDEX_RECORD_SIZE = Long.BYTES + Integer.BYTES;
+
+	/**
+	 * The amount of garbage bytes, at which the data is compacted at the earliest
+	 */
+	private static final long MIN_GARBAGE = 1 << 20;
+
+	private final Path directory;
+
+	private final String prefix;
+
+	private final RecordCodec<T> codec;
+
+	/**
+	 * The size of every record, or 0 if the records are {@link #index indexed}
+	 */
+	private final int recordSize;
+
+	private SegmentFile index;
+
+	private SegmentFile data;
+
+	private long size;
+
+	/**
+	 * The end of the data that was written to {@link #data}
+	 */
+	private long dataEnd;
+
+	/**
+	 * The amount of bytes in {@link #data}, that belong to replaced or removed elements
+	 */
+	private long garbage;
+
+	private final RecordBuffer buffer = new RecordBuffer();
+
+	private final DataOutputStream bufferOut = new DataOutputStream(buffer);
+
+	private final byte[] indexRecord = new byte[INDEX_RECORD_SIZE];
+
+	/**
+	 * @param directory The directory of the temporary files
+	 * @param prefix    The start of the names of the temporary files
+	 * @param codec     The codec of the elements
+	 */
+	public MappedList(Path directory, String prefix, RecordCodec<T> codec) {
+		this.directory = directory;
+		this.prefix = prefix;
+		this.codec = codec;
+		this.recordSize = codec.getRecordSize();
+		openFiles();
+	}
+
+	public synchronized long size() {
+		return size;
+	}
+
+	public synchronized boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param i The index of the element
+	 * @return A newly decoded element
+	 * @throws IndexOutOfBoundsException If the index is not in the list
+	 */
+	public synchronized T get(long i) throws IndexOutOfBoundsException {
+		checkIndex(i);
+		long offset;
+		int length;
+		if (recordSize > 0) {
+			offset = i * recordSize;
+			length = recordSize;
+		} else {
+			ByteBuffer record = readIndex(i);
+			offset = record.getLong();
+			length = record.getInt();
+		}
+
+		byte[] bytes = new byte[length];
+		data.read(offset, bytes, 0, length);
+		try {
+			return codec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(String.format("Can't decode element %s of %s", i, data.getFile()), e);
+		}
+	}
+
+	/**
+	 * @param element The element to add to the end of the list
+	 */
+	public synchronized void add(T element) {
+		encode(element);
+		if (recordSize > 0) {
+			data.write(size * recordSize, buffer.array(), 0, recordSize);
+		} else {
+			appendData(size);
+		}
+		size++;
+	}
+
+	/**
+	 * @param i       The index of the element to replace
+	 * @param element The new element
+	 * @throws IndexOutOfBoundsException If the index is not in the list
+	 */
+	public synchronized void set(long i, T element) throws IndexOutOfBoundsException {
+		checkIndex(i);
+		encode(element);
+		if (recordSize > 0) {
+			data.write(i * recordSize, buffer.array(), 0, recordSize);
+			return;
+		}
+
+		ByteBuffer record = readIndex(i);
+		long offset = record.getLong();
+		int length = record.getInt();
+		if (offset + length == dataEnd) {
+			// The last data can be overwritten, which is the case when recording over the last tick
+			dataEnd = offset;
+		} else {
+			garbage += length;
+		}
+		appendData(i);
+		compactIfNeeded();
+	}
+
+	/**
+	 * Removes every element at and after the specified index
+	 *
+	 * @param newSize The amount of elements to keep
+	 */
+	public synchronized void truncate(long newSize) {
+		newSize = Math.max(newSize, 0);
+		if (newSize >= size) {
+			return;
+		}
+		if (recordSize == 0) {
+			if (newSize == 0) {
+				dataEnd = 0;
+				garbage = 0;
+			} else if (garbage == 0) {
+				// Without garbage, the data is in the same order as the elements
+				dataEnd = readIndex(newSize).getLong();
+			} else {
+				for (long i = newSize; i < size; i++) {
+					garbage += readIndex(i).getInt(Long.BYTES);
+				}
+			}
+		}
+		size = newSize;
+		compactIfNeeded();
+	}
+
+	/**
+	 * Creates a list with the first elements of this list, by copying the records without decoding them
+	 *
+	 * @param toIndex The amount of elements to copy
+	 * @return The copy, that has to be {@link #clearMemory() cleared} once it is no longer used
+	 */
+	public synchronized MappedList<T> copy(long toIndex) {
+		toIndex = Math.min(Math.max(toIndex, 0), size);
+		MappedList<T> out = new MappedList<>(directory, prefix, codec);
+		if (recordSize > 0) {
+			data.copyTo(0, out.data, 0, toIndex * recordSize);
+		} else if (garbage == 0) {
+			long end = toIndex == size ? dataEnd : readIndex(toIndex).getLong();
+			data.copyTo(0, out.data, 0, end);
+			index.copyTo(0, out.index, 0, toIndex * INDEX_RECORD_SIZE);
+			out.dataEnd = end;
+		} else {
+			for (long i = 0; i < toIndex; i++) {
+				ByteBuffer record = readIndex(i);
+				long offset = record.getLong();
+				int length = record.getInt();
+				data.copyTo(offset, out.data, out.dataEnd, length);
+				out.writeIndex(i, out.dataEnd, length);
+				out.dataEnd += length;
+			}
+		}
+		out.size = toIndex;
+		return out;
+	}
+
+	/**
+	 * Removes every element and empties the temporary files, which are reused by the next elements
+	 *
+	 * @throws IOException If the files can't be emptied
+	 */
+	public synchronized void clearMemory() throws IOException {
+		data.clear();
+		if (index != null) {
+			index.clear();
+		}
+		size = 0;
+		dataEnd = 0;
+		garbage = 0;
+	}
+
+	/**
+	 * Removes every element and deletes the temporary files. The list can still be used afterwards, which creates new files
+	 *
+	 * @throws IOException If the files can't be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		closeFiles();
+		openFiles();
+		size = 0;
+		dataEnd = 0;
+		garbage = 0;
+	}
+
+	/**
+	 * @return The amount of bytes that are written to the files, including garbage
+	 */
+	public synchronized long getDiskUsage() {
+		if (recordSize > 0) {
+			return size * recordSize;
+		}
+		return size * INDEX_RECORD_SIZE + dataEnd;
+	}
+
+	// =====================================================================================================
+
+	private void openFiles() {
+		data = new SegmentFile(directory, prefix);
+		index = recordSize > 0 ? null : new SegmentFile(directory, prefix + "index");
+	}
+
+	private void closeFiles() throws IOException {
+		data.close();
+		if (index != null) {
+			index.close();
+		}
+	}
+
+	private void checkIndex(long i) throws IndexOutOfBoundsException {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException(String.format("Index %s is out of bounds for %s elements", i, size));
+		}
+	}
+
+	/**
+	 * Encodes the element into the {@link #buffer}
+	 */
+	private void encode(T element) {
+		buffer.reset();
+		try {
+			codec.write(bufferOut, element);
+			bufferOut.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Can't encode element " + element, e);
+		}
+		if (recordSize > 0 && buffer.size() != recordSize) {
+			throw new IllegalArgumentException(String.format("The codec wrote %s bytes instead of %s", buffer.size(), recordSize));
+		}
+	}
+
+	/**
+	 * Appends the {@link #buffer} to the data and points the element to it
+	 */
+	private void appendData(long i) {
+		int length = buffer.size();
+		data.write(dataEnd, buffer.array(), 0, length);
+		writeIndex(i, dataEnd, length);
+		dataEnd += length;
+	}
+
+	private ByteBuffer readIndex(long i) {
+		index.read(i * INDEX_RECORD_SIZE, indexRecord, 0, INDEX_RECORD_SIZE);
+		return ByteBuffer.wrap(indexRecord);
+	}
+
+	private void writeIndex(long i, long offset, int length) {
+		ByteBuffer.wrap(indexRecord).putLong(offset).putInt(length);
+		index.write(i * INDEX_RECORD_SIZE, indexRecord, 0, INDEX_RECORD_SIZE);
+	}
+
+	/**
+	 * Copies the data in use into new files, once there is more garbage than data in use
+	 */
+	private void compactIfNeeded() {
+		if (garbage < MIN_GARBAGE || garbage < dataEnd - garbage) {
+			return;
+		}
+		MappedList<T> compacted = copy(size);
+		try {
+			closeFiles();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		index = compacted.index;
+		data = compacted.data;
+		dataEnd = compacted.dataEnd;
+		garbage = 0;
+	}
+
+	/**
+	 * A {@link ByteArrayOutputStream} that gives access to its array, so the encoded element is not copied
+	 */
+	private static class RecordBuffer extends ByteArrayOutputStream {
+
+		private RecordBuffer() {
+			super(64);
+		}
+
+		private byte[] array() {
+			return buf;
+		}
+	}
+
+	/**
+	 * Encodes and decodes the elements of a {@link MappedList}
+	 *
+	 * @param <T> The type of the elements
+	 */
+	public static interface RecordCodec<T> {
+
+		/**
+		 * @return The size of every record in bytes, or 0 if the records have different sizes
+		 */
+		public int getRecordSize();
+
+		/**
+		 * @param out     The output to write the record to
+		 * @param element The element to encode
+		 * @throws IOException If the element can't be written
+		 */
+		public void write(DataOutput out, T element) throws IOException;
+
+		/**
+		 * @param in The input of the record
+		 * @return The decoded element
+		 * @throws IOException If the record can't be read
+		 */
+		public T read(DataInput in) throws IOException;
+	}
+}
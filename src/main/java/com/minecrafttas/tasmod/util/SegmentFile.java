@@ -0,0 +1,237 @@
+package com.minecrafttas.tasmod.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>A temporary file, that is read and written through memory mapped segments of a fixed size.
+ *
+ * <p>Only the most recently used segments stay mapped. Older segments are {@link MappedBuffers#unmap(MappedByteBuffer) unmapped},<br>
+ * so the operating system can write their pages to the file and take them out of memory.<br>
+ * A segment is mapped again when it is accessed, which is cheap as long as its pages are still in the page cache.
+ *
+ * <p>The file is created on the first write, emptied on {@link #clear()} and deleted on {@link #close()}.<br>
+ * Reads and writes can span multiple segments. This class is not thread-safe.
+ *
+ * @author Scribble
+ * @see MappedList
+ */
+public class SegmentFile implements Closeable {
+
+	/**
+	 * The size of a segment, 4 MiB
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 1 << 22;
+
+	/**
+	 * The amount of segments that stay mapped
+	 */
+	public static final int DEFAULT_CACHED_SEGMENTS = 4;
+
+	private final Path directory;
+
+	private final String prefix;
+
+	private final int segmentSize;
+
+	/**
+	 * The mapped segments by their index, in the order they were accessed
+	 */
+	private final LinkedHashMap<Long, MappedByteBuffer> cache;
+
+	private Path file;
+
+	private FileChannel channel;
+
+	/**
+	 * @param directory The directory of the temporary file, which is created if it does not exist
+	 * @param prefix    The start of the file name
+	 */
+	public SegmentFile(Path directory, String prefix) {
+		this(directory, prefix, DEFAULT_SEGMENT_SIZE, DEFAULT_CACHED_SEGMENTS);
+	}
+
+	/**
+	 * @param directory      The directory of the temporary file, which is created if it does not exist
+	 * @param prefix         The start of the file name
+	 * @param segmentSize    The size of a mapped segment in bytes
+	 * @param cachedSegments The amount of segments that stay mapped
+	 */
+	public SegmentFile(Path directory, String prefix, int segmentSize, int cachedSegments) {
+		if (segmentSize <= 0 || cachedSegments <= 0) {
+			throw new IllegalArgumentException(String.format("Invalid segment size %s or amount of cached segments %s", segmentSize, cachedSegments));
+		}
+		this.directory = directory;
+		this.prefix = prefix;
+		this.segmentSize = segmentSize;
+		this.cache = new LinkedHashMap<Long, MappedByteBuffer>(cachedSegments * 2, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, MappedByteBuffer> eldest) {
+				if (size() <= cachedSegments) {
+					return false;
+				}
+				MappedBuffers.unmap(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Writes bytes to the file, growing it if necessary
+	 *
+	 * @param position The position in the file
+	 * @param src      The bytes to write
+	 * @param offset   The first byte in src
+	 * @param length   The amount of bytes to write
+	 */
+	public void write(long position, byte[] src, int offset, int length) {
+		while (length > 0) {
+			ByteBuffer segment = segmentAt(position);
+			int amount = Math.min(length, segment.remaining());
+			segment.put(src, offset, amount);
+			position += amount;
+			offset += amount;
+			length -= amount;
+		}
+	}
+
+	/**
+	 * Reads bytes from the file. Bytes that were never written are 0
+	 *
+	 * @param position The position in the file
+	 * @param dst      The array to read into
+	 * @param offset   The first byte in dst
+	 * @param length   The amount of bytes to read
+	 */
+	public void read(long position, byte[] dst, int offset, int length) {
+		while (length > 0) {
+			ByteBuffer segment = segmentAt(position);
+			int amount = Math.min(length, segment.remaining());
+			segment.get(dst, offset, amount);
+			position += amount;
+			offset += amount;
+			length -= amount;
+		}
+	}
+
+	/**
+	 * Copies bytes of this file into another file, without decoding them
+	 *
+	 * @param position       The position in this file
+	 * @param target         The file to write to
+	 * @param targetPosition The position in the target file
+	 * @param length         The amount of bytes to copy
+	 */
+	public void copyTo(long position, SegmentFile target, long targetPosition, long length) {
+		byte[] buffer = new byte[(int) Math.min(length, 1 << 16)];
+		while (length > 0) {
+			int amount = (int) Math.min(length, buffer.length);
+			read(position, buffer, 0, amount);
+			target.write(targetPosition, buffer, 0, amount);
+			position += amount;
+			targetPosition += amount;
+			length -= amount;
+		}
+	}
+
+	/**
+	 * <p>Unmaps the segments and empties the file, which is reused by the next write.
+	 *
+	 * <p>Bytes that were written before are 0 afterwards.
+	 *
+	 * @throws IOException If the file can't be emptied or closed
+	 */
+	public void clear() throws IOException {
+		unmapSegments();
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.truncate(0);
+		} catch (IOException e) {
+			// If the segments could not be unmapped, the file can't be truncated on Windows, so a new file is created instead
+			close();
+		}
+	}
+
+	/**
+	 * Unmaps the segments and deletes the file. The file is created again on the next write
+	 */
+	@Override
+	public void close() throws IOException {
+		unmapSegments();
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+		if (file != null) {
+			Path toDelete = file;
+			file = null;
+			try {
+				Files.deleteIfExists(toDelete);
+			} catch (IOException e) {
+				// On Windows, the file can't be deleted while a segment is mapped, if unmapping is not supported
+				toDelete.toFile().deleteOnExit();
+			}
+		}
+	}
+
+	/**
+	 * @return The path of the file, or null if nothing was written yet
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Unmaps every cached segment. The views of the segments must not be used afterwards
+	 */
+	private void unmapSegments() {
+		for (MappedByteBuffer segment : cache.values()) {
+			MappedBuffers.unmap(segment);
+		}
+		cache.clear();
+	}
+
+	/**
+	 * @param position The position in the file
+	 * @return A view of the segment that contains the position, starting at the position
+	 */
+	private ByteBuffer segmentAt(long position) {
+		if (position < 0) {
+			throw new IndexOutOfBoundsException("Negative position " + position);
+		}
+		long index = position / segmentSize;
+		MappedByteBuffer segment = cache.get(index);
+		if (segment == null) {
+			segment = map(index);
+			cache.put(index, segment);
+		}
+		ByteBuffer view = segment.duplicate();
+		view.position((int) (position % segmentSize));
+		return view;
+	}
+
+	private MappedByteBuffer map(long index) {
+		try {
+			if (channel == null) {
+				Files.createDirectories(directory);
+				file = Files.createTempFile(directory, prefix, ".segments");
+				channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			}
+			return channel.map(MapMode.READ_WRITE, index * segmentSize, segmentSize);
+		} catch (IOException e) {
+			throw new UncheckedIOException(String.format("Can't map segment %s of %s", index, file), e);
+		}
+	}
+}
@@ -0,0 +1,352 @@
+package com.minecrafttas.tasmod.virtual;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>The set of pressed keycodes in a {@link VirtualPeripheral}.
+ *
+ * <p>Every keycode from {@link #MIN_KEYCODE} to {@link #MAX_KEYCODE} has one bit in a few longs,<br>
+ * which covers the mouse buttons with their negative keycodes and all keyboard keys.<br>
+ * Pressing, releasing and checking a key only sets or reads that bit, without boxing the keycode.
+ *
+ * <p>The keycodes are additionally kept in an int array in the order they were pressed,<br>
+ * as that order is serialised and the last pressed key is used for repeat events in {@link VirtualKeyboard}.<br>
+ * Keycodes outside of the bits, which can only come from numbers in a TASfile, are only kept in that array.
+ *
+ * @author Scribble
+ */
+public class KeySet extends AbstractSet<Integer> {
+
+	/**
+	 * The lowest keycode that has a bit
+	 */
+	public static final int MIN_KEYCODE = -128;
+
+	private static final int WORDS = 8;
+
+	/**
+	 * The highest keycode that has a bit
+	 */
+	public static final int MAX_KEYCODE = MIN_KEYCODE + WORDS * Long.SIZE - 1;
+
+	private final long[] bits = new long[WORDS];
+
+	/**
+	 * The keycodes in the order they were added
+	 */
+	private int[] order = new int[4];
+
+	private int size;
+
+	/**
+	 * The amount of keycodes that are outside of the {@link #bits}
+	 */
+	private int outside;
+
+	/**
+	 * Counts the changes of this set, to fail fast in the iterator
+	 */
+	private int modCount;
+
+	public KeySet() {
+	}
+
+	/**
+	 * @param keycodes The keycodes to add, in the order of the collection
+	 */
+	public KeySet(Collection<Integer> keycodes) {
+		if (keycodes instanceof KeySet) {
+			KeySet other = (KeySet) keycodes;
+			System.arraycopy(other.bits, 0, bits, 0, WORDS);
+			order = Arrays.copyOf(other.order, Math.max(other.size, 4));
+			size = other.size;
+			outside = other.outside;
+		} else {
+			for (int keycode : keycodes) {
+				add(keycode);
+			}
+		}
+	}
+
+	/**
+	 * Adds a keycode at the end of the order, if it is not already in this set
+	 *
+	 * @param keycode The keycode to add
+	 * @return If the keycode was added
+	 */
+	public boolean add(int keycode) {
+		if (isInRange(keycode)) {
+			int index = keycode - MIN_KEYCODE;
+			long mask = 1L << index;
+			if ((bits[index >>> 6] & mask) != 0) {
+				return false;
+			}
+			bits[index >>> 6] |= mask;
+		} else {
+			if (indexOf(keycode) != -1) {
+				return false;
+			}
+			outside++;
+		}
+		if (size == order.length) {
+			order = Arrays.copyOf(order, size * 2);
+		}
+		order[size++] = keycode;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean add(Integer keycode) {
+		return add(keycode.intValue());
+	}
+
+	/**
+	 * Removes a keycode and moves the keycodes that were added after it forward
+	 *
+	 * @param keycode The keycode to remove
+	 * @return If the keycode was in this set
+	 */
+	public boolean remove(int keycode) {
+		if (isInRange(keycode)) {
+			int index = keycode - MIN_KEYCODE;
+			long mask = 1L << index;
+			if ((bits[index >>> 6] & mask) == 0) {
+				return false;
+			}
+			bits[index >>> 6] &= ~mask;
+		} else if (indexOf(keycode) == -1) {
+			return false;
+		} else {
+			outside--;
+		}
+		removeOrder(indexOf(keycode));
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return o instanceof Integer && remove(((Integer) o).intValue());
+	}
+
+	/**
+	 * @param keycode The keycode to check
+	 * @return If the keycode is in this set
+	 */
+	public boolean contains(int keycode) {
+		if (isInRange(keycode)) {
+			int index = keycode - MIN_KEYCODE;
+			return (bits[index >>> 6] & 1L << index) != 0;
+		}
+		return outside != 0 && indexOf(keycode) != -1;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Integer && contains(((Integer) o).intValue());
+	}
+
+	/**
+	 * @param index The position in the order the keycodes were added
+	 * @return The keycode at that position
+	 * @throws IndexOutOfBoundsException If the index is not in this set
+	 */
+	public int get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(String.format("Index %s is out of bounds for %s keys", index, size));
+		}
+		return order[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(bits, 0L);
+		size = 0;
+		outside = 0;
+		modCount++;
+	}
+
+	/**
+	 * Replaces the keycodes in this set with the keycodes of another set, including their order
+	 *
+	 * @param other The set to copy from
+	 */
+	public void copyFrom(KeySet other) {
+		System.arraycopy(other.bits, 0, bits, 0, WORDS);
+		if (order.length < other.size) {
+			order = new int[other.order.length];
+		}
+		System.arraycopy(other.order, 0, order, 0, other.size);
+		size = other.size;
+		outside = other.outside;
+		modCount++;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if (!(c instanceof KeySet)) {
+			return super.containsAll(c);
+		}
+		KeySet other = (KeySet) c;
+		for (int i = 0; i < WORDS; i++) {
+			if ((other.bits[i] & ~bits[i]) != 0) {
+				return false;
+			}
+		}
+		return other.outside == 0 || containsOutside(other);
+	}
+
+	/**
+	 * <p>Passes the keycodes that are in this set, but not in the other set, to the action, in the order they were added.
+	 *
+	 * <p>The bits of both sets are compared with XOR first,
+	 * so nothing is iterated if the sets contain the same keycodes.
+	 *
+	 * @param other  The set to compare with
+	 * @param action The action that receives the missing keycodes
+	 */
+	public void forEachMissing(KeySet other, IntConsumer action) {
+		long changed = 0;
+		for (int i = 0; i < WORDS; i++) {
+			changed |= bits[i] ^ other.bits[i];
+		}
+		if (changed == 0 && outside == 0) {
+			return;
+		}
+		for (int i = 0; i < size; i++) {
+			int keycode = order[i];
+			boolean missing;
+			if (isInRange(keycode)) {
+				int index = keycode - MIN_KEYCODE;
+				// The bit is set in this set, so it is only set in the XOR if the other set does not contain it
+				missing = ((bits[index >>> 6] ^ other.bits[index >>> 6]) & 1L << index) != 0;
+			} else {
+				missing = !other.contains(keycode);
+			}
+			if (missing) {
+				action.accept(keycode);
+			}
+		}
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Iterator<Integer>() {
+
+			private int cursor;
+
+			private int last = -1;
+
+			private int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < size;
+			}
+
+			@Override
+			public Integer next() {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (cursor >= size) {
+					throw new NoSuchElementException();
+				}
+				last = cursor++;
+				return order[last];
+			}
+
+			@Override
+			public void remove() {
+				if (last == -1) {
+					throw new IllegalStateException();
+				}
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				KeySet.this.remove(order[last]);
+				cursor = last;
+				last = -1;
+				expectedModCount = modCount;
+			}
+		};
+	}
+
+	/**
+	 * Compares the keycodes of both sets, regardless of their order. Compares the bits directly if the other set is a KeySet
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof KeySet)) {
+			return super.equals(o);
+		}
+		KeySet other = (KeySet) o;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < WORDS; i++) {
+			if ((bits[i] ^ other.bits[i]) != 0) {
+				return false;
+			}
+		}
+		return outside == 0 || containsOutside(other);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = 0; i < size; i++) {
+			hash += order[i];
+		}
+		return hash;
+	}
+
+	private static boolean isInRange(int keycode) {
+		return keycode >= MIN_KEYCODE && keycode <= MAX_KEYCODE;
+	}
+
+	/**
+	 * @param other The set whose keycodes outside of the bits are checked
+	 * @return If this set contains every keycode of the other set that is outside of the bits
+	 */
+	private boolean containsOutside(KeySet other) {
+		for (int i = 0; i < other.size; i++) {
+			int keycode = other.order[i];
+			if (!isInRange(keycode) && indexOf(keycode) == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int indexOf(int keycode) {
+		for (int i = 0; i < size; i++) {
+			if (order[i] == keycode) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void removeOrder(int index) {
+		System.arraycopy(order, index + 1, order, index, size - index - 1);
+		size--;
+		modCount++;
+	}
+}
@@ -0,0 +1,94 @@
+package com.minecrafttas.tasmod.virtual;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * <p>Stands in for a {@link VirtualKeyboard}, {@link VirtualMouse} or {@link VirtualCameraAngle} when it is serialised with Java serialisation, e.g. by a BigArrayList.
+ *
+ * <p>Default serialisation would write the class descriptors, the boxed keycodes and every subtick as an object.<br>
+ * This proxy writes a version, the type of the peripheral and the binary form of the peripheral instead,
+ * and is {@link #readResolve() replaced} by the peripheral again when it is deserialised.
+ *
+ * <pre>
+ * version type peripheral...
+ * </pre>
+ *
+ * @author Scribble
+ */
+public class SerialisedPeripheral implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The version of the binary form. Is increased when the layout of a peripheral changes
+	 */
+	private static final int VERSION = 2;
+
+	private static final int KEYBOARD = 0;
+
+	private static final int MOUSE = 1;
+
+	private static final int CAMERA_ANGLE = 2;
+
+	private Object peripheral;
+
+	/**
+	 * Used by the deserialisation
+	 */
+	public SerialisedPeripheral() {
+	}
+
+	SerialisedPeripheral(Object peripheral) {
+		this.peripheral = peripheral;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(VERSION);
+		if (peripheral instanceof VirtualKeyboard) {
+			out.writeByte(KEYBOARD);
+			((VirtualKeyboard) peripheral).write(out);
+		} else if (peripheral instanceof VirtualMouse) {
+			out.writeByte(MOUSE);
+			((VirtualMouse) peripheral).write(out);
+		} else if (peripheral instanceof VirtualCameraAngle) {
+			out.writeByte(CAMERA_ANGLE);
+			((VirtualCameraAngle) peripheral).write(out);
+		} else {
+			throw new InvalidObjectException("Can't serialise " + peripheral);
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new InvalidObjectException(String.format("Unsupported version %s of a serialised peripheral, expected %s", version, VERSION));
+		}
+		int type = in.readUnsignedByte();
+		switch (type) {
+			case KEYBOARD:
+				peripheral = VirtualKeyboard.read(in);
+				break;
+			case MOUSE:
+				peripheral = VirtualMouse.read(in);
+				break;
+			case CAMERA_ANGLE:
+				peripheral = VirtualCameraAngle.read(in);
+				break;
+			default:
+				throw new InvalidObjectException("Unknown type of a serialised peripheral: " + type);
+		}
+	}
+
+	/**
+	 * @return The deserialised peripheral, which replaces this proxy
+	 */
+	private Object readResolve() {
+		return peripheral;
+	}
+}
@@ -1,10 +1,23 @@
 package com.minecrafttas.tasmod.virtual;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 import com.google.common.collect.ImmutableList;
 
 public class Subtickable<T> {
+
+	/**
+	 * Flag in the header of {@link #writeHeader(DataOutput)}, if the peripheral is a parent
+	 */
+	protected static final int PARENT = 1;
+
+	/**
+	 * Flag in the header of {@link #writeHeader(DataOutput)}, if the first update is {@link #ignoreFirstUpdate ignored}
+	 */
+	protected static final int IGNORE_FIRST_UPDATE = 2;
+
 	/**
 	 * A list of subtick peripherals.<br>
 	 * If a peripheral <em>parent</em> is updated, it first adds it's current state
@@ -72,6 +85,27 @@ public List<T> getAll() {
 		return ImmutableList.<T>builder().addAll(subtickList).add((T) this).build();
 	}
 
+	/**
+	 * @return The size of {@link #getAll()}, without copying the subticks
+	 */
+	public int getAllSize() {
+		return subtickList.size() + 1;
+	}
+
+	/**
+	 * Gets a peripheral state from {@link #getAll()}, without copying the subticks
+	 *
+	 * @param index The index of the state, where the last index is the current state
+	 * @return The peripheral state at the index
+	 */
+	@SuppressWarnings("unchecked")
+	public T getFromAll(int index) {
+		if (index == subtickList.size()) {
+			return (T) this;
+		}
+		return subtickList.get(index);
+	}
+
 	protected void clear() {
 		subtickList.clear();
 	}
@@ -99,6 +133,20 @@ protected void resetFirstUpdate() {
 		ignoreFirstUpdate = true;
 	}
 
+	/**
+	 * Writes the start of the binary form of a peripheral.<br>
+	 * Consists of a byte with the {@link #PARENT} and {@link #IGNORE_FIRST_UPDATE} flags, followed by the amount of subticks, if this is a parent.
+	 *
+	 * @param out The output to write to
+	 * @throws IOException If the output can't be written
+	 */
+	protected void writeHeader(DataOutput out) throws IOException {
+		out.writeByte((isParent() ? PARENT : 0) | (ignoreFirstUpdate ? IGNORE_FIRST_UPDATE : 0));
+		if (isParent()) {
+			out.writeInt(subtickList.size());
+		}
+	}
+
 	public boolean isEmpty() {
 		if (isParent()) {
 			return subtickList.isEmpty();
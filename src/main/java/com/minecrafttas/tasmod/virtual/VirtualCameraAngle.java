@@ -1,5 +1,8 @@
 package com.minecrafttas.tasmod.virtual;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -219,6 +222,72 @@ public String toString2() {
 		return String.format("%s;%s", pitch, yaw);
 	}
 
+	/**
+	 * <p>Writes this camera angle and its subticks in a binary form, that is read again by {@link #read(DataInput)}.
+	 *
+	 * <pre>
+	 * header, per subtick and this camera angle: flags [pitch] [yaw]
+	 * </pre>
+	 *
+	 * The flags contain which of the angles are not null, so null angles take no space.
+	 *
+	 * @param out The output to write to
+	 * @throws IOException If the output can't be written
+	 * @see Subtickable#writeHeader(DataOutput)
+	 */
+	public void write(DataOutput out) throws IOException {
+		writeHeader(out);
+		if (isParent()) {
+			for (VirtualCameraAngle subtick : subtickList) {
+				subtick.writeState(out);
+			}
+		}
+		writeState(out);
+	}
+
+	private void writeState(DataOutput out) throws IOException {
+		out.writeByte((pitch != null ? 1 : 0) | (yaw != null ? 2 : 0));
+		if (pitch != null) {
+			out.writeFloat(pitch);
+		}
+		if (yaw != null) {
+			out.writeFloat(yaw);
+		}
+	}
+
+	/**
+	 * @param in The input to read from
+	 * @return The camera angle that was written by {@link #write(DataOutput)}
+	 * @throws IOException If the input can't be read
+	 */
+	public static VirtualCameraAngle read(DataInput in) throws IOException {
+		int header = in.readUnsignedByte();
+		boolean ignoreFirstUpdate = (header & IGNORE_FIRST_UPDATE) != 0;
+		List<VirtualCameraAngle> subticks = null;
+		if ((header & PARENT) != 0) {
+			int count = in.readInt();
+			subticks = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				subticks.add(readState(in, null, false));
+			}
+		}
+		return readState(in, subticks, ignoreFirstUpdate);
+	}
+
+	private static VirtualCameraAngle readState(DataInput in, List<VirtualCameraAngle> subticks, boolean ignoreFirstUpdate) throws IOException {
+		int flags = in.readUnsignedByte();
+		Float pitch = (flags & 1) != 0 ? in.readFloat() : null;
+		Float yaw = (flags & 2) != 0 ? in.readFloat() : null;
+		return new VirtualCameraAngle(pitch, yaw, subticks, ignoreFirstUpdate);
+	}
+
+	/**
+	 * Serialises this camera angle as a {@link SerialisedPeripheral}, instead of serialising the subticks and the boxed angles as objects
+	 */
+	private Object writeReplace() {
+		return new SerialisedPeripheral(this);
+	}
+
 	/**
 	 * @return {@link #pitch}
 	 */
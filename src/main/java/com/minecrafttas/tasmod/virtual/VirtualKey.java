@@ -150,6 +150,64 @@ public enum VirtualKey {
 	MBUTTON15(-86),
 	MBUTTON16(-85);
 
+	/**
+	 * The keys in declaration order. Cached, as {@link #values()} copies the array on every call
+	 */
+	private static final VirtualKey[] VALUES = values();
+
+	/**
+	 * The lowest keycode of all keys, used as the offset into {@link #BY_KEYCODE}
+	 */
+	private static final int MIN_KEYCODE;
+
+	/**
+	 * The keys indexed by their keycode minus {@link #MIN_KEYCODE}. Keycodes without a key are null
+	 */
+	private static final VirtualKey[] BY_KEYCODE;
+
+	/**
+	 * <p>The keys indexed by the case insensitive hash of their name, starting from {@link #NAME_SEED}.
+	 *
+	 * <p>The seed is chosen when the class is loaded, so that every key has its own slot.<br>
+	 * A name is found by checking the one key in its slot, instead of comparing it to every key.
+	 */
+	private static final VirtualKey[] BY_NAME;
+
+	private static final int NAME_SEED;
+
+	private static final int NAME_SHIFT;
+
+	static {
+		int min = 0;
+		int max = 0;
+		for (VirtualKey key : VALUES) {
+			min = Math.min(min, key.keycode);
+			max = Math.max(max, key.keycode);
+		}
+		MIN_KEYCODE = min;
+		BY_KEYCODE = new VirtualKey[max - min + 1];
+		for (VirtualKey key : VALUES) {
+			if (BY_KEYCODE[key.keycode - min] == null) {
+				BY_KEYCODE[key.keycode - min] = key;
+			}
+		}
+
+		int bits = 32 - Integer.numberOfLeadingZeros(VALUES.length * 16);
+		VirtualKey[] table = null;
+		int seed = 0;
+		while (table == null) {
+			seed++;
+			if (seed > 10000) {
+				seed = 1;
+				bits++;
+			}
+			table = createNameTable(seed, 32 - bits);
+		}
+		BY_NAME = table;
+		NAME_SEED = seed;
+		NAME_SHIFT = 32 - bits;
+	}
+
 	private final int keycode;
 
 	private VirtualKey(int keycode) {
@@ -175,12 +233,11 @@ public static String getName(int keycode) {
 	}
 
 	public static VirtualKey get(int keycode) {
-		for (VirtualKey key : values()) {
-			if (key.getKeycode() == keycode) {
-				return key;
-			}
+		int index = keycode - MIN_KEYCODE;
+		if (index < 0 || index >= BY_KEYCODE.length) {
+			return null;
 		}
-		return null;
+		return BY_KEYCODE[index];
 	}
 
 	public static VirtualKey get(String keyname) {
@@ -188,12 +245,46 @@ public static VirtualKey get(String keyname) {
 			return null;
 		}
 
-		for (VirtualKey key : values()) {
-			if (key.name().equalsIgnoreCase(keyname)) {
-				return key;
-			}
+		VirtualKey key = BY_NAME[nameSlot(keyname, NAME_SEED, NAME_SHIFT)];
+		if (key != null && key.name().equalsIgnoreCase(keyname)) {
+			return key;
 		}
 		return null;
 	}
 
+	/**
+	 * @param seed  The start value of the hash
+	 * @param shift The amount of bits to shift the multiplied hash, which leaves the upper bits as the slot
+	 * @return A table of all keys by the slots of their names, or null if two names share a slot
+	 */
+	private static VirtualKey[] createNameTable(int seed, int shift) {
+		VirtualKey[] table = new VirtualKey[1 << (32 - shift)];
+		for (VirtualKey key : VALUES) {
+			int slot = nameSlot(key.name(), seed, shift);
+			if (table[slot] != null) {
+				return null;
+			}
+			table[slot] = key;
+		}
+		return table;
+	}
+
+	/**
+	 * Hashes a name with every character folded to lower case in the same way as {@link String#equalsIgnoreCase(String)},
+	 * so names that only differ in case end up in the same slot
+	 */
+	private static int nameSlot(String name, int seed, int shift) {
+		int hash = seed;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c >= 'A' && c <= 'Z') {
+				c += 'a' - 'A';
+			} else if (c >= 128) {
+				c = Character.toLowerCase(Character.toUpperCase(c));
+			}
+			hash = (hash ^ c) * 0x01000193;
+		}
+		return (hash * 0x9E3779B9) >>> shift;
+	}
+
 }
@@ -1,17 +1,16 @@
 package com.minecrafttas.tasmod.virtual;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.StringUtils;
-
 import com.google.common.collect.ImmutableList;
 import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
 import com.minecrafttas.tasmod.virtual.event.VirtualKeyboardEvent;
@@ -87,7 +86,7 @@ public class VirtualKeyboard extends VirtualPeripheral<VirtualKeyboard> implemen
 	 * Creates an empty parent keyboard with all keys unpressed
 	 */
 	public VirtualKeyboard() {
-		this(new LinkedHashSet<>(), new ArrayList<>(), new ArrayList<>(), true);
+		this(new KeySet(), new ArrayList<>(), new ArrayList<>(), true);
 	}
 
 	/**
@@ -234,11 +233,7 @@ public void getDifference(VirtualKeyboard nextKeyboard, Queue<VirtualKeyboardEve
 		    -------------
 		            A     <- unpressed
 		 */
-		for (int key : pressedKeys) {
-			if (!nextKeyboard.getPressedKeys().contains(key)) {
-				reference.add(new VirtualKeyboardEvent(key, false, Character.MIN_VALUE));
-			}
-		}
+		pressedKeys.forEachMissing(nextKeyboard.pressedKeys, key -> reference.add(new VirtualKeyboardEvent(key, false, Character.MIN_VALUE)));
 
 		/*
 		 	Calculate pressed keys
@@ -247,13 +242,8 @@ public void getDifference(VirtualKeyboard nextKeyboard, Queue<VirtualKeyboardEve
 		 	-------------
 		 	            D <- pressed
 		 */
-		int lastKey = 0;
-		for (int key : nextKeyboard.getPressedKeys()) {
-			lastKey = key;
-			if (!this.pressedKeys.contains(key)) {
-				reference.add(new VirtualKeyboardEvent(key, true, getOrMinChar(charQueue.poll())));
-			}
-		}
+		nextKeyboard.pressedKeys.forEachMissing(pressedKeys, key -> reference.add(new VirtualKeyboardEvent(key, true, getOrMinChar(charQueue.poll()))));
+		int lastKey = nextKeyboard.pressedKeys.isEmpty() ? 0 : nextKeyboard.pressedKeys.get(nextKeyboard.pressedKeys.size() - 1);
 
 		/*
 			Add the rest of the characters as keyboard events.
@@ -266,7 +256,7 @@ public void getDifference(VirtualKeyboard nextKeyboard, Queue<VirtualKeyboardEve
 			here.
 			
 			However, some functionality like \b or the arrow keys have no associated character, Minecraft instead listens for the keycode.
-			Thats where the "lastKey" comes in. Since we are using a LinkedHashSet, as pressedKeys, we can get the last pressed keycode.
+			Thats where the "lastKey" comes in. Since the KeySet keeps the order of pressedKeys, we can get the last pressed keycode.
 			
 			So, to get the repeat events working, one needs a pressed key and any character.
 			
@@ -311,29 +301,39 @@ public String toString() {
 	}
 
 	public String toString2() {
-		return String.format("%s;%s", super.toString(), charListToString(charList));
+		StringBuilder builder = new StringBuilder();
+		appendTo(builder);
+		return builder.toString();
 	}
 
-	private String charListToString(List<Character> charList) {
-		String charString = "";
-		if (!charList.isEmpty()) {
-			charString = charList.stream().map(Object::toString).collect(Collectors.joining());
-			charString = StringUtils.replace(charString, "\r", "\\n");
-			charString = StringUtils.replace(charString, "\n", "\\n");
+	/**
+	 * Appends the pressed keys and the typed characters of this subtick, like {@link #toString2()}.<br>
+	 * Linebreaks in the typed characters are escaped as "\\n"
+	 *
+	 * @param builder The builder to append to
+	 */
+	public void appendTo(StringBuilder builder) {
+		appendPresses(builder);
+		builder.append(';');
+		for (char c : charList) {
+			if (c == '\r' || c == '\n') {
+				builder.append("\\n");
+			} else {
+				builder.append(c);
+			}
 		}
-		return charString;
 	}
 
 	/**
 	 * Clones this VirtualKeyboard <strong>without</strong> subticks.
 	 */
 	public VirtualKeyboard shallowClone() {
-		return new VirtualKeyboard(new HashSet<>(this.pressedKeys), new ArrayList<>(this.charList), isIgnoreFirstUpdate());
+		return new VirtualKeyboard(new KeySet(this.pressedKeys), new ArrayList<>(this.charList), isIgnoreFirstUpdate());
 	}
 
 	@Override
 	public VirtualKeyboard clone() {
-		return new VirtualKeyboard(new HashSet<>(this.pressedKeys), new ArrayList<>(this.charList), new ArrayList<>(subtickList), isIgnoreFirstUpdate());
+		return new VirtualKeyboard(new KeySet(this.pressedKeys), new ArrayList<>(this.charList), new ArrayList<>(subtickList), isIgnoreFirstUpdate());
 	}
 
 	@Override
@@ -374,7 +374,7 @@ public boolean equals(Object obj) {
 			}
 
 			for (int i = 0; i < charList.size(); i++) {
-				if (charList.get(i) != keyboard.charList.get(i)) {
+				if (!charList.get(i).equals(keyboard.charList.get(i))) {
 					return false;
 				}
 			}
@@ -383,6 +383,70 @@ public boolean equals(Object obj) {
 		return super.equals(obj);
 	}
 
+	/**
+	 * <p>Writes this keyboard and its subticks in a binary form, that is read again by {@link #read(DataInput)}.
+	 *
+	 * <pre>
+	 * header, per subtick and this keyboard: keyCount keys... charCount chars...
+	 * </pre>
+	 *
+	 * @param out The output to write to
+	 * @throws IOException If the output can't be written
+	 * @see Subtickable#writeHeader(DataOutput)
+	 */
+	public void write(DataOutput out) throws IOException {
+		writeHeader(out);
+		if (isParent()) {
+			for (VirtualKeyboard subtick : subtickList) {
+				subtick.writeState(out);
+			}
+		}
+		writeState(out);
+	}
+
+	private void writeState(DataOutput out) throws IOException {
+		writeKeys(out);
+		out.writeShort(charList.size());
+		for (char character : charList) {
+			out.writeChar(character);
+		}
+	}
+
+	/**
+	 * @param in The input to read from
+	 * @return The keyboard that was written by {@link #write(DataOutput)}
+	 * @throws IOException If the input can't be read
+	 */
+	public static VirtualKeyboard read(DataInput in) throws IOException {
+		int header = in.readUnsignedByte();
+		boolean ignoreFirstUpdate = (header & IGNORE_FIRST_UPDATE) != 0;
+		if ((header & PARENT) == 0) {
+			return new VirtualKeyboard(readKeys(in), readChars(in), ignoreFirstUpdate);
+		}
+		int count = in.readInt();
+		List<VirtualKeyboard> subticks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			subticks.add(new VirtualKeyboard(readKeys(in), readChars(in)));
+		}
+		return new VirtualKeyboard(readKeys(in), readChars(in), subticks, ignoreFirstUpdate);
+	}
+
+	private static List<Character> readChars(DataInput in) throws IOException {
+		int count = in.readUnsignedShort();
+		List<Character> out = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			out.add(in.readChar());
+		}
+		return out;
+	}
+
+	/**
+	 * Serialises this keyboard as a {@link SerialisedPeripheral}, instead of serialising the collections and the subticks as objects
+	 */
+	private Object writeReplace() {
+		return new SerialisedPeripheral(this);
+	}
+
 	/**
 	 * @return An immutable {@link #charList}
 	 */
@@ -1,9 +1,11 @@
 package com.minecrafttas.tasmod.virtual;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
@@ -44,7 +46,7 @@ public class VirtualMouse extends VirtualPeripheral<VirtualMouse> implements Ser
 	 * Creates a mouse with no buttons pressed and no data
 	 */
 	public VirtualMouse() {
-		this(new LinkedHashSet<>(), 0, 0, 0, new ArrayList<>(), true);
+		this(new KeySet(), 0, 0, 0, new ArrayList<>(), true);
 	}
 
 	/**
@@ -217,9 +219,11 @@ public void getDifference(VirtualMouse nextMouse, Queue<VirtualMouseEvent> refer
 			}
 			return;
 		}
-		int scrollWheelCopy = nextMouse.scrollWheel;
-		int cursorXCopy = nextMouse.cursorX;
-		int cursorYCopy = nextMouse.cursorY;
+		/*
+		 * The scrollWheel, cursorX and cursorY of the next mouse.
+		 * Only the first event receives them, the following events get 0
+		 */
+		int[] values = { nextMouse.scrollWheel, nextMouse.cursorX, nextMouse.cursorY };
 
 		/* Calculate symmetric difference of keycodes */
 
@@ -230,15 +234,10 @@ public void getDifference(VirtualMouse nextMouse, Queue<VirtualMouseEvent> refer
 		    -------------
 		             RC     <- unpressed
 		 */
-		for (int keycode : pressedKeys) {
-			if (!nextMouse.getPressedKeys().contains(keycode)) {
-				reference.add(new VirtualMouseEvent(keycode, false, scrollWheelCopy, cursorXCopy, cursorYCopy));
-				scrollWheelCopy = 0;
-				cursorXCopy = 0;
-				cursorYCopy = 0;
-			}
-		}
-		;
+		pressedKeys.forEachMissing(nextMouse.pressedKeys, keycode -> {
+			reference.add(new VirtualMouseEvent(keycode, false, values[0], values[1], values[2]));
+			Arrays.fill(values, 0);
+		});
 
 		/*
 		 	Calculate pressed keys
@@ -247,12 +246,7 @@ public void getDifference(VirtualMouse nextMouse, Queue<VirtualMouseEvent> refer
 		 	-------------
 		 	            MC <- pressed
 		 */
-		for (int keycode : nextMouse.getPressedKeys()) {
-			if (!this.pressedKeys.contains(keycode)) {
-				reference.add(new VirtualMouseEvent(keycode, true, scrollWheelCopy, cursorXCopy, cursorYCopy));
-			}
-		}
-		;
+		nextMouse.pressedKeys.forEachMissing(pressedKeys, keycode -> reference.add(new VirtualMouseEvent(keycode, true, values[0], values[1], values[2])));
 	}
 
 	@Override
@@ -280,19 +274,31 @@ public String toString() {
 	}
 
 	public String toString2() {
-		return String.format("%s;%s,%s,%s", super.toString(), scrollWheel, cursorX, cursorY);
+		StringBuilder builder = new StringBuilder();
+		appendTo(builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the pressed buttons, the scroll wheel and the cursor position of this subtick, like {@link #toString2()}
+	 *
+	 * @param builder The builder to append to
+	 */
+	public void appendTo(StringBuilder builder) {
+		appendPresses(builder);
+		builder.append(';').append(scrollWheel).append(',').append(cursorX).append(',').append(cursorY);
 	}
 
 	/**
 	 * Clones this VirtualMouse <strong>without</strong> subticks
 	 */
 	public VirtualMouse shallowClone() {
-		return new VirtualMouse(new HashSet<>(this.pressedKeys), scrollWheel, cursorX, cursorY, null, ignoreFirstUpdate());
+		return new VirtualMouse(new KeySet(this.pressedKeys), scrollWheel, cursorX, cursorY, null, ignoreFirstUpdate());
 	}
 
 	@Override
 	public VirtualMouse clone() {
-		return new VirtualMouse(new HashSet<>(this.pressedKeys), scrollWheel, cursorX, cursorY, new ArrayList<>(subtickList), isIgnoreFirstUpdate());
+		return new VirtualMouse(new KeySet(this.pressedKeys), scrollWheel, cursorX, cursorY, new ArrayList<>(subtickList), isIgnoreFirstUpdate());
 	}
 
 	@Override
@@ -335,6 +341,60 @@ public boolean equals(Object obj) {
 		return super.equals(obj);
 	}
 
+	/**
+	 * <p>Writes this mouse and its subticks in a binary form, that is read again by {@link #read(DataInput)}.
+	 *
+	 * <pre>
+	 * header, per subtick and this mouse: keyCount keys... scrollWheel cursorX cursorY
+	 * </pre>
+	 *
+	 * @param out The output to write to
+	 * @throws IOException If the output can't be written
+	 * @see Subtickable#writeHeader(DataOutput)
+	 */
+	public void write(DataOutput out) throws IOException {
+		writeHeader(out);
+		if (isParent()) {
+			for (VirtualMouse subtick : subtickList) {
+				subtick.writeState(out);
+			}
+		}
+		writeState(out);
+	}
+
+	private void writeState(DataOutput out) throws IOException {
+		writeKeys(out);
+		out.writeInt(scrollWheel);
+		out.writeInt(cursorX);
+		out.writeInt(cursorY);
+	}
+
+	/**
+	 * @param in The input to read from
+	 * @return The mouse that was written by {@link #write(DataOutput)}
+	 * @throws IOException If the input can't be read
+	 */
+	public static VirtualMouse read(DataInput in) throws IOException {
+		int header = in.readUnsignedByte();
+		boolean ignoreFirstUpdate = (header & IGNORE_FIRST_UPDATE) != 0;
+		if ((header & PARENT) == 0) {
+			return new VirtualMouse(readKeys(in), in.readInt(), in.readInt(), in.readInt(), null, ignoreFirstUpdate);
+		}
+		int count = in.readInt();
+		List<VirtualMouse> subticks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			subticks.add(new VirtualMouse(readKeys(in), in.readInt(), in.readInt(), in.readInt()));
+		}
+		return new VirtualMouse(readKeys(in), in.readInt(), in.readInt(), in.readInt(), subticks, ignoreFirstUpdate);
+	}
+
+	/**
+	 * Serialises this mouse as a {@link SerialisedPeripheral}, instead of serialising the collections and the subticks as objects
+	 */
+	private Object writeReplace() {
+		return new SerialisedPeripheral(this);
+	}
+
 	/**
 	 * @return {@link #scrollWheel}
 	 */
@@ -1,5 +1,8 @@
 package com.minecrafttas.tasmod.virtual;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +15,7 @@
  * Base class for {@link VirtualKeyboard} and {@link VirtualMouse}<br>
  * <br>
  * Contains the shared code for keeping track of which buttons are pressed.<br>
- * This works by storing the keycodes of the buttons in a set, as keycodes are
+ * This works by storing the keycodes of the buttons in a {@link KeySet}, as keycodes are
  * supposed to be unique<br>
  * <br>
  * Generating {@link VirtualEvent}s is handled in the child classes.
@@ -24,18 +27,18 @@
 	/**
 	 * The list of keycodes that are currently pressed on this peripheral.
 	 */
-	protected final Set<Integer> pressedKeys;
+	protected final KeySet pressedKeys;
 
 	/**
 	 * Creates a VirtualPeripheral
 	 * 
-	 * @param pressedKeys       The {@link #pressedKeys}
+	 * @param pressedKeys       The {@link #pressedKeys}. Other sets than a {@link KeySet} are copied in their iteration order
 	 * @param subtickList       The {@link #subtickList}
 	 * @param ignoreFirstUpdate The {@link #ignoreFirstUpdate} state
 	 */
 	protected VirtualPeripheral(Set<Integer> pressedKeys, List<T> subtickList, boolean ignoreFirstUpdate) {
 		super(subtickList, ignoreFirstUpdate);
-		this.pressedKeys = pressedKeys;
+		this.pressedKeys = pressedKeys instanceof KeySet ? (KeySet) pressedKeys : new KeySet(pressedKeys);
 	}
 
 	/**
@@ -61,9 +64,9 @@ protected void setPressed(int keycode, boolean keystate) {
 	 * @param keystate The keystate of the keyname
 	 */
 	public void setPressed(String keyname, boolean keystate) {
-		Integer keycode = VirtualKey.getKeycode(keyname);
-		if (keycode != null) {
-			setPressed(keycode, keystate);
+		VirtualKey key = VirtualKey.get(keyname);
+		if (key != null) {
+			setPressed(key.getKeycode(), keystate);
 		}
 	}
 
@@ -72,9 +75,9 @@ public void setPressed(String keyname, boolean keystate) {
 	 */
 	public List<String> getCurrentPresses() {
 		List<String> out = new ArrayList<>();
-		pressedKeys.forEach(keycode -> {
-			out.add(VirtualKey.getName(keycode));
-		});
+		for (int i = 0; i < pressedKeys.size(); i++) {
+			out.add(VirtualKey.getName(pressedKeys.get(i)));
+		}
 		return out;
 	}
 
@@ -87,7 +90,30 @@ public void createSubtick() {
 
 	@Override
 	public String toString() {
-		return String.join(",", getCurrentPresses());
+		StringBuilder builder = new StringBuilder();
+		appendPresses(builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the currently pressed keynames, separated by commas, like {@link #toString()}.<br>
+	 * Used when serialising, to avoid creating a list and a string for every subtick
+	 *
+	 * @param builder The builder to append the keynames to
+	 */
+	public void appendPresses(StringBuilder builder) {
+		for (int i = 0; i < pressedKeys.size(); i++) {
+			if (i != 0) {
+				builder.append(',');
+			}
+			int keycode = pressedKeys.get(i);
+			VirtualKey key = VirtualKey.get(keycode);
+			if (key != null) {
+				builder.append(key.name());
+			} else {
+				builder.append(keycode);
+			}
+		}
 	}
 
 	/**
@@ -114,7 +140,8 @@ public boolean isKeyDown(int keycode) {
 	 * @return If the key is pressed
 	 */
 	public boolean isKeyDown(String keyname) {
-		return pressedKeys.contains(VirtualKey.getKeycode(keyname));
+		VirtualKey key = VirtualKey.get(keyname);
+		return key != null && pressedKeys.contains(key.getKeycode());
 	}
 
 	/**
@@ -130,12 +157,7 @@ protected void clear() {
 	public boolean equals(Object obj) {
 		if (obj instanceof VirtualPeripheral) {
 			VirtualPeripheral<?> peripheral = (VirtualPeripheral<?>) obj;
-			for (Integer keycode : pressedKeys) {
-				if (!peripheral.pressedKeys.contains(keycode)) {
-					return false;
-				}
-			}
-			return true;
+			return peripheral.pressedKeys.containsAll(pressedKeys);
 		}
 		return super.equals(obj);
 	}
@@ -165,8 +187,7 @@ protected void moveFrom(T peripheral) {
 	protected void copyFrom(T peripheral) {
 		if (peripheral == null)
 			return;
-		this.pressedKeys.clear();
-		this.pressedKeys.addAll(peripheral.pressedKeys);
+		this.pressedKeys.copyFrom(peripheral.pressedKeys);
 	}
 
 	/**
@@ -181,6 +202,34 @@ protected void deepCopyFrom(T peripheral) {
 		this.subtickList.addAll(peripheral.subtickList);
 	}
 
+	/**
+	 * Writes the amount of pressed keys, followed by the keycodes as ints in the order they were pressed.<br>
+	 * Keycodes are not limited to the range of {@link VirtualKey}, as TASfiles can contain any numeric keycode
+	 *
+	 * @param out The output to write to
+	 * @throws IOException If the output can't be written
+	 */
+	protected void writeKeys(DataOutput out) throws IOException {
+		out.writeShort(pressedKeys.size());
+		for (int i = 0; i < pressedKeys.size(); i++) {
+			out.writeInt(pressedKeys.get(i));
+		}
+	}
+
+	/**
+	 * @param in The input to read from
+	 * @return The keycodes that were written by {@link #writeKeys(DataOutput)}
+	 * @throws IOException If the input can't be read
+	 */
+	protected static KeySet readKeys(DataInput in) throws IOException {
+		int count = in.readUnsignedShort();
+		KeySet out = new KeySet();
+		for (int i = 0; i < count; i++) {
+			out.add(in.readInt());
+		}
+		return out;
+	}
+
 	@Override
 	public boolean isEmpty() {
 		boolean flag = pressedKeys.isEmpty();
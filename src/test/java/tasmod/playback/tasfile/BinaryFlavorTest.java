@@ -0,0 +1,270 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.assertBigArrayList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.BinaryFlavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+public class BinaryFlavorTest {
+
+	/**
+	 * Stores the file commands it receives and writes them back when serialising
+	 */
+	private static class TestFileCommand extends PlaybackFileCommandExtension {
+
+		List<List<PlaybackFileCommand>> inline = new ArrayList<>();
+		List<List<PlaybackFileCommand>> endline = new ArrayList<>();
+
+		@Override
+		public String getExtensionName() {
+			return "tasmod_testBinaryExtension";
+		}
+
+		@Override
+		public void onDeserialiseInlineComment(long tick, TickContainer container, PlaybackFileCommandContainer fileCommandContainer) {
+			inline.add(nonNull(fileCommandContainer.get("testKey")));
+		}
+
+		@Override
+		public void onDeserialiseEndlineComment(long tick, TickContainer container, PlaybackFileCommandContainer fileCommandContainer) {
+			endline.add(nonNull(fileCommandContainer.get("endlineKey")));
+		}
+
+		@Override
+		public PlaybackFileCommandContainer onSerialiseInlineComment(long tick, TickContainer container) {
+			PlaybackFileCommandContainer out = new PlaybackFileCommandContainer();
+			if (tick < inline.size()) {
+				for (PlaybackFileCommand command : inline.get((int) tick)) {
+					out.add("testKey", command);
+				}
+			}
+			return out;
+		}
+
+		@Override
+		public PlaybackFileCommandContainer onSerialiseEndlineComment(long tick, TickContainer container) {
+			PlaybackFileCommandContainer out = new PlaybackFileCommandContainer();
+			if (tick < endline.size()) {
+				for (PlaybackFileCommand command : endline.get((int) tick)) {
+					out.add("endlineKey", command);
+				}
+			}
+			return out;
+		}
+
+		private List<PlaybackFileCommand> nonNull(List<PlaybackFileCommand> commands) {
+			List<PlaybackFileCommand> out = new ArrayList<>();
+			if (commands != null) {
+				for (PlaybackFileCommand command : commands) {
+					if (command != null) {
+						out.add(command);
+					}
+				}
+			}
+			return out;
+		}
+
+		@Override
+		public String[] getFileCommandNames() {
+			return new String[] { "testKey", "endlineKey" };
+		}
+
+		@Override
+		public void onClear() {
+			inline.clear();
+			endline.clear();
+		}
+	}
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+	private static BinaryFlavor binaryFlavor = new BinaryFlavor();
+	private static TestFileCommand testFileCommand = new TestFileCommand();
+
+	private List<Path> files = new ArrayList<>();
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(binaryFlavor);
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.register(testFileCommand);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		for (Path file : files) {
+			Files.deleteIfExists(file);
+		}
+		files.clear();
+		testFileCommand.onClear();
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(binaryFlavor);
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.unregister(testFileCommand);
+	}
+
+	/**
+	 * Test saving and loading ticks with subticks, comments, negative mouse keycodes and empty camera angles
+	 */
+	@Test
+	void testRoundTrip() throws PlaybackLoadException, IOException {
+		BigArrayList<TickContainer> expected = new BigArrayList<>();
+
+		// Tick 1
+		VirtualKeyboard keyboard1 = new VirtualKeyboard();
+		keyboard1.updateFromEvent(VirtualKey.W, true, 'w');
+		keyboard1.updateFromEvent(VirtualKey.LCONTROL, true, (char) 0);
+		keyboard1.updateFromEvent(VirtualKey.A, true, 'ä');
+
+		VirtualMouse mouse1 = new VirtualMouse();
+		mouse1.updateFromEvent(VirtualKey.MOUSEMOVED, false, 15, 0, 0);
+		mouse1.updateFromEvent(VirtualKey.LC, true, 0, 1580, 658);
+		mouse1.updateFromEvent(VirtualKey.RC, true, -120, 1570, 640);
+
+		VirtualCameraAngle angle1 = new VirtualCameraAngle();
+		angle1.set(17.85f, -202.74799f);
+		angle1.updateFromEvent(10, 10);
+
+		CommentContainer comments1 = new CommentContainer();
+		comments1.addInlineComment("Tästß");
+		comments1.addInlineComment(null);
+		comments1.addEndlineComment("Repeated");
+
+		expected.add(new TickContainer(keyboard1, mouse1, angle1, comments1));
+
+		// Tick 2, released keys and keys pressed in a different order
+		VirtualKeyboard keyboard2 = new VirtualKeyboard();
+		keyboard2.updateFromState(new int[] { VirtualKey.A.getKeycode(), VirtualKey.W.getKeycode() }, new char[] {});
+		keyboard2.updateFromState(new int[] { VirtualKey.ZERO.getKeycode() }, new char[] { 'x' });
+
+		VirtualMouse mouse2 = new VirtualMouse();
+		mouse2.updateFromState(new int[] { VirtualKey.RC.getKeycode() }, 0, 0, 0);
+
+		CommentContainer comments2 = new CommentContainer();
+		comments2.addInlineComment("Repeated");
+		comments2.addEndlineComment("Repeated");
+
+		expected.add(new TickContainer(keyboard2, mouse2, new VirtualCameraAngle(), comments2));
+
+		// Tick 3, empty
+		expected.add(new TickContainer(new VirtualKeyboard(), new VirtualMouse(), new VirtualCameraAngle(), new CommentContainer()));
+
+		Path file = createFile("BinaryFlavorTest.mctas");
+		PlaybackSerialiser.saveToFile(file, expected, "binary1");
+
+		BigArrayList<TickContainer> actual = PlaybackSerialiser.loadFromFile(file);
+		assertBigArrayList(expected, actual);
+
+		actual = PlaybackSerialiser.loadFromFile(file, "binary1");
+		assertBigArrayList(expected, actual);
+	}
+
+	/**
+	 * Test converting a beta1 TASfile to binary and back
+	 */
+	@Test
+	void testBeta1Conversion() throws PlaybackLoadException, IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add("#################### TASfile #####################");
+		lines.add("Flavor: beta1");
+		lines.add("FileCommand-Extensions: tasmod_testBinaryExtension");
+		lines.add("");
+		lines.add("##################################################");
+		lines.add("// This is a regular comment");
+		lines.add("// $testKey(test, 2);");
+		lines.add("1|W,LCONTROL;w|;0,887,626|17.85;-202.74799");
+		lines.add("\t1||RC;0,1580,658|17.85;-202.74799");
+		lines.add("\t2||;0,1580,658|17.85;-202.74799\t\t// $endlineKey();");
+		lines.add("2|W,LCONTROL;w|LC,RC;15,1580,658|18.0;-201.5");
+		lines.add("\t1|W;|LC;-15,1578,659");
+		lines.add("3|;|;0,1578,659|18.0;-201.5");
+
+		Path beta1File = createFile("BinaryFlavorTest-beta1.mctas");
+		Files.write(beta1File, lines);
+
+		BigArrayList<TickContainer> expected = PlaybackSerialiser.loadFromFile(beta1File);
+		List<List<PlaybackFileCommand>> expectedInline = new ArrayList<>(testFileCommand.inline);
+		List<List<PlaybackFileCommand>> expectedEndline = new ArrayList<>(testFileCommand.endline);
+
+		Path beta1Saved = createFile("BinaryFlavorTest-beta1-saved.mctas");
+		PlaybackSerialiser.saveToFile(beta1Saved, expected, "beta1");
+
+		Path binaryFile = createFile("BinaryFlavorTest-binary.mctas");
+		PlaybackSerialiser.saveToFile(binaryFile, expected, "binary1");
+
+		testFileCommand.onClear();
+		BigArrayList<TickContainer> actual = PlaybackSerialiser.loadFromFile(binaryFile);
+
+		assertBigArrayList(expected, actual);
+		assertIterableEquals(expectedInline, testFileCommand.inline);
+		assertIterableEquals(expectedEndline, testFileCommand.endline);
+
+		Path beta1Converted = createFile("BinaryFlavorTest-beta1-converted.mctas");
+		PlaybackSerialiser.saveToFile(beta1Converted, actual, "beta1");
+
+		assertIterableEquals(Files.readAllLines(beta1Saved), Files.readAllLines(beta1Converted));
+		assertTrue(Files.size(binaryFile) < Files.size(beta1Saved));
+	}
+
+	/**
+	 * Test loading a binary TASfile that was cut off
+	 */
+	@Test
+	void testTruncated() throws IOException {
+		BigArrayList<TickContainer> ticks = new BigArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			VirtualKeyboard keyboard = new VirtualKeyboard();
+			keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+			ticks.add(new TickContainer(keyboard, new VirtualMouse(), new VirtualCameraAngle()));
+		}
+
+		Path file = createFile("BinaryFlavorTest-truncated.mctas");
+		PlaybackSerialiser.saveToFile(file, ticks, "binary1");
+
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+		PlaybackLoadException e = assertThrows(PlaybackLoadException.class, () -> {
+			PlaybackSerialiser.loadFromFile(file);
+		});
+		assertEquals("Line 1, Tick 10, Subtick 0: The binary TASfile ended unexpectedly", e.getMessage());
+	}
+
+	private Path createFile(String name) {
+		Path file = Paths.get("src/test/resources/serialiser/" + name);
+		files.add(file);
+		return file;
+	}
+}
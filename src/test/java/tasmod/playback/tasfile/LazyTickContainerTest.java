@@ -0,0 +1,137 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.assertBigArrayList;
+import static tasmod.playback.tasfile.TickFixtures.createTicks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.LazyTickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class LazyTickContainerTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+	}
+
+	/**
+	 * Test that lazily loaded ticks are only decoded on first access and are equal to the ticks loaded normally
+	 */
+	@Test
+	void testLazyLoad() {
+		BigArrayList<TickContainer> expected = createTicks(300);
+		BigArrayList<String> lines = new Beta1Flavor().serialise(expected, -1);
+
+		BigArrayList<TickContainer> actual = new Beta1Flavor().deserialiseLazy(new TASfileLineReader(lines, 0));
+		assertEquals(expected.size(), actual.size());
+
+		for (long i = 0; i < actual.size(); i++) {
+			assertTrue(actual.get(i) instanceof LazyTickContainer);
+			assertFalse(((LazyTickContainer) actual.get(i)).isMaterialised());
+		}
+
+		LazyTickContainer container = (LazyTickContainer) actual.get(150);
+		assertEquals(expected.get(150).getKeyboard(), container.getKeyboard());
+		assertTrue(container.isMaterialised());
+		assertFalse(((LazyTickContainer) actual.get(151)).isMaterialised());
+
+		assertBigArrayList(new Beta1Flavor().deserialise(new TASfileLineReader(lines, 0)), actual);
+	}
+
+	/**
+	 * Test that comments are read while loading and ticks depending on the previous tick are decoded while loading
+	 */
+	@Test
+	void testDependentTick() {
+		BigArrayList<String> lines = new BigArrayList<>();
+		lines.add("// Inline comment");
+		lines.add("0|W;w|;0,887,626|17.85;-202.74799\t\t// Endline comment");
+		lines.add("1|W;w|;0,887,626|17.85;-202.74799");
+		lines.add("2|W;w|;0,~1,~1|~1;~1");
+		lines.add("3|W;w|;0,887,626|");
+
+		BigArrayList<TickContainer> actual = new Beta1Flavor().deserialiseLazy(new TASfileLineReader(lines, 0));
+		BigArrayList<TickContainer> expected = new Beta1Flavor().deserialise(new TASfileLineReader(lines, 0));
+
+		LazyTickContainer first = (LazyTickContainer) actual.get(0);
+		assertIterableEquals(expected.get(0).getComments().getInlineComments(), first.getComments().getInlineComments());
+		assertIterableEquals(expected.get(0).getComments().getEndlineComments(), first.getComments().getEndlineComments());
+		assertFalse(first.isMaterialised());
+
+		// Decoded while loading, as tick 2 depends on it
+		assertTrue(((LazyTickContainer) actual.get(1)).isMaterialised());
+
+		assertFalse(actual.get(2) instanceof LazyTickContainer);
+		assertFalse(actual.get(3) instanceof LazyTickContainer);
+		assertBigArrayList(expected, actual);
+	}
+
+	/**
+	 * Test that errors in the inputs are thrown when the tick is decoded
+	 */
+	@Test
+	void testDecodeError() {
+		BigArrayList<String> lines = new BigArrayList<>();
+		lines.add("0|W;w|;0,887,626|17.85;-202.74799");
+		lines.add("1|NOTAKEY;w|;0,887,626|17.85;-202.74799");
+
+		BigArrayList<TickContainer> actual = new Beta1Flavor().deserialiseLazy(new TASfileLineReader(lines, 0));
+		assertEquals(2, actual.size());
+
+		PlaybackLoadException exception = assertThrows(PlaybackLoadException.class, () -> {
+			actual.get(1).getKeyboard();
+		});
+		PlaybackLoadException expected = assertThrows(PlaybackLoadException.class, () -> {
+			new Beta1Flavor().deserialise(new TASfileLineReader(lines, 0));
+		});
+		assertEquals(expected.getMessage(), exception.getMessage());
+	}
+
+	/**
+	 * Test that a tick stays lazy, when it is serialised before it was decoded
+	 */
+	@Test
+	void testSerialise() throws Exception {
+		BigArrayList<TickContainer> expected = createTicks(2);
+		BigArrayList<String> lines = new Beta1Flavor().serialise(expected, -1);
+		BigArrayList<TickContainer> lazy = new Beta1Flavor().deserialiseLazy(new TASfileLineReader(lines, 0));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(lazy.get(1));
+		}
+		LazyTickContainer actual;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			actual = (LazyTickContainer) in.readObject();
+		}
+
+		assertFalse(actual.isMaterialised());
+		assertEquals(expected.get(1), actual);
+		assertEquals(expected.get(1).getCameraAngle().toString(), actual.getCameraAngle().toString());
+	}
+}
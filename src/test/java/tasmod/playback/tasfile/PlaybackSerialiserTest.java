@@ -13,6 +13,7 @@
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -28,9 +29,13 @@
 import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata;
 import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata.PlaybackMetadataExtension;
 import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileExtensionBuffer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLoadProgress;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackSaveException;
 import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
 import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
 import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
 import com.minecrafttas.tasmod.virtual.VirtualKey;
@@ -405,6 +410,123 @@ void testFlavorIsNull() {
 
 	}
 
+	@Test
+	void testFlavorMismatch() throws IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add("TASfile");
+		lines.add("Flavor: Test");
+		lines.add("FileCommand-Extensions: ");
+		lines.add("##################################################");
+		lines.add("1|W;w||");
+
+		file = Paths.get("src/test/resources/serialiser/PlaybackSerialiserTest4.mctas");
+		Files.write(file, lines);
+
+		Beta1Flavor beta1Flavor = new Beta1Flavor();
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+		try {
+			Throwable t = assertThrows(PlaybackLoadException.class, () -> {
+				PlaybackSerialiser.loadFromFile(file, "beta1");
+			});
+			assertEquals("Detected flavor Test in the TASfile, which does not match the specified flavor: beta1", t.getMessage());
+
+			assertEquals(testFlavor, PlaybackSerialiser.readFlavor(file));
+			assertEquals(1, PlaybackSerialiser.loadFromFile(file, "Test").size());
+		} finally {
+			TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+		}
+	}
+
+	/**
+	 * Test that loading with a progress counts every byte and every tick
+	 */
+	@Test
+	void testLoadProgress() throws PlaybackLoadException, IOException {
+		file = Paths.get("src/test/resources/serialiser/PlaybackSerialiserTest5.mctas");
+		Files.write(file, createLines(5000));
+
+		TASfileLoadProgress progress = new TASfileLoadProgress(file, Files.size(file));
+		BigArrayList<TickContainer> actual = PlaybackSerialiser.loadFromFile(file, "Test", progress);
+
+		assertEquals(5000, actual.size());
+		assertEquals(5000, progress.getTicks());
+		assertEquals(Files.size(file), progress.getBytes());
+		assertEquals(1f, progress.getFraction());
+	}
+
+	/**
+	 * Test that a cancelled progress stops loading
+	 */
+	@Test
+	void testLoadCancelled() throws IOException {
+		file = Paths.get("src/test/resources/serialiser/PlaybackSerialiserTest6.mctas");
+		Files.write(file, createLines(10));
+
+		TASfileLoadProgress progress = new TASfileLoadProgress(file, Files.size(file));
+		progress.cancel();
+
+		Throwable t = assertThrows(CancellationException.class, () -> {
+			PlaybackSerialiser.loadFromFile(file, "Test", progress);
+		});
+		assertEquals("Loading PlaybackSerialiserTest6.mctas was cancelled", t.getMessage());
+		assertEquals(0, progress.getBytes());
+	}
+
+	/**
+	 * Test that loading with a {@link TASfileExtensionBuffer} only changes the extensions once the buffer is applied,<br>
+	 * and that they receive the same data as when loading without a buffer
+	 */
+	@Test
+	void testLoadExtensionBuffer() throws PlaybackLoadException, IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add("TASfile");
+		lines.add("FileCommand-Extensions: tasmod_testFileExtension");
+		lines.add("Flavor: Test");
+		lines.add("----------- Test ----------");
+		lines.add("TestKey: Buffered");
+		lines.add("##################################################");
+		lines.add("// $testKey(test);");
+		lines.add("1|W;w|| // test");
+		lines.add("\t1|W,T;t||	// $testKey(test);$endlineKey();");
+		lines.add("2|W;w|-101;0,1,1|1;1");
+		lines.add("// Regular comment");
+		lines.add("3|;|-101;0,~1,~1|~1;~1	// $endlineKey(end);");
+
+		file = Paths.get("src/test/resources/serialiser/PlaybackSerialiserTest7.mctas");
+		Files.write(file, lines);
+
+		PlaybackSerialiser.loadFromFile(file);
+		List<PlaybackFileCommandContainer> expectedInline = new ArrayList<>(testFileCommand.inline);
+		List<PlaybackFileCommandContainer> expectedEndline = new ArrayList<>(testFileCommand.endline);
+		testMetadata.onClear();
+		testFileCommand.onClear();
+
+		TASfileExtensionBuffer extensions = new TASfileExtensionBuffer();
+		TASfileLoadProgress progress = new TASfileLoadProgress(file, Files.size(file));
+		BigArrayList<TickContainer> actual = PlaybackSerialiser.loadFromFile(file, "Test", progress, extensions);
+		assertEquals(3, actual.size());
+		assertEquals("e", testMetadata.actual);
+		assertTrue(testFileCommand.inline.isEmpty());
+		assertTrue(testFileCommand.endline.isEmpty());
+
+		extensions.apply(TickStore.of(actual));
+		assertEquals("Buffered", testMetadata.actual);
+		assertIterableEquals(expectedInline, testFileCommand.inline);
+		assertIterableEquals(expectedEndline, testFileCommand.endline);
+	}
+
+	private List<String> createLines(int ticks) {
+		List<String> lines = new ArrayList<>();
+		lines.add("TASfile");
+		lines.add("Flavor: Test");
+		lines.add("FileCommand-Extensions: ");
+		lines.add("##################################################");
+		for (int i = 1; i <= ticks; i++) {
+			lines.add(i + "|W;w||");
+		}
+		return lines;
+	}
+
 	private <T extends Serializable> void assertBigArrayList(BigArrayList<T> expected, BigArrayList<T> actual) {
 		assertIterableEquals(convertBigArrayListToArrayList(expected), convertBigArrayListToArrayList(actual));
 	}
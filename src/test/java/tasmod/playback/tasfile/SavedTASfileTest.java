@@ -0,0 +1,176 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.createTicks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.SavedTASfile;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileJournal;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class SavedTASfileTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+
+	private Path file = Paths.get("src/test/resources/serialiser/SavedTASfileTest.mctas");
+
+	private Path expectedFile = Paths.get("src/test/resources/serialiser/SavedTASfileTestExpected.mctas");
+
+	private Path journalFile = Paths.get("src/test/resources/serialiser/SavedTASfileTest.journal");
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(expectedFile);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+	}
+
+	/**
+	 * Test adding ticks at the end, without rewriting the ticks before them
+	 */
+	@Test
+	void testAppend() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(5000, 0);
+		SavedTASfile saved = PlaybackSerialiser.saveToFile(file, ticks, "beta1", -1, null, null);
+		assertEquals(0, saved.getIndex().getOffset(0) - saved.getHeaderLength());
+		assertEquals(5000, saved.getFirstChangedTick());
+
+		// Change a tick in the middle of the list without marking it as changed, so it is not rewritten when saving again
+		TickContainer original = ticks.get(2000);
+		ticks.set(2000, createTicks(1, 2001).get(0));
+
+		addAll(ticks, createTicks(500, 5000));
+		assertEquals(5000, saved.getFirstChangedTick());
+		saved = PlaybackSerialiser.saveToFile(file, ticks, "beta1", -1, saved, null);
+
+		ticks.set(2000, original);
+		assertSaved(ticks, saved);
+	}
+
+	/**
+	 * Test removing ticks and recording different ticks afterwards, like after loading a savestate
+	 */
+	@Test
+	void testRerecord() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(5000, 0);
+		SavedTASfile saved = PlaybackSerialiser.saveToFile(file, ticks, "beta1", -1, null, null);
+
+		BigArrayList<TickContainer> rerecorded = new BigArrayList<>();
+		for (long i = 0; i < 3000; i++) {
+			rerecorded.add(ticks.get(i));
+		}
+		saved.markChanged(3000);
+		addAll(rerecorded, createTicks(200, 7));
+
+		assertEquals(3000, saved.getFirstChangedTick());
+		saved = PlaybackSerialiser.saveToFile(file, rerecorded, "beta1", -1, saved, null);
+		assertSaved(rerecorded, saved);
+
+		// Saving only a part of the ticks
+		saved = PlaybackSerialiser.saveToFile(file, rerecorded, "beta1", 1500, saved, null);
+		assertSaved(rerecorded, 1500, saved);
+	}
+
+	/**
+	 * Test saving the file completely, if it was changed by something else
+	 */
+	@Test
+	void testModified() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(100, 0);
+		SavedTASfile saved = PlaybackSerialiser.saveToFile(file, ticks, "beta1", -1, null, null);
+
+		replace("\n1|W;w|", "\n1|W;x|");
+		assertFalse(saved.getIndex().matches(file));
+
+		addAll(ticks, createTicks(10, 100));
+		saved = PlaybackSerialiser.saveToFile(file, ticks, "beta1", -1, saved, null);
+		assertSaved(ticks, saved);
+	}
+
+	/**
+	 * Test copying the changed ticks from a journal
+	 */
+	@Test
+	void testJournal() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(3000, 0);
+		try (TASfileJournal journal = new TASfileJournal(journalFile)) {
+			SavedTASfile saved = PlaybackSerialiser.saveToFile(file, ticks, "beta1", -1, null, journal);
+			assertSaved(ticks, saved);
+
+			BigArrayList<TickContainer> rerecorded = new BigArrayList<>();
+			for (long i = 0; i < 2500; i++) {
+				rerecorded.add(ticks.get(i));
+			}
+			journal.truncate(2500);
+			saved.markChanged(2500);
+
+			BigArrayList<TickContainer> newTicks = createTicks(300, 11);
+			for (long i = 0; i < newTicks.size(); i++) {
+				rerecorded.add(newTicks.get(i));
+				journal.append(2500 + i, newTicks.get(i));
+			}
+
+			saved = PlaybackSerialiser.saveToFile(file, rerecorded, "beta1", -1, saved, journal);
+			assertSaved(rerecorded, saved);
+		}
+	}
+
+	private void assertSaved(BigArrayList<TickContainer> ticks, SavedTASfile saved) throws IOException {
+		assertSaved(ticks, -1, saved);
+	}
+
+	private void assertSaved(BigArrayList<TickContainer> ticks, long stopIndex, SavedTASfile saved) throws IOException {
+		PlaybackSerialiser.saveToFile(expectedFile, ticks, "beta1", stopIndex);
+		assertArrayEquals(Files.readAllBytes(expectedFile), Files.readAllBytes(file));
+
+		TASfileIndex index = saved.getIndex();
+		TASfileIndex expected = TASfileIndex.build(file, beta1Flavor, TASfileIndex.DEFAULT_INTERVAL);
+		assertTrue(index.matches(file));
+		assertEquals(expected.getTickCount(), index.getTickCount());
+		assertEquals(expected.size(), index.size());
+		for (int i = 0; i < index.size(); i++) {
+			assertEquals(expected.getTick(i), index.getTick(i));
+			assertEquals(expected.getOffset(i), index.getOffset(i));
+			assertEquals(expected.getLine(i), index.getLine(i));
+			assertEquals(expected.getHash(i), index.getHash(i));
+		}
+	}
+
+	private void replace(String target, String replacement) throws IOException {
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, content.replace(target, replacement).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void addAll(BigArrayList<TickContainer> list, BigArrayList<TickContainer> toAdd) {
+		for (long i = 0; i < toAdd.size(); i++) {
+			list.add(toAdd.get(i));
+		}
+	}
+}
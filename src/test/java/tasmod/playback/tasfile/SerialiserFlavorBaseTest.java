@@ -5,11 +5,17 @@
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +23,14 @@
 import com.dselent.bigarraylist.BigArrayList;
 import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
 import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
 import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata;
 import com.minecrafttas.tasmod.playback.metadata.PlaybackMetadata.PlaybackMetadataExtension;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader;
 import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
 import com.minecrafttas.tasmod.playback.tasfile.flavor.SerialiserFlavorBase;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
 import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
 import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
 import com.minecrafttas.tasmod.virtual.VirtualKey;
@@ -230,6 +239,90 @@ void testSerialiseContainer() {
 		assertBigArrayList(expected, actual);
 	}
 
+	/**
+	 * Test serialising multiple {@link TickContainer TickContainers} directly into a writer
+	 */
+	@Test
+	void testSerialiseStreaming() {
+		BigArrayList<TickContainer> inputs = new BigArrayList<>();
+
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+		keyboard.updateFromEvent(VirtualKey.LCONTROL, true, Character.MIN_VALUE);
+
+		VirtualCameraAngle angle = new VirtualCameraAngle(0f, 0f, true);
+		angle.updateFromEvent(1, 1);
+
+		inputs.add(new TickContainer(keyboard, new VirtualMouse(), angle));
+
+		VirtualMouse mouse = new VirtualMouse();
+		mouse.updateFromEvent(VirtualKey.LC, true, 0, 0, 0);
+		mouse.updateFromEvent(VirtualKey.LC, false, 0, 0, 0);
+
+		inputs.add(new TickContainer(new VirtualKeyboard(), mouse, new VirtualCameraAngle(1f, 2f, true)));
+		inputs.add(new TickContainer());
+
+		// Serialise into the writer
+		StringWriter actual = new StringWriter();
+		try {
+			serialise(inputs, 2, actual);
+		} catch (IOException e) {
+			fail(e);
+		}
+
+		StringBuilder expected = new StringBuilder();
+		expected.append("0|W;w||1.0;1.0\n");
+		expected.append("\t1|W,LCONTROL;||\n");
+		expected.append("1||LC;0,0,0|2.0;1.0\n");
+		expected.append("\t1||;0,0,0|\n");
+
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	/**
+	 * Test that flavors, which override the serialisation of the inputs, are serialised through their overrides
+	 */
+	@Test
+	void testSerialiseOverriddenHooks() {
+		class KeyboardFlavor extends Beta1Flavor {
+			@Override
+			protected List<String> serialiseKeyboard(VirtualKeyboard keyboard) {
+				List<String> out = new ArrayList<>();
+				for (String line : super.serialiseKeyboard(keyboard)) {
+					out.add(line.toLowerCase());
+				}
+				return out;
+			}
+		}
+
+		class MergeFlavor extends Beta1Flavor {
+			@Override
+			protected void mergeInputs(BigArrayList<String> out, List<String> serialisedKeyboard, List<String> serialisedMouse, List<String> serialisedCameraAngle, List<String> serialisedEndlineComments) {
+				for (int i = 0; i < serialisedKeyboard.size(); i++) {
+					out.add(currentTick + ":" + serialisedKeyboard.get(i));
+				}
+			}
+		}
+
+		BigArrayList<TickContainer> inputs = new BigArrayList<>();
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+		keyboard.updateFromEvent(VirtualKey.LCONTROL, true, Character.MIN_VALUE);
+		inputs.add(new TickContainer(keyboard, new VirtualMouse(), new VirtualCameraAngle(1f, 2f, true)));
+
+		StringWriter keyboardActual = new StringWriter();
+		StringWriter mergeActual = new StringWriter();
+		try {
+			new KeyboardFlavor().serialise(inputs, -1, keyboardActual);
+			new MergeFlavor().serialise(inputs, -1, mergeActual);
+		} catch (IOException e) {
+			fail(e);
+		}
+
+		assertEquals("0|w;w||2.0;1.0\n\t1|w,lcontrol;||\n", keyboardActual.toString());
+		assertEquals("0:W;w\n0:W,LCONTROL;\n", mergeActual.toString());
+	}
+
 	/**
 	 * Test serialising inline and endline comments.
 	 */
@@ -375,6 +468,35 @@ void testExtractHeaderFail() {
 		assertEquals("Cannot find the end of the header", exception.getMessage());
 	}
 
+	/**
+	 * Test extracting the rest of the header, after the lines up to the flavor name were already read
+	 */
+	@Test
+	void testExtractHeaderContinued() {
+		BigArrayList<String> lines = new BigArrayList<>();
+		lines.add("###### TASfile ######");
+		lines.add("Flavor: beta");
+		lines.add("Extensions: desync_monitor, control_bytes, vanilla_commands");
+		lines.add("##################################################");
+		lines.add("1|W;w||");
+
+		TASfileLineReader reader = new TASfileLineReader(lines, 0);
+		List<String> extracted = new ArrayList<>();
+		extracted.add(reader.next());
+		extracted.add(reader.next());
+
+		List<String> actual = extractHeader(reader, extracted);
+
+		List<String> expected = new ArrayList<>();
+		expected.add("###### TASfile ######");
+		expected.add("Flavor: beta");
+		expected.add("Extensions: desync_monitor, control_bytes, vanilla_commands");
+		expected.add("##################################################");
+
+		assertIterableEquals(expected, actual);
+		assertEquals("1|W;w||", reader.next());
+	}
+
 	/**
 	 * Test deserialising metadata
 	 */
@@ -673,6 +795,44 @@ void testExtractExceptions3() {
 		assertEquals("Line 3, Tick 0, Subtick 0: Error while trying to parse the file. This should not be a subtick at this position", t.getMessage());
 	}
 
+	/**
+	 * Test extracting ticks from a reader, which only holds the next line in memory
+	 */
+	@Test
+	void testExtractTickStreaming() {
+		String file = "55|W,LCONTROL;w|;0,887,626|17.85;-202.74799\n"
+				+ "\t1||RC;0,1580,658|17.85;-202.74799\n"
+				+ "// This is a comment\n"
+				+ "\n"
+				+ "56|W,LCONTROL;w|;0,887,626|17.85;-202.74799\n"
+				+ "\t1||RC;0,1580,658|17.85;-202.74799\t\t// This is an endline comment\n";
+
+		TASfileLineReader reader = new TASfileLineReader(new BufferedReader(new StringReader(file)));
+
+		List<String> actual1 = new ArrayList<>();
+		extractContainer(actual1, reader);
+		assertEquals(2L, reader.getLineIndex());
+		assertEquals("// This is a comment", reader.peek());
+
+		List<String> actual2 = new ArrayList<>();
+		extractContainer(actual2, reader);
+		assertEquals(6L, reader.getLineIndex());
+		assertFalse(reader.hasNext());
+
+		List<String> expected1 = new ArrayList<>();
+		expected1.add("55|W,LCONTROL;w|;0,887,626|17.85;-202.74799");
+		expected1.add("\t1||RC;0,1580,658|17.85;-202.74799");
+
+		List<String> expected2 = new ArrayList<>();
+		expected2.add("// This is a comment");
+		expected2.add("");
+		expected2.add("56|W,LCONTROL;w|;0,887,626|17.85;-202.74799");
+		expected2.add("\t1||RC;0,1580,658|17.85;-202.74799\t\t// This is an endline comment");
+
+		assertIterableEquals(expected1, actual1);
+		assertIterableEquals(expected2, actual2);
+	}
+
 	/**
 	 * Test deserialising a container a.k.a a tick
 	 */
@@ -706,6 +866,201 @@ void testDeserialiseContainer() {
 		assertBigArrayList(expected, actual);
 	}
 
+	/**
+	 * Test if ticks with relative values or empty camera angles are detected
+	 */
+	@Test
+	void testDependsOnPreviousTick() {
+		List<String> tick = new ArrayList<>();
+		tick.add("// $label(~3);");
+		tick.add("55|W;w|;0,887,626|17.85;-202.74799");
+		tick.add("\t1||;0,~1,~1|");
+		assertFalse(dependsOnPreviousTick(tick));
+
+		tick = new ArrayList<>();
+		tick.add("55|W;w|;0,~5,626|17.85;-202.74799");
+		assertTrue(dependsOnPreviousTick(tick));
+
+		tick = new ArrayList<>();
+		tick.add("55|W;w||17.85;-202.74799");
+		tick.add("\t1||;0,1,1|~1;~0");
+		assertTrue(dependsOnPreviousTick(tick));
+
+		tick = new ArrayList<>();
+		tick.add("55|W;w|;0,887,626|\t\t// ~Comment");
+		assertTrue(dependsOnPreviousTick(tick));
+	}
+
+	/**
+	 * Test if deserialising on multiple threads results in the same ticks and file command order as deserialising sequentially
+	 */
+	@Test
+	void testDeserialiseParallel() {
+		class TestFileCommand extends PlaybackFileCommandExtension {
+
+			List<String> calls = new ArrayList<>();
+
+			@Override
+			public String getExtensionName() {
+				return "tasmod_testFileCommand";
+			}
+
+			@Override
+			public String[] getFileCommandNames() {
+				return new String[] { "test" };
+			}
+
+			@Override
+			public void onDeserialiseInlineComment(long tick, TickContainer container, PlaybackFileCommandContainer fileCommandContainer) {
+				calls.add("inline " + tick + " " + fileCommandContainer);
+			}
+
+			@Override
+			public void onDeserialiseEndlineComment(long tick, TickContainer container, PlaybackFileCommandContainer fileCommandContainer) {
+				calls.add("endline " + tick + " " + fileCommandContainer);
+			}
+		}
+
+		TestFileCommand fc = new TestFileCommand();
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.register(fc);
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled("tasmod_testFileCommand", true);
+
+		// Create ticks with relative values that cross chunk borders
+		BigArrayList<String> lines = new BigArrayList<>();
+		for (int i = 0; i < PARALLEL_CHUNK_SIZE * 3 + 5; i++) {
+			if (i % 11 == 0) {
+				lines.add("// $test(" + i + ");");
+			}
+			String mouse = i % 5 == 0 && i != 0 ? ";0,~1,~2" : ";0," + i + ",500";
+			String camera = i % 3 == 0 && i != 0 ? "~1.0;~0.5" : i % 3 == 1 || i == 0 ? i + ".0;2.0" : "";
+			String comment = i % 7 == 0 ? "\t\t// $test(" + i + ");" : "";
+			lines.add(i + "|W;w|" + mouse + "|" + camera + comment);
+			if (i % 4 == 0 && i != 0) {
+				lines.add("\t1||LC;0,~1,~1|~2.0;~1.0");
+			}
+		}
+
+		BigArrayList<TickContainer> expected = deserialise(lines, 0);
+		List<String> expectedCalls = new ArrayList<>(fc.calls);
+
+		currentTick = 0;
+		fc.calls.clear();
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		BigArrayList<TickContainer> actual;
+		try {
+			actual = deserialiseParallel(new TASfileLineReader(lines, 0), pool);
+		} finally {
+			pool.shutdown();
+		}
+
+		assertEquals(PARALLEL_CHUNK_SIZE * 3 + 5, actual.size());
+		assertBigArrayList(expected, actual);
+		assertIterableEquals(expectedCalls, fc.calls);
+	}
+
+	/**
+	 * Test if the first error in the TASfile is thrown when deserialising on multiple threads
+	 */
+	@Test
+	void testDeserialiseParallelException() {
+		BigArrayList<String> lines = new BigArrayList<>();
+		for (int i = 0; i < PARALLEL_CHUNK_SIZE * 2; i++) {
+			lines.add(i + "|W;w|;0,0,0|0.0;0.0");
+		}
+		lines.set(PARALLEL_CHUNK_SIZE + 2, (PARALLEL_CHUNK_SIZE + 2) + "|W;w|;0,0,0|0.0");
+		lines.add("\t1||;0,0,0|0.0;0.0");
+		lines.add("// Comment");
+		lines.add("\t1||;0,0,0|0.0;0.0");
+
+		Throwable expected = assertThrows(PlaybackLoadException.class, () -> {
+			deserialise(lines, 0);
+		});
+
+		currentTick = 0;
+
+		Throwable actual = assertThrows(PlaybackLoadException.class, () -> {
+			deserialiseParallel(new TASfileLineReader(lines, 0), ForkJoinPool.commonPool());
+		});
+
+		assertEquals("Line " + (PARALLEL_CHUNK_SIZE + 2) + ", Tick " + (PARALLEL_CHUNK_SIZE + 2) + ", Subtick 0: Camera is missing a semicolon", expected.getMessage());
+		assertEquals(expected.getMessage(), actual.getMessage());
+	}
+
+	/**
+	 * Test classifying the lines of a TASfile
+	 */
+	@Test
+	void testClassifyLine() {
+		assertEquals(LineType.EMPTY, classifyLine(""));
+		assertEquals(LineType.COMMENT, classifyLine("// This is a comment"));
+		assertEquals(LineType.COMMENT, classifyLine("//"));
+		assertEquals(LineType.TICK, classifyLine("55|W,LCONTROL;w|;0,887,626|17.85;-202.74799"));
+		assertEquals(LineType.TICK, classifyLine("0|"));
+		assertEquals(LineType.SUBTICK, classifyLine("\t1||RC;0,1580,658|17.85;-202.74799\t\t// Test"));
+
+		assertEquals(LineType.OTHER, classifyLine("/ Not a comment"));
+		assertEquals(LineType.OTHER, classifyLine(" // Not a comment"));
+		assertEquals(LineType.OTHER, classifyLine("|W;w||"));
+		assertEquals(LineType.OTHER, classifyLine("55"));
+		assertEquals(LineType.OTHER, classifyLine("55a|"));
+		assertEquals(LineType.OTHER, classifyLine("\t|"));
+		assertEquals(LineType.OTHER, classifyLine("\t\t1|"));
+		assertEquals(LineType.OTHER, classifyLine("-1|"));
+	}
+
+	/**
+	 * Test that lines are classified with the {@link #singleComment()} and {@link #columnSeparator()} of a flavor,<br>
+	 * and that the separator is used when serialising and deserialising a tick
+	 */
+	@Test
+	void testClassifyLineCustomSyntax() {
+		CustomSyntaxFlavor flavor = new CustomSyntaxFlavor();
+		assertEquals(LineType.COMMENT, flavor.classifyLine("# This is a comment"));
+		assertEquals(LineType.OTHER, flavor.classifyLine("// Not a comment"));
+		assertEquals(LineType.TICK, flavor.classifyLine("55:W,LCONTROL;w:;0,887,626:17.85;-202.74799"));
+		assertEquals(LineType.SUBTICK, flavor.classifyLine("\t1::RC;0,1580,658:17.85;-202.74799"));
+		assertEquals(LineType.OTHER, flavor.classifyLine("55|W,LCONTROL;w|;0,887,626|17.85;-202.74799"));
+
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+		VirtualMouse mouse = new VirtualMouse();
+		mouse.updateFromEvent(VirtualKey.LC, true, 0, 0, 0);
+		VirtualCameraAngle angle = new VirtualCameraAngle(0f, 0f, true);
+		angle.updateFromEvent(1, 1);
+		TickContainer container = new TickContainer(keyboard, mouse, angle);
+
+		BigArrayList<String> serialised = new BigArrayList<>();
+		flavor.serialiseContainer(serialised, container);
+		assertEquals("0:W;w:LC;0,0,0:1.0;1.0", serialised.get(0));
+
+		List<String> lines = new ArrayList<>();
+		lines.add("# A comment");
+		lines.add(serialised.get(0));
+		BigArrayList<TickContainer> actual = new BigArrayList<>();
+		flavor.deserialiseContainer(actual, lines);
+
+		assertEquals(container.getKeyboard().toString(), actual.get(0).getKeyboard().toString());
+		assertEquals(container.getMouse().toString(), actual.get(0).getMouse().toString());
+		assertEquals(container.getCameraAngle().toString(), actual.get(0).getCameraAngle().toString());
+	}
+
+	/**
+	 * A flavor with # comments and : between the columns
+	 */
+	private static class CustomSyntaxFlavor extends SerialiserFlavorBaseTest {
+
+		@Override
+		protected String singleComment() {
+			return "^#";
+		}
+
+		@Override
+		protected char columnSeparator() {
+			return ':';
+		}
+	}
+
 	/**
 	 * Test splitting the stringd of inputs including subticks into it's elements
 	 */
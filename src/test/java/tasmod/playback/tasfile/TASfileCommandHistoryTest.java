@@ -0,0 +1,158 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.createTicks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileCommandHistory;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class TASfileCommandHistoryTest {
+
+	/**
+	 * Writes the value of the tick into every endline comment and counts how often it was asked for file commands
+	 */
+	private static class TestFileCommand extends PlaybackFileCommandExtension {
+
+		long serialised = 0;
+
+		String value = "a";
+
+		@Override
+		public String getExtensionName() {
+			return "tasmod_testHistoryExtension";
+		}
+
+		@Override
+		public PlaybackFileCommandContainer onSerialiseEndlineComment(long tick, TickContainer tickContainer) {
+			serialised++;
+			PlaybackFileCommandContainer out = new PlaybackFileCommandContainer();
+			out.add("historyKey", new PlaybackFileCommand("historyKey", value + tick));
+			return out;
+		}
+
+		@Override
+		public String[] getFileCommandNames() {
+			return new String[] { "historyKey" };
+		}
+	}
+
+	private static final Path directory = Paths.get("src/test/resources/temp/history");
+
+	private static TestFileCommand fileCommand = new TestFileCommand();
+
+	private TASfileCommandHistory history;
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.register(fileCommand);
+	}
+
+	@BeforeEach
+	void beforeEach() {
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), true, false);
+		fileCommand.serialised = 0;
+		fileCommand.value = "a";
+		history = new TASfileCommandHistory(directory);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		history.close();
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), false, false);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.unregister(fileCommand);
+	}
+
+	/**
+	 * Test that capturing again only asks the extensions for the ticks, that were added since the last capture
+	 */
+	@Test
+	void testCaptureAddedTicks() throws IOException {
+		TickStore inputs = TickStore.of(createTicks(60));
+		history.capture(inputs, 50);
+		assertEquals(50, fileCommand.serialised);
+
+		history.capture(inputs, 60);
+		assertEquals(60, fileCommand.serialised);
+		assertEquals(60, history.size());
+
+		try (TASfileCommandHistory.Frozen frozen = history.freeze(60)) {
+			assertCommand("a59", frozen.getEndlineFileCommands(59));
+			assertTrue(frozen.getInlineFileCommands(59).isEmpty());
+		}
+	}
+
+	/**
+	 * Test that changed ticks are captured again, while a frozen copy keeps the file commands from before the change
+	 */
+	@Test
+	void testMarkChanged() throws IOException {
+		TickStore inputs = TickStore.of(createTicks(50));
+		history.capture(inputs, 50);
+
+		TASfileCommandHistory.Frozen frozen = history.freeze(40);
+		fileCommand.value = "b";
+		history.markChanged(30);
+		history.capture(inputs, 50);
+		assertEquals(70, fileCommand.serialised);
+
+		assertEquals(40, frozen.size());
+		assertCommand("a35", frozen.getEndlineFileCommands(35));
+		frozen.close();
+
+		try (TASfileCommandHistory.Frozen refrozen = history.freeze(50)) {
+			assertCommand("a29", refrozen.getEndlineFileCommands(29));
+			assertCommand("b35", refrozen.getEndlineFileCommands(35));
+		}
+
+		// Without a frozen copy, the file commands are removed in place
+		history.markChanged(10);
+		assertEquals(10, history.size());
+	}
+
+	/**
+	 * Test that every tick is captured again, after the extensions were enabled or disabled
+	 */
+	@Test
+	void testExtensionsChanged() throws IOException {
+		TickStore inputs = TickStore.of(createTicks(20));
+		history.capture(inputs, 20);
+
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), false, false);
+		history.capture(inputs, 20);
+		assertEquals(0, history.size());
+
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), true, false);
+		fileCommand.value = "c";
+		history.capture(inputs, 20);
+		assertEquals(40, fileCommand.serialised);
+		try (TASfileCommandHistory.Frozen frozen = history.freeze(20)) {
+			assertCommand("c0", frozen.getEndlineFileCommands(0));
+		}
+	}
+
+	private void assertCommand(String expected, List<List<PlaybackFileCommand>> fileCommands) {
+		assertEquals(1, fileCommands.size());
+		assertEquals(new PlaybackFileCommand("historyKey", expected), fileCommands.get(0).get(0));
+	}
+}
@@ -0,0 +1,172 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.assertBigArrayList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.SavedTASfile;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileCompression;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileView;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.BinaryFlavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+public class TASfileCompressionTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+	private static BinaryFlavor binaryFlavor = new BinaryFlavor();
+
+	private List<Path> files = new ArrayList<>();
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(binaryFlavor);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		for (Path file : files) {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(TASfileIndex.getIndexPath(file));
+		}
+		files.clear();
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(binaryFlavor);
+	}
+
+	/**
+	 * Test saving a TASfile with the compressed file ending and loading it again
+	 */
+	@Test
+	void testRoundTrip() throws PlaybackLoadException, IOException {
+		BigArrayList<TickContainer> expected = createRepetitiveTicks(2000);
+
+		Path file = createFile("TASfileCompressionTest.mctas.gz");
+		Path uncompressed = createFile("TASfileCompressionTest.mctas");
+		PlaybackSerialiser.saveToFile(file, expected, "beta1");
+		PlaybackSerialiser.saveToFile(uncompressed, expected, "beta1");
+
+		assertTrue(TASfileCompression.isCompressed(file));
+		assertFalse(TASfileCompression.isCompressed(uncompressed));
+		assertTrue(Files.size(file) * 10 < Files.size(uncompressed));
+
+		assertEquals(beta1Flavor, PlaybackSerialiser.readFlavor(file));
+		assertBigArrayList(expected, PlaybackSerialiser.loadFromFile(file));
+	}
+
+	/**
+	 * Test that compressed files are detected by their content, not by their file ending
+	 */
+	@Test
+	void testDetection() throws PlaybackLoadException, IOException {
+		BigArrayList<TickContainer> expected = createRepetitiveTicks(500);
+
+		Path file = createFile("TASfileCompressionTest2.mctas");
+		PlaybackSerialiser.saveToFile(file, expected, "beta1", -1, true);
+		assertTrue(TASfileCompression.isCompressed(file));
+
+		assertBigArrayList(expected, PlaybackSerialiser.loadFromFile(file, "beta1"));
+
+		// Compressed files are loaded completely, when loading a range
+		BigArrayList<TickContainer> range = PlaybackSerialiser.loadRangeFromFile(file, 100, 200);
+		assertEquals(100, range.size());
+		assertEquals(expected.get(100), range.get(0));
+		assertEquals(expected.get(199), range.get(99));
+	}
+
+	/**
+	 * Test compressing a TASfile with a binary flavor
+	 */
+	@Test
+	void testBinary() throws PlaybackLoadException, IOException {
+		BigArrayList<TickContainer> expected = createRepetitiveTicks(500);
+
+		Path file = createFile("TASfileCompressionTestBinary.mctas.gz");
+		PlaybackSerialiser.saveToFile(file, expected, "binary1");
+
+		assertTrue(TASfileCompression.isCompressed(file));
+		assertEquals(binaryFlavor, PlaybackSerialiser.readFlavor(file));
+		assertBigArrayList(expected, PlaybackSerialiser.loadFromFile(file));
+	}
+
+	/**
+	 * Test that compressed files are not indexed or viewed, as the byte offsets of the ticks are unknown
+	 */
+	@Test
+	void testNoIndex() throws IOException {
+		BigArrayList<TickContainer> expected = createRepetitiveTicks(100);
+
+		Path file = createFile("TASfileCompressionTest3.mctas.gz");
+		SavedTASfile saved = PlaybackSerialiser.saveToFile(file, expected, "beta1", -1, null, null);
+		assertNull(saved);
+
+		assertThrows(PlaybackLoadException.class, () -> {
+			TASfileIndex.build(file, beta1Flavor, TASfileIndex.DEFAULT_INTERVAL);
+		});
+		assertThrows(PlaybackLoadException.class, () -> {
+			TASfileView.open(file);
+		});
+	}
+
+	private Path createFile(String name) {
+		Path file = Paths.get("src/test/resources/serialiser/" + name);
+		files.add(file);
+		return file;
+	}
+
+	/**
+	 * Creates ticks that repeat their inputs for many ticks in a row, like an actual recording,<br>
+	 * as the ticks of {@link TickFixtures} change every tick and barely compress
+	 *
+	 * @param amount The amount of ticks
+	 * @return The repetitive ticks
+	 */
+	private BigArrayList<TickContainer> createRepetitiveTicks(int amount) {
+		BigArrayList<TickContainer> ticks = new BigArrayList<>();
+		for (int i = 0; i < amount; i++) {
+			VirtualKeyboard keyboard = new VirtualKeyboard();
+			keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+			if (i % 40 < 20) {
+				keyboard.updateFromEvent(VirtualKey.LCONTROL, true, Character.MIN_VALUE);
+			}
+
+			VirtualMouse mouse = new VirtualMouse();
+			mouse.updateFromEvent(VirtualKey.LC, i % 100 == 0, 0, 0, 0);
+
+			VirtualCameraAngle camera = new VirtualCameraAngle(0f, 0f, true);
+			camera.updateFromEvent(0, i / 50);
+
+			ticks.add(new TickContainer(keyboard, mouse, camera));
+		}
+		return ticks;
+	}
+}
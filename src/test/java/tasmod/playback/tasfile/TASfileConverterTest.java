@@ -0,0 +1,241 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileConverter;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileConverter.Result;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileConverter.Status;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackSaveException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.BinaryFlavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+
+public class TASfileConverterTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+	private static BinaryFlavor binaryFlavor = new BinaryFlavor();
+
+	private static final Path SOURCE = Paths.get("src/test/resources/converter/source");
+	private static final Path TARGET = Paths.get("src/test/resources/converter/target");
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(binaryFlavor);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(binaryFlavor);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		delete(Paths.get("src/test/resources/converter"));
+	}
+
+	/**
+	 * Test converting a TASfile in the legacy format to beta1
+	 */
+	@Test
+	void testConvertLegacy() throws Exception {
+		write(SOURCE.resolve("legacy.mctas"),
+				"################################################# TASFile ###################################################",
+				"#												Version:1													#",
+				"#Author:Scribble",
+				"#Title:KillSquid",
+				"#Playing Time:00:01.0",
+				"#Rerecords:20",
+				"#StartPosition:1.5,64.0,-3.5,90.0,10.0",
+				"#############################################################################################################",
+				"//Start of the TAS",
+				"1|Keyboard:W,LCONTROL;w|Mouse:LC;[LC,0,887,626]->[0,887,600]|Camera:17.85;-202.74799~&\t\t\t\t//Monitoring:1.0 2.0 3.0",
+				"$label start",
+				"2|Keyboard:;|Mouse:;|Camera:17.85;-190.0");
+
+		List<Result> results = new TASfileConverter("beta1", 2, false).convert(SOURCE, TARGET);
+
+		assertEquals(1, results.size());
+		Result result = results.get(0);
+		assertEquals(Status.CONVERTED, result.getStatus(), result.getMessage());
+		assertEquals("legacy v1", result.getFormat());
+		assertEquals(2, result.getTicks());
+
+		Path converted = TARGET.resolve("legacy.mctas");
+		List<String> lines = Files.readAllLines(converted, StandardCharsets.UTF_8);
+		assertTrue(lines.contains("Flavor: beta1"));
+		assertTrue(lines.contains("Author:Scribble"));
+		assertTrue(lines.contains("Rerecords:20"));
+		assertTrue(lines.contains("yaw:90.0"));
+		assertTrue(lines.contains("// Start of the TAS"));
+		assertTrue(lines.contains("// $label(start);"));
+
+		BigArrayList<TickContainer> ticks = PlaybackSerialiser.loadFromFile(converted, false);
+		assertEquals(2, ticks.size());
+
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromState(new int[] { VirtualKey.W.getKeycode(), VirtualKey.LCONTROL.getKeycode() }, new char[] { 'w' });
+		assertEquals(keyboard, ticks.get(0).getKeyboard());
+		assertEquals(600, ticks.get(0).getMouse().getCursorY());
+		assertIterableEquals(Arrays.asList("Monitoring:1.0 2.0 3.0"), ticks.get(0).getComments().getEndlineComments());
+		assertEquals(-190f, ticks.get(1).getCameraAngle().getYaw());
+	}
+
+	/**
+	 * Test that errors are reported per file with the line number, while the other files are still converted
+	 */
+	@Test
+	void testErrors() throws Exception {
+		write(SOURCE.resolve("valid.mctas"),
+				"##################### TASfile #####################",
+				"Flavor: beta1",
+				"FileCommand-Extensions: tasmod_label@v1",
+				"",
+				"------------------ Test ------------------",
+				"Key:Value",
+				"",
+				"##################################################",
+				"// $label(start); Comment",
+				"0|W;w|;0,887,626|-202.74799;17.85\t\t// $hud(true);",
+				"1|W;w|;0,~1,~1|~1;~1");
+		write(SOURCE.resolve("runs/broken.mctas"),
+				"##################### TASfile #####################",
+				"Flavor: beta1",
+				"FileCommand-Extensions: ",
+				"",
+				"##################################################",
+				"0|W;w|;0,887,626|17.85;-202.74799",
+				"1|NOTAKEY;w|;0,887,626|17.85;-202.74799");
+		write(SOURCE.resolve("runs/legacy.mctas"),
+				"#Version:1",
+				"1|Keyboard:LC;|Mouse:;|Camera:0.0;0.0");
+
+		List<Result> results = new TASfileConverter("beta1", 4, false).convert(SOURCE, TARGET);
+		assertEquals(3, results.size());
+
+		Result broken = results.get(0);
+		assertEquals(Status.FAILED, broken.getStatus());
+		assertTrue(broken.getMessage().startsWith("Line 6, Tick 1"), broken.getMessage());
+		assertFalse(Files.exists(TARGET.resolve("runs/broken.mctas")));
+
+		Result legacy = results.get(1);
+		assertEquals(Status.FAILED, legacy.getStatus());
+		assertTrue(legacy.getMessage().startsWith("Line 1, Tick 0"), legacy.getMessage());
+
+		Result valid = results.get(2);
+		assertEquals(Status.CONVERTED, valid.getStatus(), valid.getMessage());
+		assertEquals("beta1", valid.getFormat());
+
+		List<String> lines = Files.readAllLines(TARGET.resolve("valid.mctas"), StandardCharsets.UTF_8);
+		assertTrue(lines.contains("FileCommand-Extensions: tasmod_label@v1"));
+		assertTrue(lines.contains("Key:Value"));
+		assertTrue(lines.contains("// $label(start); Comment"));
+		assertTrue(lines.contains("0|W;w|MOUSEMOVED;0,887,626|-202.74799;17.85\t\t// $hud(true);"));
+
+		assertEquals("Converted 1, validated 0, failed 2 of 3 TASfiles", TASfileConverter.getSummary(results));
+	}
+
+	/**
+	 * Test converting to a binary flavor and back, with the file commands, and only validating
+	 */
+	@Test
+	void testBinaryAndValidate() throws Exception {
+		write(SOURCE.resolve("legacy.mctas"),
+				"#Version:1",
+				"1|Keyboard:W;w|Mouse:;|Camera:0.0;0.0",
+				"2|Keyboard:;|Mouse:RC;[RC,0,10,10]|Camera:1.0;0.0");
+		write(SOURCE.resolve("commands.mctas"),
+				"##################### TASfile #####################",
+				"Flavor: beta1",
+				"FileCommand-Extensions: tasmod_label@v1",
+				"",
+				"##################################################",
+				"// $label(start); Comment",
+				"// $label(second);",
+				"0|W;w|;0,887,626|-202.74799;17.85\t\t// $hud(true); End",
+				"1|W;w|;0,~1,~1|~1;~1");
+
+		List<Result> results = new TASfileConverter("binary1", 1, false).convert(SOURCE, TARGET);
+		assertEquals(2, results.size());
+		for (Result result : results) {
+			assertEquals(Status.CONVERTED, result.getStatus(), result.getMessage());
+		}
+
+		// The file commands are stored separately from the comments
+		BigArrayList<TickContainer> binaryTicks = PlaybackSerialiser.loadFromFile(TARGET.resolve("commands.mctas"), false);
+		assertIterableEquals(Arrays.asList("Comment", null), binaryTicks.get(0).getComments().getInlineComments());
+		assertIterableEquals(Arrays.asList("End"), binaryTicks.get(0).getComments().getEndlineComments());
+
+		Path again = Paths.get("src/test/resources/converter/again");
+		results = new TASfileConverter("beta1", 1, false).convert(TARGET, again);
+		assertEquals(Status.CONVERTED, results.get(0).getStatus(), results.get(0).getMessage());
+		assertEquals("binary1", results.get(0).getFormat());
+
+		List<String> lines = Files.readAllLines(again.resolve("commands.mctas"), StandardCharsets.UTF_8);
+		assertTrue(lines.contains("// $label(start); Comment"));
+		assertTrue(lines.contains("// $label(second);"));
+		assertTrue(lines.contains("0|W;w|MOUSEMOVED;0,887,626|-202.74799;17.85\t\t// $hud(true); End"));
+
+		results = new TASfileConverter(null, 1, true).convert(SOURCE, null);
+		assertEquals(2, results.size());
+		assertEquals(Status.VALIDATED, results.get(1).getStatus());
+		assertEquals(2, results.get(1).getTicks());
+		assertNull(results.get(1).getMessage());
+	}
+
+	/**
+	 * Test that the source directory can't be overwritten
+	 */
+	@Test
+	void testSameDirectory() throws Exception {
+		Files.createDirectories(SOURCE);
+		assertThrows(PlaybackSaveException.class, () -> {
+			new TASfileConverter("beta1", 1, false).convert(SOURCE, SOURCE);
+		});
+		assertThrows(PlaybackSaveException.class, () -> {
+			new TASfileConverter("doesntexist", 1, false).convert(SOURCE, TARGET);
+		});
+	}
+
+	private void write(Path file, String... lines) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+	}
+
+	private void delete(Path directory) throws IOException {
+		if (!Files.exists(directory)) {
+			return;
+		}
+		try (Stream<Path> stream = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) stream.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+}
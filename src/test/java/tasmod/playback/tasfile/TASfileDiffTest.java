@@ -0,0 +1,217 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileDiff;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileDiff.Range;
+import com.minecrafttas.tasmod.playback.tasfile.TASfilePatch;
+import com.minecrafttas.tasmod.playback.tasfile.TickHash;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+public class TASfileDiffTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+
+	private static final Path SOURCE = Paths.get("src/test/resources/diff_source.mctas");
+	private static final Path TARGET = Paths.get("src/test/resources/diff_target.mctas");
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		Files.deleteIfExists(SOURCE);
+		Files.deleteIfExists(TARGET);
+	}
+
+	/**
+	 * Test that the hash depends on every part of the tick, but not on the order of the pressed keys
+	 */
+	@Test
+	void testTickHash() {
+		long hash = TickHash.hash(tick(1f));
+		assertEquals(hash, TickHash.hash(tick(1f)));
+		assertNotEquals(hash, TickHash.hash(tick(2f)));
+
+		TickContainer tick = tick(1f);
+		TickContainer withComment = new TickContainer(tick.getKeyboard(), tick.getMouse(), tick.getCameraAngle(), new CommentContainer(new ArrayList<>(), new ArrayList<>(Arrays.asList("Comment"))));
+		assertNotEquals(hash, TickHash.hash(withComment));
+
+		VirtualKeyboard keyboard1 = new VirtualKeyboard();
+		keyboard1.updateFromState(new int[] { VirtualKey.W.getKeycode(), VirtualKey.A.getKeycode() }, new char[] {});
+		VirtualKeyboard keyboard2 = new VirtualKeyboard();
+		keyboard2.updateFromState(new int[] { VirtualKey.A.getKeycode(), VirtualKey.W.getKeycode() }, new char[] {});
+		assertEquals(TickHash.hash(new TickContainer(keyboard1, new VirtualMouse(), new VirtualCameraAngle())), TickHash.hash(new TickContainer(keyboard2, new VirtualMouse(), new VirtualCameraAngle())));
+
+		long rolling = TickHash.roll(TickHash.roll(TickHash.EMPTY, 1), 2);
+		assertNotEquals(rolling, TickHash.roll(TickHash.roll(TickHash.EMPTY, 2), 1));
+	}
+
+	/**
+	 * Test that equal ticks have no differences and an empty patch
+	 */
+	@Test
+	void testEqual() {
+		TASfileDiff diff = TASfileDiff.compare(ticks(0, 1, 2, 3), ticks(0, 1, 2, 3), true);
+
+		assertTrue(diff.isEqual());
+		assertEquals(-1, diff.getFirstDifference());
+		assertEquals(diff.getSourceHash(), diff.getTargetHash());
+		assertTrue(diff.getPatch().isEmpty());
+		assertEquals("The 4 ticks are equal", diff.toString());
+	}
+
+	/**
+	 * Test that changed ticks are grouped into ranges
+	 */
+	@Test
+	void testChangedRanges() {
+		TASfileDiff diff = TASfileDiff.compare(ticks(0, 1, 2, 3, 4, 5, 6), ticks(0, 10, 11, 3, 4, 12, 6), false);
+
+		assertFalse(diff.isEqual());
+		assertEquals(1, diff.getFirstDifference());
+		assertIterableEquals(Arrays.asList(new Range(1, 3), new Range(5, 6)), diff.getRanges());
+		assertEquals(3, diff.getChangedTicks());
+		assertNotEquals(diff.getSourceHash(), diff.getTargetHash());
+		assertEquals(null, diff.getPatch());
+		assertEquals("3 of 7 ticks are different, starting at tick 1: [1-2, 5]", diff.toString());
+	}
+
+	/**
+	 * Test that ticks added or removed at the end are part of the last range
+	 */
+	@Test
+	void testDifferentSizes() {
+		TASfileDiff diff = TASfileDiff.compare(ticks(0, 1, 2), ticks(0, 10, 2, 3, 4), false);
+		assertIterableEquals(Arrays.asList(new Range(1, 2), new Range(3, 5)), diff.getRanges());
+		assertEquals(3, diff.getSourceSize());
+		assertEquals(5, diff.getTargetSize());
+
+		diff = TASfileDiff.compare(ticks(0, 1, 2, 3, 4), ticks(0, 1, 12), false);
+		assertIterableEquals(Arrays.asList(new Range(2, 5)), diff.getRanges());
+	}
+
+	/**
+	 * Test that applying the patch turns the source into the target
+	 */
+	@Test
+	void testApplyPatch() {
+		BigArrayList<TickContainer> target = ticks(0, 10, 2, 3, 14, 15, 16);
+		BigArrayList<TickContainer> source = ticks(0, 1, 2, 3, 4);
+		TASfilePatch patch = TASfileDiff.compare(source, target, true).getPatch();
+		assertEquals(2, patch.getHunks().size());
+		assertEquals(1, patch.getFirstTick());
+
+		patch.apply(source);
+		assertTrue(TASfileDiff.compare(source, target, false).isEqual());
+
+		BigArrayList<TickContainer> shorter = ticks(0, 1, 12);
+		source = ticks(0, 1, 2, 3, 4);
+		patch = TASfileDiff.compare(source, shorter, true).getPatch();
+		patch.apply(source);
+		assertEquals(3, source.size());
+		assertTrue(TASfileDiff.compare(source, shorter, false).isEqual());
+	}
+
+	/**
+	 * Test that a patch is not applied to different inputs
+	 */
+	@Test
+	void testApplyPatchWrongInputs() {
+		TASfilePatch patch = TASfileDiff.compare(ticks(0, 1, 2), ticks(0, 11, 2), true).getPatch();
+
+		BigArrayList<TickContainer> wrongSize = ticks(0, 1);
+		Throwable t = assertThrows(PlaybackLoadException.class, () -> patch.apply(wrongSize));
+		assertEquals("The patch was created for 3 ticks, but the inputs have 2 ticks", t.getMessage());
+
+		BigArrayList<TickContainer> wrongTick = ticks(0, 5, 2);
+		t = assertThrows(PlaybackLoadException.class, () -> patch.apply(wrongTick));
+		assertEquals("Tick 1 of the inputs is not the tick this patch was created from", t.getMessage());
+		assertEquals(5f, wrongTick.get(1).getCameraAngle().getPitch());
+	}
+
+	/**
+	 * Test comparing two TASfiles, including comments and file commands
+	 */
+	@Test
+	void testFiles() throws IOException {
+		List<String> header = Arrays.asList(
+				"##################### TASfile #####################",
+				"Flavor: beta1",
+				"FileCommand-Extensions: tasmod_label@v1",
+				"",
+				"##################################################");
+
+		List<String> source = new ArrayList<>(header);
+		source.addAll(Arrays.asList(
+				"0|W;w|;0,887,626|17.85;-202.74799",
+				"// $label(jump);",
+				"1|W;w|;0,887,626|17.85;-202.74799",
+				"2|W;w|;0,887,626|17.85;-202.74799"));
+		Files.write(SOURCE, source, StandardCharsets.UTF_8);
+
+		List<String> target = new ArrayList<>(header);
+		target.addAll(Arrays.asList(
+				"0|W;w|;0,887,626|17.85;-202.74799",
+				"// $label(sprint);",
+				"1|W;w|;0,887,626|17.85;-202.74799",
+				"2|W;w|;0,887,626|17.85;-202.74799",
+				"3|;|;0,887,626|17.85;-202.74799"));
+		Files.write(TARGET, target, StandardCharsets.UTF_8);
+
+		TASfileDiff diff = TASfileDiff.compare(SOURCE, TARGET, true);
+		assertIterableEquals(Arrays.asList(new Range(1, 2), new Range(3, 4)), diff.getRanges());
+		assertEquals(3, diff.getSourceSize());
+		assertEquals(4, diff.getTargetSize());
+		assertEquals("$label(sprint);", diff.getPatch().getHunks().get(0).getTicks().get(0).getComments().getInlineComments().get(0));
+	}
+
+	private TickContainer tick(float pitch) {
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromState(new int[] { VirtualKey.W.getKeycode() }, new char[] { 'w' });
+		return new TickContainer(keyboard, new VirtualMouse(), new VirtualCameraAngle(pitch, 0f));
+	}
+
+	private BigArrayList<TickContainer> ticks(int... pitches) {
+		BigArrayList<TickContainer> out = new BigArrayList<>();
+		for (int pitch : pitches) {
+			out.add(tick(pitch));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,233 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.convertBigArrayListToArrayList;
+import static tasmod.playback.tasfile.TickFixtures.createTicks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class TASfileIndexTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+
+	private Path file = Paths.get("src/test/resources/serialiser/TASfileIndexTest.mctas");
+
+	private Path indexFile = TASfileIndex.getIndexPath(file);
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(indexFile);
+		PlaybackSerialiser.setWriteIndex(false);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+	}
+
+	/**
+	 * Test writing the index while saving and reading a range of ticks with it
+	 */
+	@Test
+	void testSaveWithIndex() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.setWriteIndex(true);
+		PlaybackSerialiser.saveToFile(file, createTicks(2500), "beta1");
+
+		assertTrue(Files.exists(indexFile));
+
+		TASfileIndex index = TASfileIndex.read(indexFile);
+		assertTrue(index.matches(file));
+		assertEquals(2500, index.getTickCount());
+		assertEquals(3, index.size());
+		assertEquals(0, index.getTick(0));
+		assertEquals(1000, index.getTick(1));
+		assertEquals(2000, index.getTick(2));
+		assertEquals(1, index.floor(1999));
+		assertEquals(2, index.floor(2000));
+
+		// The index written while saving equals the index built from the file
+		TASfileIndex built = TASfileIndex.build(file, beta1Flavor, TASfileIndex.DEFAULT_INTERVAL);
+		for (int i = 0; i < index.size(); i++) {
+			assertEquals(built.getTick(i), index.getTick(i));
+			assertEquals(built.getOffset(i), index.getOffset(i));
+			assertEquals(built.getLine(i), index.getLine(i));
+			assertEquals(built.getHash(i), index.getHash(i));
+		}
+
+		BigArrayList<TickContainer> all = PlaybackSerialiser.loadFromFile(file, false);
+
+		assertRange(all, 1500, 1510, PlaybackSerialiser.loadRangeFromFile(file, 1500, 1510));
+		assertRange(all, 0, 3, PlaybackSerialiser.loadRangeFromFile(file, 0, 3));
+		assertRange(all, 2000, 2001, PlaybackSerialiser.loadRangeFromFile(file, 2000, 2001));
+		assertRange(all, 2490, 2500, PlaybackSerialiser.loadRangeFromFile(file, 2490, 3000));
+		assertEquals(0, PlaybackSerialiser.loadRangeFromFile(file, 5000, 5001).size());
+	}
+
+	/**
+	 * Test rebuilding the index if it's missing or if the TASfile was changed
+	 */
+	@Test
+	void testStaleIndex() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(1200), "beta1");
+		assertFalse(Files.exists(indexFile));
+
+		TASfileIndex index = TASfileIndex.load(file, beta1Flavor);
+		// Loading the index does not write it
+		assertFalse(Files.exists(indexFile));
+		assertEquals(1200, index.getTickCount());
+
+		index.write(indexFile);
+		assertTrue(TASfileIndex.loadStored(file) != null);
+
+		Files.write(file, "1201|W;w|;0,0,0|0.0;0.0\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertFalse(index.matches(file));
+		assertNull(TASfileIndex.loadStored(file));
+
+		index = TASfileIndex.load(file, beta1Flavor);
+		assertTrue(index.matches(file));
+		assertEquals(1201, index.getTickCount());
+	}
+
+	/**
+	 * Test that an edit in the middle of the TASfile, which keeps the size of the file, makes the index stale
+	 */
+	@Test
+	void testSameSizeEdit() throws PlaybackLoadException, IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add("#################### TASfile #####################");
+		lines.add("Flavor: beta1");
+		lines.add("##################################################");
+		for (int i = 0; i < 20000; i++) {
+			lines.add(i + "|W;w|;0,0,0|0.0;0.0");
+		}
+		Files.write(file, lines);
+		TASfileIndex index = TASfileIndex.build(file, beta1Flavor, TASfileIndex.DEFAULT_INTERVAL);
+
+		// Moves the line break between two ticks by one byte, far away from the start and the end of the file
+		lines.set(10003, "10000|W,A;w|;0,0,0|0.0;0.0");
+		lines.set(10004, "10001|;|;0,0,0|0.0;0.0");
+		Files.write(file, lines);
+
+		assertFalse(index.matches(file));
+	}
+
+	/**
+	 * Test that checking if the ticks after a tick can be rewritten only checks the bytes after the closest sampled tick
+	 */
+	@Test
+	void testMatchesFromTick() throws PlaybackLoadException, IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add("#################### TASfile #####################");
+		lines.add("Flavor: beta1");
+		lines.add("##################################################");
+		for (int i = 0; i < 3000; i++) {
+			lines.add(i + "|W;w|;0,0,0|0.0;0.0");
+		}
+		Files.write(file, lines);
+		TASfileIndex index = TASfileIndex.build(file, beta1Flavor, TASfileIndex.DEFAULT_INTERVAL);
+		assertTrue(index.matches(file, 2500));
+		assertTrue(index.matches(file, 0));
+
+		// An edit before the sampled tick 2000 is not checked
+		lines.set(103, "100|W,A;w|;0,0,0|0.0;0.0");
+		lines.set(104, "101|;|;0,0,0|0.0;0.0");
+		Files.write(file, lines);
+		assertTrue(index.matches(file, 2500));
+		assertFalse(index.matches(file, 500));
+		assertFalse(index.matches(file));
+
+		// An edit after the sampled tick 2000
+		lines.set(2103, "2100|W,A;w|;0,0,0|0.0;0.0");
+		lines.set(2104, "2101|;|;0,0,0|0.0;0.0");
+		Files.write(file, lines);
+		assertFalse(index.matches(file, 2500));
+	}
+
+	/**
+	 * Test that a rebuilt index is only written next to the TASfile if writing indexes is enabled
+	 */
+	@Test
+	void testLoadRangeWritesIndex() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(20), "beta1");
+
+		PlaybackSerialiser.loadRangeFromFile(file, 5, 10);
+		assertFalse(Files.exists(indexFile));
+
+		PlaybackSerialiser.setWriteIndex(true);
+		PlaybackSerialiser.loadRangeFromFile(file, 5, 10);
+		assertTrue(Files.exists(indexFile));
+	}
+
+	/**
+	 * Test that ticks with relative values are not sampled, as they depend on the tick before them
+	 */
+	@Test
+	void testRelativeTicks() throws PlaybackLoadException, IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add("#################### TASfile #####################");
+		lines.add("Flavor: beta1");
+		lines.add("##################################################");
+		for (int i = 0; i < 10; i++) {
+			lines.add("// Comment " + i);
+			if (i % 4 == 0) {
+				lines.add((i + 1) + "|W;w|;0," + i + ",0|" + i + ".0;" + i + ".0");
+			} else {
+				lines.add((i + 1) + "|W;w|;0,~1,0|~1;~1");
+				lines.add("\t1||;0,~1,0|~1;~1");
+			}
+		}
+		Files.write(file, lines);
+
+		TASfileIndex index = TASfileIndex.build(file, beta1Flavor, 2);
+		index.write(indexFile);
+
+		assertEquals(10, index.getTickCount());
+		assertEquals(3, index.size());
+		assertEquals(0, index.getTick(0));
+		assertEquals(4, index.getTick(1));
+		assertEquals(8, index.getTick(2));
+
+		BigArrayList<TickContainer> all = PlaybackSerialiser.loadFromFile(file, false);
+		for (int from = 0; from < 9; from++) {
+			assertRange(all, from, from + 2, PlaybackSerialiser.loadRangeFromFile(file, from, from + 2));
+		}
+	}
+
+	private void assertRange(BigArrayList<TickContainer> all, long from, long to, BigArrayList<TickContainer> actual) {
+		List<TickContainer> expected = new ArrayList<>();
+		for (long i = from; i < to; i++) {
+			expected.add(all.get(i));
+		}
+		assertIterableEquals(expected, convertBigArrayListToArrayList(actual));
+	}
+}
@@ -0,0 +1,162 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.createTicks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileJournal;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class TASfileJournalTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+
+	private Path journalFile = Paths.get("src/test/resources/serialiser/TASfileJournalTest.journal");
+
+	private Path file = Paths.get("src/test/resources/serialiser/TASfileJournalTest.mctas");
+
+	private Path expectedFile = Paths.get("src/test/resources/serialiser/TASfileJournalTestExpected.mctas");
+
+	private TASfileJournal journal;
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+	}
+
+	@BeforeEach
+	void beforeEach() throws IOException {
+		journal = new TASfileJournal(journalFile);
+		journal.setFlavor(beta1Flavor.clone());
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		journal.close();
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(expectedFile);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+	}
+
+	/**
+	 * Test appending the ticks while recording and saving the journal
+	 */
+	@Test
+	void testSave() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(500, 0);
+		for (long i = 0; i < ticks.size(); i++) {
+			journal.append(i, ticks.get(i));
+		}
+		assertEquals(500, journal.size());
+
+		save(ticks, 500);
+
+		// Saving a part of the journal
+		save(ticks, 123);
+	}
+
+	/**
+	 * Test truncating the journal, like after loading a savestate, and recording different ticks afterwards
+	 */
+	@Test
+	void testTruncate() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(300, 0);
+		for (long i = 0; i < ticks.size(); i++) {
+			journal.append(i, ticks.get(i));
+		}
+		journal.mark("savestate1", 100);
+		journal.mark("savestate2", 200);
+
+		journal.truncate(150);
+		assertEquals(150, journal.size());
+		assertEquals(100, journal.getMarked("savestate1", 100));
+		assertEquals(0, journal.getMarked("savestate1", 99));
+		assertEquals(0, journal.getMarked("savestate2", 200));
+
+		// Overwriting a tick truncates the journal as well
+		BigArrayList<TickContainer> changed = createTicks(150, 0);
+		BigArrayList<TickContainer> newTicks = createTicks(100, 7);
+		for (long i = 0; i < newTicks.size(); i++) {
+			changed.add(newTicks.get(i));
+		}
+		for (long i = 140; i < changed.size(); i++) {
+			journal.append(i, changed.get(i));
+		}
+		assertEquals(250, journal.size());
+
+		save(changed, 250);
+	}
+
+	/**
+	 * Test that the generation only changes when ticks are removed from the journal
+	 */
+	@Test
+	void testGeneration() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(100, 0);
+		journal.append(ticks, 100);
+		assertEquals(0, journal.getGeneration());
+
+		journal.truncate(100);
+		journal.append(100, ticks.get(99));
+		assertEquals(0, journal.getGeneration());
+
+		journal.truncate(60);
+		assertEquals(1, journal.getGeneration());
+
+		journal.append(30, ticks.get(30));
+		assertEquals(2, journal.getGeneration());
+		assertEquals(31, journal.size());
+	}
+
+	/**
+	 * Test adding the ticks that are missing in the journal when saving
+	 */
+	@Test
+	void testCatchUp() throws IOException {
+		BigArrayList<TickContainer> ticks = createTicks(200, 0);
+
+		journal.append(ticks, 50);
+		// The journal is behind, so the tick is skipped
+		journal.append(100, ticks.get(100));
+		assertEquals(50, journal.size());
+
+		journal.append(ticks, 200);
+		save(ticks, 200);
+
+		assertThrows(IOException.class, () -> {
+			journal.save(file, beta1Flavor.serialiseHeader(), 201);
+		});
+	}
+
+	private void save(BigArrayList<TickContainer> ticks, long toTick) throws IOException {
+		TASfileIndex index = journal.save(file, beta1Flavor.serialiseHeader(), toTick);
+		PlaybackSerialiser.saveToFile(expectedFile, ticks, "beta1", toTick);
+
+		assertArrayEquals(Files.readAllBytes(expectedFile), Files.readAllBytes(file));
+		// The index hashed the copied bytes, without reading the file
+		assertTrue(index.matches(file));
+		assertEquals(toTick, index.getTickCount());
+	}
+}
@@ -0,0 +1,142 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLineReader;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileLinter;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class TASfileLinterTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+
+	private static final Path FILE = Paths.get("src/test/resources/linter.mctas");
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		Files.deleteIfExists(FILE);
+	}
+
+	/**
+	 * Test that a valid TASfile has no errors
+	 */
+	@Test
+	void testValid() {
+		List<String> messages = lint(
+				"// $label(start); Comment",
+				"0|W;w|;0,887,626|17.85;-202.74799\t\t// $hud(true);",
+				"\t1|W,LCONTROL;|LC;0,887,626|",
+				"",
+				"1|W;w|;0,~1,~1|~1;~1");
+
+		assertIterableEquals(new ArrayList<>(), messages);
+	}
+
+	/**
+	 * Test that every error is reported, not only the first one
+	 */
+	@Test
+	void testEveryError() {
+		List<String> messages = lint(
+				"0|NOTAKEY;w|;0,887,626|17.85;-202.74799",
+				"1|W;w|;0,887,626|17.85;-202.74799",
+				"\t2|W;w|;0,887,626|17.85;-202.74799",
+				"this is not a tick",
+				"3|W;w|MOUSEMOVED;0,887,626|17.85;-202.74799",
+				"3|W;w|NOTAMOUSEKEY;0,887,626|17.85;-202.74799");
+
+		List<String> expected = new ArrayList<>();
+		expected.add("Line 0, Tick 0, Subtick 0: The keycode NOTAKEY does not exist");
+		expected.add("Line 2, Tick 1, Subtick 1: The subtick is numbered 2 instead of 1");
+		expected.add("Line 3, Tick 1, Subtick 0: The line is not a tick or a comment and is ignored: this is not a tick");
+		expected.add("Line 4, Tick 2, Subtick 0: The tick is numbered 3 instead of 2");
+		expected.add("Line 5, Tick 3, Subtick 0: The keycode NOTAMOUSEKEY does not exist");
+
+		assertIterableEquals(expected, messages);
+	}
+
+	/**
+	 * Test malformed file commands and a subtick without a tick
+	 */
+	@Test
+	void testFileCommandsAndSubticks() {
+		List<String> messages = lint(
+				"// $label start",
+				"\t1|W;w|;0,887,626|17.85;-202.74799",
+				"0|W;w|;0,887,626|17.85;-202.74799\t\t// $hud(true)",
+				"// $invalid name(true); But costs $5");
+
+		List<String> expected = new ArrayList<>();
+		expected.add("Line 0, Tick 0, Subtick 0: The file command is malformed and is read as a comment: $label start");
+		expected.add("Line 1, Tick 0, Subtick 0: This should not be a subtick at this position");
+		expected.add("Line 2, Tick 0, Subtick 0: The file command is malformed and is read as a comment: $hud(true)");
+		expected.add("Line 3, Tick 1, Subtick 0: The file command name invalid name is invalid");
+
+		assertIterableEquals(expected, messages);
+	}
+
+	/**
+	 * Test linting a file, including the header and the line numbers after the header
+	 */
+	@Test
+	void testFile() throws IOException {
+		Files.write(FILE, Arrays.asList(
+				"##################### TASfile #####################",
+				"Flavor: beta1",
+				"FileCommand-Extensions: tasmod_label@v1",
+				"",
+				"##################################################",
+				"0|W;w|;0,887,626|17.85;-202.74799",
+				"1|NOTAKEY;w|;0,887,626|17.85;-202.74799",
+				"2|W;w|;0,887,626|17.85;-202.74799"), StandardCharsets.UTF_8);
+
+		List<PlaybackLoadException> errors = TASfileLinter.lint(FILE);
+		assertEquals(1, errors.size());
+		assertEquals("Line 6, Tick 1, Subtick 0: The keycode NOTAKEY does not exist", errors.get(0).getMessage());
+
+		Files.write(FILE, Arrays.asList("No header"), StandardCharsets.UTF_8);
+		errors = TASfileLinter.lint(FILE);
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0).getMessage().startsWith("Couldn't find a flavorname"), errors.get(0).getMessage());
+	}
+
+	private List<String> lint(String... lines) {
+		BigArrayList<String> list = new BigArrayList<>();
+		for (String line : lines) {
+			list.add(line);
+		}
+		List<String> out = new ArrayList<>();
+		long ticks = new Beta1Flavor().lint(new TASfileLineReader(list, 0), error -> out.add(error.getMessage()));
+		assertTrue(ticks > 0);
+		return out;
+	}
+}
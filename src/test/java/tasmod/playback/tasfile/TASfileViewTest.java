@@ -0,0 +1,281 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.createTicks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandContainer;
+import com.minecrafttas.tasmod.playback.filecommands.PlaybackFileCommand.PlaybackFileCommandExtension;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileCommandCapture;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileCommandHistory;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileView;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.BinaryFlavor;
+import com.minecrafttas.tasmod.playback.tickstore.BigArrayTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.playback.tickstore.ViewTickStore;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class TASfileViewTest {
+
+	/**
+	 * Writes a file command with the number of the tick to every 10th tick,<br>
+	 * and stores the ticks it receives and the arguments of the file commands in them
+	 */
+	private static class TestFileCommand extends PlaybackFileCommandExtension {
+
+		List<Long> ticks = new ArrayList<>();
+		List<String> args = new ArrayList<>();
+
+		@Override
+		public String getExtensionName() {
+			return "tasmod_testViewExtension";
+		}
+
+		@Override
+		public PlaybackFileCommandContainer onSerialiseInlineComment(long tick, TickContainer tickContainer) {
+			PlaybackFileCommandContainer out = new PlaybackFileCommandContainer();
+			if (tick % 10 == 0) {
+				out.add("viewKey", new PlaybackFileCommand("viewKey", Long.toString(tick)));
+			}
+			return out;
+		}
+
+		@Override
+		public void onDeserialiseInlineComment(long tick, TickContainer container, PlaybackFileCommandContainer fileCommandContainer) {
+			ticks.add(tick);
+			List<PlaybackFileCommand> commands = fileCommandContainer.get("viewKey");
+			if (commands != null) {
+				for (PlaybackFileCommand command : commands) {
+					if (command != null) {
+						args.add(command.getArgs()[0]);
+					}
+				}
+			}
+		}
+
+		@Override
+		public String[] getFileCommandNames() {
+			return new String[] { "viewKey" };
+		}
+
+		@Override
+		public void onClear() {
+			ticks.clear();
+			args.clear();
+		}
+	}
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+	private static BinaryFlavor binaryFlavor = new BinaryFlavor();
+	private static TestFileCommand fileCommand = new TestFileCommand();
+
+	private Path file = Paths.get("src/test/resources/serialiser/TASfileViewTest.mctas");
+	private Path savedFile = Paths.get("src/test/resources/serialiser/TASfileViewTest2.mctas");
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(binaryFlavor);
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.register(fileCommand);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		fileCommand.onClear();
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), false, false);
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(TASfileIndex.getIndexPath(file));
+		Files.deleteIfExists(savedFile);
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(binaryFlavor);
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.unregister(fileCommand);
+	}
+
+	/**
+	 * Test reading every tick in order, like during a playback
+	 */
+	@Test
+	void testSequential() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(2500), "beta1");
+		BigArrayList<TickContainer> expected = PlaybackSerialiser.loadFromFile(file, false);
+
+		try (TASfileView view = TASfileView.open(file)) {
+			assertEquals(expected.size(), view.size());
+			for (long i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i), view.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Test reading ticks in random order, which seeks via the index and uses the cache
+	 */
+	@Test
+	void testRandomAccess() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(2500), "beta1");
+		BigArrayList<TickContainer> expected = PlaybackSerialiser.loadFromFile(file, false);
+
+		List<Long> ticks = new ArrayList<>();
+		ticks.add(2499L);
+		ticks.add(0L);
+		ticks.add(1500L);
+		ticks.add(1499L);
+		ticks.add(1501L);
+		ticks.add(999L);
+		ticks.add(1000L);
+		ticks.add(2499L);
+		ticks.add(3L);
+
+		try (TASfileView view = new TASfileView(file, beta1Flavor.clone(), 2)) {
+			for (long tick : ticks) {
+				assertEquals(expected.get(tick), view.get(tick));
+			}
+
+			assertThrows(IndexOutOfBoundsException.class, () -> {
+				view.get(2500);
+			});
+			assertThrows(IndexOutOfBoundsException.class, () -> {
+				view.get(-1);
+			});
+		}
+	}
+
+	/**
+	 * Test that the file commands of skipped ticks are passed to the extensions, when seeking forward,<br>
+	 * and that every tick is passed exactly once and in order
+	 */
+	@Test
+	void testSeekPassesFileCommands() throws PlaybackLoadException, IOException {
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), true, false);
+		PlaybackSerialiser.saveToFile(file, createTicks(2500), "beta1");
+
+		try (TASfileView view = TASfileView.open(file)) {
+			view.get(2000);
+			assertPassed(2001);
+
+			view.get(5);
+			assertPassed(2001);
+
+			view.get(2001);
+			view.get(2499);
+			assertPassed(2500);
+			assertEquals(2500, view.getNextFileCommandTick());
+		}
+	}
+
+	/**
+	 * Test that a duplicate reads the same ticks without passing file commands
+	 */
+	@Test
+	void testDuplicate() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(1500), "beta1");
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), true, false);
+
+		try (TASfileView view = TASfileView.open(file); TASfileView duplicate = view.duplicate()) {
+			fileCommand.onClear();
+			assertEquals(view.size(), duplicate.size());
+			assertEquals(view.get(1200), duplicate.get(1200));
+			assertEquals(view.get(3), duplicate.get(3));
+			assertEquals(0, duplicate.getNextFileCommandTick());
+			assertEquals(1201, fileCommand.ticks.size());
+		}
+	}
+
+	/**
+	 * Test that a {@link TASfileCommandCapture} keeps the file commands of played back ticks after the extension was disabled,<br>
+	 * and reads the file commands of the ticks that were not played back yet from the TASfile
+	 */
+	@Test
+	void testCapturedFileCommands() throws PlaybackLoadException, IOException {
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), true, false);
+		PlaybackSerialiser.saveToFile(file, createTicks(100), "beta1");
+
+		ViewTickStore store = new ViewTickStore(TASfileView.open(file), new BigArrayTickStore(new BigArrayList<>()));
+		store.get(25);
+		assertEquals(26, store.getNextFileCommandTick());
+
+		Beta1Flavor flavor = new Beta1Flavor();
+		List<String> header = flavor.serialiseHeader();
+		TASfileCommandHistory history = new TASfileCommandHistory(Paths.get("src/test/resources/temp/history"));
+		TASfileCommandCapture capture = new TASfileCommandCapture(store.getNextFileCommandTick(), store.getViewSize());
+		capture.capture(history, store, store.size());
+		assertEquals(26, history.size());
+		assertEquals(1, capture.getInlineFileCommands(20).size());
+		assertTrue(capture.getInlineFileCommands(30).isEmpty());
+
+		TASmodAPIRegistry.PLAYBACK_FILE_COMMAND.setEnabled(fileCommand.getExtensionName(), false, false);
+		TickStore copy = store.copy(store.size());
+		store.clearMemory();
+		capture.readFromFile(copy);
+		copy.clearMemory();
+		assertEquals(1, capture.getInlineFileCommands(30).size());
+
+		flavor.setFileCommandCapture(capture);
+		PlaybackSerialiser.saveToFile(savedFile, createTicks(100), flavor, header, false);
+
+		capture.close();
+		history.close();
+
+		fileCommand.onClear();
+		PlaybackSerialiser.loadFromFile(savedFile);
+		assertPassed(100);
+	}
+
+	/**
+	 * @param amount The amount of ticks that should have been passed to the extension
+	 */
+	private void assertPassed(int amount) {
+		List<Long> expectedTicks = new ArrayList<>();
+		List<String> expectedArgs = new ArrayList<>();
+		for (long i = 0; i < amount; i++) {
+			expectedTicks.add(i);
+			if (i % 10 == 0) {
+				expectedArgs.add(Long.toString(i));
+			}
+		}
+		assertEquals(expectedTicks, fileCommand.ticks);
+		assertEquals(expectedArgs, fileCommand.args);
+	}
+
+	/**
+	 * Test opening a view with the wrong or a binary flavor
+	 */
+	@Test
+	void testWrongFlavor() throws IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(10), "binary1");
+
+		PlaybackLoadException e = assertThrows(PlaybackLoadException.class, () -> {
+			TASfileView.open(file);
+		});
+		assertEquals("The flavor binary1 is binary and can't be viewed", e.getMessage());
+
+		e = assertThrows(PlaybackLoadException.class, () -> {
+			TASfileView.open(file, "beta1");
+		});
+		assertEquals("Detected flavor binary1 in the TASfile, which does not match the specified flavor: beta1", e.getMessage());
+	}
+}
@@ -0,0 +1,85 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>Creates recordings for the tests that save, index and load larger TASfiles.
+ *
+ * <p>Every tick presses W, every third tick additionally presses LCONTROL in a subtick with a character outside of ASCII,<br>
+ * so line lengths and byte offsets vary. Every 50th tick has an inline comment and every 70th tick an endline comment.
+ *
+ * @author Scribble
+ */
+public class TickFixtures {
+
+	/**
+	 * @param amount The amount of ticks
+	 * @return The ticks from 0 to <code>amount</code>
+	 */
+	public static BigArrayList<TickContainer> createTicks(int amount) {
+		return createTicks(amount, 0);
+	}
+
+	/**
+	 * @param amount The amount of ticks
+	 * @param offset The number of the first tick, which changes the inputs of the ticks
+	 * @return The ticks from <code>offset</code> to <code>offset + amount</code>
+	 */
+	public static BigArrayList<TickContainer> createTicks(int amount, int offset) {
+		BigArrayList<TickContainer> ticks = new BigArrayList<>();
+		for (int i = offset; i < amount + offset; i++) {
+			ticks.add(createTick(i));
+		}
+		return ticks;
+	}
+
+	/**
+	 * @param i The number of the tick
+	 * @return The tick with the inputs of that number
+	 */
+	public static TickContainer createTick(int i) {
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+		if (i % 3 == 0) {
+			keyboard.updateFromEvent(VirtualKey.LCONTROL, true, 'ä');
+		}
+
+		VirtualMouse mouse = new VirtualMouse();
+		mouse.updateFromEvent(VirtualKey.LC, i % 2 == 0, 0, i % 1000, 500);
+
+		VirtualCameraAngle camera = new VirtualCameraAngle(0f, 0f, true);
+		camera.updateFromEvent(i % 90, i % 360);
+
+		CommentContainer comments = new CommentContainer();
+		if (i % 50 == 0) {
+			comments.addInlineComment("Tick " + i);
+		}
+		if (i % 70 == 0) {
+			comments.addEndlineComment("End " + i);
+		}
+		return new TickContainer(keyboard, mouse, camera, comments);
+	}
+
+	public static <T extends Serializable> void assertBigArrayList(BigArrayList<T> expected, BigArrayList<T> actual) {
+		assertIterableEquals(convertBigArrayListToArrayList(expected), convertBigArrayListToArrayList(actual));
+	}
+
+	public static <T extends Serializable> ArrayList<T> convertBigArrayListToArrayList(BigArrayList<T> list) {
+		ArrayList<T> out = new ArrayList<>();
+		for (long i = 0; i < list.size(); i++) {
+			out.add(list.get(i));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,153 @@
+package tasmod.playback.tasfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.playback.tasfile.TASfileFingerprint;
+import com.minecrafttas.tasmod.playback.tasfile.TickMerkleTree;
+
+public class TickMerkleTreeTest {
+
+	/**
+	 * Test that the root only depends on the ticks, not on how the tree was built
+	 */
+	@Test
+	void testRoot() {
+		TickMerkleTree tree = tree(100);
+		TickMerkleTree other = tree(100);
+		assertEquals(tree.getRoot(), other.getRoot());
+		assertEquals(tree(37).getRoot(), tree.getRoot(37));
+
+		assertNotEquals(tree.getRoot(99), tree.getRoot(100));
+		assertNotEquals(new TickMerkleTree().getRoot(), tree.getRoot(1));
+
+		// Changing a tick and changing it back results in the same root
+		tree.set(42, 1000);
+		assertNotEquals(other.getRoot(), tree.getRoot());
+		assertEquals(other.getRoot(42), tree.getRoot(42));
+		tree.set(42, 42);
+		assertEquals(other.getRoot(), tree.getRoot());
+	}
+
+	/**
+	 * Test that ticks can be added again after truncating
+	 */
+	@Test
+	void testTruncate() {
+		TickMerkleTree tree = tree(64);
+		tree.truncate(13);
+		assertEquals(13, tree.size());
+		assertEquals(tree(13).getRoot(), tree.getRoot());
+
+		for (int i = 13; i < 64; i++) {
+			tree.add(i + 1000);
+		}
+		TickMerkleTree expected = tree(13);
+		for (int i = 13; i < 64; i++) {
+			expected.add(i + 1000);
+		}
+		assertEquals(expected.getRoot(), tree.getRoot());
+
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.getRoot(65));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.set(64, 0));
+	}
+
+	/**
+	 * Test finding the first different tick of two trees
+	 */
+	@Test
+	void testCommonPrefix() {
+		TickMerkleTree tree = tree(1000);
+		assertEquals(1000, tree.getCommonPrefix(tree(1000)));
+		assertEquals(517, tree.getCommonPrefix(tree(517)));
+		assertEquals(0, tree.getCommonPrefix(new TickMerkleTree()));
+
+		for (int tick : new int[] { 0, 1, 511, 512, 513, 999 }) {
+			TickMerkleTree changed = tree(1000);
+			changed.set(tick, -1);
+			assertEquals(tick, tree.getCommonPrefix(changed));
+			assertEquals(tick, changed.getCommonPrefix(tree));
+		}
+	}
+
+	/**
+	 * Test that a copy can be extended without changing the original tree
+	 */
+	@Test
+	void testCopy() {
+		TickMerkleTree tree = tree(100);
+		TickMerkleTree copy = tree.copy();
+		copy.add(100);
+		copy.set(5, -1);
+
+		assertEquals(100, tree.size());
+		assertEquals(tree(100).getRoot(), tree.getRoot());
+		assertEquals(5, tree.getTickHash(5));
+		assertEquals(-1, copy.getTickHash(5));
+		assertEquals(100, copy.getTickHash(100));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.getTickHash(100));
+	}
+
+	/**
+	 * Test comparing a tree with a fingerprint from a TASfile
+	 */
+	@Test
+	void testFingerprint() {
+		TickMerkleTree tree = tree(300);
+		TASfileFingerprint fingerprint = TASfileFingerprint.of(tree(200));
+
+		assertTrue(fingerprint.isPrefixOf(tree));
+		assertFalse(fingerprint.matches(tree));
+		assertTrue(fingerprint.matches(tree(200)));
+		assertFalse(fingerprint.isPrefixOf(tree(199)));
+
+		tree.set(150, -1);
+		assertFalse(fingerprint.isPrefixOf(tree));
+		assertTrue(tree.hasPrefix(150, tree(150).getRoot()));
+	}
+
+	/**
+	 * Test writing and reading the fingerprint next to a TASfile
+	 */
+	@Test
+	void testFingerprintFile() throws IOException {
+		Path file = Paths.get("src/test/resources/serialiser/TickMerkleTreeTest.mctas");
+		Path fingerprintFile = TASfileFingerprint.getFingerprintPath(file);
+		try {
+			assertNull(TASfileFingerprint.load(file));
+
+			TASfileFingerprint expected = TASfileFingerprint.of(tree(300));
+			expected.write(fingerprintFile);
+			TASfileFingerprint actual = TASfileFingerprint.load(file);
+			assertEquals(expected.getTicks(), actual.getTicks());
+			assertEquals(expected.getRoot(), actual.getRoot());
+
+			Files.write(fingerprintFile, "Broken".getBytes());
+			assertNull(TASfileFingerprint.load(file));
+
+			TASfileFingerprint.delete(file);
+			assertFalse(Files.exists(fingerprintFile));
+		} finally {
+			Files.deleteIfExists(fingerprintFile);
+		}
+	}
+
+	private TickMerkleTree tree(int ticks) {
+		TickMerkleTree tree = new TickMerkleTree();
+		for (int i = 0; i < ticks; i++) {
+			tree.add(i);
+		}
+		return tree;
+	}
+}
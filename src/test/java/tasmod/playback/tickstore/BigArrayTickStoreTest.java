@@ -0,0 +1,74 @@
+package tasmod.playback.tickstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tasmod.playback.tickstore.TickStoreFixtures.createTick;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tickstore.BigArrayTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+
+public class BigArrayTickStoreTest {
+
+	/**
+	 * Test that a frozen copy shares the ticks with the store and only keeps the ticks, that are replaced or removed afterwards
+	 */
+	@Test
+	void testFreeze() throws IOException {
+		BigArrayTickStore store = new BigArrayTickStore(new BigArrayList<>());
+		List<TickContainer> ticks = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			ticks.add(createTick(i));
+			store.add(ticks.get(i));
+		}
+
+		TickStore frozen = store.freeze(8);
+		store.set(2, createTick(20));
+		store.truncate(6);
+		store.add(createTick(60));
+		store.set(2, createTick(21));
+
+		assertEquals(8, frozen.size());
+		for (int i = 0; i < 8; i++) {
+			assertSame(ticks.get(i), frozen.get(i));
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> frozen.get(8));
+		assertThrows(UnsupportedOperationException.class, () -> frozen.set(0, createTick(0)));
+
+		TickStore copy = frozen.copy(8);
+		copy.set(0, createTick(1));
+		assertSame(ticks.get(0), frozen.get(0));
+
+		copy.clearMemory();
+		frozen.clearMemory();
+		store.clearMemory();
+	}
+
+	/**
+	 * Test that clearing the store is delayed, until the last frozen copy was cleared
+	 */
+	@Test
+	void testClearWhileFrozen() throws IOException {
+		BigArrayTickStore store = new BigArrayTickStore(new BigArrayList<>());
+		for (int i = 0; i < 5; i++) {
+			store.add(createTick(i));
+		}
+
+		TickStore frozen = store.freeze(5);
+		TickStore refrozen = frozen.freeze(3);
+		store.clearMemory();
+		assertEquals(createTick(4), frozen.get(4));
+
+		frozen.clearMemory();
+		assertEquals(createTick(2), refrozen.get(2));
+		refrozen.clearMemory();
+	}
+}
@@ -0,0 +1,189 @@
+package tasmod.playback.tickstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tickstore.TickStoreFixtures.assertTick;
+import static tasmod.playback.tickstore.TickStoreFixtures.createTick;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tickstore.ColumnarTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+public class ColumnarTickStoreTest {
+
+	/**
+	 * Test that ticks with subticks, characters, comments and missing camera angles are the same after storing them
+	 */
+	@Test
+	void testGet() {
+		ColumnarTickStore store = new ColumnarTickStore();
+		List<TickContainer> expected = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			TickContainer tick = createTick(i);
+			expected.add(tick);
+			store.add(tick);
+		}
+		TickContainer empty = new TickContainer();
+		expected.add(empty);
+		store.add(empty);
+
+		assertEquals(expected.size(), store.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertTick(expected.get(i), store.get(i));
+		}
+
+		VirtualCameraAngle camera = store.get(50).getCameraAngle();
+		assertNull(camera.getPitch());
+		assertNull(camera.getYaw());
+	}
+
+	/**
+	 * Test that changing a tick from {@link ColumnarTickStore#get(long)} doesn't change the store
+	 */
+	@Test
+	void testGetIsCopy() {
+		ColumnarTickStore store = new ColumnarTickStore();
+		store.add(createTick(3));
+
+		store.get(0).getComments().addInlineComment("Changed");
+		store.get(0).getKeyboard().updateFromEvent(VirtualKey.Z, true, 'z');
+
+		assertTick(createTick(3), store.get(0));
+	}
+
+	/**
+	 * Test replacing ticks in the middle, until the columns are compacted
+	 */
+	@Test
+	void testSet() {
+		ColumnarTickStore store = new ColumnarTickStore();
+		for (int i = 0; i < 100; i++) {
+			store.add(createTick(i));
+		}
+		long memory = store.getMemoryUsage();
+
+		for (int round = 0; round < 100; round++) {
+			for (int i = 0; i < 100; i++) {
+				store.set(i, createTick(i + round));
+			}
+		}
+		// Every tick was replaced, so the garbage was removed at least once
+		assertTrue(store.getMemoryUsage() < memory * 50);
+
+		for (int i = 0; i < 100; i++) {
+			assertTick(createTick(i + 99), store.get(i));
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> store.set(100, createTick(0)));
+		assertThrows(IndexOutOfBoundsException.class, () -> store.get(-1));
+	}
+
+	/**
+	 * Test that ticks can be added again after truncating, with and without replaced ticks
+	 */
+	@Test
+	void testTruncate() {
+		ColumnarTickStore store = new ColumnarTickStore();
+		for (int i = 0; i < 20; i++) {
+			store.add(createTick(i));
+		}
+		store.truncate(10);
+		assertEquals(10, store.size());
+		store.add(createTick(100));
+
+		store.set(2, createTick(200));
+		store.truncate(5);
+		store.add(createTick(300));
+
+		assertEquals(6, store.size());
+		assertTick(createTick(0), store.get(0));
+		assertTick(createTick(200), store.get(2));
+		assertTick(createTick(4), store.get(4));
+		assertTick(createTick(300), store.get(5));
+
+		store.truncate(0);
+		assertTrue(store.isEmpty());
+	}
+
+	/**
+	 * Test that a copy is not affected by changes to the store
+	 */
+	@Test
+	void testCopy() {
+		ColumnarTickStore store = new ColumnarTickStore();
+		for (int i = 0; i < 10; i++) {
+			store.add(createTick(i));
+		}
+		store.set(4, createTick(40));
+
+		TickStore copy = store.copy(8);
+		store.set(1, createTick(10));
+		store.truncate(3);
+
+		assertEquals(8, copy.size());
+		for (int i = 0; i < 8; i++) {
+			assertTick(i == 4 ? createTick(40) : createTick(i), copy.get(i));
+		}
+	}
+
+	/**
+	 * Test that a frozen copy keeps the ticks, that are replaced or removed afterwards, and that clearing the store waits for the copy
+	 */
+	@Test
+	void testFreeze() throws IOException {
+		ColumnarTickStore store = new ColumnarTickStore();
+		for (int i = 0; i < 10; i++) {
+			store.add(createTick(i));
+		}
+
+		TickStore frozen = store.freeze(8);
+		store.set(9, createTick(90));
+		store.set(1, createTick(10));
+		store.truncate(5);
+		store.add(createTick(50));
+		TickStore second = store.freeze(6);
+		store.set(5, createTick(51));
+		store.clearMemory();
+
+		assertEquals(8, frozen.size());
+		for (int i = 0; i < 8; i++) {
+			assertTick(createTick(i), frozen.get(i));
+		}
+		assertTick(createTick(10), second.get(1));
+		assertTick(createTick(50), second.get(5));
+
+		frozen.clearMemory();
+		assertEquals(6, store.size());
+		second.clearMemory();
+		assertEquals(0, store.size());
+	}
+
+	/**
+	 * Test that a recorded tick takes tens of bytes
+	 */
+	@Test
+	void testMemoryUsage() {
+		ColumnarTickStore store = new ColumnarTickStore();
+		for (int i = 0; i < 100000; i++) {
+			VirtualKeyboard keyboard = new VirtualKeyboard();
+			keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+			VirtualMouse mouse = new VirtualMouse();
+			mouse.updateFromState(new int[] {}, 0, i, i);
+			VirtualCameraAngle camera = new VirtualCameraAngle();
+			camera.updateFromState(0f, (float) i);
+			store.add(new TickContainer(keyboard, mouse, camera));
+		}
+		assertTrue(store.getMemoryUsage() / store.size() < 100, "Bytes per tick: " + store.getMemoryUsage() / store.size());
+	}
+}
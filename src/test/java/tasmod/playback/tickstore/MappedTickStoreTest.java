@@ -0,0 +1,110 @@
+package tasmod.playback.tickstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tasmod.playback.tickstore.TickStoreFixtures.assertTick;
+import static tasmod.playback.tickstore.TickStoreFixtures.createTick;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tickstore.MappedTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+
+public class MappedTickStoreTest {
+
+	private static final Path directory = Paths.get("src/test/resources/temp/mappedticks");
+
+	@AfterEach
+	void afterEach() throws IOException {
+		if (Files.exists(directory)) {
+			try (Stream<Path> files = Files.list(directory)) {
+				files.forEach(file -> file.toFile().delete());
+			}
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	/**
+	 * Test that ticks with subticks, characters, comments and missing camera angles are the same after storing them
+	 */
+	@Test
+	void testGet() throws IOException {
+		MappedTickStore store = new MappedTickStore(directory);
+		for (int i = 0; i < 50; i++) {
+			store.add(createTick(i));
+		}
+		store.add(new TickContainer());
+
+		for (int i = 0; i < 50; i++) {
+			assertTick(createTick(i), store.get(i));
+		}
+		VirtualCameraAngle camera = store.get(50).getCameraAngle();
+		assertNull(camera.getPitch());
+		assertNull(camera.getYaw());
+
+		store.clearMemory();
+	}
+
+	/**
+	 * Test that a copy is not affected by replacing and removing ticks in the store
+	 */
+	@Test
+	void testCopy() throws IOException {
+		MappedTickStore store = new MappedTickStore(directory);
+		for (int i = 0; i < 10; i++) {
+			store.add(createTick(i));
+		}
+		store.set(4, createTick(40));
+
+		TickStore copy = store.copy(8);
+		store.set(1, createTick(10));
+		store.truncate(3);
+
+		assertEquals(3, store.size());
+		assertTick(createTick(10), store.get(1));
+		assertEquals(8, copy.size());
+		for (int i = 0; i < 8; i++) {
+			assertTick(i == 4 ? createTick(40) : createTick(i), copy.get(i));
+		}
+
+		copy.clearMemory();
+		store.clearMemory();
+	}
+
+	/**
+	 * Test that a frozen copy keeps the ticks, that are replaced or removed afterwards, and that clearing the store waits for the copy
+	 */
+	@Test
+	void testFreeze() throws IOException {
+		MappedTickStore store = new MappedTickStore(directory);
+		for (int i = 0; i < 10; i++) {
+			store.add(createTick(i));
+		}
+
+		TickStore frozen = store.freeze(8);
+		store.set(1, createTick(10));
+		store.truncate(5);
+		store.add(createTick(50));
+		store.set(1, createTick(11));
+		store.clearMemory();
+
+		assertEquals(8, frozen.size());
+		for (int i = 0; i < 8; i++) {
+			assertTick(createTick(i), frozen.get(i));
+		}
+		assertThrows(UnsupportedOperationException.class, () -> frozen.add(createTick(8)));
+
+		frozen.clearMemory();
+		assertEquals(0, store.size());
+	}
+}
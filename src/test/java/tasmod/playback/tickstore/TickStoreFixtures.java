@@ -0,0 +1,73 @@
+package tasmod.playback.tickstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+
+import java.util.ArrayList;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+/**
+ * <p>Creates and compares the ticks for the tests of the {@link TickStore TickStores}, that encode the ticks instead of keeping them as objects.
+ *
+ * <p>Every tick has keyboard, mouse and camera subticks. Every second tick presses more keys with a null character,<br>
+ * every third tick presses LC and every fourth tick has comments with a null endline comment and a character outside of ASCII.
+ *
+ * @author Scribble
+ */
+public class TickStoreFixtures {
+
+	/**
+	 * @param i The number of the tick
+	 * @return The tick with the inputs of that number
+	 */
+	public static TickContainer createTick(int i) {
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+		if (i % 2 == 0) {
+			keyboard.updateFromEvent(VirtualKey.LSHIFT, true, Character.MIN_VALUE);
+			keyboard.updateFromEvent(VirtualKey.A, true, 'A');
+		}
+
+		VirtualMouse mouse = new VirtualMouse();
+		mouse.updateFromEvent(VirtualKey.LC, i % 3 == 0, 0, i, -i);
+		mouse.updateFromEvent(VirtualKey.MOUSEMOVED, false, -120, i + 1, 5);
+
+		VirtualCameraAngle camera = new VirtualCameraAngle();
+		camera.updateFromState(i / 10f, -i * 2f);
+		camera.updateFromState(i / 5f, 180f);
+
+		CommentContainer comments = new CommentContainer();
+		if (i % 4 == 0) {
+			comments.addInlineComment("Tick " + i);
+			comments.addEndlineComment(null);
+			comments.addEndlineComment("Endline ä " + i);
+		}
+		return new TickContainer(keyboard, mouse, camera, comments);
+	}
+
+	/**
+	 * Asserts that a tick is the same after storing it, including the order of the pressed keys and the comments
+	 *
+	 * @param expected The tick that was stored
+	 * @param actual   The tick from the store
+	 */
+	public static void assertTick(TickContainer expected, TickContainer actual) {
+		assertEquals(expected, actual);
+		assertEquals(expected.getKeyboard().toString(), actual.getKeyboard().toString());
+		assertEquals(expected.getMouse().toString(), actual.getMouse().toString());
+		assertEquals(expected.getCameraAngle().toString(), actual.getCameraAngle().toString());
+		assertIterableEquals(expected.getComments().getInlineComments(), actual.getComments().getInlineComments());
+		assertIterableEquals(expected.getComments().getEndlineComments(), actual.getComments().getEndlineComments());
+		for (int i = 0; i < expected.getKeyboard().getAllSize(); i++) {
+			assertIterableEquals(new ArrayList<>(expected.getKeyboard().getFromAll(i).getPressedKeys()), new ArrayList<>(actual.getKeyboard().getFromAll(i).getPressedKeys()));
+			assertIterableEquals(expected.getKeyboard().getFromAll(i).getCharList(), actual.getKeyboard().getFromAll(i).getCharList());
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package tasmod.playback.tickstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tasmod.playback.tasfile.TickFixtures.createTick;
+import static tasmod.playback.tasfile.TickFixtures.createTicks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.dselent.bigarraylist.BigArrayList;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.playback.tasfile.PlaybackSerialiser;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileIndex;
+import com.minecrafttas.tasmod.playback.tasfile.TASfileView;
+import com.minecrafttas.tasmod.playback.tasfile.exception.PlaybackLoadException;
+import com.minecrafttas.tasmod.playback.tasfile.flavor.integrated.Beta1Flavor;
+import com.minecrafttas.tasmod.playback.tickstore.BigArrayTickStore;
+import com.minecrafttas.tasmod.playback.tickstore.TickStore;
+import com.minecrafttas.tasmod.playback.tickstore.ViewTickStore;
+import com.minecrafttas.tasmod.registries.TASmodAPIRegistry;
+
+public class ViewTickStoreTest {
+
+	private static Beta1Flavor beta1Flavor = new Beta1Flavor();
+
+	private Path file = Paths.get("src/test/resources/serialiser/ViewTickStoreTest.mctas");
+	private Path replacement = Paths.get("src/test/resources/serialiser/ViewTickStoreTest.mctas.saving");
+
+	@BeforeAll
+	static void register() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.register(beta1Flavor);
+	}
+
+	@AfterEach
+	void afterEach() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(TASfileIndex.getIndexPath(file));
+		Files.deleteIfExists(replacement);
+		Files.deleteIfExists(TASfileIndex.getIndexPath(replacement));
+	}
+
+	@AfterAll
+	static void unregister() {
+		TASmodAPIRegistry.SERIALISER_FLAVOR.unregister(beta1Flavor);
+	}
+
+	/**
+	 * Test that replaced, added and truncated ticks are read from the store instead of the TASfile
+	 */
+	@Test
+	void testChanges() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(100), "beta1");
+
+		try (TASfileView expected = TASfileView.open(file)) {
+			ViewTickStore store = new ViewTickStore(TASfileView.open(file), emptyStore());
+			TickContainer replaced = createTick(1000);
+			TickContainer added = createTick(2000);
+
+			store.set(5, replaced);
+			store.add(added);
+			assertEquals(101, store.size());
+			assertSame(replaced, store.get(5));
+			assertSame(added, store.get(100));
+			assertEquals(expected.get(6), store.get(6));
+
+			store.truncate(50);
+			assertEquals(50, store.size());
+			assertEquals(50, store.getViewSize());
+			assertSame(replaced, store.get(5));
+			assertThrows(IndexOutOfBoundsException.class, () -> store.get(50));
+
+			store.truncate(3);
+			store.add(added);
+			assertEquals(4, store.size());
+			assertSame(added, store.get(3));
+			store.set(3, replaced);
+			assertSame(replaced, store.get(3));
+
+			store.clearMemory();
+			assertFalse(store.readsFrom(file));
+		}
+	}
+
+	/**
+	 * Test that a copy reads from its own view and is not affected by changing or clearing the store
+	 */
+	@Test
+	void testCopy() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(100), "beta1");
+
+		try (TASfileView expected = TASfileView.open(file)) {
+			ViewTickStore store = new ViewTickStore(TASfileView.open(file), emptyStore());
+			TickContainer replaced = createTick(1000);
+			store.set(10, replaced);
+			store.add(createTick(2000));
+
+			TickStore copy = store.copy(80);
+			store.set(20, createTick(3000));
+			store.clearMemory();
+
+			assertEquals(80, copy.size());
+			assertSame(replaced, copy.get(10));
+			assertEquals(expected.get(20), copy.get(20));
+			assertEquals(expected.get(79), copy.get(79));
+			copy.clearMemory();
+		}
+	}
+
+	/**
+	 * Test that the TASfile of the view can be replaced, and that a replacement with too few ticks is rejected
+	 */
+	@Test
+	void testReplaceFile() throws PlaybackLoadException, IOException {
+		PlaybackSerialiser.saveToFile(file, createTicks(100), "beta1");
+		PlaybackSerialiser.saveToFile(replacement, createTicks(50), "beta1");
+
+		ViewTickStore store = new ViewTickStore(TASfileView.open(file), emptyStore());
+		TASfileIndex shortIndex = indexOf(replacement);
+		assertThrows(PlaybackLoadException.class, () -> store.replaceFile(replacement, file, beta1Flavor, shortIndex));
+		assertTrue(Files.exists(replacement));
+		assertTrue(store.readsFrom(file));
+
+		PlaybackSerialiser.saveToFile(replacement, createTicks(120, 5), "beta1");
+		TASfileIndex index = indexOf(replacement);
+		TickContainer expected;
+		try (TASfileView view = TASfileView.open(replacement)) {
+			expected = view.get(42);
+		}
+		store.replaceFile(replacement, file, beta1Flavor, index);
+
+		assertFalse(Files.exists(replacement));
+		assertTrue(store.readsFrom(file));
+		assertEquals(expected, store.get(42));
+		store.clearMemory();
+	}
+
+	private TickStore emptyStore() {
+		return new BigArrayTickStore(new BigArrayList<>());
+	}
+
+	private TASfileIndex indexOf(Path file) throws PlaybackLoadException, IOException {
+		try (TASfileView view = TASfileView.open(file)) {
+			return view.getIndex();
+		}
+	}
+}
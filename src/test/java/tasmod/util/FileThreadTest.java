@@ -0,0 +1,161 @@
+package tasmod.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.util.FileThread;
+
+public class FileThreadTest {
+
+	private Path file;
+
+	@AfterEach
+	void afterEach() throws IOException {
+		if (file != null) {
+			Files.deleteIfExists(file);
+			file = null;
+		}
+	}
+
+	/**
+	 * Test writing lines to a file and waiting for the thread to finish
+	 */
+	@Test
+	void testAddLine() throws IOException {
+		file = Paths.get("src/test/resources/FileThreadTest.txt");
+
+		FileThread thread = new FileThread(file, false);
+		thread.start();
+
+		thread.addLine("Test");
+		thread.addLine("Tästß");
+		thread.getWriter().write("Test3\n");
+		thread.waitForCompletion();
+
+		List<String> expected = new ArrayList<>();
+		expected.add("Test");
+		expected.add("Tästß");
+		expected.add("Test3");
+
+		assertIterableEquals(expected, Files.readAllLines(file, StandardCharsets.UTF_8));
+		assertTrue(thread.getCompletion().isDone());
+	}
+
+	/**
+	 * Test writing more text than fits into the queue, with tiny batches
+	 */
+	@Test
+	void testBackpressure() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		FileThread thread = new FileThread(out, 7, 2);
+		thread.start();
+
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			String line = i + "|W,LCONTROL;w|;0,887,626|17.85;-202.74799";
+			thread.addLine(line);
+			expected.append(line).append('\n');
+		}
+		thread.waitForCompletion();
+
+		assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Test if errors in the background thread are passed to the producer
+	 */
+	@Test
+	void testErrorPropagation() throws InterruptedException {
+		OutputStream failing = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Disk is full");
+			}
+		};
+
+		FileThread thread = new FileThread(failing, 4, 1);
+		thread.start();
+
+		Writer writer = thread.getWriter();
+
+		IOException e = assertThrows(IOException.class, () -> {
+			for (int i = 0; i < 10000; i++) {
+				writer.write("Test\n");
+			}
+		});
+		assertEquals("Disk is full", e.getCause().getMessage());
+
+		IOException e2 = assertThrows(IOException.class, thread::waitForCompletion);
+		assertEquals("Disk is full", e2.getMessage());
+
+		thread.join();
+	}
+
+	/**
+	 * Test writing to a closed thread
+	 */
+	@Test
+	void testWriteAfterClose() throws IOException {
+		FileThread thread = new FileThread(new ByteArrayOutputStream(), 16, 1);
+		thread.start();
+		thread.addLine("Test");
+		thread.waitForCompletion();
+
+		// Closing twice is allowed
+		thread.close();
+
+		assertThrows(IOException.class, () -> {
+			thread.addLine("Test2");
+		});
+	}
+
+	/**
+	 * Test that closing a thread, which was never started, does not wait forever
+	 */
+	@Test
+	void testCloseWithoutStart() throws Exception {
+		boolean[] closed = new boolean[1];
+		OutputStream out = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+
+		FileThread thread = new FileThread(out, 4, 1);
+		thread.addLine("Test");
+
+		// The queue is full and nothing empties it
+		assertThrows(IOException.class, () -> {
+			thread.addLine("Test2");
+		});
+
+		IOException e = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(IOException.class, thread::waitForCompletion));
+		assertEquals("FileThread was closed without being started", e.getMessage());
+		assertTrue(thread.getCompletion().isCompletedExceptionally());
+		assertTrue(closed[0]);
+
+		// Starting it afterwards does nothing
+		thread.start();
+		thread.join();
+	}
+}
@@ -0,0 +1,242 @@
+package tasmod.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.util.MappedList;
+import com.minecrafttas.tasmod.util.MappedList.RecordCodec;
+import com.minecrafttas.tasmod.util.SegmentFile;
+
+public class MappedListTest {
+
+	private static final Path directory = Paths.get("src/test/resources/temp/mapped");
+
+	private static final RecordCodec<Long> LONG_CODEC = new RecordCodec<Long>() {
+
+		@Override
+		public int getRecordSize() {
+			return Long.BYTES;
+		}
+
+		@Override
+		public void write(DataOutput out, Long element) throws IOException {
+			out.writeLong(element);
+		}
+
+		@Override
+		public Long read(DataInput in) throws IOException {
+			return in.readLong();
+		}
+	};
+
+	private static final RecordCodec<String> STRING_CODEC = new RecordCodec<String>() {
+
+		@Override
+		public int getRecordSize() {
+			return 0;
+		}
+
+		@Override
+		public void write(DataOutput out, String element) throws IOException {
+			out.writeUTF(element);
+		}
+
+		@Override
+		public String read(DataInput in) throws IOException {
+			return in.readUTF();
+		}
+	};
+
+	@AfterEach
+	void afterEach() throws IOException {
+		if (Files.exists(directory)) {
+			try (Stream<Path> files = Files.list(directory)) {
+				files.forEach(file -> file.toFile().delete());
+			}
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	/**
+	 * Test adding, replacing and removing records of a fixed size
+	 */
+	@Test
+	void testFixedRecords() {
+		MappedList<Long> list = new MappedList<>(directory, "test", LONG_CODEC);
+		for (long i = 0; i < 1000; i++) {
+			list.add(i * 3);
+		}
+		list.set(500, -1L);
+		list.truncate(600);
+		list.add(42L);
+
+		assertEquals(601, list.size());
+		assertEquals(0L, list.get(0));
+		assertEquals(-1L, list.get(500));
+		assertEquals(599L * 3, list.get(599));
+		assertEquals(42L, list.get(600));
+		assertEquals(601 * Long.BYTES, list.getDiskUsage());
+		assertThrows(IndexOutOfBoundsException.class, () -> list.get(601));
+		assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, 0L));
+	}
+
+	/**
+	 * Test adding, replacing and removing records of different sizes
+	 */
+	@Test
+	void testVariableRecords() {
+		MappedList<String> list = new MappedList<>(directory, "test", STRING_CODEC);
+		for (int i = 0; i < 100; i++) {
+			list.add(repeat(i));
+		}
+		list.set(99, "Last");
+		list.set(10, "Replaced with a longer string");
+		list.truncate(50);
+		list.add("Added");
+
+		assertEquals(51, list.size());
+		assertEquals("", list.get(0));
+		assertEquals("Replaced with a longer string", list.get(10));
+		assertEquals(repeat(49), list.get(49));
+		assertEquals("Added", list.get(50));
+	}
+
+	/**
+	 * Test that replaced records are removed from the files, once there is more garbage than records in use
+	 */
+	@Test
+	void testCompaction() {
+		MappedList<String> list = new MappedList<>(directory, "test", STRING_CODEC);
+		for (int i = 0; i < 100; i++) {
+			list.add(repeat(1000));
+		}
+		long diskUsage = list.getDiskUsage();
+
+		for (int round = 0; round < 100; round++) {
+			for (int i = 0; i < 100; i++) {
+				list.set(i, repeat(1000 + round));
+			}
+		}
+
+		assertTrue(list.getDiskUsage() < diskUsage * 50);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(repeat(1099), list.get(i));
+		}
+	}
+
+	/**
+	 * Test that a copy is not affected by changes to the list, with and without replaced records
+	 */
+	@Test
+	void testCopy() {
+		MappedList<String> list = new MappedList<>(directory, "test", STRING_CODEC);
+		for (int i = 0; i < 10; i++) {
+			list.add(repeat(i));
+		}
+		MappedList<String> copy = list.copy(8);
+
+		list.set(4, "Replaced");
+		MappedList<String> copyWithGarbage = list.copy(100);
+		list.set(1, "Replaced after copying");
+		list.truncate(3);
+
+		assertEquals(8, copy.size());
+		assertEquals(repeat(4), copy.get(4));
+		assertEquals(repeat(7), copy.get(7));
+
+		assertEquals(10, copyWithGarbage.size());
+		assertEquals(repeat(1), copyWithGarbage.get(1));
+		assertEquals("Replaced", copyWithGarbage.get(4));
+		assertEquals(repeat(9), copyWithGarbage.get(9));
+	}
+
+	/**
+	 * Test that clearing empties and reuses the files, that closing deletes them and that the list can be used afterwards
+	 */
+	@Test
+	void testClearMemory() throws IOException {
+		MappedList<Long> list = new MappedList<>(directory, "test", LONG_CODEC);
+		list.add(1L);
+		Path file;
+		try (Stream<Path> files = Files.list(directory)) {
+			file = files.findFirst().get();
+		}
+
+		list.clearMemory();
+		assertTrue(list.isEmpty());
+		assertEquals(0, Files.size(file));
+
+		list.add(2L);
+		assertEquals(2L, list.get(0));
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+		assertTrue(Files.exists(file));
+
+		list.close();
+		assertTrue(list.isEmpty());
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+
+		list.add(3L);
+		assertEquals(3L, list.get(0));
+		list.close();
+	}
+
+	/**
+	 * Test reading and writing over the borders of segments, while segments are dropped from the cache
+	 */
+	@Test
+	void testSegments() throws IOException {
+		SegmentFile file = new SegmentFile(directory, "test", 16, 2);
+		assertNull(file.getFile());
+
+		byte[] bytes = new byte[100];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		file.write(10, bytes, 0, bytes.length);
+		file.write(200, bytes, 50, 10);
+
+		byte[] actual = new byte[100];
+		file.read(10, actual, 0, actual.length);
+		assertArrayEquals(bytes, actual);
+
+		actual = new byte[12];
+		file.read(198, actual, 0, actual.length);
+		assertArrayEquals(new byte[] { 0, 0, 50, 51, 52, 53, 54, 55, 56, 57, 58, 59 }, actual);
+
+		Path path = file.getFile();
+		file.clear();
+		assertEquals(path, file.getFile());
+		file.read(10, actual, 0, actual.length);
+		assertArrayEquals(new byte[12], actual);
+
+		file.close();
+		assertFalse(Files.exists(path));
+	}
+
+	private static String repeat(int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			builder.append((char) ('a' + i % 26));
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,106 @@
+package tasmod.virtual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.virtual.KeySet;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+
+class KeySetTest {
+
+	/**
+	 * Test that keycodes are kept in the order they were added, including negative keycodes and keycodes outside of the bits
+	 */
+	@Test
+	void testOrder() {
+		KeySet actual = new KeySet();
+		assertTrue(actual.add(VirtualKey.W.getKeycode()));
+		assertTrue(actual.add(VirtualKey.LC.getKeycode()));
+		assertTrue(actual.add(1000));
+		assertTrue(actual.add(VirtualKey.A.getKeycode()));
+		assertFalse(actual.add(VirtualKey.W.getKeycode()));
+		assertFalse(actual.add(1000));
+
+		assertIterableEquals(Arrays.asList(17, -100, 1000, 30), actual);
+		assertTrue(actual.contains(-100));
+		assertTrue(actual.contains(1000));
+		assertFalse(actual.contains(VirtualKey.S.getKeycode()));
+
+		assertTrue(actual.remove(-100));
+		assertTrue(actual.remove((Object) 1000));
+		assertFalse(actual.remove(1000));
+		assertFalse(actual.contains(1000));
+		assertIterableEquals(Arrays.asList(17, 30), actual);
+		assertEquals(30, actual.get(1));
+
+		actual.clear();
+		assertTrue(actual.isEmpty());
+		assertFalse(actual.contains(17));
+	}
+
+	/**
+	 * Test removing keycodes while iterating
+	 */
+	@Test
+	void testIteratorRemove() {
+		KeySet actual = new KeySet(Arrays.asList(1, 2, 3, 4));
+		Iterator<Integer> iterator = actual.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next() % 2 == 0) {
+				iterator.remove();
+			}
+		}
+		assertIterableEquals(Arrays.asList(1, 3), actual);
+	}
+
+	/**
+	 * Test that equals ignores the order and works with other sets
+	 */
+	@Test
+	void testEquals() {
+		KeySet a = new KeySet(Arrays.asList(17, -100, 1000));
+		KeySet b = new KeySet(Arrays.asList(1000, 17, -100));
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		assertEquals(new HashSet<>(a), a);
+		assertEquals(a, new HashSet<>(a));
+
+		b.remove(1000);
+		b.add(1001);
+		assertNotEquals(a, b);
+		assertTrue(a.containsAll(new KeySet(Arrays.asList(17, 1000))));
+		assertFalse(a.containsAll(b));
+	}
+
+	/**
+	 * Test that the missing keycodes are found in the order of the set
+	 */
+	@Test
+	void testForEachMissing() {
+		KeySet current = new KeySet(Arrays.asList(17, 30, -100, 500));
+		KeySet next = new KeySet(Arrays.asList(32, 17, 31, 500));
+
+		List<Integer> released = new ArrayList<>();
+		current.forEachMissing(next, released::add);
+		assertIterableEquals(Arrays.asList(30, -100), released);
+
+		List<Integer> pressed = new ArrayList<>();
+		next.forEachMissing(current, pressed::add);
+		assertIterableEquals(Arrays.asList(32, 31), pressed);
+
+		List<Integer> none = new ArrayList<>();
+		current.forEachMissing(new KeySet(current), none::add);
+		assertTrue(none.isEmpty());
+	}
+}
@@ -0,0 +1,159 @@
+package tasmod.virtual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.CommentContainer;
+import com.minecrafttas.tasmod.playback.PlaybackControllerClient.TickContainer;
+import com.minecrafttas.tasmod.virtual.VirtualCameraAngle;
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+import com.minecrafttas.tasmod.virtual.VirtualKeyboard;
+import com.minecrafttas.tasmod.virtual.VirtualMouse;
+
+public class SerialisedPeripheralTest {
+
+	/**
+	 * Test serialising a keyboard with subticks, characters and the order of the pressed keys
+	 */
+	@Test
+	void testKeyboard() throws Exception {
+		VirtualKeyboard expected = new VirtualKeyboard();
+		expected.updateFromEvent(VirtualKey.W, true, 'w');
+		expected.updateFromEvent(VirtualKey.LSHIFT, true, Character.MIN_VALUE);
+		expected.updateFromEvent(VirtualKey.A, true, 'A');
+
+		VirtualKeyboard actual = roundTrip(expected);
+
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals(expected.getAllSize(), actual.getAllSize());
+		for (int i = 0; i < expected.getAllSize(); i++) {
+			assertIterableEquals(new ArrayList<>(expected.getFromAll(i).getPressedKeys()), new ArrayList<>(actual.getFromAll(i).getPressedKeys()));
+			assertIterableEquals(expected.getFromAll(i).getCharList(), actual.getFromAll(i).getCharList());
+		}
+		assertFalse(actual.getSubticks().get(0).isParent());
+	}
+
+	/**
+	 * Test serialising keycodes outside of the range of a short, which TASfiles can contain
+	 */
+	@Test
+	void testKeycodeOutOfRange() throws Exception {
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromEvent(70000, true, 'a');
+		keyboard.updateFromEvent(-40000, true, Character.MIN_VALUE);
+		VirtualMouse mouse = new VirtualMouse();
+		mouse.updateFromEvent(Integer.MAX_VALUE, true, 0, 0, 0);
+
+		VirtualKeyboard actualKeyboard = roundTrip(keyboard);
+		assertIterableEquals(new ArrayList<>(keyboard.getPressedKeys()), new ArrayList<>(actualKeyboard.getPressedKeys()));
+		assertEquals(keyboard, actualKeyboard);
+
+		TickContainer actual = roundTrip(new TickContainer(keyboard, mouse, new VirtualCameraAngle()));
+		assertIterableEquals(new ArrayList<>(mouse.getPressedKeys()), new ArrayList<>(actual.getMouse().getPressedKeys()));
+		assertEquals(keyboard, actual.getKeyboard());
+	}
+
+	/**
+	 * Test serialising a subtick mouse, which has to stay a subtick
+	 */
+	@Test
+	void testMouse() throws Exception {
+		VirtualMouse parent = new VirtualMouse();
+		parent.updateFromEvent(VirtualKey.LC, true, 15, 100, 200);
+		parent.updateFromEvent(VirtualKey.MOUSEMOVED, false, -120, -5, 0);
+
+		VirtualMouse actual = roundTrip(parent);
+		assertEquals(parent.toString(), actual.toString());
+		assertTrue(actual.isParent());
+
+		VirtualMouse subtick = roundTrip(parent.getSubticks().get(0));
+		assertEquals(parent.getSubticks().get(0), subtick);
+		assertFalse(subtick.isParent());
+	}
+
+	/**
+	 * Test serialising camera angles that are null
+	 */
+	@Test
+	void testCameraAngle() throws Exception {
+		VirtualCameraAngle expected = new VirtualCameraAngle();
+		VirtualCameraAngle actual = roundTrip(expected);
+		assertNull(actual.getPitch());
+		assertNull(actual.getYaw());
+
+		expected.set(0f, 0f);
+		expected.updateFromEvent(1.5f, -20f);
+		actual = roundTrip(expected);
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	/**
+	 * Test serialising a tick with comments, that contain null and characters outside of ASCII
+	 */
+	@Test
+	void testTickContainer() throws Exception {
+		VirtualKeyboard keyboard = new VirtualKeyboard();
+		keyboard.updateFromEvent(VirtualKey.W, true, 'w');
+		VirtualMouse mouse = new VirtualMouse();
+		mouse.updateFromEvent(VirtualKey.RC, true, 0, 1, 2);
+		VirtualCameraAngle camera = new VirtualCameraAngle(0f, 0f, true);
+		camera.updateFromEvent(1, 2);
+
+		CommentContainer comments = new CommentContainer();
+		comments.addInlineComment("Ünïcödé");
+		comments.addEndlineComment(null);
+		comments.addEndlineComment("Endline");
+		TickContainer expected = new TickContainer(keyboard, mouse, camera, comments);
+
+		TickContainer actual = roundTrip(expected);
+		assertEquals(expected, actual);
+		assertEquals(expected.toString(), actual.toString());
+		assertIterableEquals(comments.getEndlineComments(), actual.getComments().getEndlineComments());
+	}
+
+	/**
+	 * Test that a tick from a newer version can't be read
+	 */
+	@Test
+	void testVersion() throws Exception {
+		byte[] bytes = serialise(new TickContainer());
+		// The version is followed by the 43 bytes of an empty tick and the end of the block data
+		bytes[bytes.length - 1 - 43 - 1] = 3;
+
+		assertThrows(InvalidObjectException.class, () -> deserialise(bytes));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T object) throws IOException, ClassNotFoundException {
+		return (T) deserialise(serialise(object));
+	}
+
+	private static byte[] serialise(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(object);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialise(byte[] bytes) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return in.readObject();
+		}
+	}
+}
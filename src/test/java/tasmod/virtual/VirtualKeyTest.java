@@ -0,0 +1,42 @@
+package tasmod.virtual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.minecrafttas.tasmod.virtual.VirtualKey;
+
+class VirtualKeyTest {
+
+	/**
+	 * Test that every key is found by its keycode and by its name in any case
+	 */
+	@Test
+	void testGet() {
+		for (VirtualKey key : VirtualKey.values()) {
+			assertEquals(key, VirtualKey.get(key.getKeycode()));
+			assertEquals(key, VirtualKey.get(key.name()));
+			assertEquals(key, VirtualKey.get(key.name().toLowerCase()));
+			assertEquals(key.getKeycode(), VirtualKey.getKeycode(key.name()));
+			assertEquals(key.name(), VirtualKey.getName(key.getKeycode()));
+		}
+		assertEquals(VirtualKey.LSHIFT, VirtualKey.get("lShift"));
+	}
+
+	/**
+	 * Test keycodes and names that don't belong to a key
+	 */
+	@Test
+	void testUnknown() {
+		assertNull(VirtualKey.get(VirtualKey.MOUSEMOVED.getKeycode() - 1));
+		assertNull(VirtualKey.get(1000));
+		assertNull(VirtualKey.get(-1000));
+		assertEquals("1000", VirtualKey.getName(1000));
+
+		assertNull(VirtualKey.get(""));
+		assertNull(VirtualKey.get("WW"));
+		assertNull(VirtualKey.get("LSHIFT "));
+		assertNull(VirtualKey.getKeycode("Unknown"));
+	}
+}